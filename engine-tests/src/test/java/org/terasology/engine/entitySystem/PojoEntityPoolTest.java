@@ -2,6 +2,7 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.engine.entitySystem;
 
+import com.google.common.collect.Lists;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,7 @@
 import org.terasology.engine.entitySystem.entity.internal.PojoEntityManager;
 import org.terasology.engine.entitySystem.entity.internal.PojoEntityPool;
 import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.logic.location.LocationComponent;
 import org.terasology.engine.entitySystem.prefab.internal.PojoPrefab;
 import org.terasology.engine.network.NetworkMode;
 import org.terasology.engine.network.NetworkSystem;
@@ -23,7 +25,10 @@
 import org.terasology.gestalt.assets.management.AssetManager;
 import org.terasology.gestalt.assets.module.ModuleAwareAssetTypeManager;
 import org.terasology.gestalt.assets.module.ModuleAwareAssetTypeManagerImpl;
+import org.terasology.unittest.stubs.IntegerComponent;
+import org.terasology.unittest.stubs.StringComponent;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -81,4 +86,19 @@ public void testRemove() {
         assertFalse(pool.contains(ref.getId()));
     }
 
+    @Test
+    public void testGetEntitiesWithMultipleComponents() {
+        EntityRef both = pool.create(new StringComponent("both"), new IntegerComponent(1));
+        pool.create(new StringComponent("string only"));
+        pool.create(new IntegerComponent(2));
+
+        assertEquals(Lists.newArrayList(both),
+                Lists.newArrayList(pool.getEntitiesWith(StringComponent.class, IntegerComponent.class)));
+        assertEquals(Lists.newArrayList(both),
+                Lists.newArrayList(pool.getEntitiesWith(IntegerComponent.class, StringComponent.class)));
+        assertEquals(1, pool.getCountOfEntitiesWith(new Class[]{StringComponent.class, IntegerComponent.class}));
+        assertEquals(0, pool.getCountOfEntitiesWith(new Class[]{StringComponent.class, LocationComponent.class}));
+        assertFalse(pool.getEntitiesWith(StringComponent.class, LocationComponent.class).iterator().hasNext());
+    }
+
 }
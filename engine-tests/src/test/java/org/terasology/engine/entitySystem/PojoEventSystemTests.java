@@ -27,6 +27,7 @@
 import org.terasology.unittest.stubs.IntegerComponent;
 import org.terasology.unittest.stubs.StringComponent;
 
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -191,6 +192,60 @@ public void testEventReceiverRegistration() {
         assertEquals(1, receiver.eventList.size());
     }
 
+    @Test
+    public void testHandlerRegisteredAfterSendReceivesEvent() {
+        entity.addComponent(new StringComponent());
+        TestEventHandler handler = new TestEventHandler();
+        eventSystem.registerEventHandler(handler);
+        eventSystem.send(entity, new TestEvent());
+
+        TestHighPriorityEventHandler laterHandler = new TestHighPriorityEventHandler();
+        eventSystem.registerEventHandler(laterHandler);
+        eventSystem.send(entity, new TestEvent());
+        assertEquals(2, handler.receivedList.size());
+        assertEquals(1, laterHandler.receivedList.size());
+
+        eventSystem.unregisterEventHandler(handler);
+        eventSystem.send(entity, new TestEvent());
+        assertEquals(2, handler.receivedList.size());
+        assertEquals(2, laterHandler.receivedList.size());
+    }
+
+    @Test
+    public void testComponentParametersPassedToHandler() {
+        StringComponent stringComponent = new StringComponent("value");
+        IntegerComponent integerComponent = new IntegerComponent(1);
+        entity.addComponent(stringComponent);
+        entity.addComponent(integerComponent);
+        TestComponentParameterEventHandler handler = new TestComponentParameterEventHandler();
+        eventSystem.registerEventHandler(handler);
+
+        eventSystem.send(entity, new TestEvent());
+        assertEquals(Lists.newArrayList(stringComponent, stringComponent, integerComponent), handler.receivedComponents);
+    }
+
+    @Test
+    public void testNestedSendsOfEventWithManyHandlers() {
+        entity.addComponent(new StringComponent());
+        EntityRef other = entityManager.create();
+        other.addComponent(new IntegerComponent());
+        List<EntityRef> stringReceived = Lists.newArrayList();
+        List<EntityRef> integerReceived = Lists.newArrayList();
+        eventSystem.registerEventReceiver((TestEvent event, EntityRef target) -> other.send(new TestEvent()),
+                TestEvent.class, EventPriority.PRIORITY_HIGH, StringComponent.class);
+        // more handlers than fit into a single selection mask
+        for (int i = 0; i < 40; i++) {
+            eventSystem.registerEventReceiver((TestEvent event, EntityRef target) -> stringReceived.add(target),
+                    TestEvent.class, StringComponent.class);
+            eventSystem.registerEventReceiver((TestEvent event, EntityRef target) -> integerReceived.add(target),
+                    TestEvent.class, IntegerComponent.class);
+        }
+
+        entity.send(new TestEvent());
+        assertEquals(Collections.nCopies(40, entity), stringReceived);
+        assertEquals(Collections.nCopies(40, other), integerReceived);
+    }
+
     private static class TestEvent extends AbstractConsumableEvent {
 
     }
@@ -314,6 +369,24 @@ public Received(TestEvent event, EntityRef entity) {
         }
     }
 
+    public static class TestComponentParameterEventHandler extends BaseComponentSystem {
+
+        List<Object> receivedComponents = Lists.newArrayList();
+
+        @ReceiveEvent
+        public void handleOneComponent(TestEvent event, EntityRef entity, StringComponent stringComponent) {
+            receivedComponents.add(stringComponent);
+        }
+
+        @Priority(EventPriority.PRIORITY_LOW)
+        @ReceiveEvent
+        public void handleTwoComponents(TestEvent event, EntityRef entity, StringComponent stringComponent,
+                                        IntegerComponent integerComponent) {
+            receivedComponents.add(stringComponent);
+            receivedComponents.add(integerComponent);
+        }
+    }
+
     public static class TestEventReceiver implements EventReceiver<TestEvent> {
         List<Event> eventList = Lists.newArrayList();
 
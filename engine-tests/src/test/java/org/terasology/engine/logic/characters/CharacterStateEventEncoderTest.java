@@ -0,0 +1,105 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.logic.characters;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CharacterStateEventEncoderTest {
+    private static final float POSITION_EPSILON = 1 / CharacterStateEventEncoder.POSITION_SCALE;
+    private static final float ROTATION_EPSILON = 0.002f;
+
+    private final CharacterStateEventEncoder encoder = new CharacterStateEventEncoder();
+
+    @Test
+    public void testFullStateRoundTrip() throws IOException {
+        CharacterStateEvent state = new CharacterStateEvent(123456789L, 42, new Vector3f(-40.3f, 70.9f, 1000.01f),
+                new Quaternionf().rotateY(2.5f), new Vector3f(3.2f, -9.81f, 0.1f), 143.2f, -12.5f,
+                MovementMode.SWIMMING, true);
+        state.setClimbDirection(new Vector3i(0, 0, -1));
+        state.setFootstepDelta(0.75f);
+
+        Encoded encoded = encode(state, null);
+        CharacterStateEvent decoded = encoder.decode(null, encoded.data.newCodedInput());
+
+        assertEquals(state.getTime(), decoded.getTime());
+        assertEquals(state.getSequenceNumber(), decoded.getSequenceNumber());
+        assertTrue(state.getPosition().equals(decoded.getPosition(), POSITION_EPSILON));
+        assertTrue(Math.abs(state.getRotation().dot(decoded.getRotation())) > 1 - ROTATION_EPSILON);
+        assertTrue(state.getVelocity().equals(decoded.getVelocity(), 1 / CharacterStateEventEncoder.VELOCITY_SCALE));
+        assertEquals(state.getYaw(), decoded.getYaw(), 1 / CharacterStateEventEncoder.ANGLE_SCALE);
+        assertEquals(state.getPitch(), decoded.getPitch(), 1 / CharacterStateEventEncoder.ANGLE_SCALE);
+        assertEquals(MovementMode.SWIMMING, decoded.getMode());
+        assertTrue(decoded.isGrounded());
+        assertEquals(new Vector3i(0, 0, -1), decoded.getClimbDirection());
+        assertEquals(0.75f, decoded.getFootstepDelta());
+        assertStatesEqual(encoded.decoded, decoded);
+    }
+
+    @Test
+    public void testDeltaAgainstPreviousState() throws IOException {
+        CharacterStateEvent first = new CharacterStateEvent(1000, 1, new Vector3f(31.9f, 10, 5),
+                new Quaternionf(), new Vector3f(4, 0, 0), 90, 0, MovementMode.WALKING, true);
+        CharacterStateEvent second = new CharacterStateEvent(first);
+        second.setTime(1050);
+        second.getPosition().add(0.2f, 0, 0);
+
+        Encoded full = encode(first, null);
+        CharacterStateEvent previous = encoder.decode(null, full.data.newCodedInput());
+        Encoded delta = encode(second, previous);
+        CharacterStateEvent decoded = encoder.decode(previous, delta.data.newCodedInput());
+
+        assertTrue(delta.data.size() < full.data.size() / 2);
+        assertEquals(1050, decoded.getTime());
+        assertEquals(2, decoded.getSequenceNumber());
+        assertTrue(second.getPosition().equals(decoded.getPosition(), POSITION_EPSILON));
+        assertEquals(90, decoded.getYaw());
+        assertNull(decoded.getClimbDirection());
+        assertStatesEqual(delta.decoded, decoded);
+    }
+
+    @Test
+    public void testRotationPacking() {
+        Quaternionf rotation = new Quaternionf().rotateXYZ(-0.4f, 2.9f, 1.3f);
+        Quaternionf unpacked = CharacterStateEventEncoder.unpackRotation(
+                CharacterStateEventEncoder.packRotation(rotation), new Quaternionf());
+        assertTrue(Math.abs(rotation.dot(unpacked)) > 1 - ROTATION_EPSILON);
+    }
+
+    private Encoded encode(CharacterStateEvent state, CharacterStateEvent previous) throws IOException {
+        ByteString.Output data = ByteString.newOutput();
+        CodedOutputStream out = CodedOutputStream.newInstance(data);
+        Encoded encoded = new Encoded();
+        encoded.decoded = encoder.encode(state, previous, out);
+        out.flush();
+        encoded.data = data.toByteString();
+        return encoded;
+    }
+
+    private static void assertStatesEqual(CharacterStateEvent expected, CharacterStateEvent actual) {
+        assertEquals(expected.getTime(), actual.getTime());
+        assertEquals(expected.getSequenceNumber(), actual.getSequenceNumber());
+        assertEquals(expected.getPosition(), actual.getPosition());
+        assertEquals(expected.getRotation(), actual.getRotation());
+        assertEquals(expected.getVelocity(), actual.getVelocity());
+        assertEquals(expected.getYaw(), actual.getYaw());
+        assertEquals(expected.getPitch(), actual.getPitch());
+        assertEquals(expected.getMode(), actual.getMode());
+        assertEquals(expected.isGrounded(), actual.isGrounded());
+    }
+
+    private static final class Encoded {
+        private ByteString data;
+        private CharacterStateEvent decoded;
+    }
+}
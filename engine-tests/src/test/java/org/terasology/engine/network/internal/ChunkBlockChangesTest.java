@@ -0,0 +1,81 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import org.joml.Vector3i;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockEditBuffer;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.protobuf.NetData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkBlockChangesTest {
+    private final Block stone = mock(Block.class);
+    private final Block dirt = mock(Block.class);
+    private BlockManager blockManager;
+
+    @BeforeEach
+    public void setup() {
+        blockManager = mock(BlockManager.class);
+        when(blockManager.getBlock(anyShort())).thenAnswer(invocation -> {
+            short id = invocation.getArgument(0);
+            return id == 1 ? stone : dirt;
+        });
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Vector3i chunkPos = new Vector3i(-1, 0, 2);
+        ChunkBlockChanges changes = new ChunkBlockChanges(chunkPos);
+        changes.set(new Vector3i(-1, 5, 64), (short) 2);
+        changes.set(new Vector3i(-32, 0, 64), (short) 1);
+        changes.set(new Vector3i(-5, Chunks.SIZE_Y - 1, 95), (short) 2);
+
+        BlockEditBuffer edits = new BlockEditBuffer();
+        ChunkBlockChanges.decode(changes.encode(), blockManager, edits);
+
+        assertEquals(3, edits.size());
+        assertEquals(new Vector3i(-32, 0, 64), edits.getPosition(0, new Vector3i()));
+        assertSame(stone, edits.getBlock(0));
+        assertEquals(new Vector3i(-1, 5, 64), edits.getPosition(1, new Vector3i()));
+        assertSame(dirt, edits.getBlock(1));
+        assertEquals(new Vector3i(-5, Chunks.SIZE_Y - 1, 95), edits.getPosition(2, new Vector3i()));
+        assertSame(dirt, edits.getBlock(2));
+    }
+
+    @Test
+    public void testLastChangeOfBlockWins() {
+        ChunkBlockChanges changes = new ChunkBlockChanges(new Vector3i());
+        changes.set(new Vector3i(1, 2, 3), (short) 1);
+        changes.set(new Vector3i(1, 2, 3), (short) 2);
+
+        assertEquals(1, changes.size());
+        BlockEditBuffer edits = new BlockEditBuffer();
+        ChunkBlockChanges.decode(changes.encode(), blockManager, edits);
+        assertEquals(1, edits.size());
+        assertSame(dirt, edits.getBlock(0));
+    }
+
+    @Test
+    public void testAdjacentChangesToSameBlockShareRun() {
+        ChunkBlockChanges changes = new ChunkBlockChanges(new Vector3i());
+        for (int x = 0; x < Chunks.SIZE_X; x++) {
+            changes.set(new Vector3i(x, 0, 0), (short) 1);
+        }
+        changes.set(new Vector3i(0, 1, 0), (short) 2);
+
+        NetData.ChunkBlockChangesMessage message = changes.encode();
+        assertEquals(2, message.getPaletteCount());
+        assertEquals(2, message.getRunLengthsCount());
+        assertEquals(Chunks.SIZE_X, message.getRunLengths(0));
+        assertEquals(Chunks.SIZE_X + 1, message.getIndexDeltasCount());
+    }
+}
@@ -0,0 +1,56 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.chunks.Chunk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ChunkSendQueueTest {
+    private final Chunk near = mock(Chunk.class);
+    private final Chunk middle = mock(Chunk.class);
+    private final Chunk far = mock(Chunk.class);
+
+    @Test
+    public void testClosestChunksComeFirst() {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        queue.add(new Vector3i(5, 0, 0), far);
+        queue.add(new Vector3i(0, 0, 1), near);
+        queue.add(new Vector3i(0, 3, 0), middle);
+
+        assertSame(near, queue.poll());
+        assertSame(middle, queue.poll());
+        assertSame(far, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testMovingCenterReordersChunks() {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        queue.add(new Vector3i(5, 0, 0), far);
+        queue.add(new Vector3i(0, 0, 1), near);
+
+        queue.setCenter(new Vector3i(6, 0, 0));
+        assertSame(far, queue.poll());
+        assertSame(near, queue.poll());
+    }
+
+    @Test
+    public void testRemovedChunksAreSkipped() {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        queue.add(new Vector3i(0, 0, 1), near);
+        queue.add(new Vector3i(5, 0, 0), far);
+        queue.remove(new Vector3i(0, 0, 1));
+        assertEquals(1, queue.size());
+
+        assertSame(far, queue.poll());
+        assertNull(queue.poll());
+    }
+}
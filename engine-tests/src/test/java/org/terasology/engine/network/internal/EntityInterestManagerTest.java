@@ -0,0 +1,107 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class EntityInterestManagerTest {
+    private static final Vector3ic VIEW_DISTANCE = new Vector3i(5, 5, 5);
+
+    private final EntityInterestManager interest = new EntityInterestManager();
+    private final NetClient client = mock(NetClient.class);
+    private final TIntList entered = new TIntArrayList();
+    private final TIntList left = new TIntArrayList();
+
+    @Test
+    public void testOnlyNearbyEntitiesEnter() {
+        interest.updateEntity(1, new Vector3i(2, 0, 0), false);
+        interest.updateEntity(2, new Vector3i(3, 0, 0), false);
+        interest.updateEntity(3, null, false);
+
+        update(new Vector3i(0, 0, 0));
+        assertEquals(new TIntArrayList(new int[]{1, 3}), sorted(entered));
+        assertTrue(interest.getInterestedClients(1).contains(client));
+        assertTrue(interest.getInterestedClients(2).isEmpty());
+    }
+
+    @Test
+    public void testOnlyNearbyEntitiesEnterAmongManyOccupiedCells() {
+        // More occupied cells than within the view distance, so the cells around the client get looked up
+        for (int i = 0; i < 200; i++) {
+            interest.updateEntity(100 + i, new Vector3i(10 + i, 0, 0), false);
+        }
+        interest.updateEntity(1, new Vector3i(-2, 2, 2), false);
+        interest.updateEntity(2, new Vector3i(0, -3, 0), false);
+
+        update(new Vector3i(0, 0, 0));
+        assertEquals(new TIntArrayList(new int[]{1}), entered);
+
+        update(new Vector3i(12, 0, 0));
+        assertEquals(new TIntArrayList(new int[]{100, 101, 102, 103, 104}), sorted(entered));
+    }
+
+    @Test
+    public void testEntitiesLeaveWithHysteresis() {
+        interest.updateEntity(1, new Vector3i(2, 0, 0), false);
+        update(new Vector3i(0, 0, 0));
+
+        interest.updateEntity(1, new Vector3i(2 + EntityInterestManager.HYSTERESIS_CHUNKS, 0, 0), false);
+        update(new Vector3i(0, 0, 0));
+        assertTrue(left.isEmpty());
+
+        interest.updateEntity(1, new Vector3i(3 + EntityInterestManager.HYSTERESIS_CHUNKS, 0, 0), false);
+        update(new Vector3i(0, 0, 0));
+        assertEquals(new TIntArrayList(new int[]{1}), left);
+        assertTrue(interest.getInterestedClients(1).isEmpty());
+
+        update(new Vector3i(2, 0, 0));
+        assertEquals(new TIntArrayList(new int[]{1}), entered);
+    }
+
+    @Test
+    public void testRemoveEntityReturnsInterestedClients() {
+        interest.updateEntity(1, new Vector3i(0, 0, 0), true);
+        update(new Vector3i(0, 0, 0));
+        assertEquals(1, interest.getAttachedEntities().length);
+
+        assertTrue(interest.removeEntity(1).contains(client));
+        assertFalse(interest.isTracked(1));
+        assertEquals(0, interest.getAttachedEntities().length);
+
+        update(new Vector3i(0, 0, 0));
+        assertTrue(entered.isEmpty());
+        assertTrue(left.isEmpty());
+    }
+
+    @Test
+    public void testRemovedClientIsForgotten() {
+        interest.updateEntity(1, null, false);
+        update(new Vector3i(0, 0, 0));
+        interest.removeClient(client);
+        assertTrue(interest.getInterestedClients(1).isEmpty());
+
+        update(new Vector3i(0, 0, 0));
+        assertEquals(new TIntArrayList(new int[]{1}), entered);
+    }
+
+    private void update(Vector3ic center) {
+        entered.clear();
+        left.clear();
+        interest.updateClient(client, center, VIEW_DISTANCE, entered, left);
+    }
+
+    private static TIntList sorted(TIntList list) {
+        TIntList copy = new TIntArrayList(list);
+        copy.sort();
+        return copy;
+    }
+}
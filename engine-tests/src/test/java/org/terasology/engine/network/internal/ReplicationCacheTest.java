@@ -0,0 +1,135 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.entitySystem.ComponentContainer;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.metadata.ComponentLibrary;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.network.NetworkComponent;
+import org.terasology.engine.persistence.serializers.EventSerializer;
+import org.terasology.engine.persistence.serializers.NetworkEntitySerializer;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.Event;
+import org.terasology.protobuf.EntityData;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReplicationCacheTest {
+    private final EntityRef entity = mock(EntityRef.class);
+    private NetworkEntitySerializer entitySerializer;
+    private EventSerializer eventSerializer;
+    private ReplicationCache cache;
+    private MetricRecordingHandler metrics;
+
+    @BeforeEach
+    public void setup() {
+        entitySerializer = mock(NetworkEntitySerializer.class);
+        eventSerializer = mock(EventSerializer.class);
+        when(entitySerializer.getComponentLibrary()).thenReturn(mock(ComponentLibrary.class));
+        when(entitySerializer.serialize(any(ComponentContainer.class), any(), anyBoolean(), any()))
+                .thenAnswer(invocation -> EntityData.PackedEntity.newBuilder());
+        when(entitySerializer.serialize(any(ComponentContainer.class), anySet(), anySet(), anySet(), any()))
+                .thenAnswer(invocation -> EntityData.PackedEntity.newBuilder().build());
+        when(eventSerializer.serialize(any(Event.class)))
+                .thenAnswer(invocation -> EntityData.Event.newBuilder().build());
+        cache = new ReplicationCache(entitySerializer, eventSerializer);
+        metrics = new MetricRecordingHandler();
+    }
+
+    @Test
+    public void testCapturedEntityIsEncodedWhenSupplied() {
+        Supplier<EntityData.PackedEntity> initial = cache.captureInitialEntity(entity, 1, false, metrics);
+        verify(entitySerializer, never()).serialize(any(ComponentContainer.class), any(), anyBoolean(), any());
+
+        initial.get();
+        verify(entitySerializer).serialize(any(ComponentContainer.class), any(), anyBoolean(), any());
+        verify(entitySerializer, never()).serialize(any(EntityRef.class), anyBoolean(), any());
+    }
+
+    @Test
+    public void testInitialEntityIsSharedPerOwnership() {
+        EntityData.PackedEntity first = getInitialEntity(1, false);
+        assertSame(first, getInitialEntity(1, false));
+        assertNotSame(first, getInitialEntity(1, true));
+        assertNotSame(first, getInitialEntity(2, false));
+
+        verify(entitySerializer, times(3)).serialize(any(ComponentContainer.class), any(), anyBoolean(), any());
+        assertEquals(1, metrics.getReplicationCacheHitsSinceLastCall());
+        assertEquals(3, metrics.getReplicationCacheMissesSinceLastCall());
+    }
+
+    @Test
+    public void testUpdatesAreKeyedByComponentSets() {
+        Set<Class<? extends Component>> changed = Sets.newHashSet(LocationComponent.class);
+        Set<Class<? extends Component>> none = Collections.emptySet();
+        EntityData.PackedEntity first = getEntityUpdate(false, none, changed);
+        assertSame(first, getEntityUpdate(false, none, Sets.newHashSet(changed)));
+        getEntityUpdate(false, none, Sets.newHashSet(NetworkComponent.class));
+
+        verify(entitySerializer, times(2))
+                .serialize(any(ComponentContainer.class), anySet(), anySet(), anySet(), any());
+        assertEquals(1, metrics.getReplicationCacheHitsSinceLastCall());
+    }
+
+    @Test
+    public void testEmptyUpdatesAreCached() {
+        when(entitySerializer.serialize(any(ComponentContainer.class), anySet(), anySet(), anySet(), any()))
+                .thenReturn(null);
+        Set<Class<? extends Component>> none = Collections.emptySet();
+        assertNull(getEntityUpdate(true, none, none));
+        assertNull(getEntityUpdate(true, none, none));
+
+        verify(entitySerializer, times(1))
+                .serialize(any(ComponentContainer.class), anySet(), anySet(), anySet(), any());
+    }
+
+    @Test
+    public void testInvalidateDropsEntriesOfEntity() {
+        EntityData.PackedEntity first = getInitialEntity(1, false);
+        EntityData.PackedEntity other = getInitialEntity(2, false);
+        cache.invalidate(1);
+        assertNotSame(first, getInitialEntity(1, false));
+        assertSame(other, getInitialEntity(2, false));
+    }
+
+    @Test
+    public void testClearDropsEntries() {
+        Event event = mock(Event.class);
+        EntityData.Event first = cache.getEvent(event, metrics);
+        assertSame(first, cache.getEvent(event, metrics));
+        cache.clear();
+        assertNotSame(first, cache.getEvent(event, metrics));
+
+        verify(eventSerializer, times(2)).serialize(event);
+        assertEquals(1, metrics.getReplicationCacheHitsSinceLastCall());
+        assertEquals(2, metrics.getReplicationCacheMissesSinceLastCall());
+    }
+
+    private EntityData.PackedEntity getInitialEntity(int netId, boolean owned) {
+        return cache.captureInitialEntity(entity, netId, owned, metrics).get();
+    }
+
+    private EntityData.PackedEntity getEntityUpdate(boolean owned, Set<Class<? extends Component>> added,
+                                                    Set<Class<? extends Component>> changed) {
+        return cache.captureEntityUpdate(entity, 1, owned, added, changed, Collections.emptySet(), metrics).get();
+    }
+}
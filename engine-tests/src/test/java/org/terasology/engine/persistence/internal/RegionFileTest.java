@@ -0,0 +1,155 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testUnwrittenChunkIsMissing() throws IOException {
+        try (RegionFile region = new RegionFile(tempDir.resolve("0.0.0.region"))) {
+            assertFalse(region.contains(0));
+            assertNull(region.read(0));
+        }
+    }
+
+    @Test
+    public void testWrittenChunkSurvivesReopening() throws IOException {
+        Path path = tempDir.resolve("0.0.0.region");
+        byte[] data = bytes(10000, 1);
+        try (RegionFile region = new RegionFile(path)) {
+            region.write(RegionFile.index(1, 2, 3), data);
+            assertArrayEquals(data, region.read(RegionFile.index(1, 2, 3)));
+        }
+        try (RegionFile region = new RegionFile(path)) {
+            assertTrue(region.contains(RegionFile.index(1, 2, 3)));
+            assertArrayEquals(data, region.read(RegionFile.index(1, 2, 3)));
+        }
+    }
+
+    @Test
+    public void testRewrittenChunkReusesSectors() throws IOException {
+        Path path = tempDir.resolve("0.0.0.region");
+        try (RegionFile region = new RegionFile(path)) {
+            region.write(0, bytes(3 * RegionFile.SECTOR_SIZE, 1));
+            region.write(1, bytes(100, 2));
+            region.write(0, bytes(3 * RegionFile.SECTOR_SIZE, 3));
+            long size = Files.size(path);
+            // fits into the sectors freed by the previous rewrite
+            region.write(0, bytes(2 * RegionFile.SECTOR_SIZE, 4));
+            assertEquals(size, Files.size(path));
+            assertArrayEquals(bytes(2 * RegionFile.SECTOR_SIZE, 4), region.read(0));
+            assertArrayEquals(bytes(100, 2), region.read(1));
+        }
+    }
+
+    @Test
+    public void testCacheMapsChunksToRegions() throws IOException {
+        StoragePathProvider storagePathProvider = new StoragePathProvider(tempDir);
+        RegionFileCache cache = new RegionFileCache(storagePathProvider, 1);
+        Vector3i first = new Vector3i(-1, 0, 5);
+        Vector3i second = new Vector3i(40, -17, 0);
+        cache.write(first, bytes(10, 1));
+        cache.write(second, bytes(20, 2));
+        assertEquals(1, cache.getOpenFileCount());
+        assertArrayEquals(bytes(10, 1), cache.read(first));
+        assertArrayEquals(bytes(20, 2), cache.read(second));
+        assertNull(cache.read(new Vector3i(100, 100, 100)));
+        cache.closeAll();
+        assertTrue(Files.isRegularFile(storagePathProvider.getChunkRegionPath(new Vector3i(-1, 0, 0))));
+        assertTrue(Files.isRegularFile(storagePathProvider.getChunkRegionPath(new Vector3i(2, -2, 0))));
+    }
+
+    @Test
+    public void testWrittenSectorsAreStoredOnlyOnceCommitted() throws IOException {
+        Path path = tempDir.resolve("0.0.0.region");
+        try (RegionFile region = new RegionFile(path)) {
+            region.write(0, bytes(100, 1));
+            int offset = region.writeSectors(bytes(200, 2));
+            assertArrayEquals(bytes(100, 1), region.read(0));
+
+            region.commit(0, offset, 200);
+            assertArrayEquals(bytes(200, 2), region.read(0));
+            // committing again, e.g. when replaying a journal, keeps the chunk
+            region.commit(0, offset, 200);
+            assertArrayEquals(bytes(200, 2), region.read(0));
+        }
+    }
+
+    @Test
+    public void testDiscardedSectorsAreReused() throws IOException {
+        Path path = tempDir.resolve("0.0.0.region");
+        try (RegionFile region = new RegionFile(path)) {
+            int discarded = region.writeSectors(bytes(RegionFile.SECTOR_SIZE, 1));
+            region.discard(discarded, RegionFile.SECTOR_SIZE);
+            assertEquals(discarded, region.writeSectors(bytes(100, 2)));
+        }
+    }
+
+    @Test
+    public void testMergeCommitsChunkJournal() throws IOException {
+        StoragePathProvider storagePathProvider = new StoragePathProvider(tempDir);
+        Vector3i chunkPos = new Vector3i(3, -1, 20);
+        RegionFileCache cache = new RegionFileCache(storagePathProvider);
+        cache.write(chunkPos, bytes(10, 1));
+        int offset = cache.writeSectors(chunkPos, bytes(30, 2));
+        Files.createDirectories(storagePathProvider.getUnmergedChangesPath());
+        ChunkJournal.save(storagePathProvider.getChunkJournalPath(),
+                Collections.singletonList(new ChunkJournal.Entry(chunkPos, offset, 30)));
+
+        // the journaled chunk must not be visible before the changes are merged
+        assertArrayEquals(bytes(10, 1), cache.read(chunkPos));
+        new SaveTransactionHelper(storagePathProvider, cache).mergeChanges();
+
+        assertArrayEquals(bytes(30, 2), cache.read(chunkPos));
+        assertFalse(Files.exists(storagePathProvider.getUnmergedChangesPath()));
+        cache.closeAll();
+    }
+
+    @Test
+    public void testMergeCommitsChunkJournalAfterReopening() throws IOException {
+        // the save got interrupted after writing its chunks, and is merged on the next start
+        StoragePathProvider storagePathProvider = new StoragePathProvider(tempDir);
+        Vector3i chunkPos = new Vector3i(3, -1, 20);
+        Path regionPath = storagePathProvider.getChunkRegionPath(storagePathProvider.getChunkRegionPosition(chunkPos));
+        Files.createDirectories(regionPath.getParent());
+        int offset;
+        try (RegionFile region = new RegionFile(regionPath)) {
+            offset = region.writeSectors(bytes(30, 2));
+        }
+        Files.createDirectories(storagePathProvider.getUnmergedChangesPath());
+        ChunkJournal.save(storagePathProvider.getChunkJournalPath(),
+                Collections.singletonList(new ChunkJournal.Entry(chunkPos, offset, 30)));
+
+        RegionFileCache cache = new RegionFileCache(storagePathProvider);
+        assertNull(cache.read(chunkPos));
+        new SaveTransactionHelper(storagePathProvider, cache).mergeChanges();
+
+        assertArrayEquals(bytes(30, 2), cache.read(chunkPos));
+        cache.closeAll();
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
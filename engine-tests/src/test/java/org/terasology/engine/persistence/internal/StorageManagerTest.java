@@ -311,6 +311,82 @@ public void testChunkSurvivesStorageSaveAndRestore() throws Exception {
         assertEquals(testBlock2, restored.getChunk().getBlock(0, 4, 2));
     }
 
+    @Test
+    public void testChunkChangedAfterSaveGetsSavedAgain() throws Exception {
+        Chunk chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
+        chunk.setBlock(0, 0, 0, testBlock);
+        chunk.markReady();
+        ChunkProvider chunkProvider = mock(ChunkProvider.class);
+        when(chunkProvider.getAllChunks()).thenReturn(List.of(chunk));
+        CoreRegistry.put(ChunkProvider.class, chunkProvider);
+
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        // unchanged, so this save skips the chunk
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        chunk.setBlock(0, 4, 2, testBlock2);
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        esm.finishSavingAndShutdown();
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        EngineEntityManager newEntityManager = context.get(EngineEntityManager.class);
+        StorageManager newSM = new ReadWriteStorageManager(savePath, moduleEnvironment, newEntityManager, blockManager,
+                extraDataManager, false, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+        newSM.loadGlobalStore();
+
+        ChunkStore restored = newSM.loadChunkStore(CHUNK_POS);
+        assertNotNull(restored);
+        assertEquals(testBlock, restored.getChunk().getBlock(0, 0, 0));
+        assertEquals(testBlock2, restored.getChunk().getBlock(0, 4, 2));
+    }
+
+    @Test
+    public void testChunkInRegionLoadsWithoutRegionStorage() throws Exception {
+        Chunk chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
+        chunk.setBlock(0, 0, 0, testBlock);
+        chunk.markReady();
+        ChunkProvider chunkProvider = mock(ChunkProvider.class);
+        when(chunkProvider.getAllChunks()).thenReturn(List.of(chunk));
+        CoreRegistry.put(ChunkProvider.class, chunkProvider);
+
+        esm.setStoreChunksInRegions(true);
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        esm.finishSavingAndShutdown();
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        EngineEntityManager newEntityManager = context.get(EngineEntityManager.class);
+        StorageManager newSM = new ReadWriteStorageManager(savePath, moduleEnvironment, newEntityManager, blockManager,
+                extraDataManager, true, false, recordAndReplaySerializer, recordAndReplayUtils,
+                recordAndReplayCurrentStatus);
+        newSM.loadGlobalStore();
+
+        ChunkStore restored = newSM.loadChunkStore(CHUNK_POS);
+        assertNotNull(restored);
+        assertEquals(testBlock, restored.getChunk().getBlock(0, 0, 0));
+    }
+
+    @Test
+    public void testHasChunkStoreFindsUnsavedAndSavedChunks() throws Exception {
+        Chunk chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
+        chunk.markReady();
+        CoreRegistry.put(ChunkProvider.class, mock(ChunkProvider.class));
+        assertFalse(esm.hasChunkStore(CHUNK_POS));
+
+        esm.storeGeneratedChunk(chunk, List.of());
+        assertTrue(esm.hasChunkStore(CHUNK_POS));
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        esm.finishSavingAndShutdown();
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        EngineEntityManager newEntityManager = context.get(EngineEntityManager.class);
+        StorageManager newSM = new ReadWriteStorageManager(savePath, moduleEnvironment, newEntityManager, blockManager,
+                extraDataManager, false, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+        assertTrue(newSM.hasChunkStore(CHUNK_POS));
+        assertFalse(newSM.hasChunkStore(new Vector3i(CHUNK_POS).add(1, 0, 0)));
+    }
+
     @Test
     public void testEntitySurvivesStorageInChunkStore() throws Exception {
         Chunk chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
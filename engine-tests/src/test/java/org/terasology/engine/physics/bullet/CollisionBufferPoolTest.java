@@ -0,0 +1,52 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.physics.bullet;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CollisionBufferPoolTest {
+
+    @Test
+    public void testAcquiredBufferHoldsAChunk() {
+        ByteBuffer buffer = new CollisionBufferPool(1).acquire();
+
+        assertTrue(buffer.isDirect());
+        assertEquals(ByteOrder.nativeOrder(), buffer.order());
+        assertEquals(CollisionBufferPool.BUFFER_SIZE, buffer.remaining());
+    }
+
+    @Test
+    public void testReleasedBufferIsReusedCleared() {
+        CollisionBufferPool pool = new CollisionBufferPool(1);
+        ByteBuffer buffer = pool.acquire();
+        buffer.position(10);
+        pool.release(buffer);
+
+        ByteBuffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        assertEquals(CollisionBufferPool.BUFFER_SIZE, reused.remaining());
+        assertNotSame(buffer, pool.acquire());
+    }
+
+    @Test
+    public void testOnlyKeepsMaxFreeBuffers() {
+        CollisionBufferPool pool = new CollisionBufferPool(1);
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.acquire());
+        ByteBuffer fresh = pool.acquire();
+        assertNotSame(first, fresh);
+        assertNotSame(second, fresh);
+    }
+}
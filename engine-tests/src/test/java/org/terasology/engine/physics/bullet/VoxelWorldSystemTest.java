@@ -0,0 +1,193 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.physics.bullet;
+
+import org.joml.Vector3i;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.context.internal.ContextImpl;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.physics.bullet.world.VoxelWorld;
+import org.terasology.engine.registry.InjectionHelper;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.chunks.ChunkPreparer;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
+import org.terasology.engine.world.chunks.event.OnChunkLoaded;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.fixtures.TestBlockManager;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VoxelWorldSystemTest {
+    private static final Vector3i CHUNK_POS = new Vector3i(1, 2, 3);
+    private static final Vector3i STONE_POS = new Vector3i(4, 5, 6);
+
+    private final List<ByteBuffer> acquiredBuffers = new ArrayList<>();
+    private CollisionBufferPool bufferPool;
+    private ChunkProvider chunkProvider;
+    private VoxelWorld collider;
+    private ChunkPreparer preparer;
+    private VoxelWorldSystem system;
+
+    private Block air;
+    private Block stone;
+    private ChunkImpl chunk;
+
+    @BeforeEach
+    public void setup() {
+        air = createBlock(0);
+        stone = createBlock(1);
+        BlockManager blockManager = new TestBlockManager(air, stone);
+        chunk = new ChunkImpl(CHUNK_POS, blockManager, new ExtraBlockDataManager());
+        chunk.setBlock(STONE_POS.x(), STONE_POS.y(), STONE_POS.z(), stone);
+
+        chunkProvider = mock(ChunkProvider.class);
+        when(chunkProvider.getChunk(CHUNK_POS)).thenReturn(chunk);
+        Context context = new ContextImpl();
+        context.put(ChunkProvider.class, chunkProvider);
+        context.put(BlockManager.class, blockManager);
+
+        bufferPool = spy(new CollisionBufferPool(4));
+        doAnswer(invocation -> {
+            ByteBuffer buffer = (ByteBuffer) invocation.callRealMethod();
+            acquiredBuffers.add(buffer);
+            return buffer;
+        }).when(bufferPool).acquire();
+
+        system = new VoxelWorldSystem(bufferPool);
+        InjectionHelper.inject(system, context);
+        collider = mock(VoxelWorld.class);
+        system.addColliders(collider);
+
+        ArgumentCaptor<ChunkPreparer> preparerCaptor = ArgumentCaptor.forClass(ChunkPreparer.class);
+        verify(chunkProvider).addChunkPreparer(preparerCaptor.capture());
+        preparer = preparerCaptor.getValue();
+    }
+
+    @Test
+    public void testPreparedChunkIsLoaded() {
+        preparer.prepare(chunk);
+        ShortBuffer loaded = loadChunk();
+
+        assertEquals(1, acquiredBuffers.size(), "The prepared buffer has to be used");
+        assertBlockIds(loaded);
+        verify(collider).registerBlock(air);
+        verify(collider).registerBlock(stone);
+    }
+
+    @Test
+    public void testChunkWithoutPreparedBufferIsLoaded() {
+        ShortBuffer loaded = loadChunk();
+
+        assertEquals(1, acquiredBuffers.size());
+        assertBlockIds(loaded);
+        verify(collider).registerBlock(air);
+        verify(collider).registerBlock(stone);
+    }
+
+    @Test
+    public void testChunkChangedAfterPreparingIsRebuilt() {
+        preparer.prepare(chunk);
+        chunk.setBlock(STONE_POS.x(), STONE_POS.y(), STONE_POS.z(), air);
+        ShortBuffer loaded = loadChunk();
+
+        assertEquals(2, acquiredBuffers.size());
+        verify(bufferPool).release(same(acquiredBuffers.get(0)));
+        while (loaded.hasRemaining()) {
+            assertEquals(air.getId(), loaded.get());
+        }
+        verify(collider, never()).registerBlock(stone);
+    }
+
+    @Test
+    public void testBufferIsReusedAfterUnload() {
+        preparer.prepare(chunk);
+        loadChunk();
+        system.onChunkUnloaded(new BeforeChunkUnload(CHUNK_POS), EntityRef.NULL);
+
+        verify(collider).unloadChunk(CHUNK_POS);
+        verify(bufferPool).release(same(acquiredBuffers.get(0)));
+
+        preparer.prepare(chunk);
+        assertSame(acquiredBuffers.get(0), acquiredBuffers.get(1));
+    }
+
+    @Test
+    public void testReloadReleasesReplacedBuffer() {
+        loadChunk();
+        preparer.prepare(chunk);
+        loadChunk();
+
+        assertNotSame(acquiredBuffers.get(0), acquiredBuffers.get(1));
+        verify(bufferPool).release(same(acquiredBuffers.get(0)));
+    }
+
+    @Test
+    public void testDiscardReleasesPreparedBuffer() {
+        preparer.prepare(chunk);
+        preparer.discard(new Vector3i(CHUNK_POS));
+
+        verify(bufferPool).release(same(acquiredBuffers.get(0)));
+
+        // Without the discarded buffer, the chunk still loads when it gets ready anyway
+        assertBlockIds(loadChunk());
+        assertEquals(2, acquiredBuffers.size());
+    }
+
+    @Test
+    public void testUnloadWithoutBuffersReleasesNothing() {
+        system.onChunkUnloaded(new BeforeChunkUnload(CHUNK_POS), EntityRef.NULL);
+
+        verify(bufferPool, never()).release(any());
+    }
+
+    /**
+     * @return the block ids the chunk was loaded into the collider with
+     */
+    private ShortBuffer loadChunk() {
+        system.onNewChunk(new OnChunkLoaded(CHUNK_POS), EntityRef.NULL);
+        ArgumentCaptor<ShortBuffer> captor = ArgumentCaptor.forClass(ShortBuffer.class);
+        verify(collider, atLeastOnce()).loadChunk(same(chunk), captor.capture());
+        return captor.getValue();
+    }
+
+    /**
+     * Checks the stone block is the only one in the buffer, in the layout of the colliders with y varying fastest,
+     * then x, then z.
+     */
+    private void assertBlockIds(ShortBuffer blockIds) {
+        assertEquals(Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z, blockIds.remaining());
+        int stoneIndex = (STONE_POS.z() * Chunks.SIZE_X + STONE_POS.x()) * Chunks.SIZE_Y + STONE_POS.y();
+        for (int i = 0; i < blockIds.remaining(); i++) {
+            assertEquals(i == stoneIndex ? stone.getId() : air.getId(), blockIds.get(i), "Block id at " + i);
+        }
+    }
+
+    private static Block createBlock(int id) {
+        Block block = new Block();
+        block.setId((short) id);
+        return block;
+    }
+}
@@ -27,6 +27,7 @@
 import org.terasology.engine.testUtil.WorldProviderCoreStub;
 import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.block.BlockEditBuffer;
 import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.block.family.BlockFamily;
 import org.terasology.engine.world.block.family.HorizontalFamily;
@@ -233,6 +234,33 @@ public void testPrefabUpdatedWhenBlockChanged() {
                 worldProvider.getBlockEntityAt(new Vector3i()).getParentPrefab().getName());
     }
 
+    @Test
+    public void testPrefabUpdatedWhenBlocksChangedInBatch() {
+        worldProvider.setBlocks(new BlockEditBuffer().add(new Vector3i(), blockWithString));
+        assertEquals(blockWithString.getPrefab().get().getName(),
+                worldProvider.getBlockEntityAt(new Vector3i()).getParentPrefab().getName());
+        worldProvider.setBlocks(new BlockEditBuffer().add(new Vector3i(), blockWithDifferentString));
+        assertEquals(blockWithDifferentString.getPrefab().get().getName(),
+                worldProvider.getBlockEntityAt(new Vector3i()).getParentPrefab().getName());
+    }
+
+    @Test
+    public void testChangedBlockEventSentForBlocksChangedInBatch() {
+        List<OnChangedBlock> events = Lists.newArrayList();
+        EventReceiver<OnChangedBlock> receiver = (event, entity) -> events.add(event);
+        entityManager.getEventSystem().registerEventReceiver(receiver, OnChangedBlock.class, BlockComponent.class);
+
+        worldProvider.setBlocks(new BlockEditBuffer()
+                .add(new Vector3i(), plainBlock)
+                .add(new Vector3i(1, 0, 0), plainBlock));
+
+        assertEquals(2, events.size());
+        for (OnChangedBlock event : events) {
+            assertEquals(airBlock, event.getOldType());
+            assertEquals(plainBlock, event.getNewType());
+        }
+    }
+
     @Test
     public void testEntityNotRemovedIfForceBlockActiveComponentAdded() {
         EntityRef blockEntity = worldProvider.getBlockEntityAt(new Vector3i());
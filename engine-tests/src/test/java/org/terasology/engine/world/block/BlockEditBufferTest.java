@@ -0,0 +1,60 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.block;
+
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BlockEditBufferTest {
+    private final Block air = new Block();
+    private final Block stone = new Block();
+
+    @Test
+    public void testFillAddsEveryPosition() {
+        BlockEditBuffer edits = new BlockEditBuffer();
+        edits.fill(new BlockRegion(-1, 0, 0, 1, 1, 0), stone);
+        assertEquals(6, edits.size());
+        assertEquals(new Vector3i(-1, 0, 0), edits.getPosition(0, new Vector3i()));
+        assertEquals(new Vector3i(1, 1, 0), edits.getPosition(5, new Vector3i()));
+        for (int i = 0; i < edits.size(); i++) {
+            assertSame(stone, edits.getBlock(i));
+        }
+    }
+
+    @Test
+    public void testPreviousBlocksAreRecorded() {
+        BlockEditBuffer edits = new BlockEditBuffer();
+        edits.add(0, 0, 0, stone).add(new Vector3i(1, 2, 3), stone).add(4, 5, 6, air);
+        assertNull(edits.getPreviousBlock(0));
+        assertFalse(edits.isChanged(0));
+
+        edits.setPreviousBlock(0, air);
+        edits.setPreviousBlock(1, stone);
+        edits.setPreviousBlock(2, null);
+
+        assertSame(air, edits.getPreviousBlock(0));
+        assertTrue(edits.isChanged(0));
+        assertSame(stone, edits.getPreviousBlock(1));
+        assertFalse(edits.isChanged(1));
+        assertNull(edits.getPreviousBlock(2));
+        assertFalse(edits.isChanged(2));
+    }
+
+    @Test
+    public void testClearAllowsReuse() {
+        BlockEditBuffer edits = new BlockEditBuffer();
+        edits.add(0, 0, 0, stone);
+        edits.clear();
+        assertTrue(edits.isEmpty());
+        edits.add(7, 8, 9, air);
+        assertEquals(1, edits.size());
+        assertSame(air, edits.getBlock(0));
+        assertEquals(new Vector3i(7, 8, 9), edits.getPosition(0, new Vector3i()));
+    }
+}
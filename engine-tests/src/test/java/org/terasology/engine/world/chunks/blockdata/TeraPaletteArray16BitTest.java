@@ -0,0 +1,203 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.blockdata;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TeraPaletteArray16BitTest {
+    private static final int SIZE_X = 16;
+    private static final int SIZE_Y = 32;
+    private static final int SIZE_Z = 16;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 17, 255, 256, 1000})
+    public void testBehavesLikeDenseArray(int distinctValues) {
+        TeraPaletteArray16Bit palette = new TeraPaletteArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        TeraDenseArray16Bit dense = new TeraDenseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        Random random = new Random(distinctValues);
+        for (int i = 0; i < 50000; i++) {
+            int x = random.nextInt(SIZE_X);
+            int y = random.nextInt(SIZE_Y);
+            int z = random.nextInt(SIZE_Z);
+            int value = (short) (random.nextInt(distinctValues) * 37 - 500);
+            assertEquals(dense.set(x, y, z, value), palette.set(x, y, z, value));
+        }
+        assertSameElements(dense, palette);
+        assertSameElements(dense, palette.copy());
+        assertSameElements(dense, palette.compact());
+
+        short[] expected = new short[SIZE_X * SIZE_Y * SIZE_Z];
+        short[] actual = new short[expected.length];
+        dense.getAll(expected);
+        palette.getAll(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 0", "2, 1", "3, 2", "5, 4", "17, 8", "256, 8", "257, 16", "1000, 16"})
+    public void testCreatedFromValuesAsEstimated(int distinctValues, int bitsPerElement) {
+        short[] values = new short[SIZE_X * SIZE_Y * SIZE_Z];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (short) (i % distinctValues * 37 - 500);
+        }
+        assertEquals(distinctValues, TeraPaletteArray16Bit.countDistinctValues(values));
+
+        TeraPaletteArray16Bit array = new TeraPaletteArray16Bit(SIZE_X, SIZE_Y, SIZE_Z, values);
+        assertEquals(TeraPaletteArray16Bit.estimateMemoryConsumptionInBytes(values.length, distinctValues),
+                array.getEstimatedMemoryConsumptionInBytes());
+        short[] actual = new short[values.length];
+        array.getAll(actual);
+        assertArrayEquals(values, actual);
+        assertEquals(bitsPerElement, array.getBitsPerElement());
+    }
+
+    @Test
+    public void testIndicesWiden() {
+        TeraPaletteArray16Bit array = new TeraPaletteArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        assertEquals(0, array.getBitsPerElement());
+        array.set(0, 0, 0, 1);
+        assertEquals(1, array.getBitsPerElement());
+        array.set(1, 0, 0, 2);
+        array.set(2, 0, 0, 3);
+        assertEquals(2, array.getBitsPerElement());
+        for (int i = 0; i < 256; i++) {
+            array.set(i % SIZE_X, 1 + i / SIZE_X, 0, 100 + i);
+        }
+        assertEquals(16, array.getBitsPerElement());
+        assertEquals(0, array.getPaletteSize());
+        assertEquals(3, array.get(2, 0, 0));
+        assertEquals(355, array.get(15, 16, 0));
+    }
+
+    @Test
+    public void testReadersOnOtherThreadsSeeConsistentPackings() throws InterruptedException {
+        AtomicReference<TeraPaletteArray16Bit> current = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            short[] values = new short[SIZE_X * SIZE_Y * SIZE_Z];
+            try {
+                while (!done.get()) {
+                    TeraPaletteArray16Bit array = current.get();
+                    if (array == null) {
+                        continue;
+                    }
+                    array.getAll(values);
+                    for (short value : values) {
+                        assertTrue(value >= 0 && value < 1000, "Read a value which was never set: " + value);
+                    }
+                    int value = array.get(SIZE_X - 1, SIZE_Y - 1, SIZE_Z - 1);
+                    assertTrue(value >= 0 && value < 1000, "Read a value which was never set: " + value);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        Random random = new Random(7);
+        for (int round = 0; round < 20 && failure.get() == null; round++) {
+            TeraPaletteArray16Bit array = new TeraPaletteArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+            current.set(array);
+            // widens the indices step by step, until the values are stored directly
+            for (int value = 1; value < 1000; value++) {
+                array.set(random.nextInt(SIZE_X), random.nextInt(SIZE_Y), random.nextInt(SIZE_Z), value);
+            }
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void testCompactDropsUnusedValues() {
+        TeraPaletteArray16Bit array = new TeraPaletteArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int i = 0; i < 10; i++) {
+            array.set(i, 0, 0, i + 1);
+        }
+        for (int i = 0; i < 10; i++) {
+            array.set(i, 0, 0, 0);
+        }
+        array.set(5, 5, 5, 7);
+        assertEquals(11, array.getPaletteSize());
+
+        TeraPaletteArray16Bit compacted = array.compact();
+        assertEquals(2, compacted.getPaletteSize());
+        assertEquals(1, compacted.getBitsPerElement());
+        assertEquals(7, compacted.get(5, 5, 5));
+        assertEquals(0, compacted.get(4, 0, 0));
+        assertSame(compacted, compacted.compact());
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        TeraPaletteArray16Bit array = new TeraPaletteArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            array.set(random.nextInt(SIZE_X), random.nextInt(SIZE_Y), random.nextInt(SIZE_Z), random.nextInt(40) - 20);
+        }
+        TeraPaletteArray16Bit.SerializationHandler handler = new TeraPaletteArray16Bit.SerializationHandler();
+        ByteBuffer buffer = handler.serialize(array);
+        buffer.rewind();
+        TeraPaletteArray16Bit restored = handler.deserialize(buffer);
+        assertSameElements(array, restored);
+
+        restored.set(0, 0, 0, 12345);
+        assertEquals(12345, restored.get(0, 0, 0));
+    }
+
+    @Test
+    public void testUniformityFollowsSetValues() {
+        TeraPaletteArray16Bit array = new TeraPaletteArray16Bit(SIZE_X, SIZE_Y, SIZE_Z, (short) 5);
+        assertTrue(array.isUniform());
+        assertEquals(5, array.get(3, 4, 5));
+
+        array.set(1, 2, 3, 7);
+        assertFalse(array.isUniform());
+        assertFalse(array.copy().isUniform());
+        array.set(1, 2, 3, 5);
+        assertTrue(array.isUniform());
+
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    array.set(x, y, z, 9);
+                }
+            }
+        }
+        assertTrue(array.isUniform());
+        assertEquals(9, array.get(0, 0, 0));
+
+        TeraPaletteArray16Bit.SerializationHandler handler = new TeraPaletteArray16Bit.SerializationHandler();
+        ByteBuffer buffer = handler.serialize(array);
+        buffer.rewind();
+        TeraPaletteArray16Bit restored = handler.deserialize(buffer);
+        assertTrue(restored.isUniform());
+        restored.set(0, 0, 0, 5);
+        assertFalse(restored.isUniform());
+    }
+
+    private static void assertSameElements(TeraArray expected, TeraArray actual) {
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    assertEquals(expected.get(x, y, z), actual.get(x, y, z));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.internal;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.chunks.Chunk;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class ChunkIndexTest {
+
+    @Test
+    public void testPutAndGet() {
+        ChunkIndex index = new ChunkIndex();
+        Chunk chunk = mock(Chunk.class);
+        assertNull(index.put(new Vector3i(-3, 7, -100000), chunk));
+        assertSame(chunk, index.get(-3, 7, -100000));
+        assertSame(chunk, index.get(new Vector3i(-3, 7, -100000)));
+        assertNull(index.get(3, 7, -100000));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testPutReplacesChunk() {
+        ChunkIndex index = new ChunkIndex();
+        Chunk first = mock(Chunk.class);
+        Chunk second = mock(Chunk.class);
+        index.put(new Vector3i(1, 2, 3), first);
+        assertSame(first, index.put(new Vector3i(1, 2, 3), second));
+        assertSame(second, index.get(1, 2, 3));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemovedChunksAreGoneAfterGrowing() {
+        ChunkIndex index = new ChunkIndex();
+        Chunk chunk = mock(Chunk.class);
+        for (int i = 0; i < 1000; i++) {
+            index.put(new Vector3i(i, -i, i % 7), chunk);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertSame(chunk, index.remove(new Vector3i(i, -i, i % 7)));
+        }
+        for (int i = 1000; i < 2000; i++) {
+            index.put(new Vector3i(i, -i, i % 7), chunk);
+        }
+        assertEquals(1500, index.size());
+        for (int i = 0; i < 2000; i++) {
+            if (i < 1000 && i % 2 == 0) {
+                assertNull(index.get(i, -i, i % 7));
+            } else {
+                assertSame(chunk, index.get(i, -i, i % 7));
+            }
+        }
+    }
+
+    @Test
+    public void testPositionsAreUnpacked() {
+        ChunkIndex index = new ChunkIndex();
+        Set<Vector3ic> expected = new HashSet<>();
+        expected.add(new Vector3i(0, 0, 0));
+        expected.add(new Vector3i(-1, -1, -1));
+        expected.add(new Vector3i(1048575, -1048576, 12));
+        for (Vector3ic pos : expected) {
+            index.put(pos, mock(Chunk.class));
+        }
+        List<Vector3ic> positions = index.getPositions();
+        assertEquals(expected, new HashSet<>(positions));
+        assertEquals(3, index.getChunks().size());
+    }
+
+    @Test
+    public void testPositionsOutOfRangeAreRejected() {
+        ChunkIndex index = new ChunkIndex();
+        Chunk chunk = mock(Chunk.class);
+        index.put(new Vector3i(0, 5, 0), chunk);
+
+        // Wraps around to the key of (0, 5, 0)
+        Vector3i outOfRange = new Vector3i(0, 5, 1 << 21);
+        assertThrows(IllegalArgumentException.class, () -> index.put(outOfRange, mock(Chunk.class)));
+        assertThrows(IllegalArgumentException.class, () -> index.put(new Vector3i(-1048577, 0, 0), chunk));
+        assertNull(index.get(outOfRange));
+        assertNull(index.remove(outOfRange));
+        assertSame(chunk, index.get(0, 5, 0));
+        assertEquals(1, index.size());
+    }
+}
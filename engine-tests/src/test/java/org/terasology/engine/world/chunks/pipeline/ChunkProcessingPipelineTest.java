@@ -164,6 +164,71 @@ void multiRequirementsChunksWillGeneratedSuccess() throws ExecutionException, In
                 "Chunk after processing must have equals position, probably pipeline lost you chunk");
     }
 
+    /**
+     * The requirement is met by a chunk which is put into the chunk cache without passing through the pipeline.
+     */
+    @Test
+    void requirementMetByNotifiedChunk() throws ExecutionException, InterruptedException, TimeoutException {
+        Vector3i positionToGenerate = new Vector3i(0, 0, 0);
+        Vector3i neighborPosition = new Vector3i(1, 0, 0);
+        Map<Vector3ic, Chunk> chunkCache = Maps.newConcurrentMap();
+        pipeline = new ChunkProcessingPipeline(chunkCache::get, (o1, o2) -> 0);
+        pipeline.addStage(ChunkTaskProvider.createMulti("neighbor task",
+                (chunks) -> chunks.stream().filter((c) -> c.getPosition().equals(positionToGenerate)).findFirst().get(),
+                (pos) -> Lists.newArrayList(pos, neighborPosition)));
+
+        Future<Chunk> chunkFuture = pipeline.invokeGeneratorTask(positionToGenerate,
+                () -> createChunkAt(positionToGenerate));
+        Thread.sleep(200);
+        Assertions.assertFalse(chunkFuture.isDone(), "Chunk must wait for its neighbor");
+
+        chunkCache.put(neighborPosition, createChunkAt(neighborPosition));
+        pipeline.onChunkAvailable(neighborPosition);
+
+        Assertions.assertEquals(positionToGenerate, chunkFuture.get(1, TimeUnit.SECONDS).getPosition());
+    }
+
+    /**
+     * Notified chunks wake their waiters right away, also while all workers are busy.
+     */
+    @Test
+    void requirementMetByNotifiedChunkUnderLoad() throws ExecutionException, InterruptedException, TimeoutException {
+        Vector3i positionToGenerate = new Vector3i(0, 0, 0);
+        Vector3i neighborPosition = new Vector3i(1, 0, 0);
+        int busyY = 100;
+        Map<Vector3ic, Chunk> chunkCache = Maps.newConcurrentMap();
+        // busy chunks are the least relevant, so the waiting chunk runs as soon as its requirement is met
+        pipeline = new ChunkProcessingPipeline(chunkCache::get, Comparator.comparingInt(
+                (Future<Chunk> future) -> ((PositionFuture<?>) future).getPosition().y()));
+        pipeline.addStage(ChunkTaskProvider.createMulti("neighbor task",
+                (chunks) -> {
+                    Chunk first = chunks.iterator().next();
+                    if (first.getPosition().y() == busyY) {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return first;
+                },
+                (pos) -> pos.y() == busyY ? Lists.newArrayList(pos) : Lists.newArrayList(pos, neighborPosition)));
+
+        Future<Chunk> chunkFuture = pipeline.invokeGeneratorTask(positionToGenerate,
+                () -> createChunkAt(positionToGenerate));
+        List<Future<Chunk>> busyFutures = Lists.newArrayList();
+        for (int x = 0; x < 400; x++) {
+            Vector3i busyPosition = new Vector3i(x, busyY, 0);
+            busyFutures.add(pipeline.invokeGeneratorTask(busyPosition, () -> createChunkAt(busyPosition)));
+        }
+        chunkCache.put(neighborPosition, createChunkAt(neighborPosition));
+        pipeline.onChunkAvailable(neighborPosition);
+
+        Assertions.assertEquals(positionToGenerate, chunkFuture.get(2, TimeUnit.SECONDS).getPosition());
+        Assertions.assertTrue(busyFutures.stream().anyMatch((f) -> !f.isDone()),
+                "The waiting chunk must not have to wait for the busy chunks");
+    }
+
     @Test
     void emulateEntityMoving() throws InterruptedException {
         final AtomicReference<Vector3ic> position = new AtomicReference<>();
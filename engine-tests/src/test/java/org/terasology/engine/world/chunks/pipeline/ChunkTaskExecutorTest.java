@@ -0,0 +1,86 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.pipeline;
+
+import org.joml.Vector3i;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.chunks.Chunk;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkTaskExecutorTest {
+
+    private final List<PositionFuture<Chunk>> completed = new CopyOnWriteArrayList<>();
+    private ChunkTaskExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void idleWorkersStealTasksOfOtherWorkers() throws InterruptedException {
+        executor = new ChunkTaskExecutor("Test", 2, (a, b) -> 0, completed::add);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+
+        // Tasks at one position are pushed to the same worker, so they only run together if the other one steals
+        for (int i = 0; i < 2; i++) {
+            executor.execute(task(new Vector3i(), () -> {
+                bothRunning.countDown();
+                try {
+                    if (bothRunning.await(10, TimeUnit.SECONDS)) {
+                        done.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Both tasks must run concurrently");
+    }
+
+    @Test
+    void mostRelevantTaskRunsFirst() throws InterruptedException {
+        // Orders by x, lowest first
+        executor = new ChunkTaskExecutor("Test", 1,
+                (a, b) -> Integer.compare(((PositionFuture<?>) a).getPosition().x(),
+                        ((PositionFuture<?>) b).getPosition().x()),
+                completed::add);
+        CountDownLatch blocker = new CountDownLatch(1);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        executor.execute(task(new Vector3i(-1, 0, 0), () -> {
+            try {
+                blocker.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        for (int x = 3; x >= 1; x--) {
+            int value = x;
+            executor.execute(task(new Vector3i(x, 0, 0), () -> order.add(value)));
+        }
+        blocker.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (completed.size() < 4 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(1, 2, 3), order);
+    }
+
+    private static PositionFuture<Chunk> task(Vector3i position, Runnable runnable) {
+        return new PositionFuture<>(new FutureTask<>(runnable, null), position);
+    }
+}
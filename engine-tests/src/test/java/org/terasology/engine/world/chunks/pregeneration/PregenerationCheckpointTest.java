@@ -0,0 +1,46 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.pregeneration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.terasology.engine.world.block.BlockRegion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PregenerationCheckpointTest {
+
+    private static final BlockRegion AREA = new BlockRegion(-2, 0, -2, 2, 3, 2);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSavedColumnsAreLoaded() throws IOException {
+        Path path = tempDir.resolve("pregeneration.json");
+        new PregenerationCheckpoint(AREA, 7).save(path);
+
+        assertEquals(7, PregenerationCheckpoint.loadSavedColumns(path, AREA));
+    }
+
+    @Test
+    public void testOtherAreaStartsFromScratch() throws IOException {
+        Path path = tempDir.resolve("pregeneration.json");
+        new PregenerationCheckpoint(AREA, 7).save(path);
+
+        assertEquals(0, PregenerationCheckpoint.loadSavedColumns(path, new BlockRegion(-2, 0, -2, 2, 4, 2)));
+    }
+
+    @Test
+    public void testMissingOrBrokenCheckpointStartsFromScratch() throws IOException {
+        Path path = tempDir.resolve("pregeneration.json");
+        assertEquals(0, PregenerationCheckpoint.loadSavedColumns(path, AREA));
+
+        Files.writeString(path, "{ not json");
+        assertEquals(0, PregenerationCheckpoint.loadSavedColumns(path, AREA));
+    }
+}
@@ -0,0 +1,160 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.pregeneration;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.persistence.ChunkStore;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.fixtures.TestBlockManager;
+import org.terasology.fixtures.TestStorageManager;
+import org.terasology.fixtures.TestWorldGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorldPregeneratorTest {
+
+    /** Three columns along x and two along z, each two chunks high */
+    private static final BlockRegion AREA = new BlockRegion(0, 0, 0, 2, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private BlockManager blockManager;
+    private ExtraBlockDataManager extraDataManager;
+    private TestStorageManager storageManager;
+    private ChunkProvider chunkProvider;
+    private Path checkpointPath;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        Block air = new Block();
+        air.setId((short) 1);
+        air.setUri(BlockManager.AIR_ID);
+        air.setEntity(mock(EntityRef.class));
+        blockManager = new TestBlockManager(air);
+        extraDataManager = new ExtraBlockDataManager();
+        storageManager = new TestStorageManager();
+        chunkProvider = mock(ChunkProvider.class);
+        checkpointPath = tempDir.resolve("pregeneration.json");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGeneratesMissingChunksAndKeepsStoredOnes() throws InterruptedException {
+        ChunkImpl storedChunk = new ChunkImpl(new Vector3i(1, 0, 1), blockManager, extraDataManager);
+        storageManager.add(storedChunk);
+        ChunkStore storedStore = storageManager.loadChunkStore(storedChunk.getPosition());
+
+        runToCompletion(createPregenerator(2));
+
+        for (Vector3ic chunkPos : AREA) {
+            assertTrue(storageManager.hasChunkStore(chunkPos), "Chunk " + chunkPos + " must be stored");
+        }
+        assertSame(storedStore, storageManager.loadChunkStore(storedChunk.getPosition()));
+        assertEquals(AREA.getSizeX() * AREA.getSizeZ(), PregenerationCheckpoint.loadSavedColumns(checkpointPath, AREA));
+    }
+
+    @Test
+    public void testSkipsLoadedChunks() throws InterruptedException {
+        Vector3i loadedPos = new Vector3i(2, 1, 0);
+        when(chunkProvider.getChunk(loadedPos)).thenReturn(mock(Chunk.class));
+
+        runToCompletion(createPregenerator(2));
+
+        assertFalse(storageManager.hasChunkStore(loadedPos));
+        assertTrue(storageManager.hasChunkStore(new Vector3i(2, 0, 0)));
+    }
+
+    @Test
+    public void testKeepsChunksStoredWhileGenerating() throws InterruptedException {
+        // The game loads, unloads and stores the chunk between it being generated and stored by the pregenerator
+        Vector3i storedPos = new Vector3i(1, 0, 1);
+        storageManager = spy(storageManager);
+        doReturn(false).doReturn(true).when(storageManager).hasChunkStore(storedPos);
+
+        runToCompletion(createPregenerator(2));
+
+        verify(storageManager, never()).storeGeneratedChunk(argThat(chunk -> chunk.getPosition().equals(storedPos)),
+                any());
+        verify(storageManager).storeGeneratedChunk(argThat(chunk -> chunk.getPosition().equals(new Vector3i(1, 1, 1))),
+                any());
+    }
+
+    @Test
+    public void testResumesAfterSavedColumns() throws IOException, InterruptedException {
+        new PregenerationCheckpoint(AREA, 3).save(checkpointPath);
+
+        runToCompletion(createPregenerator(2));
+
+        for (Vector3ic chunkPos : AREA) {
+            // The first three columns are the ones with z = 0
+            assertEquals(chunkPos.z() > 0, storageManager.hasChunkStore(chunkPos), "Chunk " + chunkPos);
+        }
+    }
+
+    @Test
+    public void testStopFinishesColumnsInFlight() throws InterruptedException {
+        // A single thread keeps two columns in flight
+        WorldPregenerator pregenerator = createPregenerator(1);
+        pregenerator.update();
+        pregenerator.stop();
+
+        runToCompletion(pregenerator);
+
+        for (Vector3ic chunkPos : AREA) {
+            boolean inFirstColumns = chunkPos.z() == 0 && chunkPos.x() < 2;
+            assertEquals(inFirstColumns, storageManager.hasChunkStore(chunkPos), "Chunk " + chunkPos);
+        }
+        assertEquals(2, PregenerationCheckpoint.loadSavedColumns(checkpointPath, AREA));
+    }
+
+    private WorldPregenerator createPregenerator(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+        return new WorldPregenerator(AREA, new TestWorldGenerator(blockManager), blockManager, extraDataManager,
+                storageManager, chunkProvider, checkpointPath, pool);
+    }
+
+    private static void runToCompletion(WorldPregenerator pregenerator) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!pregenerator.isDone()) {
+            assertTrue(System.nanoTime() < deadline, "Pregeneration did not finish in time");
+            pregenerator.update();
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.remoteChunkProvider;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.logic.players.LocalPlayer;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.fixtures.TestBlockManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class RemoteChunkProviderTest {
+    private static final Vector3i CENTER = new Vector3i();
+
+    private final List<Vector3ic> readyPositions = new CopyOnWriteArrayList<>();
+    private BlockManager blockManager;
+    private ExtraBlockDataManager extraDataManager;
+    private RemoteChunkProvider chunkProvider;
+
+    @BeforeEach
+    public void setUp() {
+        Block air = new Block();
+        air.setId((short) 0);
+        air.setTranslucent(true);
+        blockManager = new TestBlockManager(air);
+        extraDataManager = new ExtraBlockDataManager();
+        chunkProvider = new RemoteChunkProvider(blockManager, mock(LocalPlayer.class));
+        chunkProvider.subscribe(pos -> readyPositions.add(new Vector3i(pos)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        chunkProvider.dispose();
+    }
+
+    @Test
+    public void testChunkResentWhileLoadingReplacesEarlierVersion() throws InterruptedException {
+        // Light merging waits for the neighbours, which keeps the first version loading
+        Chunk first = new ChunkImpl(CENTER, blockManager, extraDataManager);
+        chunkProvider.receiveChunk(first);
+        Chunk resent = new ChunkImpl(CENTER, blockManager, extraDataManager);
+        chunkProvider.receiveChunk(resent);
+        for (Vector3ic pos : new BlockRegion(CENTER).expand(1, 1, 1)) {
+            if (!pos.equals(CENTER)) {
+                chunkProvider.receiveChunk(new ChunkImpl(pos, blockManager, extraDataManager));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!readyPositions.contains(CENTER)) {
+            assertTrue(System.nanoTime() < deadline, "The resent chunk did not become ready");
+            chunkProvider.update();
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        chunkProvider.update();
+
+        assertSame(resent, chunkProvider.getChunk(CENTER));
+        assertEquals(1, Collections.frequency(readyPositions, CENTER), "Only the latest version becomes ready");
+    }
+}
@@ -0,0 +1,158 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.context.internal.ContextImpl;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockRegionc;
+import org.terasology.engine.world.generation.facets.base.BaseFacet2D;
+import org.terasology.engine.world.generation.facets.base.BaseFacet3D;
+import org.terasology.engine.world.generator.plugin.WorldGeneratorPluginLibrary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ColumnFacetCacheTest {
+
+    private static final BlockRegion LOWER_REGION = new BlockRegion(0, 0, 0).setSize(4, 4, 4);
+    private static final BlockRegion UPPER_REGION = new BlockRegion(0, 4, 0).setSize(4, 4, 4);
+    private static final BlockRegion NEIGHBOUR_REGION = new BlockRegion(4, 0, 0).setSize(4, 4, 4);
+
+    private Context context = new ContextImpl();
+
+    @Test
+    public void testStackedRegionsShareFacets() {
+        ColumnFacetProvider provider = new ColumnFacetProvider();
+        World world = buildWorld(provider);
+
+        ColumnFacet lower = world.getWorldData(LOWER_REGION).getFacet(ColumnFacet.class);
+        ColumnFacet upper = world.getWorldData(UPPER_REGION).getFacet(ColumnFacet.class);
+        assertSame(lower, upper);
+        assertEquals(1, provider.calls);
+
+        ColumnFacet neighbour = world.getWorldData(NEIGHBOUR_REGION).getFacet(ColumnFacet.class);
+        assertNotSame(lower, neighbour);
+        assertEquals(2, provider.calls);
+    }
+
+    @Test
+    public void testUncachedProviders() {
+        UncachedColumnFacetProvider provider = new UncachedColumnFacetProvider();
+        World world = buildWorld(provider);
+
+        ColumnFacet lower = world.getWorldData(LOWER_REGION).getFacet(ColumnFacet.class);
+        ColumnFacet upper = world.getWorldData(UPPER_REGION).getFacet(ColumnFacet.class);
+        assertNotSame(lower, upper);
+        assertEquals(2, provider.calls);
+    }
+
+    @Test
+    public void testFacetsComputedFrom3DFacets() {
+        DependentFacetProvider provider = new DependentFacetProvider();
+        World world = buildWorld(new VolumeFacetProvider(), provider);
+
+        DependentFacet lower = world.getWorldData(LOWER_REGION).getFacet(DependentFacet.class);
+        DependentFacet upper = world.getWorldData(UPPER_REGION).getFacet(DependentFacet.class);
+        assertNotSame(lower, upper);
+        assertEquals(2, provider.calls);
+    }
+
+    @Test
+    public void testColumnFacetsRequiredBy3DFacetsAreGeneratedOncePerColumn() {
+        ColumnFacetProvider columnProvider = new ColumnFacetProvider();
+        ColumnVolumeFacetProvider volumeProvider = new ColumnVolumeFacetProvider();
+        World world = buildWorld(columnProvider, volumeProvider);
+
+        world.getWorldData(LOWER_REGION).getFacet(VolumeFacet.class);
+        world.getWorldData(UPPER_REGION).getFacet(VolumeFacet.class);
+        assertEquals(1, columnProvider.calls);
+        assertEquals(2, volumeProvider.columnFacets.size());
+        assertSame(volumeProvider.columnFacets.get(0), volumeProvider.columnFacets.get(1));
+    }
+
+    private World buildWorld(FacetProvider... providers) {
+        WorldBuilder worldBuilder = new WorldBuilder(context.get(WorldGeneratorPluginLibrary.class));
+        worldBuilder.setSeed(12);
+        for (FacetProvider provider : providers) {
+            worldBuilder.addProvider(provider);
+        }
+        return worldBuilder.build();
+    }
+
+    public static class ColumnFacet extends BaseFacet2D {
+        public ColumnFacet(BlockRegionc targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class DependentFacet extends BaseFacet2D {
+        public DependentFacet(BlockRegionc targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class VolumeFacet extends BaseFacet3D {
+        public VolumeFacet(BlockRegionc targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    @Produces(ColumnFacet.class)
+    public static class ColumnFacetProvider implements FacetProvider {
+        int calls;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            calls++;
+            region.setRegionFacet(ColumnFacet.class,
+                    new ColumnFacet(region.getRegion(), region.getBorderForFacet(ColumnFacet.class)));
+        }
+    }
+
+    @Uncached
+    @Produces(ColumnFacet.class)
+    public static class UncachedColumnFacetProvider extends ColumnFacetProvider {
+    }
+
+    @Produces(VolumeFacet.class)
+    public static class VolumeFacetProvider implements FacetProvider {
+
+        @Override
+        public void process(GeneratingRegion region) {
+            region.setRegionFacet(VolumeFacet.class,
+                    new VolumeFacet(region.getRegion(), region.getBorderForFacet(VolumeFacet.class)));
+        }
+    }
+
+    @Produces(VolumeFacet.class)
+    @Requires(@Facet(ColumnFacet.class))
+    public static class ColumnVolumeFacetProvider implements FacetProvider {
+        List<ColumnFacet> columnFacets = new ArrayList<>();
+
+        @Override
+        public void process(GeneratingRegion region) {
+            columnFacets.add(region.getRegionFacet(ColumnFacet.class));
+            region.setRegionFacet(VolumeFacet.class,
+                    new VolumeFacet(region.getRegion(), region.getBorderForFacet(VolumeFacet.class)));
+        }
+    }
+
+    @Produces(DependentFacet.class)
+    @Requires(@Facet(VolumeFacet.class))
+    public static class DependentFacetProvider implements FacetProvider {
+        int calls;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            calls++;
+            region.setRegionFacet(DependentFacet.class,
+                    new DependentFacet(region.getRegion(), region.getBorderForFacet(DependentFacet.class)));
+        }
+    }
+}
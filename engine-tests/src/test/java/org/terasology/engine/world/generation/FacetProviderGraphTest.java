@@ -0,0 +1,170 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockRegionc;
+import org.terasology.engine.world.generation.facets.base.BaseFacet3D;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FacetProviderGraphTest {
+
+    private static final BlockRegion REGION = new BlockRegion(0, 0, 0).setSize(4, 4, 4);
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testIndependentProvidersRunConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        LeftProvider left = new LeftProvider(bothStarted);
+        RightProvider right = new RightProvider(bothStarted);
+        CombinedProvider combined = new CombinedProvider();
+
+        ListMultimap<Class<? extends WorldFacet>, FacetProvider> chains = ArrayListMultimap.create();
+        chains.putAll(LeftFacet.class, Collections.singletonList(left));
+        chains.putAll(RightFacet.class, Collections.singletonList(right));
+        chains.putAll(CombinedFacet.class, Arrays.asList(left, right, combined));
+
+        RegionImpl region = new RegionImpl(REGION, chains, Collections.emptyMap(), 1);
+        region.generateFacets(Collections.singleton(CombinedFacet.class), new FacetProviderGraph(chains), pool);
+
+        assertTrue(left.sawOther);
+        assertTrue(right.sawOther);
+        assertTrue(combined.sawInputs);
+        assertNotNull(region.getFacet(CombinedFacet.class));
+    }
+
+    @Test
+    public void testUpdatesRunInChainOrder() {
+        LeftProvider producer = new LeftProvider(new CountDownLatch(0));
+        FirstUpdater first = new FirstUpdater();
+        SecondUpdater second = new SecondUpdater();
+
+        ListMultimap<Class<? extends WorldFacet>, FacetProvider> chains = ArrayListMultimap.create();
+        chains.putAll(LeftFacet.class, Arrays.asList(producer, second, first));
+
+        RegionImpl region = new RegionImpl(REGION, chains, Collections.emptyMap(), 1);
+        region.generateFacets(Collections.singleton(LeftFacet.class), new FacetProviderGraph(chains), pool);
+
+        assertEquals(Arrays.asList("second", "first"), region.getFacet(LeftFacet.class).updates);
+    }
+
+    public static class LeftFacet extends BaseFacet3D {
+        final List<String> updates = new CopyOnWriteArrayList<>();
+
+        public LeftFacet(BlockRegionc targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class RightFacet extends BaseFacet3D {
+        public RightFacet(BlockRegionc targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class CombinedFacet extends BaseFacet3D {
+        public CombinedFacet(BlockRegionc targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    /**
+     * Waits for the other independent provider to start, which only happens if they run concurrently.
+     */
+    private abstract static class WaitingProvider implements FacetProvider {
+        boolean sawOther;
+        private final CountDownLatch bothStarted;
+
+        WaitingProvider(CountDownLatch bothStarted) {
+            this.bothStarted = bothStarted;
+        }
+
+        void awaitOther() {
+            bothStarted.countDown();
+            try {
+                sawOther = bothStarted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Produces(LeftFacet.class)
+    public static class LeftProvider extends WaitingProvider {
+        LeftProvider(CountDownLatch bothStarted) {
+            super(bothStarted);
+        }
+
+        @Override
+        public void process(GeneratingRegion region) {
+            awaitOther();
+            region.setRegionFacet(LeftFacet.class,
+                    new LeftFacet(region.getRegion(), region.getBorderForFacet(LeftFacet.class)));
+        }
+    }
+
+    @Produces(RightFacet.class)
+    public static class RightProvider extends WaitingProvider {
+        RightProvider(CountDownLatch bothStarted) {
+            super(bothStarted);
+        }
+
+        @Override
+        public void process(GeneratingRegion region) {
+            awaitOther();
+            region.setRegionFacet(RightFacet.class,
+                    new RightFacet(region.getRegion(), region.getBorderForFacet(RightFacet.class)));
+        }
+    }
+
+    @Produces(CombinedFacet.class)
+    @Requires({@Facet(LeftFacet.class), @Facet(RightFacet.class)})
+    public static class CombinedProvider implements FacetProvider {
+        boolean sawInputs;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            sawInputs = region.getRegionFacet(LeftFacet.class) != null
+                    && region.getRegionFacet(RightFacet.class) != null;
+            region.setRegionFacet(CombinedFacet.class,
+                    new CombinedFacet(region.getRegion(), region.getBorderForFacet(CombinedFacet.class)));
+        }
+    }
+
+    @Updates(@Facet(LeftFacet.class))
+    public static class FirstUpdater implements FacetProvider {
+        @Override
+        public void process(GeneratingRegion region) {
+            region.getRegionFacet(LeftFacet.class).updates.add("first");
+        }
+    }
+
+    @Updates(@Facet(LeftFacet.class))
+    public static class SecondUpdater implements FacetProvider {
+        @Override
+        public void process(GeneratingRegion region) {
+            region.getRegionFacet(LeftFacet.class).updates.add("second");
+        }
+    }
+}
@@ -29,12 +29,16 @@
 import org.terasology.engine.world.propagation.light.InternalLightProcessor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
 
 @Tag("TteTest")
 public class InternalLightGeneratorTest extends TerasologyTestingEnvironment {
 
     Block airBlock;
     Block solidBlock;
+    Block waterBlock;
     Block fullLight;
 
     private BlockManager blockManager;
@@ -60,6 +64,16 @@ public void setup() throws Exception {
         assetManager.loadAsset(new ResourceUrn("engine:stone"), solidData, BlockFamilyDefinition.class);
         solidBlock = blockManager.getBlock(new BlockUri(new ResourceUrn("engine:stone")));
 
+        BlockFamilyDefinitionData waterData = new BlockFamilyDefinitionData();
+        waterData.getBaseSection().setDisplayName("Water");
+        waterData.getBaseSection().setShape(assetManager.getAsset("engine:cube", BlockShape.class).get());
+        waterData.getBaseSection().setTranslucent(true);
+        waterData.getBaseSection().setLiquid(true);
+        waterData.getBaseSection().setWater(true);
+        waterData.setBlockFamily(SymmetricFamily.class);
+        assetManager.loadAsset(new ResourceUrn("engine:water"), waterData, BlockFamilyDefinition.class);
+        waterBlock = blockManager.getBlock(new BlockUri(new ResourceUrn("engine:water")));
+
         BlockFamilyDefinitionData fullLightData = new BlockFamilyDefinitionData();
         fullLightData.getBaseSection().setDisplayName("Torch");
         fullLightData.getBaseSection().setShape(assetManager.getAsset("engine:cube", BlockShape.class).get());
@@ -193,4 +207,41 @@ public void testLightPropagation() {
         }
     }
 
+    @Test
+    public void testUniformChunksAreLitLikePropagatedChunks() {
+        byte[] topRegens = {0, Chunks.SUNLIGHT_REGEN_THRESHOLD, Chunks.SUNLIGHT_REGEN_THRESHOLD + 7,
+            Chunks.MAX_SUNLIGHT_REGEN};
+        for (Block block : new Block[]{airBlock, solidBlock, waterBlock, fullLight}) {
+            for (byte topRegen : topRegens) {
+                Chunk uniform = createFilledChunk(block, topRegen);
+                assertSame(block, uniform.getUniformBlock());
+                // The same chunk, lit through the propagators
+                Chunk propagated = spy(createFilledChunk(block, topRegen));
+                doReturn(null).when(propagated).getUniformBlock();
+
+                InternalLightProcessor.generateInternalLighting(uniform);
+                InternalLightProcessor.generateInternalLighting(propagated);
+
+                for (Vector3ic pos : Chunks.CHUNK_REGION) {
+                    assertEquals(propagated.getSunlightRegen(pos), uniform.getSunlightRegen(pos),
+                        () -> "Incorrect sunlight regen in " + block + " with top regen " + topRegen + " at " + pos);
+                    assertEquals(propagated.getSunlight(pos), uniform.getSunlight(pos),
+                        () -> "Incorrect sunlight in " + block + " with top regen " + topRegen + " at " + pos);
+                    assertEquals(propagated.getLight(pos), uniform.getLight(pos),
+                        () -> "Incorrect light in " + block + " with top regen " + topRegen + " at " + pos);
+                }
+            }
+        }
+    }
+
+    private Chunk createFilledChunk(Block block, byte topRegen) {
+        Chunk chunk = new ChunkImpl(0, 0, 0, blockManager, extraDataManager);
+        for (Vector3ic pos : Chunks.CHUNK_REGION) {
+            chunk.setBlock(pos, block);
+        }
+        for (Vector3ic pos : new BlockRegion(0, Chunks.SIZE_Y - 1, 0).setSize(Chunks.SIZE_X, 1, Chunks.SIZE_Z)) {
+            chunk.setSunlightRegen(pos, topRegen);
+        }
+        return chunk;
+    }
 }
@@ -25,6 +25,9 @@
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.propagation.light.LightPropagationRules;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @Tag("TteTest")
@@ -338,4 +341,71 @@ public void testRemoveSolidAndLight() {
             }
         }
     }
+
+    @Test
+    public void testConcurrentPerChunkPropagationMatchesSerial() {
+        BlockRegion region = new BlockRegion(0, 0, 0, 2 * Chunks.SIZE_X - 1, 15, 2 * Chunks.SIZE_Z - 1);
+        StubPropagatorWorldView serialView = new StubPropagatorWorldView(region, air);
+        ConcurrentWorldView concurrentView = new ConcurrentWorldView(region, air);
+        BlockChange[] changes = new BlockChange[(2 * Chunks.SIZE_X / 4) * (2 * Chunks.SIZE_Z / 4)];
+        int changeCount = 0;
+        for (int x = 0; x < 2 * Chunks.SIZE_X; x += 4) {
+            for (int z = 0; z < 2 * Chunks.SIZE_Z; z += 4) {
+                Vector3i pos = new Vector3i(x, 8, z);
+                Block light = (x + z) % 8 == 0 ? fullLight : mediumLight;
+                serialView.setBlockAt(pos, light);
+                concurrentView.setBlockAt(pos, light);
+                changes[changeCount++] = new BlockChange(pos, air, light);
+            }
+        }
+
+        new StandardBatchPropagator(lightRules, serialView).process(changes);
+        new StandardBatchPropagator(lightRules, concurrentView).process(changes);
+
+        for (Vector3ic pos : region) {
+            assertEquals(serialView.getValueAt(pos), concurrentView.getValueAt(pos));
+        }
+    }
+
+    /**
+     * A world view which can be accessed by several threads, so chunks get propagated concurrently.
+     */
+    private static final class ConcurrentWorldView implements PropagatorWorldView {
+        private final Map<Vector3ic, Byte> lightData = new ConcurrentHashMap<>();
+        private final Map<Vector3ic, Block> blockData = new ConcurrentHashMap<>();
+        private final BlockRegion relevantRegion;
+        private final Block defaultBlock;
+
+        ConcurrentWorldView(BlockRegion relevantRegion, Block defaultBlock) {
+            this.relevantRegion = relevantRegion;
+            this.defaultBlock = defaultBlock;
+        }
+
+        @Override
+        public byte getValueAt(Vector3ic pos) {
+            if (!relevantRegion.contains(pos)) {
+                return UNAVAILABLE;
+            }
+            return lightData.getOrDefault(pos, (byte) 0);
+        }
+
+        @Override
+        public void setValueAt(Vector3ic pos, byte value) {
+            lightData.put(new Vector3i(pos), value);
+        }
+
+        @Override
+        public Block getBlockAt(Vector3ic pos) {
+            return blockData.getOrDefault(pos, defaultBlock);
+        }
+
+        void setBlockAt(Vector3ic pos, Block block) {
+            blockData.put(new Vector3i(pos), block);
+        }
+
+        @Override
+        public boolean isConcurrentPerChunk() {
+            return true;
+        }
+    }
 }
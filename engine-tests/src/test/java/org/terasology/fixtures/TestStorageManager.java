@@ -4,6 +4,7 @@
 package org.terasology.fixtures;
 
 import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityStore;
 import org.terasology.engine.network.Client;
 import org.terasology.engine.persistence.ChunkStore;
 import org.terasology.engine.persistence.PlayerStore;
@@ -11,13 +12,14 @@
 import org.terasology.engine.world.chunks.Chunk;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TestStorageManager implements StorageManager {
 
-    private final Map<Vector3ic, ChunkStore> chunkStores = new HashMap<>();
+    private final Map<Vector3ic, ChunkStore> chunkStores = new ConcurrentHashMap<>();
 
     public TestStorageManager() {
     }
@@ -60,6 +62,11 @@ public ChunkStore loadChunkStore(Vector3ic chunkPos) {
         return chunkStores.get(chunkPos);
     }
 
+    @Override
+    public boolean hasChunkStore(Vector3ic chunkPos) {
+        return chunkStores.containsKey(chunkPos);
+    }
+
     @Override
     public void finishSavingAndShutdown() {
 
@@ -80,6 +87,11 @@ public void deactivateChunk(Chunk chunk) {
 
     }
 
+    @Override
+    public void storeGeneratedChunk(Chunk chunk, Collection<EntityStore> entities) {
+        add(chunk);
+    }
+
     @Override
     public boolean isSaving() {
         return false;
@@ -14,6 +14,8 @@
 import org.terasology.engine.utilities.procedural.WhiteNoise;
 import org.terasology.engine.utilities.random.FastRandom;
 import org.terasology.engine.utilities.random.Random;
+import org.terasology.engine.world.block.BlockArea;
+import org.terasology.engine.world.block.BlockRegion;
 
 import java.util.List;
 
@@ -88,4 +90,33 @@ public void testResolution(Noise noiseGen) {
 
         fail();
     }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testBatchMatchesSingle(Noise noiseGen) {
+        float scale = 0.37f;
+
+        BlockArea area = new BlockArea(-5, 3).setSize(17, 9);
+        float[] areaValues = noiseGen.noise(area, scale);
+        assertEquals(area.area(), areaValues.length);
+        for (int y = area.minY(); y <= area.maxY(); y++) {
+            for (int x = area.minX(); x <= area.maxX(); x++) {
+                int index = (x - area.minX()) + area.getSizeX() * (y - area.minY());
+                assertEquals(noiseGen.noise(x * scale, y * scale), areaValues[index]);
+            }
+        }
+
+        BlockRegion region = new BlockRegion(-4, 2, -7).setSize(7, 5, 6);
+        float[] regionValues = noiseGen.noise(region, scale);
+        assertEquals(region.volume(), regionValues.length);
+        for (int z = region.minZ(); z <= region.maxZ(); z++) {
+            for (int y = region.minY(); y <= region.maxY(); y++) {
+                for (int x = region.minX(); x <= region.maxX(); x++) {
+                    int index = (x - region.minX()) + region.getSizeX() * ((y - region.minY())
+                            + region.getSizeY() * (z - region.minZ()));
+                    assertEquals(noiseGen.noise(x * scale, y * scale, z * scale), regionValues[index]);
+                }
+            }
+        }
+    }
 }
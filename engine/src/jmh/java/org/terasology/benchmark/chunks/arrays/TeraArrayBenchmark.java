@@ -14,17 +14,22 @@
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terasology.engine.world.chunks.blockdata.TeraArray;
 import org.terasology.engine.world.chunks.blockdata.TeraArray.SerializationHandler;
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray4Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray4Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray8Bit;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
@@ -37,6 +42,8 @@ public class TeraArrayBenchmark {
 
     public static final int BUFFER_SIZE = 1024 * 1024;
 
+    private static final Logger logger = LoggerFactory.getLogger(TeraArrayBenchmark.class);
+
     private static final byte[][] INFLATED_8_BIT = new byte[256][];
     private static final byte[] DEFLATED_8_BIT = new byte[256];
 
@@ -77,6 +84,22 @@ public void fullyWrite(ArrayState state) {
         }
     }
 
+    @Benchmark
+    public void fullyWriteDistinctValues(ArrayState state) {
+        // shift the values by one position each time, so most elements change
+        int i = state.writeOffset++ % state.values.length;
+        for (int y = 0; y < state.array.getSizeY(); y++) {
+            for (int z = 0; z < state.array.getSizeZ(); z++) {
+                for (int x = 0; x < state.array.getSizeX(); x++) {
+                    state.array.set(x, y, z, state.values[i++]);
+                    if (i == state.values.length) {
+                        i = 0;
+                    }
+                }
+            }
+        }
+    }
+
     @Benchmark
     public ByteBuffer toByteBuffer(ArrayState state, ByteBufferState bbState) {
         return state.handler.serialize(state.array, bbState.out);
@@ -94,7 +117,8 @@ public enum TeraArrayType {
         SPARCE_4BIT(() -> new TeraSparseArray4Bit(16, 256, 16, INFLATED_4_BIT, DEFLATED_4_BIT),
                 TeraSparseArray4Bit.SerializationHandler::new),
         SPARCE_8BIT(() -> new TeraSparseArray8Bit(16, 256, 16, INFLATED_8_BIT, DEFLATED_8_BIT),
-                TeraSparseArray8Bit.SerializationHandler::new);
+                TeraSparseArray8Bit.SerializationHandler::new),
+        PALETTE_16BIT(() -> new TeraPaletteArray16Bit(16, 256, 16), TeraPaletteArray16Bit.SerializationHandler::new);
 
         private final Supplier<TeraArray> creator;
         private final Supplier<SerializationHandler> handler;
@@ -140,16 +164,48 @@ public void setup(ArrayState arrayState) {
 
     @State(Scope.Thread)
     public static class ArrayState {
-        @Param({"DENCE_4BIT", "DENCE_8BIT", "DENCE_16BIT", "SPARCE_4BIT", "SPARCE_8BIT"})
+        @Param({"DENCE_4BIT", "DENCE_8BIT", "DENCE_16BIT", "SPARCE_4BIT", "SPARCE_8BIT", "PALETTE_16BIT"})
         private static TeraArrayType arrayType;
 
+        /**
+         * Number of different values the array gets filled with. Arrays with a single value stay empty.
+         */
+        @Param({"1", "8", "300"})
+        private int distinctValues;
+
         private SerializationHandler handler;
         private TeraArray array;
+        private int[] values;
+        private int writeOffset;
 
         @Setup
         public void setup() {
             array = arrayType.create();
             handler = arrayType.handler();
+
+            // the values must fit into the elements of the array
+            int maxValue = 1 << Math.min(array.getElementSizeInBits() - 1, 15);
+            Random random = new Random(42);
+            values = new int[array.getSizeXYZ()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(distinctValues) % maxValue;
+            }
+            if (distinctValues > 1) {
+                int i = 0;
+                for (int y = 0; y < array.getSizeY(); y++) {
+                    for (int z = 0; z < array.getSizeZ(); z++) {
+                        for (int x = 0; x < array.getSizeX(); x++) {
+                            array.set(x, y, z, values[i++]);
+                        }
+                    }
+                }
+            }
+        }
+
+        @TearDown
+        public void reportMemory() {
+            logger.info("{} with {} distinct values: {} bytes", arrayType, distinctValues,
+                    array.getEstimatedMemoryConsumptionInBytes());
         }
     }
 
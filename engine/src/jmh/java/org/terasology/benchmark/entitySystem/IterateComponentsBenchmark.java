@@ -9,7 +9,9 @@
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.terasology.engine.entitySystem.entity.EntityRef;
@@ -33,9 +35,13 @@ public class IterateComponentsBenchmark {
     public static class StateObject {
         private final PojoEntityManager entityManager = new PojoEntityManager();
 
+        @Param({"1000", "100000"})
+        private int entityCount;
+
+        @Setup
         public void setup() {
             FastRandom rand = new FastRandom(0L);
-            for (int i = 0; i < 1000; ++i) {
+            for (int i = 0; i < entityCount; ++i) {
                 List<Component> entityData = Lists.newArrayList();
                 if (rand.nextFloat() < 0.75f) {
                     entityData.add(new LocationComponent());
@@ -50,7 +56,7 @@ public void setup() {
             }
         }
     }
-    
+
     @Benchmark
     public void iterateMultipleComponent(StateObject state) {
         for (EntityRef entity : state.entityManager.getEntitiesWith(MeshComponent.class, LocationComponent.class)) {
@@ -60,6 +66,20 @@ public void iterateMultipleComponent(StateObject state) {
         }
     }
 
+    @Benchmark
+    public void iterateThreeComponents(StateObject state) {
+        for (EntityRef entity : state.entityManager.getEntitiesWith(BlockComponent.class, MeshComponent.class,
+                LocationComponent.class)) {
+            LocationComponent loc = entity.getComponent(LocationComponent.class);
+            loc.getLocalPosition();
+        }
+    }
+
+    @Benchmark
+    public int countMultipleComponents(StateObject state) {
+        return state.entityManager.getCountOfEntitiesWith(MeshComponent.class, LocationComponent.class);
+    }
+
     @Benchmark
     public void iterateSingleComponent(StateObject state) {
         for (EntityRef entity : state.entityManager.getEntitiesWith(LocationComponent.class)) {
@@ -0,0 +1,73 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.network;
+
+/**
+ * Scripted behaviours of simulated clients. Intervals are counted in actions, which the bots take at a fixed rate.
+ */
+public enum BotProfile {
+    /**
+     * Only keeps the connection open, so the cost of replicating the world to an idle player can be measured.
+     */
+    IDLE(false, 0, 0, 0, 0),
+    /**
+     * Runs in circles, so chunks keep streaming in and out of view.
+     */
+    WALKER(true, 1.5f, 0, 0, 0),
+    /**
+     * Slowly walks while looking down and toggles the block in front of it.
+     */
+    BUILDER(true, 0.5f, -60, 5, 0),
+    /**
+     * Stands still and talks.
+     */
+    CHATTER(false, 0, 0, 0, 30),
+    /**
+     * Runs around, edits a block now and then and talks occasionally.
+     */
+    MIXED(true, 1, -30, 30, 150);
+
+    private final boolean moving;
+    private final float turnRate;
+    private final float pitch;
+    private final int editInterval;
+    private final int chatInterval;
+
+    BotProfile(boolean moving, float turnRate, float pitch, int editInterval, int chatInterval) {
+        this.moving = moving;
+        this.turnRate = turnRate;
+        this.pitch = pitch;
+        this.editInterval = editInterval;
+        this.chatInterval = chatInterval;
+    }
+
+    public boolean isMoving() {
+        return moving;
+    }
+
+    /**
+     * @return the degrees the bot turns by per action
+     */
+    public float getTurnRate() {
+        return turnRate;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
+    /**
+     * @return whether the bot edits a block in the given action
+     */
+    public boolean isEditing(int action) {
+        return editInterval > 0 && action % editInterval == 0;
+    }
+
+    /**
+     * @return whether the bot sends a chat message in the given action
+     */
+    public boolean isChatting(int action) {
+        return chatInterval > 0 && action % chatInterval == 0;
+    }
+}
@@ -0,0 +1,162 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.network;
+
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TObjectDoubleMap;
+import gnu.trove.map.TObjectLongMap;
+import gnu.trove.map.hash.TObjectDoubleHashMap;
+import gnu.trove.map.hash.TObjectLongHashMap;
+import org.terasology.engine.network.NetMetricSource;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the measurements of a load test: the duration of every server tick, the traffic of every client, the time
+ * spent per activity of the main thread and the CPU time spent by all threads.
+ */
+class LoadTestReport {
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final TLongList tickNanos = new TLongArrayList();
+    private final TLongList tickCpuNanos = new TLongArrayList();
+    private final TObjectDoubleMap<String> activityMs = new TObjectDoubleHashMap<>();
+    private final Map<String, ClientTraffic> traffic = new LinkedHashMap<>();
+    private final TObjectLongMap<String> threadCpuNanos = new TObjectLongHashMap<>();
+
+    private long startNanos;
+    private long endNanos;
+
+    void start(List<SimulatedClient> clients) {
+        for (SimulatedClient client : clients) {
+            // Discard what was counted while joining
+            readTraffic(client.getMetrics(), new ClientTraffic(client.getProfile()));
+            traffic.put(client.getName(), new ClientTraffic(client.getProfile()));
+        }
+        addThreadCpuTimes(-1);
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * @param wallNanos the real time the tick took
+     * @param cpuNanos the CPU time the main thread spent on the tick
+     * @param activities the mean time per activity, in milliseconds
+     */
+    void recordTick(long wallNanos, long cpuNanos, TObjectDoubleMap<String> activities) {
+        tickNanos.add(wallNanos);
+        tickCpuNanos.add(cpuNanos);
+        activities.forEachEntry((activity, ms) -> {
+            activityMs.adjustOrPutValue(activity, ms, ms);
+            return true;
+        });
+    }
+
+    void recordTraffic(List<SimulatedClient> clients) {
+        for (SimulatedClient client : clients) {
+            readTraffic(client.getMetrics(), traffic.get(client.getName()));
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        addThreadCpuTimes(1);
+    }
+
+    private static void readTraffic(NetMetricSource metrics, ClientTraffic clientTraffic) {
+        clientTraffic.receivedBytes += metrics.getReceivedBytesSinceLastCall();
+        clientTraffic.receivedMessages += metrics.getReceivedMessagesSinceLastCall();
+        clientTraffic.sentBytes += metrics.getSentBytesSinceLastCall();
+        clientTraffic.sentMessages += metrics.getSentMessagesSinceLastCall();
+    }
+
+    /**
+     * Adds the CPU time of all live threads, grouped by their name without numbers so pools add up.
+     */
+    private void addThreadCpuTimes(int sign) {
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null) {
+                continue;
+            }
+            long cpuTime = threads.getThreadCpuTime(info.getThreadId());
+            if (cpuTime >= 0) {
+                String group = info.getThreadName().replaceAll("\\d+", "#");
+                threadCpuNanos.adjustOrPutValue(group, sign * cpuTime, sign * cpuTime);
+            }
+        }
+    }
+
+    void print(PrintStream out) {
+        int ticks = tickNanos.size();
+        double seconds = (endNanos - startNanos) / (NANOS_PER_MS * 1000);
+        out.printf("%d ticks in %.1f s (%.1f ticks/s)%n", ticks, seconds, ticks / seconds);
+        if (ticks == 0) {
+            return;
+        }
+
+        long[] sorted = tickNanos.toArray();
+        Arrays.sort(sorted);
+        out.printf("Tick time (ms): mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                tickNanos.sum() / (double) ticks / NANOS_PER_MS, percentile(sorted, 0.5), percentile(sorted, 0.9),
+                percentile(sorted, 0.99), sorted[ticks - 1] / NANOS_PER_MS);
+        out.printf("Main thread CPU time per tick (ms): mean %.2f%n",
+                tickCpuNanos.sum() / (double) ticks / NANOS_PER_MS);
+
+        out.println();
+        out.printf("%-12s %-8s %12s %10s %12s %10s%n",
+                "Client", "Profile", "Recv B/s", "Recv m/s", "Sent B/s", "Sent m/s");
+        ClientTraffic total = new ClientTraffic(null);
+        for (Map.Entry<String, ClientTraffic> entry : traffic.entrySet()) {
+            ClientTraffic clientTraffic = entry.getValue();
+            out.printf("%-12s %-8s %12.0f %10.1f %12.0f %10.1f%n", entry.getKey(), clientTraffic.profile,
+                    clientTraffic.receivedBytes / seconds, clientTraffic.receivedMessages / seconds,
+                    clientTraffic.sentBytes / seconds, clientTraffic.sentMessages / seconds);
+            total.receivedBytes += clientTraffic.receivedBytes;
+            total.receivedMessages += clientTraffic.receivedMessages;
+            total.sentBytes += clientTraffic.sentBytes;
+            total.sentMessages += clientTraffic.sentMessages;
+        }
+        out.printf("%-12s %-8s %12.0f %10.1f %12.0f %10.1f%n", "Total", "", total.receivedBytes / seconds,
+                total.receivedMessages / seconds, total.sentBytes / seconds, total.sentMessages / seconds);
+
+        out.println();
+        out.println("Main thread time per tick by activity (ms):");
+        activityMs.keySet().stream()
+                .sorted((a, b) -> Double.compare(activityMs.get(b), activityMs.get(a)))
+                .forEach(activity -> out.printf("  %-50s %8.3f%n", activity, activityMs.get(activity) / ticks));
+
+        out.println();
+        out.println("CPU time by thread (ms per second):");
+        threadCpuNanos.keySet().stream()
+                .filter(group -> threadCpuNanos.get(group) > 0)
+                .sorted((a, b) -> Long.compare(threadCpuNanos.get(b), threadCpuNanos.get(a)))
+                .forEach(group -> out.printf("  %-50s %8.1f%n", group,
+                        threadCpuNanos.get(group) / NANOS_PER_MS / seconds));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)));
+        return sorted[index] / NANOS_PER_MS;
+    }
+
+    private static final class ClientTraffic {
+        private final BotProfile profile;
+        private long receivedBytes;
+        private long receivedMessages;
+        private long sentBytes;
+        private long sentMessages;
+
+        private ClientTraffic(BotProfile profile) {
+            this.profile = profile;
+        }
+    }
+}
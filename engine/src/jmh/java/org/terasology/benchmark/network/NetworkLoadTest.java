@@ -0,0 +1,198 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.network;
+
+import com.google.common.collect.Lists;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.config.Config;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.core.PathManager;
+import org.terasology.engine.core.TerasologyEngine;
+import org.terasology.engine.core.TerasologyEngineBuilder;
+import org.terasology.engine.core.modes.StateIngame;
+import org.terasology.engine.core.subsystem.common.ConfigurationSubsystem;
+import org.terasology.engine.core.subsystem.headless.HeadlessAudio;
+import org.terasology.engine.core.subsystem.headless.HeadlessGraphics;
+import org.terasology.engine.core.subsystem.headless.HeadlessTimer;
+import org.terasology.engine.core.subsystem.headless.mode.HeadlessStateChangeListener;
+import org.terasology.engine.core.subsystem.headless.mode.StateHeadlessSetup;
+import org.terasology.engine.identity.CertificateGenerator;
+import org.terasology.engine.identity.PrivateIdentityCertificate;
+import org.terasology.engine.monitoring.PerformanceMonitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Starts a headless server like the PC facade does, connects simulated clients to it over loopback and reports how
+ * the server copes with them.
+ * <p>
+ * Arguments are given as {@code key=value}:
+ * <ul>
+ *     <li>{@code clients} - the number of simulated clients, 8 by default</li>
+ *     <li>{@code profile} - comma separated {@link BotProfile}s assigned to the clients in turn, mixed by default</li>
+ *     <li>{@code warmup} - the seconds to run before measuring, 10 by default</li>
+ *     <li>{@code duration} - the seconds to measure, 60 by default</li>
+ *     <li>{@code rate} - the actions per second of every client, 20 by default</li>
+ *     <li>{@code viewDistance} - the index of the view distance the clients request, 0 by default</li>
+ *     <li>{@code blocks} - comma separated blocks the clients place when editing</li>
+ *     <li>{@code port} - the port of the server, 25888 by default</li>
+ * </ul>
+ * The server runs in a temporary home directory with the default module selection and world generator.
+ */
+public final class NetworkLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkLoadTest.class);
+
+    private static final long JOIN_TIMEOUT_SECONDS = 120;
+
+    private final int clientCount;
+    private final BotProfile[] profiles;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int actionsPerSecond;
+    private final int viewDistance;
+    private final String[] editBlocks;
+    private final int port;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<SimulatedClient> clients = Lists.newArrayList();
+    private TerasologyEngine engine;
+    private long nextActionTime;
+
+    private NetworkLoadTest(Map<String, String> options) {
+        clientCount = Integer.parseInt(options.getOrDefault("clients", "8"));
+        String[] profileNames = options.getOrDefault("profile", "mixed").split(",");
+        profiles = new BotProfile[profileNames.length];
+        for (int i = 0; i < profileNames.length; i++) {
+            profiles[i] = BotProfile.valueOf(profileNames[i].trim().toUpperCase(Locale.ROOT));
+        }
+        warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        actionsPerSecond = Integer.parseInt(options.getOrDefault("rate", "20"));
+        viewDistance = Integer.parseInt(options.getOrDefault("viewDistance", "0"));
+        editBlocks = options.getOrDefault("blocks", "CoreAssets:Stone,CoreAssets:Dirt").split(",");
+        port = Integer.parseInt(options.getOrDefault("port", "25888"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            options.put(option[0], option[1]);
+        }
+        new NetworkLoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        PathManager.getInstance().useOverrideHomePath(Files.createTempDirectory("terasology-load-test"));
+        System.setProperty(ConfigurationSubsystem.SERVER_PORT_PROPERTY, Integer.toString(port));
+
+        engine = new TerasologyEngineBuilder()
+                .add(new HeadlessGraphics())
+                .add(new HeadlessTimer())
+                .add(new HeadlessAudio())
+                .build();
+        engine.subscribeToStateChange(new HeadlessStateChangeListener(engine));
+        engine.initializeRun(new StateHeadlessSetup());
+        EventLoopGroup group = new NioEventLoopGroup();
+        try {
+            logger.info("Loading the game");
+            tickUntil(() -> engine.getState() instanceof StateIngame, "load the game");
+            Context context = engine.getState().getContext();
+
+            connectClients(group, context);
+            tickUntil(() -> clients.stream().allMatch(SimulatedClient::isJoined), "join all clients");
+            logger.info("All clients joined, warming up for {} seconds", warmupSeconds);
+            nextActionTime = System.nanoTime();
+            runFor(warmupSeconds, context, null);
+
+            logger.info("Measuring for {} seconds", durationSeconds);
+            PerformanceMonitor.setEnabled(true);
+            LoadTestReport report = new LoadTestReport();
+            report.start(clients);
+            runFor(durationSeconds, context, report);
+            report.finish();
+            PerformanceMonitor.setEnabled(false);
+
+            report.print(System.out);
+        } finally {
+            clients.forEach(SimulatedClient::disconnect);
+            group.shutdownGracefully().awaitUninterruptibly();
+            engine.shutdown();
+            engine.cleanup();
+        }
+    }
+
+    private void connectClients(EventLoopGroup group, Context context) {
+        PrivateIdentityCertificate serverCertificate =
+                context.get(Config.class).getSecurity().getServerPrivateCertificate();
+        CertificateGenerator certificateGenerator = new CertificateGenerator();
+        InetSocketAddress address = new InetSocketAddress("localhost", port);
+        for (int i = 0; i < clientCount; i++) {
+            BotProfile profile = profiles[i % profiles.length];
+            SimulatedClient client = new SimulatedClient("Bot" + i, profile, editBlocks, viewDistance);
+            client.connect(group, address, certificateGenerator.generate(serverCertificate));
+            clients.add(client);
+        }
+    }
+
+    /**
+     * Keeps the server running until the condition is met, without letting the clients act.
+     */
+    private void tickUntil(BooleanSupplier condition, String goal) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(JOIN_TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            for (SimulatedClient client : clients) {
+                if (client.getErrorMessage() != null) {
+                    throw new IllegalStateException(client.getName() + " failed: " + client.getErrorMessage());
+                }
+            }
+            if (!engine.tick() || System.nanoTime() > deadline) {
+                throw new IllegalStateException("Failed to " + goal);
+            }
+        }
+    }
+
+    private void runFor(int seconds, Context context, LoadTestReport report) {
+        long actionInterval = TimeUnit.SECONDS.toNanos(1) / actionsPerSecond;
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < end) {
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            long start = System.nanoTime();
+            if (!engine.tick()) {
+                throw new IllegalStateException("The server stopped");
+            }
+            long wallTime = System.nanoTime() - start;
+            long cpuTime = threads.getCurrentThreadCpuTime() - cpuStart;
+
+            // Clients act at a fixed rate however fast the server ticks
+            long now = System.nanoTime();
+            if (now >= nextActionTime) {
+                long delta = TimeUnit.NANOSECONDS.toMillis(actionInterval);
+                for (SimulatedClient client : clients) {
+                    client.act(context, delta);
+                }
+                nextActionTime = Math.max(nextActionTime + actionInterval, now - actionInterval);
+            }
+            if (report != null) {
+                report.recordTick(wallTime, cpuTime, PerformanceMonitor.getRunningMean());
+                report.recordTraffic(clients);
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.network;
+
+import com.google.common.collect.Maps;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.compression.Lz4FrameDecoder;
+import io.netty.handler.codec.compression.Lz4FrameEncoder;
+import io.netty.handler.codec.protobuf.ProtobufDecoder;
+import io.netty.handler.codec.protobuf.ProtobufEncoder;
+import org.joml.Vector3f;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.metadata.EventLibrary;
+import org.terasology.engine.entitySystem.metadata.EventMetadata;
+import org.terasology.engine.identity.CertificatePair;
+import org.terasology.engine.identity.ClientIdentity;
+import org.terasology.engine.logic.characters.CharacterMoveInputEvent;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.network.Client;
+import org.terasology.engine.network.ClientComponent;
+import org.terasology.engine.network.NetworkComponent;
+import org.terasology.engine.network.NetworkSystem;
+import org.terasology.engine.network.internal.ClientHandshakeHandler;
+import org.terasology.engine.network.internal.JoinStatusImpl;
+import org.terasology.engine.network.internal.MetricRecordingHandler;
+import org.terasology.engine.persistence.serializers.EventSerializer;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.gestalt.entitysystem.event.Event;
+import org.terasology.gestalt.naming.Name;
+import org.terasology.persistence.typeHandling.TypeHandlerLibrary;
+import org.terasology.protobuf.NetData;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A client which joins a server like a player does, and then acts according to a {@link BotProfile} instead of
+ * running a game of its own. It only keeps count of what it receives.
+ * <p>
+ * Bots run in the same process as the server, so they look up the net ids of their entities from the server and
+ * share its event library instead of replicating the world themselves.
+ */
+class SimulatedClient {
+    private static final ResourceUrn COMMAND_EVENT = new ResourceUrn("engine:CommandEvent");
+
+    private final String name;
+    private final BotProfile profile;
+    private final String[] editBlocks;
+    private final int viewDistance;
+    private final MetricRecordingHandler metrics = new MetricRecordingHandler();
+    private final JoinStatusImpl joinStatus = new JoinStatusImpl();
+
+    private Channel channel;
+    private volatile NetData.ServerInfoMessage serverInfo;
+    private volatile int clientNetId;
+    private volatile long serverTime;
+
+    private EventSerializer eventSerializer;
+    private int characterNetId;
+    private int sequenceNumber;
+    private int action;
+    private int edits;
+    private float yaw;
+
+    /**
+     * @param editBlocks the blocks the bot alternately replaces the block in front of it with
+     * @param viewDistance the index of the view distance the bot requests
+     */
+    SimulatedClient(String name, BotProfile profile, String[] editBlocks, int viewDistance) {
+        this.name = name;
+        this.profile = profile;
+        this.editBlocks = editBlocks;
+        this.viewDistance = viewDistance;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    BotProfile getProfile() {
+        return profile;
+    }
+
+    MetricRecordingHandler getMetrics() {
+        return metrics;
+    }
+
+    boolean isJoined() {
+        return clientNetId != 0;
+    }
+
+    String getErrorMessage() {
+        return joinStatus.getErrorMessage();
+    }
+
+    /**
+     * Connects with a new identity signed by the server, so every bot is a different player.
+     */
+    ChannelFuture connect(EventLoopGroup group, InetSocketAddress address, CertificatePair certificates) {
+        ClientIdentity identity = new ClientIdentity(certificates.getPublicCert(), certificates.getPrivateCert());
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .remoteAddress(address)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ChannelPipeline p = ch.pipeline();
+                        p.addLast(MetricRecordingHandler.NAME, metrics);
+
+                        p.addLast("inflateDecoder", new Lz4FrameDecoder());
+                        p.addLast("lengthFrameDecoder", new LengthFieldBasedFrameDecoder(8388608, 0, 3, 0, 3));
+                        p.addLast("protobufDecoder", new ProtobufDecoder(NetData.NetMessage.getDefaultInstance()));
+
+                        p.addLast("deflateEncoder", new Lz4FrameEncoder(true));
+                        p.addLast("frameLengthEncoder", new LengthFieldPrepender(3));
+                        p.addLast("protobufEncoder", new ProtobufEncoder());
+
+                        p.addLast("authenticationHandler", new ClientHandshakeHandler(joinStatus, identity));
+                        p.addLast("handler", new BotHandler());
+                    }
+                });
+        ChannelFuture future = bootstrap.connect();
+        channel = future.channel();
+        return future;
+    }
+
+    void disconnect() {
+        if (channel != null) {
+            channel.close().awaitUninterruptibly();
+        }
+    }
+
+    /**
+     * Takes the next scripted action, once the server spawned the character of the bot.
+     *
+     * @param context the context of the game the server runs
+     * @param delta the time since the previous action, in milliseconds
+     */
+    void act(Context context, long delta) {
+        if (!isJoined() || !resolveCharacter(context)) {
+            return;
+        }
+        NetData.NetMessage.Builder message = NetData.NetMessage.newBuilder().setTime(serverTime);
+
+        yaw = (yaw + profile.getTurnRate()) % 360;
+        Vector3f direction = new Vector3f();
+        if (profile.isMoving()) {
+            direction.set(0, 0, -1).rotateY((float) Math.toRadians(yaw));
+        }
+        addEvent(message, characterNetId, new CharacterMoveInputEvent(sequenceNumber++, profile.getPitch(), yaw,
+                direction, profile.isMoving(), false, false, delta));
+
+        if (profile.isEditing(action)) {
+            String block = editBlocks[edits++ % editBlocks.length];
+            addEvent(message, clientNetId, createCommand(context, "replaceBlock", block));
+        }
+        if (profile.isChatting(action)) {
+            addEvent(message, clientNetId, createCommand(context, "say", "Message " + action + " from " + name));
+        }
+        action++;
+        channel.writeAndFlush(message.build());
+    }
+
+    private boolean resolveCharacter(Context context) {
+        if (characterNetId != 0) {
+            return true;
+        }
+        NetworkSystem networkSystem = context.get(NetworkSystem.class);
+        for (Client client : networkSystem.getPlayers()) {
+            NetworkComponent network = client.getEntity().getComponent(NetworkComponent.class);
+            if (network == null || network.getNetworkId() != clientNetId) {
+                continue;
+            }
+            ClientComponent clientComponent = client.getEntity().getComponent(ClientComponent.class);
+            EntityRef character = clientComponent.character;
+            NetworkComponent characterNetwork = character.getComponent(NetworkComponent.class);
+            if (characterNetwork == null || characterNetwork.getNetworkId() == 0) {
+                return false;
+            }
+            // Editing blocks by command is a cheat, as players normally have to use items
+            context.get(PermissionManager.class).addPermission(clientComponent.clientInfo,
+                    PermissionManager.CHEAT_PERMISSION);
+            eventSerializer = createEventSerializer(context);
+            characterNetId = characterNetwork.getNetworkId();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Maps the events to the ids the server announced, as the client network system does.
+     */
+    private EventSerializer createEventSerializer(Context context) {
+        EventLibrary eventLibrary = context.get(EventLibrary.class);
+        Map<Class<? extends Event>, Integer> idTable = Maps.newHashMap();
+        for (NetData.SerializationInfo info : serverInfo.getEventList()) {
+            EventMetadata<? extends Event> metadata = eventLibrary.getMetadata(new ResourceUrn(info.getName()));
+            if (metadata != null) {
+                idTable.put(metadata.getType(), info.getId());
+            }
+        }
+        EventSerializer serializer = new EventSerializer(eventLibrary, context.get(TypeHandlerLibrary.class));
+        serializer.setIdMapping(idTable);
+        return serializer;
+    }
+
+    /**
+     * Creates the event the console sends for commands which run on the server.
+     */
+    private static Event createCommand(Context context, String command, String... parameters) {
+        EventMetadata<? extends Event> metadata = context.get(EventLibrary.class).getMetadata(COMMAND_EVENT);
+        Event event = metadata.newInstance();
+        metadata.getField("commandName").setValue(event, new Name(command));
+        metadata.getField("parameters").setValue(event, Arrays.asList(parameters));
+        return event;
+    }
+
+    private void addEvent(NetData.NetMessage.Builder message, int targetId, Event event) {
+        message.addEvent(NetData.EventMessage.newBuilder()
+                .setTargetId(targetId)
+                .setEvent(eventSerializer.serialize(event)));
+    }
+
+    /**
+     * Joins once authenticated, and then only tracks the server time.
+     */
+    private class BotHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            NetData.NetMessage message = (NetData.NetMessage) msg;
+            if (message.hasTime()) {
+                serverTime = message.getTime();
+            }
+            if (message.hasServerInfo() && serverInfo == null) {
+                serverInfo = message.getServerInfo();
+                ctx.channel().writeAndFlush(NetData.NetMessage.newBuilder()
+                        .setJoin(NetData.JoinMessage.newBuilder()
+                                .setName(name)
+                                .setViewDistanceLevel(viewDistance)
+                                .setColor(NetData.Color.newBuilder().setRgba(0xff0000ff)))
+                        .build());
+            }
+            if (message.hasJoinComplete()) {
+                clientNetId = message.getJoinComplete().getClientId();
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            joinStatus.setErrorMessage(cause.getMessage());
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.noise;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.utilities.procedural.BrownianNoise;
+import org.terasology.engine.utilities.procedural.Noise;
+import org.terasology.engine.utilities.procedural.PerlinNoise;
+import org.terasology.engine.utilities.procedural.SimplexNoise;
+import org.terasology.engine.world.block.BlockArea;
+import org.terasology.engine.world.block.BlockRegion;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sampling noise one position at a time with sampling a whole area or region at once, for the area of a
+ * chunk column with a border and for a chunk sized region.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NoiseBenchmark {
+    private static final float SCALE = 0.01f;
+    private static final BlockArea AREA = new BlockArea(-8, -8).setSize(48, 48);
+    private static final BlockRegion REGION = new BlockRegion(0, 0, 0).setSize(32, 64, 32);
+
+    @Benchmark
+    public float[] areaSingle(NoiseState state) {
+        float[] result = new float[AREA.area()];
+        int i = 0;
+        for (int y = AREA.minY(); y <= AREA.maxY(); y++) {
+            for (int x = AREA.minX(); x <= AREA.maxX(); x++) {
+                result[i++] = state.noise.noise(x * SCALE, y * SCALE);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public float[] areaBatch(NoiseState state) {
+        return state.noise.noise(AREA, SCALE);
+    }
+
+    @Benchmark
+    public float[] regionSingle(NoiseState state) {
+        float[] result = new float[REGION.volume()];
+        int i = 0;
+        for (int z = REGION.minZ(); z <= REGION.maxZ(); z++) {
+            for (int y = REGION.minY(); y <= REGION.maxY(); y++) {
+                for (int x = REGION.minX(); x <= REGION.maxX(); x++) {
+                    result[i++] = state.noise.noise(x * SCALE, y * SCALE, z * SCALE);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public float[] regionBatch(NoiseState state) {
+        return state.noise.noise(REGION, SCALE);
+    }
+
+    public enum NoiseType {
+        SIMPLEX,
+        PERLIN,
+        BROWNIAN_SIMPLEX
+    }
+
+    @State(Scope.Thread)
+    public static class NoiseState {
+
+        @Param({"SIMPLEX", "PERLIN", "BROWNIAN_SIMPLEX"})
+        private NoiseType type;
+
+        @Param("1")
+        private long seed;
+
+        private Noise noise;
+
+        @Setup
+        public void setup() {
+            switch (type) {
+                case SIMPLEX:
+                    noise = new SimplexNoise(seed);
+                    break;
+                case PERLIN:
+                    noise = new PerlinNoise(seed);
+                    break;
+                case BROWNIAN_SIMPLEX:
+                    noise = new BrownianNoise(new SimplexNoise(seed), 8);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown noise type " + type);
+            }
+        }
+    }
+}
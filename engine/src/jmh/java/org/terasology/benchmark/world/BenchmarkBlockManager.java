@@ -0,0 +1,246 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+import com.google.common.collect.Maps;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.joml.Vector3ic;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockAppearance;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockPart;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.DefaultColorSource;
+import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.engine.world.block.shapes.BlockMeshPart;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.nui.Color;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A fixed set of blocks built in code, so world benchmarks run without the asset system. The blocks get the flags and
+ * roughly the shapes the core blocks have, which is what tessellation and lighting depend on.
+ */
+final class BenchmarkBlockManager extends BlockManager {
+    /**
+     * How far the surface of liquids is lowered, like the engine's liquid shapes do.
+     */
+    private static final float LIQUID_LOWERING = 0.125f;
+
+    final Block air;
+    final Block unloaded;
+    final Block stone;
+    final Block dirt;
+    final Block grass;
+    final Block water;
+    final Block log;
+    final Block leaf;
+    final Block tallGrass;
+    final Block torch;
+
+    private final Block[] blocksById;
+    private final Map<BlockUri, Block> blocksByUri = Maps.newHashMap();
+
+    BenchmarkBlockManager() {
+        air = createBlock(AIR_ID);
+        air.setTranslucent(true);
+        air.setPenetrable(true);
+        air.setShadowCasting(false);
+        unloaded = createBlock(UNLOADED_ID);
+
+        stone = createCube("stone");
+        dirt = createCube("dirt");
+        grass = createCube("grass");
+        grass.setGrass(true);
+        log = createCube("log");
+
+        water = createCube("water");
+        water.setLiquid(true);
+        water.setWater(true);
+        water.setTranslucent(true);
+        water.setPenetrable(true);
+        water.setShadowCasting(false);
+        for (Side side : Side.allSides()) {
+            water.setFullSide(side, false);
+            water.setLowLiquidMesh(side, createSide(side, 0.5f - LIQUID_LOWERING));
+            water.setTopLiquidMesh(side, createSide(side, 0.5f));
+        }
+
+        leaf = createCube("leaf");
+        leaf.setTranslucent(true);
+        leaf.setWaving(true);
+
+        tallGrass = createBlock(blockUri("tallGrass"));
+        tallGrass.setTranslucent(true);
+        tallGrass.setDoubleSided(true);
+        tallGrass.setWaving(true);
+        tallGrass.setPenetrable(true);
+        tallGrass.setShadowCasting(false);
+        Map<BlockPart, BlockMeshPart> billboard = Maps.newEnumMap(BlockPart.class);
+        billboard.put(BlockPart.CENTER, createBillboard());
+        tallGrass.setPrimaryAppearance(createAppearance(billboard));
+
+        torch = createCube("torch");
+        torch.setLuminance(Chunks.MAX_LIGHT);
+
+        List<Block> blocks = Arrays.asList(air, unloaded, stone, dirt, grass, log, water, leaf, tallGrass, torch);
+        blocksById = new Block[blocks.size()];
+        for (short id = 0; id < blocksById.length; id++) {
+            Block block = blocks.get(id);
+            block.setId(id);
+            blocksById[id] = block;
+            blocksByUri.put(block.getURI(), block);
+        }
+    }
+
+    private static BlockUri blockUri(String name) {
+        return new BlockUri(new ResourceUrn("benchmark", name));
+    }
+
+    private static Block createBlock(BlockUri uri) {
+        Block block = new Block();
+        block.setUri(uri);
+        block.setColorSource(DefaultColorSource.DEFAULT);
+        block.setColorOffsets(Color.white);
+        return block;
+    }
+
+    private static Block createCube(String name) {
+        Block block = createBlock(blockUri(name));
+        Map<BlockPart, BlockMeshPart> parts = Maps.newEnumMap(BlockPart.class);
+        for (Side side : Side.allSides()) {
+            parts.put(BlockPart.fromSide(side), createSide(side, 0.5f));
+            block.setFullSide(side, true);
+        }
+        block.setPrimaryAppearance(createAppearance(parts));
+        return block;
+    }
+
+    private static BlockAppearance createAppearance(Map<BlockPart, BlockMeshPart> parts) {
+        Map<BlockPart, Vector2f> atlasPositions = Maps.newEnumMap(BlockPart.class);
+        for (BlockPart part : BlockPart.values()) {
+            atlasPositions.put(part, new Vector2f());
+        }
+        return new BlockAppearance(parts, atlasPositions);
+    }
+
+    /**
+     * Creates the quad covering a side of a cube, wound counter-clockwise when seen from outside.
+     *
+     * @param top the height of the upper edge of the cube
+     */
+    private static BlockMeshPart createSide(Side side, float top) {
+        Vector3ic normal = side.direction();
+        int normalAxis = normal.x() != 0 ? 0 : normal.y() != 0 ? 1 : 2;
+        int sign = normal.get(normalAxis);
+        int uAxis = (normalAxis + (sign > 0 ? 1 : 2)) % 3;
+        int vAxis = (normalAxis + (sign > 0 ? 2 : 1)) % 3;
+        float[][] corners = {{-0.5f, -0.5f}, {0.5f, -0.5f}, {0.5f, 0.5f}, {-0.5f, 0.5f}};
+
+        Vector3f[] vertices = new Vector3f[corners.length];
+        Vector3f[] normals = new Vector3f[corners.length];
+        Vector2f[] texCoords = new Vector2f[corners.length];
+        for (int i = 0; i < corners.length; i++) {
+            Vector3f vertex = new Vector3f()
+                    .setComponent(normalAxis, sign * 0.5f)
+                    .setComponent(uAxis, corners[i][0])
+                    .setComponent(vAxis, corners[i][1]);
+            vertex.y = Math.min(vertex.y, top);
+            vertices[i] = vertex;
+            normals[i] = new Vector3f(normal.x(), normal.y(), normal.z());
+            texCoords[i] = new Vector2f(corners[i][0] + 0.5f, 0.5f - corners[i][1]);
+        }
+        return new BlockMeshPart(vertices, normals, texCoords, new int[]{0, 1, 2, 0, 2, 3});
+    }
+
+    /**
+     * Creates two crossed quads along the diagonals of the block, like plants are shaped.
+     */
+    private static BlockMeshPart createBillboard() {
+        float[][] diagonals = {{-0.5f, -0.5f, 0.5f, 0.5f}, {-0.5f, 0.5f, 0.5f, -0.5f}};
+        Vector3f[] vertices = new Vector3f[8];
+        Vector3f[] normals = new Vector3f[8];
+        Vector2f[] texCoords = new Vector2f[8];
+        int[] indices = new int[12];
+        for (int quad = 0; quad < diagonals.length; quad++) {
+            float[] diagonal = diagonals[quad];
+            int first = quad * 4;
+            vertices[first] = new Vector3f(diagonal[0], -0.5f, diagonal[1]);
+            vertices[first + 1] = new Vector3f(diagonal[2], -0.5f, diagonal[3]);
+            vertices[first + 2] = new Vector3f(diagonal[2], 0.5f, diagonal[3]);
+            vertices[first + 3] = new Vector3f(diagonal[0], 0.5f, diagonal[1]);
+            Vector3f normal = new Vector3f(diagonal[3] - diagonal[1], 0, diagonal[0] - diagonal[2]).normalize();
+            for (int i = 0; i < 4; i++) {
+                normals[first + i] = normal;
+            }
+            texCoords[first] = new Vector2f(0, 1);
+            texCoords[first + 1] = new Vector2f(1, 1);
+            texCoords[first + 2] = new Vector2f(1, 0);
+            texCoords[first + 3] = new Vector2f(0, 0);
+            int[] quadIndices = {first, first + 1, first + 2, first, first + 2, first + 3};
+            System.arraycopy(quadIndices, 0, indices, quad * 6, 6);
+        }
+        return new BlockMeshPart(vertices, normals, texCoords, indices);
+    }
+
+    @Override
+    public Map<String, Short> getBlockIdMap() {
+        return blocksByUri.values().stream().collect(Collectors.toMap(block -> block.getURI().toString(),
+                Block::getId));
+    }
+
+    @Override
+    public BlockFamily getBlockFamily(String uri) {
+        return null;
+    }
+
+    @Override
+    public BlockFamily getBlockFamily(BlockUri uri) {
+        return null;
+    }
+
+    @Override
+    public Block getBlock(String uri) {
+        return blocksByUri.get(new BlockUri(uri));
+    }
+
+    @Override
+    public Block getBlock(BlockUri uri) {
+        return blocksByUri.get(uri);
+    }
+
+    @Override
+    public Block getBlock(short id) {
+        return id >= 0 && id < blocksById.length ? blocksById[id] : unloaded;
+    }
+
+    @Override
+    public Collection<BlockUri> listRegisteredBlockUris() {
+        return Collections.unmodifiableSet(blocksByUri.keySet());
+    }
+
+    @Override
+    public Collection<BlockFamily> listRegisteredBlockFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int getBlockFamilyCount() {
+        return 0;
+    }
+
+    @Override
+    public Collection<Block> listRegisteredBlocks() {
+        return Collections.unmodifiableCollection(blocksByUri.values());
+    }
+}
@@ -0,0 +1,331 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.utilities.procedural.SimplexNoise;
+import org.terasology.engine.utilities.procedural.WhiteNoise;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockRegionc;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.engine.world.internal.ChunkViewCore;
+import org.terasology.engine.world.internal.ChunkViewCoreImpl;
+import org.terasology.engine.world.propagation.BatchPropagator;
+import org.terasology.engine.world.propagation.PropagationRules;
+import org.terasology.engine.world.propagation.PropagatorWorldView;
+import org.terasology.engine.world.propagation.StandardBatchPropagator;
+import org.terasology.engine.world.propagation.SunlightRegenBatchPropagator;
+import org.terasology.engine.world.propagation.light.InternalLightProcessor;
+import org.terasology.engine.world.propagation.light.LightPropagationRules;
+import org.terasology.engine.world.propagation.light.LightWorldView;
+import org.terasology.engine.world.propagation.light.SunlightPropagationRules;
+import org.terasology.engine.world.propagation.light.SunlightRegenPropagationRules;
+import org.terasology.engine.world.propagation.light.SunlightRegenWorldView;
+import org.terasology.engine.world.propagation.light.SunlightWorldView;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The chunks around the origin, generated from a seed and fully lit, like a world provider would hold them once the
+ * player stands at the origin. The same scenario and seed always give the same blocks and light.
+ * <p>
+ * The chunk at the origin holds the surface, with only sky in the chunks above it.
+ */
+final class BenchmarkWorld implements ChunkProvider {
+    /**
+     * The mean height of the surface, in the middle of the chunk at the origin.
+     */
+    static final int SURFACE_HEIGHT = Chunks.SIZE_Y / 2;
+    /**
+     * A height in the chunk at the origin above the highest hills and trees of all scenarios.
+     */
+    static final int SKY_HEIGHT = Chunks.SIZE_Y - 8;
+
+    private static final float SURFACE_SCALE = 0.02f;
+    private static final float CAVE_SCALE = 0.06f;
+    private static final int SOIL_DEPTH = 3;
+    private static final float TORCH_DENSITY = 0.02f;
+    private static final float TREE_SHARE = 1 / 16f;
+    private static final int TRUNK_HEIGHT = 5;
+    private static final int CROWN_RADIUS = 2;
+
+    private final ChunkScenario scenario;
+    private final BenchmarkBlockManager blockManager = new BenchmarkBlockManager();
+    private final ExtraBlockDataManager extraDataManager = new ExtraBlockDataManager();
+    private final Map<Vector3ic, Chunk> chunks = Maps.newHashMap();
+    private final BlockRegion chunkRegion = new BlockRegion(0, 0, 0).expand(Chunks.LOCAL_REGION_EXTENTS);
+
+    private final SimplexNoise surfaceNoise;
+    private final SimplexNoise caveNoise;
+    private final WhiteNoise plantNoise;
+    private final WhiteNoise treeNoise;
+
+    BenchmarkWorld(ChunkScenario scenario, long seed) {
+        this.scenario = scenario;
+        surfaceNoise = new SimplexNoise(seed);
+        caveNoise = new SimplexNoise(seed + 1);
+        plantNoise = new WhiteNoise(seed + 2);
+        treeNoise = new WhiteNoise(seed + 3);
+
+        for (Vector3ic chunkPos : chunkRegion) {
+            Chunk chunk = new ChunkImpl(chunkPos, blockManager, extraDataManager);
+            generate(chunk);
+            chunks.put(new Vector3i(chunkPos), chunk);
+        }
+        light();
+    }
+
+    BenchmarkBlockManager getBlockManager() {
+        return blockManager;
+    }
+
+    ExtraBlockDataManager getExtraDataManager() {
+        return extraDataManager;
+    }
+
+    /**
+     * @return the chunk at the origin, which holds the surface
+     */
+    Chunk getCenterChunk() {
+        return chunks.get(new Vector3i());
+    }
+
+    /**
+     * @return the view of the chunk at the origin and its neighbours the renderer tessellates that chunk from
+     */
+    ChunkViewCore getCenterView() {
+        return getSubview(chunkRegion, new Vector3i(1, 1, 1));
+    }
+
+    /**
+     * @return the height of the topmost solid block of the column
+     */
+    int getSurfaceHeight(int x, int z) {
+        return SURFACE_HEIGHT + Math.round(surfaceNoise.noise(x * SURFACE_SCALE, z * SURFACE_SCALE)
+                * scenario.getHillHeight());
+    }
+
+    /**
+     * Sets a block without any of the bookkeeping of a world provider.
+     *
+     * @return the block which was replaced
+     */
+    Block setBlock(Vector3ic worldPos, Block block) {
+        Chunk chunk = getChunk(Chunks.toChunkPos(worldPos, new Vector3i()));
+        return chunk.setBlock(Chunks.toRelative(worldPos, new Vector3i()), block);
+    }
+
+    /**
+     * Creates the propagators a world provider keeps its light up to date with, working on this world.
+     *
+     * @return the propagators in the order they have to process changes in
+     */
+    List<BatchPropagator> createPropagators() {
+        List<BatchPropagator> propagators = Lists.newArrayList();
+        propagators.add(new StandardBatchPropagator(new LightPropagationRules(), new LightWorldView(this)));
+        PropagatorWorldView regenWorldView = new SunlightRegenWorldView(this);
+        PropagationRules sunlightRules = new SunlightPropagationRules(regenWorldView);
+        PropagatorWorldView sunlightWorldView = new SunlightWorldView(this);
+        BatchPropagator sunlightPropagator = new StandardBatchPropagator(sunlightRules, sunlightWorldView);
+        propagators.add(new SunlightRegenBatchPropagator(new SunlightRegenPropagationRules(), regenWorldView,
+                sunlightPropagator, sunlightWorldView));
+        propagators.add(sunlightPropagator);
+        return propagators;
+    }
+
+    private void generate(Chunk chunk) {
+        BlockRegionc region = chunk.getRegion();
+        for (int x = region.minX(); x <= region.maxX(); x++) {
+            for (int z = region.minZ(); z <= region.maxZ(); z++) {
+                int surface = getSurfaceHeight(x, z);
+                for (int y = region.minY(); y <= region.maxY(); y++) {
+                    chunk.setBlock(Chunks.toRelative(x, y, z, new Vector3i()), getTerrain(x, y, z, surface));
+                }
+                if (isPlanted(x, z, surface) && region.contains(x, surface + 1, z)) {
+                    chunk.setBlock(Chunks.toRelative(x, surface + 1, z, new Vector3i()), blockManager.tallGrass);
+                }
+            }
+        }
+        if (scenario.getPlantDensity() > 0) {
+            // Crowns reach into the chunk from trees standing next to it
+            for (int x = region.minX() - CROWN_RADIUS; x <= region.maxX() + CROWN_RADIUS; x++) {
+                for (int z = region.minZ() - CROWN_RADIUS; z <= region.maxZ() + CROWN_RADIUS; z++) {
+                    if (isTree(x, z)) {
+                        generateTree(chunk, x, getSurfaceHeight(x, z), z);
+                    }
+                }
+            }
+        }
+    }
+
+    private Block getTerrain(int x, int y, int z, int surface) {
+        if (y > surface) {
+            return scenario.isFlooded() && y <= SURFACE_HEIGHT ? blockManager.water : blockManager.air;
+        }
+        if (isCave(x, y, z, surface)) {
+            boolean onFloor = !isCave(x, y - 1, z, surface);
+            return onFloor && random(plantNoise, x, y, z) < TORCH_DENSITY ? blockManager.torch : blockManager.air;
+        }
+        if (y == surface) {
+            return scenario.isFlooded() && y < SURFACE_HEIGHT ? blockManager.dirt : blockManager.grass;
+        }
+        return y > surface - SOIL_DEPTH ? blockManager.dirt : blockManager.stone;
+    }
+
+    private boolean isCave(int x, int y, int z, int surface) {
+        return y < surface - SOIL_DEPTH && scenario.getCaveDensity() > 0
+                && caveNoise.noise(x * CAVE_SCALE, y * CAVE_SCALE, z * CAVE_SCALE) > 1 - 2 * scenario.getCaveDensity();
+    }
+
+    private boolean isPlanted(int x, int z, int surface) {
+        return !isTree(x, z) && (!scenario.isFlooded() || surface >= SURFACE_HEIGHT)
+                && random(plantNoise, x, 0, z) < scenario.getPlantDensity();
+    }
+
+    private boolean isTree(int x, int z) {
+        return random(treeNoise, x, 0, z) < scenario.getPlantDensity() * TREE_SHARE;
+    }
+
+    private void generateTree(Chunk chunk, int x, int surface, int z) {
+        BlockRegionc region = chunk.getRegion();
+        int crownY = surface + TRUNK_HEIGHT;
+        for (int dx = -CROWN_RADIUS; dx <= CROWN_RADIUS; dx++) {
+            for (int dy = -CROWN_RADIUS; dy <= CROWN_RADIUS; dy++) {
+                for (int dz = -CROWN_RADIUS; dz <= CROWN_RADIUS; dz++) {
+                    if (dx * dx + dy * dy + dz * dz <= CROWN_RADIUS * CROWN_RADIUS + 1
+                            && region.contains(x + dx, crownY + dy, z + dz)) {
+                        chunk.setBlock(Chunks.toRelative(x + dx, crownY + dy, z + dz, new Vector3i()),
+                                blockManager.leaf);
+                    }
+                }
+            }
+        }
+        for (int y = surface + 1; y < crownY; y++) {
+            if (region.contains(x, y, z)) {
+                chunk.setBlock(Chunks.toRelative(x, y, z, new Vector3i()), blockManager.log);
+            }
+        }
+    }
+
+    /**
+     * @return a value in [0..1] only depending on the seed and the position
+     */
+    private static float random(WhiteNoise noise, int x, int y, int z) {
+        return (noise.noise(x, y, z) + 1) / 2;
+    }
+
+    /**
+     * Lights every chunk by itself, lets the sky shine into the topmost chunks and then spreads the light between
+     * the chunks from the top down, like the chunk provider does as chunks get ready.
+     */
+    private void light() {
+        int top = Chunks.SIZE_Y - 1;
+        List<Chunk> chunksTopDown = Lists.newArrayList(chunks.values());
+        chunksTopDown.sort(Comparator.comparingInt((Chunk chunk) -> -chunk.getPosition().y()));
+        for (Chunk chunk : chunksTopDown) {
+            if (chunk.getPosition().y() == chunkRegion.maxY()) {
+                for (int x = 0; x < Chunks.SIZE_X; x++) {
+                    for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                        chunk.setSunlight(x, top, z, Chunks.MAX_SUNLIGHT);
+                        chunk.setSunlightRegen(x, top, z, Chunks.MAX_SUNLIGHT_REGEN);
+                    }
+                }
+            }
+            InternalLightProcessor.generateInternalLighting(chunk);
+        }
+
+        for (BatchPropagator propagator : createPropagators()) {
+            for (Chunk chunk : chunksTopDown) {
+                for (Side side : Side.allSides()) {
+                    Chunk adjChunk = getChunk(side.getAdjacentPos(chunk.getPosition(), new Vector3i()));
+                    if (adjChunk != null) {
+                        propagator.propagateBetween(chunk, adjChunk, side, true);
+                    }
+                }
+            }
+            propagator.process();
+        }
+    }
+
+    @Override
+    public ChunkViewCore getSubview(BlockRegionc region, Vector3ic offset) {
+        Chunk[] viewChunks = new Chunk[region.volume()];
+        for (Vector3ic chunkPos : region) {
+            int index = (chunkPos.x() - region.minX()) + region.getSizeX()
+                    * ((chunkPos.z() - region.minZ()) + region.getSizeZ()
+                    * (chunkPos.y() - region.minY()));
+            viewChunks[index] = getChunk(chunkPos);
+        }
+        return new ChunkViewCoreImpl(viewChunks, region, offset, blockManager.air);
+    }
+
+    @Override
+    public void setWorldEntity(EntityRef entity) {
+        // do nothing
+    }
+
+    @Override
+    public void update() {
+        // do nothing
+    }
+
+    @Override
+    public boolean reloadChunk(Vector3ic pos) {
+        return false;
+    }
+
+    @Override
+    public void purgeWorld() {
+        // do nothing
+    }
+
+    @Override
+    public boolean isChunkReady(Vector3ic pos) {
+        return chunks.containsKey(pos);
+    }
+
+    @Override
+    public Chunk getChunk(int x, int y, int z) {
+        return chunks.get(new Vector3i(x, y, z));
+    }
+
+    @Override
+    public Chunk getChunk(Vector3ic chunkPos) {
+        return chunks.get(chunkPos);
+    }
+
+    @Override
+    public void dispose() {
+        // do nothing
+    }
+
+    @Override
+    public void shutdown() {
+        // do nothing
+    }
+
+    @Override
+    public Collection<Chunk> getAllChunks() {
+        return Collections.unmodifiableCollection(chunks.values());
+    }
+
+    @Override
+    public void restart() {
+        // do nothing
+    }
+}
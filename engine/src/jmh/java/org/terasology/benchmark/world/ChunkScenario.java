@@ -0,0 +1,67 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+/**
+ * The kinds of terrain the world benchmarks run on, each stressing different blocks of the tessellator and the light
+ * propagators.
+ */
+public enum ChunkScenario {
+    /**
+     * Level grassland, the best case with large uniform surfaces.
+     */
+    FLAT(0, 0, false, 0),
+    /**
+     * Hills riddled with torch lit caves, with many hidden surfaces and local light sources.
+     */
+    CAVES(16, 0.35f, false, 0),
+    /**
+     * Hills flooded up to a sea level, with translucent liquid surfaces.
+     */
+    WATER(16, 0, true, 0),
+    /**
+     * Hills covered by trees and tall grass, with waving and double sided blocks.
+     */
+    FOLIAGE(8, 0, false, 0.4f);
+
+    private final int hillHeight;
+    private final float caveDensity;
+    private final boolean flooded;
+    private final float plantDensity;
+
+    ChunkScenario(int hillHeight, float caveDensity, boolean flooded, float plantDensity) {
+        this.hillHeight = hillHeight;
+        this.caveDensity = caveDensity;
+        this.flooded = flooded;
+        this.plantDensity = plantDensity;
+    }
+
+    /**
+     * @return how far the surface rises and falls around its mean height
+     */
+    public int getHillHeight() {
+        return hillHeight;
+    }
+
+    /**
+     * @return the share of the underground which is hollowed out
+     */
+    public float getCaveDensity() {
+        return caveDensity;
+    }
+
+    /**
+     * @return whether everything below the mean surface height is filled with water
+     */
+    public boolean isFlooded() {
+        return flooded;
+    }
+
+    /**
+     * @return the share of the surface covered by plants
+     */
+    public float getPlantDensity() {
+        return plantDensity;
+    }
+}
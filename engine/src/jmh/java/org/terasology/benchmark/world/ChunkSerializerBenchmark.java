@@ -0,0 +1,64 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.internal.ChunkSerializer;
+import org.terasology.protobuf.EntityData;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes the chunk holding the surface like it is stored and sent to clients, and decodes it again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChunkSerializerBenchmark {
+
+    @Benchmark
+    public EntityData.ChunkStore encode(SerializerState state) {
+        return state.chunk.encode().build();
+    }
+
+    @Benchmark
+    public Chunk decode(SerializerState state) {
+        return ChunkSerializer.decode(state.message, state.world.getBlockManager(),
+                state.world.getExtraDataManager());
+    }
+
+    @State(Scope.Thread)
+    public static class SerializerState {
+
+        @Param({"FLAT", "CAVES", "WATER", "FOLIAGE"})
+        private ChunkScenario scenario;
+
+        @Param("1")
+        private long seed;
+
+        private BenchmarkWorld world;
+        private Chunk chunk;
+        private EntityData.ChunkStore message;
+
+        @Setup
+        public void setup() {
+            world = new BenchmarkWorld(scenario, seed);
+            chunk = world.getCenterChunk();
+            message = chunk.encode().build();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.rendering.primitives.ChunkMesh;
+import org.terasology.engine.rendering.primitives.ChunkTessellator;
+import org.terasology.engine.world.internal.ChunkViewCore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tessellates the chunk holding the surface. Only the vertex data is generated, nothing is uploaded to the GPU.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChunkTessellatorBenchmark {
+
+    @Benchmark
+    public ChunkMesh generateMesh(TessellatorState state) {
+        return state.tessellator.generateMesh(state.view);
+    }
+
+    @State(Scope.Thread)
+    public static class TessellatorState {
+
+        @Param({"FLAT", "CAVES", "WATER", "FOLIAGE"})
+        private ChunkScenario scenario;
+
+        @Param("1")
+        private long seed;
+
+        private ChunkTessellator tessellator;
+        private ChunkViewCore view;
+
+        @Setup
+        public void setup() {
+            view = new BenchmarkWorld(scenario, seed).getCenterView();
+            tessellator = new ChunkTessellator();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.propagation.BatchPropagator;
+import org.terasology.engine.world.propagation.BlockChange;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates the light after placing blocks in the sky above the surface, with the propagators a world provider uses.
+ * <p>
+ * Every invocation undoes the edit of the previous one, so the world stays the same without being rebuilt and the
+ * results are the mean of placing and removing the blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LightPropagationBenchmark {
+    private static final int FILL_HEIGHT = 4;
+    private static final Vector3ic SINGLE_POSITION =
+            new Vector3i(Chunks.SIZE_X / 2, BenchmarkWorld.SKY_HEIGHT, Chunks.SIZE_Z / 2);
+
+    @Benchmark
+    public void singleLightSource(LightState state) {
+        state.toggle(state.blockManager.torch, SINGLE_POSITION);
+    }
+
+    @Benchmark
+    public void singleBlock(LightState state) {
+        state.toggle(state.blockManager.stone, SINGLE_POSITION);
+    }
+
+    /**
+     * Covers the whole chunk with a slab, which shades everything below it.
+     */
+    @Benchmark
+    public void largeFill(LightState state) {
+        state.toggle(state.blockManager.stone, state.fillPositions);
+    }
+
+    @State(Scope.Thread)
+    public static class LightState {
+
+        @Param({"FLAT", "CAVES", "WATER", "FOLIAGE"})
+        private ChunkScenario scenario;
+
+        @Param("1")
+        private long seed;
+
+        private BenchmarkWorld world;
+        private BenchmarkBlockManager blockManager;
+        private List<BatchPropagator> propagators;
+        private Vector3ic[] fillPositions;
+        private boolean placed;
+
+        @Setup
+        public void setup() {
+            world = new BenchmarkWorld(scenario, seed);
+            blockManager = world.getBlockManager();
+            propagators = world.createPropagators();
+            BlockRegion fillRegion = new BlockRegion(0, BenchmarkWorld.SKY_HEIGHT, 0)
+                    .setSize(Chunks.SIZE_X, FILL_HEIGHT, Chunks.SIZE_Z);
+            fillPositions = new Vector3ic[fillRegion.volume()];
+            int i = 0;
+            for (Vector3ic pos : fillRegion) {
+                fillPositions[i++] = new Vector3i(pos);
+            }
+        }
+
+        /**
+         * Places the block at the positions, or replaces it with air again if the previous invocation placed it, and
+         * lets the propagators process the changes.
+         */
+        void toggle(Block block, Vector3ic... positions) {
+            Block from = placed ? block : blockManager.air;
+            Block to = placed ? blockManager.air : block;
+            BlockChange[] changes = new BlockChange[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                world.setBlock(positions[i], to);
+                changes[i] = new BlockChange(positions[i], from, to);
+            }
+            for (BatchPropagator propagator : propagators) {
+                propagator.process(changes);
+            }
+            placed = !placed;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.context.internal.ContextImpl;
+import org.terasology.engine.core.SimpleUri;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockEditBuffer;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.internal.WorldProviderCoreImpl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changes blocks through the world provider, which records the changes for the propagators, marks chunks dirty and
+ * notifies its listeners. The light is not updated, see {@link LightPropagationBenchmark} for that.
+ * <p>
+ * Every invocation undoes the edit of the previous one, so the results are the mean of placing and removing blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorldProviderBenchmark {
+    private static final int FILL_HEIGHT = 4;
+    private static final Vector3ic SINGLE_POSITION =
+            new Vector3i(Chunks.SIZE_X / 2, BenchmarkWorld.SKY_HEIGHT, Chunks.SIZE_Z / 2);
+
+    @Benchmark
+    public Block setBlock(WorldProviderState state) {
+        return state.worldProvider.setBlock(SINGLE_POSITION, state.nextBlock());
+    }
+
+    @Benchmark
+    public Map<Vector3ic, Block> setBlocks(WorldProviderState state) {
+        return state.worldProvider.setBlocks(state.nextBlock() == state.air ? state.clearFill : state.placeFill);
+    }
+
+    @Benchmark
+    public int setBlocksBuffered(WorldProviderState state) {
+        return state.worldProvider.setBlocks(state.nextBlock() == state.air ? state.clearBuffer : state.placeBuffer);
+    }
+
+    @State(Scope.Thread)
+    public static class WorldProviderState {
+
+        @Param({"FLAT", "FOLIAGE"})
+        private ChunkScenario scenario;
+
+        @Param("1")
+        private long seed;
+
+        private WorldProviderCoreImpl worldProvider;
+        private Block air;
+        private Block stone;
+        private Map<Vector3ic, Block> placeFill;
+        private Map<Vector3ic, Block> clearFill;
+        private BlockEditBuffer placeBuffer;
+        private BlockEditBuffer clearBuffer;
+        private boolean placed;
+
+        @Setup
+        public void setup() {
+            BenchmarkWorld world = new BenchmarkWorld(scenario, seed);
+            BenchmarkBlockManager blockManager = world.getBlockManager();
+            air = blockManager.air;
+            stone = blockManager.stone;
+            worldProvider = new WorldProviderCoreImpl("benchmark", null, Long.toString(seed),
+                    0, new SimpleUri("benchmark:" + scenario), world, blockManager.unloaded, new ContextImpl());
+
+            BlockRegion fillRegion = new BlockRegion(0, BenchmarkWorld.SKY_HEIGHT, 0)
+                    .setSize(Chunks.SIZE_X, FILL_HEIGHT, Chunks.SIZE_Z);
+            placeFill = Maps.newLinkedHashMap();
+            clearFill = Maps.newLinkedHashMap();
+            for (Vector3ic pos : fillRegion) {
+                placeFill.put(new Vector3i(pos), stone);
+                clearFill.put(new Vector3i(pos), air);
+            }
+            placeBuffer = new BlockEditBuffer().fill(fillRegion, stone);
+            clearBuffer = new BlockEditBuffer().fill(fillRegion, air);
+        }
+
+        /**
+         * @return stone, or air if the previous invocation placed stone
+         */
+        Block nextBlock() {
+            placed = !placed;
+            return placed ? stone : air;
+        }
+    }
+}
@@ -34,6 +34,12 @@ public class NetworkConfig {
      */
     private String masterServer = "meta.terasology.org";
 
+    /**
+     * The number of changed blocks within a chunk during one net tick above which the whole chunk gets sent to clients
+     * again, instead of the changes
+     */
+    private int chunkResendThreshold = 4096;
+
     public void clear() {
         servers.clear();
     }
@@ -62,6 +68,14 @@ public void setServerMOTD(String serverMOTD) {
         this.serverMOTD = serverMOTD;
     }
 
+    public int getChunkResendThreshold() {
+        return chunkResendThreshold;
+    }
+
+    public void setChunkResendThreshold(int chunkResendThreshold) {
+        this.chunkResendThreshold = chunkResendThreshold;
+    }
+
     public void addServerInfo(ServerInfo serverInfo) {
         servers.add(serverInfo);
     }
@@ -21,6 +21,7 @@
 
 public class SystemConfig extends AutoConfig {
     public static final String SAVED_GAMES_ENABLED_PROPERTY = "org.terasology.savedGamesEnabled";
+    public static final String CHUNK_REGIONS_ENABLED_PROPERTY = "org.terasology.chunkRegionsEnabled";
     public static final String PERMISSIVE_SECURITY_ENABLED_PROPERTY = "org.terasology.permissiveSecurityEnabled";
 
     public final Setting<Long> dayNightLengthInMs = setting(
@@ -72,6 +73,19 @@ public class SystemConfig extends AutoConfig {
                     .map(Boolean::parseBoolean))
     );
 
+    /**
+     * Whether chunks are stored in region files instead of chunk zips. Chunks of existing saves are migrated to region
+     * files when the save is loaded.
+     */
+    public final Setting<Boolean> chunkRegionStorageEnabled = setting(
+            type(Boolean.class),
+            defaultValue(true),
+            name("${engine:menu#settings-chunk-regions-enabled}"),
+            override(() -> Optional.ofNullable(
+                    System.getProperty(CHUNK_REGIONS_ENABLED_PROPERTY))
+                    .map(Boolean::parseBoolean))
+    );
+
     public final Setting<Long> chunkGenerationFailTimeoutInMs = setting(
             type(Long.class),
             defaultValue(1800000L),
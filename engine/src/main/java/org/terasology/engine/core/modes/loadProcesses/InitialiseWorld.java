@@ -3,7 +3,6 @@
 
 package org.terasology.engine.core.modes.loadProcesses;
 
-import com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.config.SystemConfig;
@@ -113,6 +112,7 @@ public boolean step() {
         // Init. a new world
         EngineEntityManager entityManager = (EngineEntityManager) context.get(EntityManager.class);
         boolean writeSaveGamesEnabled = context.get(SystemConfig.class).writeSaveGamesEnabled.get();
+        boolean chunkRegionStorageEnabled = context.get(SystemConfig.class).chunkRegionStorageEnabled.get();
         //Gets save data from a normal save or from a recording if it is a replay
         Path saveOrRecordingPath = getSaveOrRecordingPath();
         StorageManager storageManager;
@@ -122,9 +122,10 @@ public boolean step() {
         try {
             storageManager = writeSaveGamesEnabled
                     ? new ReadWriteStorageManager(saveOrRecordingPath, environment, entityManager, blockManager,
-                    extraDataManager, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus)
+                    extraDataManager, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus,
+                    chunkRegionStorageEnabled)
                     : new ReadOnlyStorageManager(saveOrRecordingPath, environment, entityManager, blockManager,
-                    extraDataManager);
+                    extraDataManager, true, chunkRegionStorageEnabled);
         } catch (IOException e) {
             logger.error("Unable to create storage manager!", e);
             context.get(GameEngine.class).changeState(new StateMainMenu("Unable to create storage manager!"));
@@ -135,8 +136,7 @@ public boolean step() {
                 entityManager,
                 worldGenerator,
                 blockManager,
-                extraDataManager,
-                Maps.newConcurrentMap());
+                extraDataManager);
         RelevanceSystem relevanceSystem = new RelevanceSystem(chunkProvider);
         context.put(RelevanceSystem.class, relevanceSystem);
         context.get(ComponentSystemManager.class).register(relevanceSystem, "engine:relevanceSystem");
@@ -6,12 +6,16 @@
 import com.google.common.collect.Maps;
 import gnu.trove.iterator.TLongIterator;
 import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
 import org.terasology.gestalt.entitysystem.component.Component;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -79,6 +83,70 @@ public int getComponentCount(Class<? extends Component> componentClass) {
         return (map == null) ? 0 : map.size();
     }
 
+    /**
+     * Finds the entities which have all of the given components. Only the entities of the rarest component are
+     * visited, and the tables of the other components are probed from the smallest to the largest.
+     *
+     * @return a new list of the ids of these entities
+     */
+    public TLongList getEntityIdsWith(Class<? extends Component>[] componentClasses) {
+        List<TLongObjectMap<Component>> tables = getTablesBySize(componentClasses);
+        if (tables.isEmpty()) {
+            return new TLongArrayList(0);
+        }
+        TLongList result = new TLongArrayList(tables.get(0).size());
+        tables.get(0).forEachKey(id -> {
+            if (isInAllTables(id, tables)) {
+                result.add(id);
+            }
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * @return the number of entities which have all of the given components
+     */
+    public int getCountOfEntitiesWith(Class<? extends Component>[] componentClasses) {
+        List<TLongObjectMap<Component>> tables = getTablesBySize(componentClasses);
+        if (tables.isEmpty()) {
+            return 0;
+        }
+        int[] count = new int[1];
+        tables.get(0).forEachKey(id -> {
+            if (isInAllTables(id, tables)) {
+                count[0]++;
+            }
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * @return the tables of the given components, smallest first, or an empty list if no entity can have all of them
+     */
+    private List<TLongObjectMap<Component>> getTablesBySize(Class<? extends Component>[] componentClasses) {
+        List<TLongObjectMap<Component>> tables = Lists.newArrayListWithCapacity(componentClasses.length);
+        for (Class<? extends Component> componentClass : componentClasses) {
+            TLongObjectMap<Component> entityMap = store.get(componentClass);
+            if (entityMap == null || entityMap.isEmpty()) {
+                return Collections.emptyList();
+            }
+            tables.add(entityMap);
+        }
+        tables.sort(Comparator.comparingInt(TLongObjectMap::size));
+        return tables;
+    }
+
+    private static boolean isInAllTables(long entityId, List<TLongObjectMap<Component>> tables) {
+        for (int i = 1; i < tables.size(); i++) {
+            if (!tables.get(i).containsKey(entityId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      *
      * @return an iterable that should be only used for iteration over the components. It can't be used to remove
@@ -2,7 +2,6 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.engine.entitySystem.entity.internal;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
 import org.joml.Quaternionfc;
 import org.joml.Vector3fc;
@@ -285,18 +284,12 @@ public EntityRef getEntity(long entityId) {
     @SafeVarargs
     @Override
     public final Iterable<EntityRef> getEntitiesWith(Class<? extends Component>... componentClasses) {
-        return () -> entityStore.keySet().stream()
-                //Keep entities which have all of the required components
-                .filter(id -> {
-                    for (Class<? extends Component> component : componentClasses) {
-                        if (componentStore.get(id, component) == null) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .map(id -> getEntity(id))
-                .iterator();
+        if (componentClasses.length == 0) {
+            return () -> entityStore.keySet().stream()
+                    .map(id -> getEntity(id))
+                    .iterator();
+        }
+        return () -> new EntityIterator(componentStore.getEntityIdsWith(componentClasses).iterator(), this);
     }
 
     @Override
@@ -307,7 +300,7 @@ public int getCountOfEntitiesWith(Class<? extends Component>[] componentClasses)
             case 1:
                 return componentStore.getComponentCount(componentClasses[0]);
             default:
-                return Lists.newArrayList(getEntitiesWith(componentClasses)).size();
+                return componentStore.getCountOfEntitiesWith(componentClasses);
         }
     }
 
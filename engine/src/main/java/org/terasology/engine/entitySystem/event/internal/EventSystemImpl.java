@@ -33,10 +33,14 @@
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 
 import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -56,6 +60,19 @@ public class EventSystemImpl implements EventSystem {
     private SetMultimap<Class<? extends Event>, EventHandlerInfo> generalHandlers = HashMultimap.create();
     private Comparator<EventHandlerInfo> priorityComparator = new EventHandlerPriorityComparator();
 
+    /**
+     * All handlers of an event type sorted by priority, built on first use and dropped whenever handlers change.
+     */
+    private Map<Class<? extends Event>, EventHandlerInfo[]> dispatchTables = Maps.newHashMap();
+    private Map<Class<? extends Event>, Map<Class<? extends Component>, EventHandlerInfo[]>> componentDispatchTables =
+            Maps.newHashMap();
+    /**
+     * Selection masks of event types with more than 64 handlers, one per level of nested sends on the main thread.
+     * They are reused, so such sends don't allocate either.
+     */
+    private final List<long[]> selectionMasks = Lists.newArrayList();
+    private int selectionDepth;
+
     // Event metadata
     private BiMap<ResourceUrn, Class<? extends Event>> eventIdMap = HashBiMap.create();
     private SetMultimap<Class<? extends Event>, Class<? extends Event>> childEvents = HashMultimap.create();
@@ -154,6 +171,7 @@ public void registerEventHandler(ComponentSystem handler) {
 
     @Override
     public void unregisterEventHandler(ComponentSystem handler) {
+        invalidateDispatchTables();
         componentSpecificHandlers.values().stream()
                 .map(eventHandlers -> eventHandlers.values().iterator())
                 .forEach(eventHandlerIterator -> {
@@ -176,6 +194,7 @@ public void unregisterEventHandler(ComponentSystem handler) {
 
     private void addEventHandler(Class<? extends Event> type, EventHandlerInfo handler, Collection<Class<?
             extends Component>> components) {
+        invalidateDispatchTables();
         if (components.isEmpty()) {
             generalHandlers.put(type, handler);
             for (Class<? extends Event> childType : childEvents.get(type)) {
@@ -217,6 +236,7 @@ public <T extends Event> void registerEventReceiver(EventReceiver<T> eventReceiv
     @Override
     public <T extends Event> void unregisterEventReceiver(EventReceiver<T> eventReceiver, Class<T> eventClass, Class<
             ? extends Component>... componentTypes) {
+        invalidateDispatchTables();
         SetMultimap<Class<? extends Component>, EventHandlerInfo> eventHandlerMap =
                 componentSpecificHandlers.get(eventClass);
         if (eventHandlerMap != null) {
@@ -240,82 +260,147 @@ public <T extends Event> void unregisterEventReceiver(EventReceiver<T> eventRece
         }
     }
 
+    private void invalidateDispatchTables() {
+        dispatchTables.clear();
+        componentDispatchTables.clear();
+    }
+
+    private EventHandlerInfo[] getDispatchTable(Class<? extends Event> eventType) {
+        EventHandlerInfo[] table = dispatchTables.get(eventType);
+        if (table == null) {
+            Set<EventHandlerInfo> handlers = Sets.newLinkedHashSet(generalHandlers.get(eventType));
+            SetMultimap<Class<? extends Component>, EventHandlerInfo> componentHandlers =
+                    componentSpecificHandlers.get(eventType);
+            if (componentHandlers != null) {
+                handlers.addAll(componentHandlers.values());
+            }
+            table = sortedTable(handlers);
+            dispatchTables.put(eventType, table);
+        }
+        return table;
+    }
+
+    private EventHandlerInfo[] getDispatchTable(Class<? extends Event> eventType,
+                                                Class<? extends Component> componentType) {
+        Map<Class<? extends Component>, EventHandlerInfo[]> tables =
+                componentDispatchTables.computeIfAbsent(eventType, k -> Maps.newHashMap());
+        EventHandlerInfo[] table = tables.get(componentType);
+        if (table == null) {
+            SetMultimap<Class<? extends Component>, EventHandlerInfo> componentHandlers =
+                    componentSpecificHandlers.get(eventType);
+            table = sortedTable(componentHandlers != null
+                    ? componentHandlers.get(componentType) : Collections.emptySet());
+            tables.put(componentType, table);
+        }
+        return table;
+    }
+
+    private EventHandlerInfo[] sortedTable(Collection<EventHandlerInfo> handlers) {
+        EventHandlerInfo[] table = handlers.toArray(new EventHandlerInfo[0]);
+        Arrays.sort(table, priorityComparator);
+        return table;
+    }
+
     @Override
     public void send(EntityRef entity, Event event) {
         if (Thread.currentThread() != mainThread) {
             pendingEvents.offer(new PendingEvent(entity, event));
         } else {
-            Set<EventHandlerInfo> selectedHandlersSet = selectEventHandlers(event.getClass(), entity);
-            List<EventHandlerInfo> selectedHandlers = Lists.newArrayList(selectedHandlersSet);
-            selectedHandlers.sort(priorityComparator);
-
-            if (event instanceof ConsumableEvent) {
-                sendConsumableEvent(entity, event, selectedHandlers);
+            EventHandlerInfo[] handlers = getDispatchTable(event.getClass());
+            if (handlers.length <= Long.SIZE) {
+                sendToSelectedHandlers(entity, event, handlers, selectEventHandlers(handlers, entity));
             } else {
-                sendStandardEvent(entity, event, selectedHandlers);
+                long[] selected = acquireSelectionMask(handlers.length);
+                try {
+                    selectManyEventHandlers(handlers, entity, selected);
+                    sendToSelectedHandlers(entity, event, handlers, selected);
+                } finally {
+                    selectionDepth--;
+                }
             }
         }
     }
 
-    private void sendStandardEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
-        for (EventHandlerInfo handler : selectedHandlers) {
-            // Check isValid at each stage in case components were removed.
-            if (handler.isValidFor(entity)) {
-                handler.invoke(entity, event);
+    /**
+     * Handlers are selected before the first one is invoked, so a handler which only becomes valid due to an earlier
+     * handler does not receive the event.
+     *
+     * @return a mask of the handlers valid for the entity, bit i standing for the handler at index i.
+     */
+    private static long selectEventHandlers(EventHandlerInfo[] handlers, EntityRef entity) {
+        long selected = 0;
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i].isValidFor(entity)) {
+                selected |= 1L << i;
             }
         }
+        return selected;
     }
 
-    private void sendConsumableEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
-        ConsumableEvent consumableEvent = (ConsumableEvent) event;
-        for (EventHandlerInfo handler : selectedHandlers) {
-            // Check isValid at each stage in case components were removed.
-            if (handler.isValidFor(entity)) {
-                handler.invoke(entity, event);
-                if (consumableEvent.isConsumed()) {
-                    return;
-                }
+    /**
+     * @return the selection mask of the current nesting level of sends, holding at least the given number of bits
+     */
+    private long[] acquireSelectionMask(int handlerCount) {
+        int words = (handlerCount + Long.SIZE - 1) / Long.SIZE;
+        if (selectionDepth == selectionMasks.size()) {
+            selectionMasks.add(new long[words]);
+        } else if (selectionMasks.get(selectionDepth).length < words) {
+            selectionMasks.set(selectionDepth, new long[words]);
+        }
+        return selectionMasks.get(selectionDepth++);
+    }
+
+    /**
+     * Like {@link #selectEventHandlers}, with bit i of the mask standing for the handler at index i.
+     */
+    private static void selectManyEventHandlers(EventHandlerInfo[] handlers, EntityRef entity, long[] selected) {
+        Arrays.fill(selected, 0);
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i].isValidFor(entity)) {
+                selected[i / Long.SIZE] |= 1L << i;
             }
         }
     }
 
-    @Override
-    public void send(EntityRef entity, Event event, Component component) {
-        if (Thread.currentThread() != mainThread) {
-            pendingEvents.offer(new PendingEvent(entity, event, component));
-        } else {
-            SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers =
-                    componentSpecificHandlers.get(event.getClass());
-            if (handlers != null) {
-                List<EventHandlerInfo> eventHandlers = Lists.newArrayList(handlers.get(component.getClass()));
-                eventHandlers.sort(priorityComparator);
-                for (EventHandlerInfo eventHandler : eventHandlers) {
-                    if (eventHandler.isValidFor(entity)) {
-                        eventHandler.invoke(entity, event);
-                    }
-                }
+    private void sendToSelectedHandlers(EntityRef entity, Event event, EventHandlerInfo[] handlers, long selected) {
+        for (int i = 0; i < handlers.length; i++) {
+            if ((selected & (1L << i)) != 0 && sendToHandler(entity, event, handlers[i])) {
+                return;
             }
         }
     }
 
-    private Set<EventHandlerInfo> selectEventHandlers(Class<? extends Event> eventType, EntityRef entity) {
-        Set<EventHandlerInfo> result = Sets.newHashSet();
-        result.addAll(generalHandlers.get(eventType));
-        SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers = componentSpecificHandlers.get(eventType);
-        if (handlers == null) {
-            return result;
+    private void sendToSelectedHandlers(EntityRef entity, Event event, EventHandlerInfo[] handlers, long[] selected) {
+        for (int i = 0; i < handlers.length; i++) {
+            if ((selected[i / Long.SIZE] & (1L << i)) != 0 && sendToHandler(entity, event, handlers[i])) {
+                return;
+            }
         }
+    }
 
-        for (Class<? extends Component> compClass : handlers.keySet()) {
-            if (entity.hasComponent(compClass)) {
-                for (EventHandlerInfo eventHandler : handlers.get(compClass)) {
-                    if (eventHandler.isValidFor(entity)) {
-                        result.add(eventHandler);
-                    }
+    /**
+     * @return true if the event got consumed.
+     */
+    private static boolean sendToHandler(EntityRef entity, Event event, EventHandlerInfo handler) {
+        // Check isValid at each stage in case components were removed.
+        if (handler.isValidFor(entity)) {
+            handler.invoke(entity, event);
+            return event instanceof ConsumableEvent && ((ConsumableEvent) event).isConsumed();
+        }
+        return false;
+    }
+
+    @Override
+    public void send(EntityRef entity, Event event, Component component) {
+        if (Thread.currentThread() != mainThread) {
+            pendingEvents.offer(new PendingEvent(entity, event, component));
+        } else {
+            for (EventHandlerInfo eventHandler : getDispatchTable(event.getClass(), component.getClass())) {
+                if (eventHandler.isValidFor(entity)) {
+                    eventHandler.invoke(entity, event);
                 }
             }
         }
-        return result;
     }
 
     @Override
@@ -342,10 +427,17 @@ public int compare(EventHandlerInfo o1, EventHandlerInfo o2) {
     }
 
     private static class ByteCodeEventHandlerInfo implements EventHandlerInfo {
+        private static final int MAX_DIRECT_COMPONENT_PARAMS = 3;
+
         private ComponentSystem handler;
         private String activity;
         private MethodAccess methodAccess;
         private int methodIndex;
+        /**
+         * Bound to the handler and taking all parameters as objects, so it can be invoked without a parameter array.
+         * Null if the method has more component parameters than {@link #MAX_DIRECT_COMPONENT_PARAMS}.
+         */
+        private MethodHandle methodHandle;
         private ImmutableList<Class<? extends Component>> filterComponents;
         private ImmutableList<Class<? extends Component>> componentParams;
         private int priority;
@@ -365,6 +457,20 @@ private static class ByteCodeEventHandlerInfo implements EventHandlerInfo {
             this.filterComponents = ImmutableList.copyOf(filterComponents);
             this.componentParams = ImmutableList.copyOf(componentParams);
             this.priority = priority;
+            this.methodHandle = createMethodHandle(handler, method, componentParams.size());
+        }
+
+        private static MethodHandle createMethodHandle(ComponentSystem handler, Method method, int componentParamCount) {
+            if (componentParamCount > MAX_DIRECT_COMPONENT_PARAMS) {
+                return null;
+            }
+            try {
+                return MethodHandles.lookup().unreflect(method).bindTo(handler)
+                        .asType(MethodType.genericMethodType(2 + componentParamCount).changeReturnType(void.class));
+            } catch (IllegalAccessException e) {
+                logger.debug("Falling back to reflective invocation of {}", method, e);
+                return null;
+            }
         }
 
         @Override
@@ -384,6 +490,44 @@ public void invoke(EntityRef entity, Event event) {
             //
             // There might be specific events that can be safely handled here. In that case, we should add the try-catch
             // back in for the most specific exception type as possible.
+            if (methodHandle == null) {
+                invokeWithParamArray(entity, event);
+                return;
+            }
+            Object first = componentParams.size() > 0 ? entity.getComponent(componentParams.get(0)) : null;
+            Object second = componentParams.size() > 1 ? entity.getComponent(componentParams.get(1)) : null;
+            Object third = componentParams.size() > 2 ? entity.getComponent(componentParams.get(2)) : null;
+
+            if (activity != null) {
+                PerformanceMonitor.startActivity(activity);
+            }
+            try {
+                switch (componentParams.size()) {
+                    case 0:
+                        methodHandle.invokeExact((Object) event, (Object) entity);
+                        break;
+                    case 1:
+                        methodHandle.invokeExact((Object) event, (Object) entity, first);
+                        break;
+                    case 2:
+                        methodHandle.invokeExact((Object) event, (Object) entity, first, second);
+                        break;
+                    default:
+                        methodHandle.invokeExact((Object) event, (Object) entity, first, second, third);
+                        break;
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            } finally {
+                if (activity != null) {
+                    PerformanceMonitor.endActivity();
+                }
+            }
+        }
+
+        private void invokeWithParamArray(EntityRef entity, Event event) {
             Object[] params = new Object[2 + componentParams.size()];
             params[0] = event;
             params[1] = entity;
@@ -391,7 +535,6 @@ public void invoke(EntityRef entity, Event event) {
                 params[i + 2] = entity.getComponent(componentParams.get(i));
             }
 
-
             if (activity != null) {
                 PerformanceMonitor.startActivity(activity);
             }
@@ -6,8 +6,10 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.network.BroadcastEvent;
+import org.terasology.engine.network.CompactEncoding;
 import org.terasology.engine.network.OwnerEvent;
 import org.terasology.engine.network.ServerEvent;
+import org.terasology.engine.network.serialization.CompactEventEncoder;
 import org.terasology.gestalt.assets.ResourceUrn;
 import org.terasology.gestalt.entitysystem.event.Event;
 import org.terasology.reflection.copy.CopyStrategyLibrary;
@@ -24,7 +26,9 @@
     private NetworkEventType networkEventType = NetworkEventType.NONE;
     private boolean lagCompensated;
     private boolean skipInstigator;
+    private CompactEventEncoder<T> compactEncoder;
 
+    @SuppressWarnings("unchecked")
     public EventMetadata(Class<T> simpleClass, CopyStrategyLibrary copyStrategies, ReflectFactory factory, ResourceUrn uri)
             throws NoSuchMethodException {
         super(uri.toString(), simpleClass, factory, copyStrategies, Predicates.<Field>alwaysTrue());
@@ -40,6 +44,14 @@ public EventMetadata(Class<T> simpleClass, CopyStrategyLibrary copyStrategies, R
         if (networkEventType != NetworkEventType.NONE && !isConstructable() && !Modifier.isAbstract(simpleClass.getModifiers())) {
             logger.error("Event '{}' is a network event but lacks a default constructor - will not be replicated", this);
         }
+        if (simpleClass.getAnnotation(CompactEncoding.class) != null) {
+            try {
+                compactEncoder = (CompactEventEncoder<T>) simpleClass.getAnnotation(CompactEncoding.class).value()
+                        .getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                logger.error("Failed to create compact encoder of event '{}' - will be serialized generically", this, e);
+            }
+        }
     }
 
     /**
@@ -70,6 +82,13 @@ public boolean isSkipInstigator() {
         return skipInstigator;
     }
 
+    /**
+     * @return The encoder replacing the generic serialization of this event, or null if there is none
+     */
+    public CompactEventEncoder<T> getCompactEncoder() {
+        return compactEncoder;
+    }
+
     @Override
     protected ReplicatedFieldMetadata<T, ?> createField(Field field, CopyStrategyLibrary copyStrategyLibrary, ReflectFactory factory)
             throws InaccessibleFieldException {
@@ -9,9 +9,11 @@
 import org.joml.Vector3fc;
 import org.joml.Vector3i;
 import org.terasology.engine.network.BroadcastEvent;
+import org.terasology.engine.network.CompactEncoding;
 import org.terasology.engine.network.NetworkEvent;
 
 @BroadcastEvent
+@CompactEncoding(CharacterStateEventEncoder.class)
 public class CharacterStateEvent extends NetworkEvent {
     private long time;
     private int sequenceNumber;
@@ -0,0 +1,283 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.logic.characters;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.terasology.engine.network.serialization.CompactEventEncoder;
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Encodes the states of characters replicated to clients.
+ * <p>
+ * Positions are stored as offset within their chunk in fixed point, rotations as the smallest three components of the
+ * quaternion in 10 bits each, and velocities and angles in fixed point too. Time and sequence number are stored as
+ * difference to the previous state, and all other values only if they changed.
+ */
+public class CharacterStateEventEncoder implements CompactEventEncoder<CharacterStateEvent> {
+    /* Steps per block */
+    static final float POSITION_SCALE = 512f;
+    /* Steps per block per second */
+    static final float VELOCITY_SCALE = 256f;
+    /* Steps per degree */
+    static final float ANGLE_SCALE = 64f;
+
+    private static final int ROTATION_BITS = 10;
+    private static final int ROTATION_MAX = (1 << ROTATION_BITS) - 1;
+    private static final float ROTATION_RANGE = (float) Math.sqrt(0.5);
+
+    private static final int CHUNK = 1;
+    private static final int POSITION = 1 << 1;
+    private static final int ROTATION = 1 << 2;
+    private static final int VELOCITY = 1 << 3;
+    private static final int YAW = 1 << 4;
+    private static final int PITCH = 1 << 5;
+    private static final int MODE = 1 << 6;
+    private static final int GROUNDED = 1 << 7;
+    private static final int FOOTSTEP = 1 << 8;
+    private static final int CLIMB = 1 << 9;
+    private static final int ALL = CHUNK | POSITION | ROTATION | VELOCITY | YAW | PITCH | MODE | FOOTSTEP | CLIMB;
+
+    private static final MovementMode[] MODES = MovementMode.values();
+
+    @Override
+    public CharacterStateEvent encode(CharacterStateEvent event, CharacterStateEvent previous, CodedOutputStream out)
+            throws IOException {
+        State state = new State(event);
+        State base = previous != null ? new State(previous) : null;
+        if (base == null) {
+            out.writeInt64NoTag(state.time);
+            out.writeInt32NoTag(state.sequenceNumber);
+        } else {
+            out.writeSInt64NoTag(state.time - base.time);
+            out.writeSInt32NoTag(state.sequenceNumber - base.sequenceNumber);
+        }
+        int changes = base != null ? state.getChanges(base) : ALL;
+        if (state.grounded) {
+            changes |= GROUNDED;
+        }
+        out.writeUInt32NoTag(changes);
+        if ((changes & CHUNK) != 0) {
+            writeDelta(out, state.chunk, base != null ? base.chunk : null);
+        }
+        if ((changes & POSITION) != 0) {
+            writeDelta(out, state.position, base != null ? base.position : null);
+        }
+        if ((changes & ROTATION) != 0) {
+            out.writeFixed32NoTag(state.rotation);
+        }
+        if ((changes & VELOCITY) != 0) {
+            writeDelta(out, state.velocity, base != null ? base.velocity : null);
+        }
+        if ((changes & YAW) != 0) {
+            out.writeSInt32NoTag(state.yaw - (base != null ? base.yaw : 0));
+        }
+        if ((changes & PITCH) != 0) {
+            out.writeSInt32NoTag(state.pitch - (base != null ? base.pitch : 0));
+        }
+        if ((changes & MODE) != 0) {
+            out.writeUInt32NoTag(state.mode);
+        }
+        if ((changes & FOOTSTEP) != 0) {
+            out.writeFloatNoTag(state.footstepDelta);
+        }
+        if ((changes & CLIMB) != 0) {
+            out.writeBoolNoTag(state.climbDirection != null);
+            if (state.climbDirection != null) {
+                writeDelta(out, state.climbDirection, null);
+            }
+        }
+        return state.toEvent();
+    }
+
+    @Override
+    public CharacterStateEvent decode(CharacterStateEvent previous, CodedInputStream in) throws IOException {
+        State state;
+        if (previous == null) {
+            state = new State();
+            state.time = in.readInt64();
+            state.sequenceNumber = in.readInt32();
+        } else {
+            state = new State(previous);
+            state.time += in.readSInt64();
+            state.sequenceNumber += in.readSInt32();
+        }
+        int changes = in.readUInt32();
+        state.grounded = (changes & GROUNDED) != 0;
+        if ((changes & CHUNK) != 0) {
+            readDelta(in, state.chunk);
+        }
+        if ((changes & POSITION) != 0) {
+            readDelta(in, state.position);
+        }
+        if ((changes & ROTATION) != 0) {
+            state.rotation = in.readFixed32();
+        }
+        if ((changes & VELOCITY) != 0) {
+            readDelta(in, state.velocity);
+        }
+        if ((changes & YAW) != 0) {
+            state.yaw += in.readSInt32();
+        }
+        if ((changes & PITCH) != 0) {
+            state.pitch += in.readSInt32();
+        }
+        if ((changes & MODE) != 0) {
+            state.mode = in.readUInt32();
+            if (state.mode >= MODES.length) {
+                throw new IOException("Unknown movement mode " + state.mode);
+            }
+        }
+        if ((changes & FOOTSTEP) != 0) {
+            state.footstepDelta = in.readFloat();
+        }
+        if ((changes & CLIMB) != 0) {
+            state.climbDirection = in.readBool() ? readDelta(in, new Vector3i()) : null;
+        }
+        return state.toEvent();
+    }
+
+    private static void writeDelta(CodedOutputStream out, Vector3i value, Vector3i base) throws IOException {
+        out.writeSInt32NoTag(base != null ? value.x - base.x : value.x);
+        out.writeSInt32NoTag(base != null ? value.y - base.y : value.y);
+        out.writeSInt32NoTag(base != null ? value.z - base.z : value.z);
+    }
+
+    /**
+     * Adds the values read to the given vector, which is zero when the values were written without a base.
+     */
+    private static Vector3i readDelta(CodedInputStream in, Vector3i dest) throws IOException {
+        return dest.add(in.readSInt32(), in.readSInt32(), in.readSInt32());
+    }
+
+    static int packRotation(Quaternionfc rotation) {
+        float[] components = {rotation.x(), rotation.y(), rotation.z(), rotation.w()};
+        int largest = 0;
+        for (int i = 1; i < 4; i++) {
+            if (Math.abs(components[i]) > Math.abs(components[largest])) {
+                largest = i;
+            }
+        }
+        float sign = components[largest] < 0 ? -1 : 1;
+        int packed = largest;
+        for (int i = 0; i < 4; i++) {
+            if (i != largest) {
+                float normalized = (sign * components[i] / ROTATION_RANGE + 1) / 2;
+                int quantized = Math.round(normalized * ROTATION_MAX);
+                packed = (packed << ROTATION_BITS) | Math.max(0, Math.min(ROTATION_MAX, quantized));
+            }
+        }
+        return packed;
+    }
+
+    static Quaternionf unpackRotation(int packed, Quaternionf dest) {
+        int largest = packed >>> (3 * ROTATION_BITS);
+        float[] components = new float[4];
+        float sum = 0;
+        for (int i = 3; i >= 0; i--) {
+            if (i != largest) {
+                float normalized = (float) (packed & ROTATION_MAX) / ROTATION_MAX;
+                components[i] = (normalized * 2 - 1) * ROTATION_RANGE;
+                sum += components[i] * components[i];
+                packed >>>= ROTATION_BITS;
+            }
+        }
+        components[largest] = (float) Math.sqrt(Math.max(0, 1 - sum));
+        return dest.set(components[0], components[1], components[2], components[3]);
+    }
+
+    /**
+     * A character state quantized to the precision it is encoded with.
+     */
+    private static final class State {
+        private long time;
+        private int sequenceNumber;
+        private final Vector3i chunk = new Vector3i();
+        private final Vector3i position = new Vector3i();
+        private int rotation;
+        private final Vector3i velocity = new Vector3i();
+        private int yaw;
+        private int pitch;
+        private int mode;
+        private boolean grounded;
+        private float footstepDelta;
+        private Vector3i climbDirection;
+
+        State() {
+        }
+
+        State(CharacterStateEvent event) {
+            time = event.getTime();
+            sequenceNumber = event.getSequenceNumber();
+            Vector3f worldPos = event.getPosition();
+            chunk.set(Chunks.toChunkPosX((int) Math.floor(worldPos.x)),
+                    Chunks.toChunkPosY((int) Math.floor(worldPos.y)),
+                    Chunks.toChunkPosZ((int) Math.floor(worldPos.z)));
+            position.set(Math.round((worldPos.x - chunk.x * Chunks.SIZE_X) * POSITION_SCALE),
+                    Math.round((worldPos.y - chunk.y * Chunks.SIZE_Y) * POSITION_SCALE),
+                    Math.round((worldPos.z - chunk.z * Chunks.SIZE_Z) * POSITION_SCALE));
+            rotation = packRotation(event.getRotation());
+            Vector3f worldVelocity = event.getVelocity();
+            velocity.set(Math.round(worldVelocity.x * VELOCITY_SCALE), Math.round(worldVelocity.y * VELOCITY_SCALE),
+                    Math.round(worldVelocity.z * VELOCITY_SCALE));
+            yaw = Math.round(event.getYaw() * ANGLE_SCALE);
+            pitch = Math.round(event.getPitch() * ANGLE_SCALE);
+            mode = event.getMode().ordinal();
+            grounded = event.isGrounded();
+            footstepDelta = event.getFootstepDelta();
+            climbDirection = event.getClimbDirection() != null ? new Vector3i(event.getClimbDirection()) : null;
+        }
+
+        int getChanges(State base) {
+            int changes = 0;
+            if (!chunk.equals(base.chunk)) {
+                changes |= CHUNK;
+            }
+            if (!position.equals(base.position)) {
+                changes |= POSITION;
+            }
+            if (rotation != base.rotation) {
+                changes |= ROTATION;
+            }
+            if (!velocity.equals(base.velocity)) {
+                changes |= VELOCITY;
+            }
+            if (yaw != base.yaw) {
+                changes |= YAW;
+            }
+            if (pitch != base.pitch) {
+                changes |= PITCH;
+            }
+            if (mode != base.mode) {
+                changes |= MODE;
+            }
+            if (Float.compare(footstepDelta, base.footstepDelta) != 0) {
+                changes |= FOOTSTEP;
+            }
+            if (!Objects.equals(climbDirection, base.climbDirection)) {
+                changes |= CLIMB;
+            }
+            return changes;
+        }
+
+        CharacterStateEvent toEvent() {
+            Vector3f worldPos = new Vector3f(chunk.x * Chunks.SIZE_X + position.x / POSITION_SCALE,
+                    chunk.y * Chunks.SIZE_Y + position.y / POSITION_SCALE,
+                    chunk.z * Chunks.SIZE_Z + position.z / POSITION_SCALE);
+            CharacterStateEvent event = new CharacterStateEvent(time, sequenceNumber, worldPos,
+                    unpackRotation(rotation, new Quaternionf()), new Vector3f(velocity).div(VELOCITY_SCALE),
+                    yaw / ANGLE_SCALE, pitch / ANGLE_SCALE, MODES[mode], grounded);
+            event.setFootstepDelta(footstepDelta);
+            event.setClimbDirection(climbDirection != null ? new Vector3i(climbDirection) : null);
+            return event;
+        }
+    }
+}
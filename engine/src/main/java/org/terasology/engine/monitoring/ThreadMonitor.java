@@ -13,11 +13,14 @@
 
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.IntSupplier;
 
 public final class ThreadMonitor {
 
     private static final EventBus EVENT_BUS = new EventBus("ThreadMonitor");
     private static final Map<Thread, SingleThreadMonitor> THREAD_INFO_BY_ID = Maps.newConcurrentMap();
+    private static final Map<String, IntSupplier> QUEUE_DEPTHS = Maps.newConcurrentMap();
 
     private ThreadMonitor() {
     }
@@ -44,6 +47,32 @@ public static synchronized List<SingleThreadMonitor> getThreadMonitors(boolean a
         return getThreadMonitors(Lists.<SingleThreadMonitor>newArrayList(), aliveThreadsOnly);
     }
 
+    /**
+     * Registers a named work queue whose depth should be reported alongside the thread monitors.
+     * A queue registered under an already used name replaces the previous one.
+     *
+     * @param queueName name to report the queue under
+     * @param depth supplier of the current number of queued items, polled from arbitrary threads
+     */
+    public static void registerQueue(String queueName, IntSupplier depth) {
+        Preconditions.checkNotNull(queueName, "The parameter 'queueName' must not be null");
+        Preconditions.checkNotNull(depth, "The parameter 'depth' must not be null");
+        QUEUE_DEPTHS.put(queueName, depth);
+    }
+
+    public static void unregisterQueue(String queueName) {
+        QUEUE_DEPTHS.remove(queueName);
+    }
+
+    /**
+     * @return the current depth of every registered queue, sorted by queue name
+     */
+    public static SortedMap<String, Integer> getQueueDepths() {
+        SortedMap<String, Integer> result = Maps.newTreeMap();
+        QUEUE_DEPTHS.forEach((name, depth) -> result.put(name, depth.getAsInt()));
+        return result;
+    }
+
     public static void registerForEvents(Object object) {
         Preconditions.checkNotNull(object, "The parameter 'object' must not be null");
         EVENT_BUS.register(object);
@@ -28,6 +28,17 @@ public interface SingleThreadMonitor extends Comparable<SingleThreadMonitor> {
 
     long getCounter(String task);
 
+    /**
+     * @return the accumulated time, in nanoseconds, this thread has spent running the given task
+     */
+    long getTotalTime(String task);
+
+    /**
+     * @return the mean time, in milliseconds, of a single completed run of the given task, or 0 if it never
+     *         completed
+     */
+    double getAverageTime(String task);
+
     void beginTask(String task);
 
     void endTask();
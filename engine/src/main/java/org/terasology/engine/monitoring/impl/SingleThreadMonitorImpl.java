@@ -9,7 +9,9 @@
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
 import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.TObjectLongMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
+import gnu.trove.map.hash.TObjectLongHashMap;
 
 import java.lang.ref.WeakReference;
 import java.util.Deque;
@@ -21,6 +23,8 @@ public class SingleThreadMonitorImpl implements SingleThreadMonitor {
     private final String name;
     private final WeakReference<Thread> ref;
     private final TObjectIntMap<String> taskCounters = new TObjectIntHashMap<>();
+    private final TObjectIntMap<String> completedTaskCounters = new TObjectIntHashMap<>();
+    private final TObjectLongMap<String> taskTimes = new TObjectLongHashMap<>();
     private final Set<String> tasks = Sets.newLinkedHashSet();
 
     private final long id;
@@ -29,6 +33,7 @@ public class SingleThreadMonitorImpl implements SingleThreadMonitor {
 
     private boolean active;
     private String lastTask = "";
+    private long lastTaskStart;
 
     public SingleThreadMonitorImpl(Thread thread) {
         Preconditions.checkNotNull(thread, "The parameter 'thread' must not be null");
@@ -97,6 +102,21 @@ public final synchronized long getCounter(String task) {
         return taskCounters.get(task);
     }
 
+    @Override
+    public final synchronized long getTotalTime(String task) {
+        return taskTimes.get(task);
+    }
+
+    @Override
+    public final synchronized double getAverageTime(String task) {
+        // a task still running has no time recorded yet
+        int count = completedTaskCounters.get(task);
+        if (count == 0) {
+            return 0;
+        }
+        return taskTimes.get(task) / 1_000_000.0 / count;
+    }
+
     @Override
     public final synchronized void beginTask(String task) {
         if (taskCounters.adjustOrPutValue(task, 1, 1) == 1) {
@@ -104,10 +124,16 @@ public final synchronized void beginTask(String task) {
         }
         active = true;
         lastTask = task;
+        lastTaskStart = System.nanoTime();
     }
 
     @Override
     public final synchronized void endTask() {
+        if (active) {
+            long elapsed = System.nanoTime() - lastTaskStart;
+            taskTimes.adjustOrPutValue(lastTask, elapsed, elapsed);
+            completedTaskCounters.adjustOrPutValue(lastTask, 1, 1);
+        }
         active = false;
     }
 
@@ -0,0 +1,28 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network;
+
+import org.terasology.engine.network.serialization.CompactEventEncoder;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for network events which are sent frequently, to replace their generic serialization with a specialised
+ * encoder when they are sent from the server to clients.
+ * <br><br>
+ * The encoder may send only the differences to the previous event of the same type a client received for the same
+ * entity, so this is only useful for events which target entities.
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CompactEncoding {
+    /**
+     * @return The encoder to use, which needs a public default constructor
+     */
+    Class<? extends CompactEventEncoder<?>> value();
+}
@@ -29,4 +29,22 @@ public interface NetMetricSource {
      * @return The amount of bytes sent since last time this method was called
      */
     int getSentBytesSinceLastCall();
+
+    /**
+     * @return The amount of replicated entities and events taken from the per tick replication cache since last time
+     * this method was called
+     */
+    int getReplicationCacheHitsSinceLastCall();
+
+    /**
+     * @return The amount of replicated entities and events which had to be serialized since last time this method was
+     * called
+     */
+    int getReplicationCacheMissesSinceLastCall();
+
+    /**
+     * @return The time in nanoseconds spent serializing replicated entities and events since last time this method was
+     * called
+     */
+    long getSerializationNanosSinceLastCall();
 }
@@ -52,6 +52,12 @@ public interface NetworkSystem extends BlockRegistrationListener {
 
     int getOutgoingBytesDelta();
 
+    int getReplicationCacheHitsDelta();
+
+    int getReplicationCacheMissesDelta();
+
+    long getSerializationNanosDelta();
+
     void forceDisconnect(Client client);
 
     void setContext(Context context);
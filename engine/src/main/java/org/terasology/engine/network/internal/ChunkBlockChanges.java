@@ -0,0 +1,115 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network.internal;
+
+import com.google.common.base.Preconditions;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.block.BlockEditBuffer;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.protobuf.NetData;
+
+import java.util.Arrays;
+
+/**
+ * The block changes within one chunk during a net tick, coalesced so only the last change of every block gets sent.
+ * <p>
+ * On the wire, changed blocks are identified by their index within the chunk, sorted and stored as differences to the
+ * previous index. The new blocks are stored as run length encoded indices into a palette of the block ids used, so
+ * large edits with few different blocks stay small.
+ */
+class ChunkBlockChanges {
+    private final Vector3i chunkPos;
+    private final TIntIntMap blockIds = new TIntIntHashMap();
+
+    ChunkBlockChanges(Vector3ic chunkPos) {
+        this.chunkPos = new Vector3i(chunkPos);
+    }
+
+    static int toIndex(int x, int y, int z) {
+        return x + Chunks.SIZE_X * (z + Chunks.SIZE_Z * y);
+    }
+
+    /**
+     * @param worldPos the position of a block within the chunk
+     */
+    void set(Vector3ic worldPos, short blockId) {
+        blockIds.put(toIndex(Chunks.toRelativeX(worldPos.x()),
+                Chunks.toRelativeY(worldPos.y()),
+                Chunks.toRelativeZ(worldPos.z())), blockId);
+    }
+
+    /**
+     * @return the number of changed blocks
+     */
+    int size() {
+        return blockIds.size();
+    }
+
+    Vector3ic getChunkPos() {
+        return chunkPos;
+    }
+
+    NetData.ChunkBlockChangesMessage encode() {
+        int[] indices = blockIds.keys();
+        Arrays.sort(indices);
+        NetData.ChunkBlockChangesMessage.Builder message = NetData.ChunkBlockChangesMessage.newBuilder()
+                .setChunkPos(NetMessageUtil.convert(chunkPos));
+        TIntIntMap paletteIndices = new TIntIntHashMap(16, 0.5f, -1, -1);
+        int previousIndex = 0;
+        int runValue = -1;
+        int runLength = 0;
+        for (int index : indices) {
+            message.addIndexDeltas(index - previousIndex);
+            previousIndex = index;
+
+            int blockId = blockIds.get(index);
+            int paletteIndex = paletteIndices.get(blockId);
+            if (paletteIndex == -1) {
+                paletteIndex = paletteIndices.size();
+                paletteIndices.put(blockId, paletteIndex);
+                message.addPalette(blockId);
+            }
+            if (paletteIndex != runValue) {
+                if (runLength > 0) {
+                    message.addRunValues(runValue).addRunLengths(runLength);
+                }
+                runValue = paletteIndex;
+                runLength = 0;
+            }
+            runLength++;
+        }
+        if (runLength > 0) {
+            message.addRunValues(runValue).addRunLengths(runLength);
+        }
+        return message.build();
+    }
+
+    /**
+     * Adds the changes of a message to an edit buffer, so they can be applied in one go.
+     */
+    static void decode(NetData.ChunkBlockChangesMessage message, BlockManager blockManager, BlockEditBuffer edits) {
+        Preconditions.checkArgument(message.getRunValuesCount() == message.getRunLengthsCount(),
+                "Expected same number of values as runs");
+        Vector3i chunkPos = NetMessageUtil.convert(message.getChunkPos());
+        int offsetX = chunkPos.x * Chunks.SIZE_X;
+        int offsetY = chunkPos.y * Chunks.SIZE_Y;
+        int offsetZ = chunkPos.z * Chunks.SIZE_Z;
+        int change = 0;
+        int index = 0;
+        for (int run = 0; run < message.getRunValuesCount(); run++) {
+            short blockId = (short) message.getPalette(message.getRunValues(run));
+            for (int i = 0; i < message.getRunLengths(run); i++) {
+                index += message.getIndexDeltas(change++);
+                int x = index % Chunks.SIZE_X;
+                int z = (index / Chunks.SIZE_X) % Chunks.SIZE_Z;
+                int y = index / (Chunks.SIZE_X * Chunks.SIZE_Z);
+                edits.add(offsetX + x, offsetY + y, offsetZ + z, blockManager.getBlock(blockId));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.chunks.Chunk;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The chunks waiting to be sent to a client, closest to the client first.
+ * <p>
+ * Removed chunks are only dropped from the heap once they reach its head, and the heap gets rebuilt whenever the
+ * client moves into another chunk, which also clears out removed chunks.
+ */
+class ChunkSendQueue {
+    private final Map<Vector3i, Chunk> chunks = Maps.newHashMap();
+    private final Vector3i center = new Vector3i();
+    private final Comparator<Vector3i> byDistance = Comparator.comparingLong(pos -> pos.distanceSquared(center));
+    private PriorityQueue<Vector3i> queue = new PriorityQueue<>(byDistance);
+
+    void add(Vector3ic chunkPos, Chunk chunk) {
+        Vector3i pos = new Vector3i(chunkPos);
+        if (chunks.put(pos, chunk) == null) {
+            queue.add(pos);
+        }
+    }
+
+    void remove(Vector3ic chunkPos) {
+        chunks.remove(chunkPos);
+    }
+
+    boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    int size() {
+        return chunks.size();
+    }
+
+    /**
+     * @param centerChunk the position of the chunk the client is in
+     */
+    void setCenter(Vector3ic centerChunk) {
+        if (!center.equals(centerChunk)) {
+            center.set(centerChunk);
+            rebuild();
+        } else if (queue.size() > 2 * chunks.size() + 64) {
+            rebuild();
+        }
+    }
+
+    /**
+     * @return the chunk closest to the center, or null if the queue is empty
+     */
+    Chunk poll() {
+        while (!queue.isEmpty()) {
+            Chunk chunk = chunks.remove(queue.poll());
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        PriorityQueue<Vector3i> rebuilt = new PriorityQueue<>(Math.max(1, chunks.size()), byDistance);
+        rebuilt.addAll(chunks.keySet());
+        queue = rebuilt;
+    }
+}
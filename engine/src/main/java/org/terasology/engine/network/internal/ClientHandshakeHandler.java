@@ -54,6 +54,14 @@ public ClientHandshakeHandler(JoinStatusImpl joinStatus) {
         this.joinStatus = joinStatus;
     }
 
+    /**
+     * @param identity the identity to authenticate with, instead of the one stored in the config for the server
+     */
+    public ClientHandshakeHandler(JoinStatusImpl joinStatus, ClientIdentity identity) {
+        this.joinStatus = joinStatus;
+        this.identity = identity;
+    }
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         super.channelActive(ctx);
@@ -198,7 +206,9 @@ private void processServerHello(NetData.HandshakeHello helloMessage, ChannelHand
 
             clientRandom = new byte[IdentityConstants.SERVER_CLIENT_RANDOM_LENGTH];
 
-            identity = config.getSecurity().getIdentity(serverCertificate);
+            if (identity == null) {
+                identity = config.getSecurity().getIdentity(serverCertificate);
+            }
             if (identity == null) {
                 requestIdentity(ctx);
             } else {
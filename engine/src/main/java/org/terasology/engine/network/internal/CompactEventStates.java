@@ -0,0 +1,125 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.terasology.engine.entitySystem.metadata.EventLibrary;
+import org.terasology.engine.entitySystem.metadata.EventMetadata;
+import org.terasology.engine.network.CompactEncoding;
+import org.terasology.engine.network.serialization.CompactEventEncoder;
+import org.terasology.engine.persistence.serializers.EventSerializer;
+import org.terasology.gestalt.entitysystem.event.Event;
+import org.terasology.persistence.typeHandling.DeserializationException;
+import org.terasology.persistence.typeHandling.SerializationException;
+import org.terasology.protobuf.EntityData;
+
+import java.io.IOException;
+
+/**
+ * Encodes and decodes the events with a {@link CompactEncoding} exchanged over one connection, each as difference to
+ * the previous event of the same type for the same entity.
+ * <p>
+ * As the connection is reliable and ordered, the sender knows the previous event the receiver decoded without it being
+ * acknowledged. The state of an entity is dropped when the entity gets removed, and every
+ * {@link #FULL_EVENT_INTERVAL}th event is encoded in full, so both sides get back in sync even if an event for an
+ * entity got dropped around its removal.
+ */
+class CompactEventStates {
+    static final int FULL_EVENT_INTERVAL = 20;
+
+    private static final int FULL = 0;
+    private static final int DELTA = 1;
+
+    private final EventLibrary eventLibrary;
+    private final EventSerializer eventSerializer;
+    private final Table<Integer, Class<? extends Event>, State> states = HashBasedTable.create();
+
+    CompactEventStates(EventLibrary eventLibrary, EventSerializer eventSerializer) {
+        this.eventLibrary = eventLibrary;
+        this.eventSerializer = eventSerializer;
+    }
+
+    /**
+     * @return whether the event has to be serialized with {@link #serialize}
+     */
+    boolean isCompact(Event event) {
+        EventMetadata<?> metadata = eventLibrary.getMetadata(event.getClass());
+        return metadata != null && metadata.getCompactEncoder() != null;
+    }
+
+    /**
+     * @param netId the entity the event is sent to
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Event> EntityData.Event serialize(T event, int netId) {
+        EventMetadata<?> metadata = eventLibrary.getMetadata(event.getClass());
+        CompactEventEncoder<T> encoder = (CompactEventEncoder<T>) metadata.getCompactEncoder();
+        State state = states.get(netId, event.getClass());
+        boolean delta = state != null && state.count % FULL_EVENT_INTERVAL != 0;
+        ByteString.Output data = ByteString.newOutput();
+        CodedOutputStream out = CodedOutputStream.newInstance(data);
+        T decoded;
+        try {
+            out.writeUInt32NoTag(delta ? DELTA : FULL);
+            decoded = encoder.encode(event, delta ? (T) state.previous : null, out);
+            out.flush();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to encode " + event.getClass().getSimpleName(), e);
+        }
+        if (state == null) {
+            state = new State();
+            states.put(netId, event.getClass(), state);
+        }
+        state.previous = decoded;
+        state.count++;
+        return eventSerializer.serializeCompact(event, data.toByteString());
+    }
+
+    /**
+     * @param netId the entity the event is sent to
+     * @return the event, or null if it was encoded as difference to an event which is not known
+     */
+    @SuppressWarnings("unchecked")
+    Event deserialize(EntityData.Event eventData, int netId) {
+        Class<? extends Event> eventClass = eventSerializer.getEventClass(eventData);
+        EventMetadata<?> metadata = eventClass != null ? eventLibrary.getMetadata(eventClass) : null;
+        if (metadata == null || metadata.getCompactEncoder() == null) {
+            throw new DeserializationException("Unable to deserialize compact event of type: " + eventData.getType());
+        }
+        CompactEventEncoder<Event> encoder = (CompactEventEncoder<Event>) metadata.getCompactEncoder();
+        State state = states.get(netId, eventClass);
+        CodedInputStream in = eventData.getCompactData().newCodedInput();
+        try {
+            Event previous = null;
+            if (in.readUInt32() == DELTA) {
+                if (state == null) {
+                    return null;
+                }
+                previous = state.previous;
+            }
+            Event event = encoder.decode(previous, in);
+            if (state == null) {
+                state = new State();
+                states.put(netId, eventClass, state);
+            }
+            state.previous = event;
+            return event;
+        } catch (IOException e) {
+            throw new DeserializationException("Failed to decode " + eventClass.getSimpleName(), e);
+        }
+    }
+
+    void remove(int netId) {
+        states.row(netId).clear();
+    }
+
+    private static final class State {
+        private Event previous;
+        private int count;
+    }
+}
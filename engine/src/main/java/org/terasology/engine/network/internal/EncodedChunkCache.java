@@ -0,0 +1,85 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network.internal;
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.protobuf.EntityData;
+
+import java.lang.ref.WeakReference;
+import java.util.function.Supplier;
+
+/**
+ * Encoded chunks, shared by all clients the chunks get streamed to.
+ * <p>
+ * Entries are keyed by chunk position and remember the chunk instance and its {@link ChunkImpl#getRevision()
+ * revision}, so any block change invalidates them. Encoding happens on the first use of an entry, typically on the net
+ * tick executor, from a copy of the chunk data taken when the entry got created. Clients which request the same chunk
+ * in the meantime wait for that encoding rather than encoding the chunk again.
+ * <p>
+ * Chunks are not compressed here, as the whole stream of a client already gets compressed by its channel.
+ */
+class EncodedChunkCache {
+    private static final int MAX_CHUNKS = 1024;
+    /* Used as size of chunks not encoded yet, until actual sizes are known */
+    private static final int INITIAL_ESTIMATED_SIZE = 8192;
+
+    private final Cache<Vector3ic, Entry> entries = CacheBuilder.newBuilder().maximumSize(MAX_CHUNKS).build();
+    private volatile int estimatedSize = INITIAL_ESTIMATED_SIZE;
+
+    /**
+     * Has to be called from the thread which changes chunks, so the revision and data of a chunk are consistent.
+     *
+     * @return the encoding of the chunk in its current state
+     */
+    Supplier<EntityData.ChunkStore> get(Chunk chunk) {
+        if (!(chunk instanceof ChunkImpl)) {
+            return encode(chunk);
+        }
+        int revision = ((ChunkImpl) chunk).getRevision();
+        Entry entry = entries.getIfPresent(chunk.getPosition());
+        if (entry == null || entry.chunk.get() != chunk || entry.revision != revision) {
+            entry = new Entry(chunk, revision, encode(chunk));
+            entries.put(new Vector3i(chunk.getPosition()), entry);
+        }
+        return entry.encoding;
+    }
+
+    /**
+     * @return the serialized size of a chunk, estimated from recently encoded chunks
+     */
+    int getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    void clear() {
+        entries.invalidateAll();
+    }
+
+    private Supplier<EntityData.ChunkStore> encode(Chunk chunk) {
+        Supplier<EntityData.ChunkStore.Builder> capture = chunk.captureEncoding();
+        return Suppliers.memoize(() -> {
+            EntityData.ChunkStore encoded = capture.get().build();
+            estimatedSize = (estimatedSize * 7 + encoded.getSerializedSize()) / 8;
+            return encoded;
+        });
+    }
+
+    private static final class Entry {
+        private final WeakReference<Chunk> chunk;
+        private final int revision;
+        private final Supplier<EntityData.ChunkStore> encoding;
+
+        Entry(Chunk chunk, int revision, Supplier<EntityData.ChunkStore> encoding) {
+            this.chunk = new WeakReference<>(chunk);
+            this.revision = revision;
+            this.encoding = encoding;
+        }
+    }
+}
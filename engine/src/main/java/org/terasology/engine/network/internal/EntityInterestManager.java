@@ -0,0 +1,251 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import gnu.trove.TIntCollection;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.network.NetworkComponent;
+import org.terasology.engine.world.chunks.internal.ChunkIndex;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which entities replicated with {@link NetworkComponent.ReplicateMode#RELEVANT} are relevant to which
+ * clients, based on the distance between the entities and the characters of the clients.
+ * <p>
+ * Entities are indexed in a uniform grid of chunk sized cells, so finding the entities near a client only looks up
+ * the cells within its view distance, independent of how many other cells are occupied. An entity becomes relevant
+ * to a client once it is within the view distance of the client, and only stops being relevant once it is
+ * {@link #HYSTERESIS_CHUNKS} further away, so entities moving along the border of the view distance don't get created
+ * and removed over and over. Entities without a position are relevant to every client.
+ * <p>
+ * Only used by the server, from the main thread.
+ */
+class EntityInterestManager {
+    /**
+     * How many chunks beyond the view distance an entity has to be before it stops being relevant to a client.
+     */
+    static final int HYSTERESIS_CHUNKS = 1;
+
+    private final TLongObjectMap<Cell> cells = new TLongObjectHashMap<>();
+    private final TIntObjectMap<Cell> entityCells = new TIntObjectHashMap<>();
+    private final TIntSet globalEntities = new TIntHashSet();
+    private final TIntSet attachedEntities = new TIntHashSet();
+
+    private final Map<NetClient, TIntSet> clientInterests = Maps.newHashMap();
+    private final TIntObjectMap<Set<NetClient>> interestedClients = new TIntObjectHashMap<>();
+
+    /**
+     * Starts tracking an entity, or moves an already tracked entity.
+     *
+     * @param chunkPos the position of the chunk the entity is in, or null if the entity has no position. Entities
+     *         out of the range of {@link ChunkIndex#isPackable} are treated as having no position.
+     * @param attached whether the position of the entity follows a parent, and thus changes without the entity itself
+     *         changing
+     */
+    void updateEntity(int netId, Vector3ic chunkPos, boolean attached) {
+        Cell current = entityCells.get(netId);
+        if (chunkPos == null || !ChunkIndex.isPackable(chunkPos.x(), chunkPos.y(), chunkPos.z())) {
+            if (current != null) {
+                removeFromCell(netId, current);
+            }
+            globalEntities.add(netId);
+        } else if (current == null || !current.pos.equals(chunkPos)) {
+            if (current != null) {
+                removeFromCell(netId, current);
+            }
+            globalEntities.remove(netId);
+            long key = ChunkIndex.key(chunkPos.x(), chunkPos.y(), chunkPos.z());
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                cell = new Cell(chunkPos);
+                cells.put(key, cell);
+            }
+            cell.entities.add(netId);
+            entityCells.put(netId, cell);
+        }
+        if (attached) {
+            attachedEntities.add(netId);
+        } else {
+            attachedEntities.remove(netId);
+        }
+    }
+
+    /**
+     * Stops tracking an entity.
+     *
+     * @return the clients the entity was relevant to
+     */
+    Set<NetClient> removeEntity(int netId) {
+        Cell cell = entityCells.get(netId);
+        if (cell != null) {
+            removeFromCell(netId, cell);
+        }
+        globalEntities.remove(netId);
+        attachedEntities.remove(netId);
+        Set<NetClient> clients = interestedClients.remove(netId);
+        if (clients == null) {
+            return Collections.emptySet();
+        }
+        for (NetClient client : clients) {
+            clientInterests.get(client).remove(netId);
+        }
+        return clients;
+    }
+
+    boolean isTracked(int netId) {
+        return entityCells.containsKey(netId) || globalEntities.contains(netId);
+    }
+
+    /**
+     * @return the tracked entities whose position follows a parent, which have to be updated regularly
+     */
+    int[] getAttachedEntities() {
+        return attachedEntities.toArray();
+    }
+
+    /**
+     * @return the clients a tracked entity is currently relevant to
+     */
+    Set<NetClient> getInterestedClients(int netId) {
+        Set<NetClient> clients = interestedClients.get(netId);
+        return clients != null ? clients : Collections.emptySet();
+    }
+
+    /**
+     * Updates which tracked entities are relevant to a client.
+     *
+     * @param centerChunk the position of the chunk the character of the client is in
+     * @param chunkDistance the view distance of the client, in chunks
+     * @param entered receives the entities which became relevant to the client
+     * @param left receives the entities which are no longer relevant to the client
+     */
+    void updateClient(NetClient client, Vector3ic centerChunk, Vector3ic chunkDistance, TIntCollection entered,
+                      TIntCollection left) {
+        TIntSet interest = clientInterests.computeIfAbsent(client, key -> new TIntHashSet());
+        int enterX = chunkDistance.x() / 2;
+        int enterY = chunkDistance.y() / 2;
+        int enterZ = chunkDistance.z() / 2;
+
+        TIntIterator relevant = interest.iterator();
+        while (relevant.hasNext()) {
+            int netId = relevant.next();
+            Cell cell = entityCells.get(netId);
+            if (cell != null && !cell.isWithin(centerChunk, enterX + HYSTERESIS_CHUNKS, enterY + HYSTERESIS_CHUNKS,
+                    enterZ + HYSTERESIS_CHUNKS)) {
+                relevant.remove();
+                left.add(netId);
+                removeInterested(netId, client);
+            }
+        }
+
+        addInterest(client, interest, globalEntities, entered);
+        // Looks up the cells within the view distance, unless there are fewer occupied cells than that in total
+        long enterVolume = (2L * enterX + 1) * (2L * enterY + 1) * (2L * enterZ + 1);
+        if (enterVolume > cells.size()) {
+            for (Cell cell : cells.valueCollection()) {
+                if (cell.isWithin(centerChunk, enterX, enterY, enterZ)) {
+                    addInterest(client, interest, cell.entities, entered);
+                }
+            }
+            return;
+        }
+        for (int x = centerChunk.x() - enterX; x <= centerChunk.x() + enterX; x++) {
+            for (int y = centerChunk.y() - enterY; y <= centerChunk.y() + enterY; y++) {
+                for (int z = centerChunk.z() - enterZ; z <= centerChunk.z() + enterZ; z++) {
+                    Cell cell = cells.get(ChunkIndex.key(x, y, z));
+                    if (cell != null && cell.isAt(x, y, z)) {
+                        addInterest(client, interest, cell.entities, entered);
+                    }
+                }
+            }
+        }
+    }
+
+    void removeClient(NetClient client) {
+        TIntSet interest = clientInterests.remove(client);
+        if (interest != null) {
+            TIntIterator iterator = interest.iterator();
+            while (iterator.hasNext()) {
+                removeInterested(iterator.next(), client);
+            }
+        }
+    }
+
+    void clear() {
+        cells.clear();
+        entityCells.clear();
+        globalEntities.clear();
+        attachedEntities.clear();
+        clientInterests.clear();
+        interestedClients.clear();
+    }
+
+    private void addInterest(NetClient client, TIntSet interest, TIntSet entities, TIntCollection entered) {
+        TIntIterator iterator = entities.iterator();
+        while (iterator.hasNext()) {
+            int netId = iterator.next();
+            if (interest.add(netId)) {
+                entered.add(netId);
+                Set<NetClient> clients = interestedClients.get(netId);
+                if (clients == null) {
+                    clients = Sets.newLinkedHashSet();
+                    interestedClients.put(netId, clients);
+                }
+                clients.add(client);
+            }
+        }
+    }
+
+    private void removeInterested(int netId, NetClient client) {
+        Set<NetClient> clients = interestedClients.get(netId);
+        if (clients != null) {
+            clients.remove(client);
+            if (clients.isEmpty()) {
+                interestedClients.remove(netId);
+            }
+        }
+    }
+
+    private void removeFromCell(int netId, Cell cell) {
+        cell.entities.remove(netId);
+        entityCells.remove(netId);
+        if (cell.entities.isEmpty()) {
+            cells.remove(ChunkIndex.key(cell.pos.x, cell.pos.y, cell.pos.z));
+        }
+    }
+
+    private static final class Cell {
+        private final Vector3i pos;
+        private final TIntSet entities = new TIntHashSet();
+
+        Cell(Vector3ic pos) {
+            this.pos = new Vector3i(pos);
+        }
+
+        /**
+         * Keys of positions out of the range of {@link ChunkIndex#isPackable} equal the keys of other cells.
+         */
+        boolean isAt(int x, int y, int z) {
+            return pos.x == x && pos.y == y && pos.z == z;
+        }
+
+        boolean isWithin(Vector3ic center, int distanceX, int distanceY, int distanceZ) {
+            return Math.abs(pos.x - center.x()) <= distanceX && Math.abs(pos.y - center.y()) <= distanceY
+                    && Math.abs(pos.z - center.z()) <= distanceZ;
+        }
+    }
+}
@@ -10,6 +10,7 @@
 import org.terasology.engine.network.NetMetricSource;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A generic Netty handler for recording metrics on sent and received bytes and messages.
@@ -22,6 +23,10 @@ public class MetricRecordingHandler extends ChannelDuplexHandler implements NetM
     private AtomicInteger receivedBytes = new AtomicInteger();
     private AtomicInteger sentMessages = new AtomicInteger();
     private AtomicInteger sentBytes = new AtomicInteger();
+    private AtomicLong totalSentBytes = new AtomicLong();
+    private AtomicInteger replicationCacheHits = new AtomicInteger();
+    private AtomicInteger replicationCacheMisses = new AtomicInteger();
+    private AtomicLong serializationNanos = new AtomicLong();
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
@@ -36,9 +41,26 @@ public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
         ByteBuf buf = (ByteBuf) msg;
         sentMessages.incrementAndGet();
         sentBytes.addAndGet(buf.readableBytes());
+        totalSentBytes.addAndGet(buf.readableBytes());
         super.write(ctx, msg, promise);
     }
 
+    /**
+     * @return The amount of bytes sent since the channel got opened
+     */
+    public long getTotalSentBytes() {
+        return totalSentBytes.get();
+    }
+
+    public void recordReplicationCacheHit() {
+        replicationCacheHits.incrementAndGet();
+    }
+
+    public void recordReplicationCacheMiss(long serializationTimeNanos) {
+        replicationCacheMisses.incrementAndGet();
+        serializationNanos.addAndGet(serializationTimeNanos);
+    }
+
     @Override
     public int getReceivedMessagesSinceLastCall() {
         return receivedMessages.getAndSet(0);
@@ -58,4 +80,19 @@ public int getSentMessagesSinceLastCall() {
     public int getSentBytesSinceLastCall() {
         return sentBytes.getAndSet(0);
     }
+
+    @Override
+    public int getReplicationCacheHitsSinceLastCall() {
+        return replicationCacheHits.getAndSet(0);
+    }
+
+    @Override
+    public int getReplicationCacheMissesSinceLastCall() {
+        return replicationCacheMisses.getAndSet(0);
+    }
+
+    @Override
+    public long getSerializationNanosSinceLastCall() {
+        return serializationNanos.getAndSet(0);
+    }
 }
@@ -11,6 +11,7 @@
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import gnu.trove.iterator.TIntIterator;
+import gnu.trove.list.TIntList;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import io.netty.channel.Channel;
@@ -30,6 +31,9 @@
 import org.terasology.engine.logic.characters.PredictionSystem;
 import org.terasology.engine.logic.common.DisplayNameComponent;
 import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.monitoring.PerformanceMonitor;
+import org.terasology.engine.monitoring.ThreadActivity;
+import org.terasology.engine.monitoring.ThreadMonitor;
 import org.terasology.engine.network.Client;
 import org.terasology.engine.network.ClientComponent;
 import org.terasology.engine.network.ColorComponent;
@@ -44,8 +48,10 @@
 import org.terasology.engine.world.WorldProvider;
 import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.block.BlockEditBuffer;
 import org.terasology.engine.world.block.family.BlockFamily;
 import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkProvider;
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.gestalt.entitysystem.component.Component;
 import org.terasology.gestalt.entitysystem.event.Event;
@@ -61,7 +67,10 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A remote client.
@@ -70,14 +79,20 @@
 public class NetClient extends AbstractClient implements WorldChangeListener {
     private static final Logger logger = LoggerFactory.getLogger(NetClient.class);
     private static final float NET_TICK_RATE = 0.05f;
+    private static final int MAX_CHUNKS_PER_TICK = 16;
+    /* How many net ticks worth of bandwidth can build up while there are no chunks to send */
+    private static final int CHUNK_BURST_TICKS = 20;
 
     private Time time;
     private NetworkSystemImpl networkSystem;
     private Channel channel;
     private NetworkEntitySerializer entitySerializer;
     private EventSerializer eventSerializer;
+    private ReplicationCache replicationCache;
+    private CompactEventStates compactEvents;
     private EventLibrary eventLibrary;
-    private NetMetricSource metricSource;
+    private MetricRecordingHandler metricSource;
+    private CompletableFuture<Void> netTickInFlight = CompletableFuture.completedFuture(null);
 
     // Relevance
     private Set<Vector3i> relevantChunks = Sets.newHashSet();
@@ -94,19 +109,19 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     private String preferredName = "Player";
     private long lastReceivedTime;
     private ViewDistance viewDistance = ViewDistance.NEAR;
-    private float chunkSendCounter = 1.0f;
-
-    private float chunkSendRate = 0.05469f;
+    /* Bytes which may still be sent to the client, charged with everything written to its channel */
+    private long sendBudget;
+    private long lastTotalSentBytes;
 
     private PublicIdentityCertificate identity;
 
     // Outgoing messages
-    private BlockingQueue<NetData.BlockChangeMessage> queuedOutgoingBlockChanges = Queues.newLinkedBlockingQueue();
+    private final Map<Vector3i, ChunkBlockChanges> pendingBlockChanges = Maps.newLinkedHashMap();
     private BlockingQueue<NetData.ExtraDataChangeMessage> queuedOutgoingExtraDataChanges = Queues.newLinkedBlockingQueue();
-    private List<NetData.EventMessage> queuedOutgoingEvents = Lists.newArrayList();
+    private List<Supplier<NetData.EventMessage>> queuedOutgoingEvents = Lists.newArrayList();
     private final List<BlockFamily> newlyRegisteredFamilies = Lists.newArrayList();
 
-    private Map<Vector3i, Chunk> readyChunks = Maps.newLinkedHashMap();
+    private ChunkSendQueue readyChunks = new ChunkSendQueue();
     private Set<Vector3i> invalidatedChunks = Sets.newLinkedHashSet();
 
 
@@ -128,7 +143,7 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
      */
     public NetClient(Channel channel, NetworkSystemImpl networkSystem, PublicIdentityCertificate identity) {
         this.channel = channel;
-        metricSource = (NetMetricSource) channel.pipeline().get(MetricRecordingHandler.NAME);
+        metricSource = (MetricRecordingHandler) channel.pipeline().get(MetricRecordingHandler.NAME);
         this.networkSystem = networkSystem;
         this.time = CoreRegistry.get(Time.class);
         this.identity = identity;
@@ -204,19 +219,55 @@ public void disconnect() {
 
     @Override
     public void update(boolean netTick) {
-        if (netTick) {
-            NetData.NetMessage.Builder message = NetData.NetMessage.newBuilder();
-            message.setTime(time.getGameTimeInMs());
-            sendRegisteredBlocks(message);
-            sendChunkInvalidations(message);
-            sendNewChunks(message);
-            sendRemovedEntities(message);
-            sendInitialEntities(message);
-            sendDirtyEntities(message);
-            sendEvents(message);
-            send(message.build());
+        if (netTick && !isBackedUp()) {
+            PerformanceMonitor.startActivity("Net tick capture");
+            captureNetTick();
+            PerformanceMonitor.endActivity();
         }
+        PerformanceMonitor.startActivity("Process received messages");
         processReceivedMessages();
+        PerformanceMonitor.endActivity();
+    }
+
+    /**
+     * A client is backed up while its previous net tick is still being encoded, or while the outbound buffer of its
+     * channel is full. Net ticks are skipped for backed up clients, so instead of queuing ever more messages the
+     * dirty state keeps accumulating and goes out combined once the client caught up.
+     */
+    private boolean isBackedUp() {
+        return !netTickInFlight.isDone() || !channel.isWritable();
+    }
+
+    /**
+     * Collects everything which has to be sent this net tick on the main thread, then leaves encoding entities, events
+     * and new chunks, building the message and writing it to the channel to the net tick executor.
+     */
+    private void captureNetTick() {
+        NetData.NetMessage.Builder message = NetData.NetMessage.newBuilder();
+        message.setTime(time.getGameTimeInMs());
+        sendRegisteredBlocks(message);
+        sendChunkInvalidations(message);
+        List<Supplier<EntityData.ChunkStore>> newChunks = captureNewChunks();
+        sendBlockChanges(message, newChunks);
+        sendRemovedEntities(message);
+        List<Consumer<NetData.NetMessage.Builder>> encoders = Lists.newArrayList();
+        sendInitialEntities(encoders);
+        sendDirtyEntities(encoders);
+        sendEvents(message, encoders);
+        netTickInFlight = CompletableFuture.runAsync(() -> {
+            try (ThreadActivity ignored = ThreadMonitor.startThreadActivity("Net tick encode")) {
+                for (Consumer<NetData.NetMessage.Builder> encoder : encoders) {
+                    encoder.accept(message);
+                }
+                for (Supplier<EntityData.ChunkStore> newChunk : newChunks) {
+                    message.addChunkInfo(newChunk.get());
+                }
+                write(message.build());
+            }
+        }, networkSystem.getNetTickExecutor()).exceptionally(e -> {
+            logger.error("Failed to send net tick to {}", this, e);
+            return null;
+        });
     }
 
     private void sendRegisteredBlocks(NetData.NetMessage.Builder message) {
@@ -233,36 +284,49 @@ private void sendRegisteredBlocks(NetData.NetMessage.Builder message) {
         }
     }
 
-    private void sendNewChunks(NetData.NetMessage.Builder message) {
-        if (!readyChunks.isEmpty()) {
-            chunkSendCounter += chunkSendRate * NET_TICK_RATE * networkSystem.getBandwidthPerClient();
-            if (chunkSendCounter > 1.0f) {
-                chunkSendCounter -= 1.0f;
-                Vector3i center = new Vector3i();
-                LocationComponent loc = getEntity().getComponent(ClientComponent.class).character.getComponent(LocationComponent.class);
-                if (loc != null) {
-                    Vector3f target = loc.getWorldPosition(new Vector3f());
-                    if (target.isFinite()) {
-                        center.set(target, RoundingMode.HALF_UP); // use center as temporary variable
-                        Chunks.toChunkPos(center, center); // update center to chunkPos
-                    }
-                }
-                Vector3i pos = null;
-                long distance = Integer.MAX_VALUE;
-                for (Vector3i chunkPos : readyChunks.keySet()) {
-                    long chunkDistance = chunkPos.distanceSquared(center);
-                    if (pos == null || chunkDistance < distance) {
-                        pos = chunkPos;
-                        distance = chunkDistance;
-                    }
-                }
-                Chunk chunk = readyChunks.remove(pos);
-                relevantChunks.add(pos);
-                message.addChunkInfo(chunk.encode());
+    /**
+     * Picks the chunks to send this net tick, closest to the client first, within the share of the upstream bandwidth
+     * of this client. The budget gets charged with the bytes actually written to the channel, so entity updates and
+     * events count towards it as well.
+     *
+     * @return the encodings of the chunks to send
+     */
+    private List<Supplier<EntityData.ChunkStore>> captureNewChunks() {
+        long allowance = (long) (networkSystem.getBandwidthPerClient() * 125 * NET_TICK_RATE);
+        long totalSentBytes = metricSource.getTotalSentBytes();
+        sendBudget = Math.min(sendBudget + allowance, allowance * CHUNK_BURST_TICKS)
+                - (totalSentBytes - lastTotalSentBytes);
+        lastTotalSentBytes = totalSentBytes;
+        if (readyChunks.isEmpty()) {
+            return Lists.newArrayList();
+        }
+
+        readyChunks.setCenter(getCenterChunk(new Vector3i()));
+        EncodedChunkCache chunkCache = networkSystem.getEncodedChunkCache();
+        List<Supplier<EntityData.ChunkStore>> newChunks = Lists.newArrayList();
+        long tickBudget = sendBudget;
+        while (tickBudget > 0 && newChunks.size() < MAX_CHUNKS_PER_TICK) {
+            Chunk chunk = readyChunks.poll();
+            if (chunk == null) {
+                break;
             }
-        } else {
-            chunkSendCounter = 1.0f;
+            relevantChunks.add(new Vector3i(chunk.getPosition()));
+            newChunks.add(chunkCache.get(chunk));
+            tickBudget -= chunkCache.getEstimatedSize();
         }
+        return newChunks;
+    }
+
+    private Vector3i getCenterChunk(Vector3i dest) {
+        LocationComponent loc = getEntity().getComponent(ClientComponent.class).character.getComponent(LocationComponent.class);
+        if (loc != null) {
+            Vector3f target = loc.getWorldPosition(new Vector3f());
+            if (target.isFinite()) {
+                dest.set(target, RoundingMode.HALF_UP);
+                Chunks.toChunkPos(dest, dest);
+            }
+        }
+        return dest;
     }
 
     private void sendChunkInvalidations(NetData.NetMessage.Builder message) {
@@ -271,6 +335,9 @@ private void sendChunkInvalidations(NetData.NetMessage.Builder message) {
             Vector3i pos = i.next();
             i.remove();
             relevantChunks.remove(pos);
+            synchronized (pendingBlockChanges) {
+                pendingBlockChanges.remove(pos);
+            }
             message.addInvalidateChunk(NetData.InvalidateChunkMessage.newBuilder().setPos(NetMessageUtil.convert(pos)));
         }
         invalidatedChunks.clear();
@@ -289,6 +356,7 @@ public void setNetRemoved(int netId) {
         removedComponents.keySet().remove(netId);
         netDirty.remove(netId);
         netRelevant.remove(netId);
+        compactEvents.remove(netId);
     }
 
     public void setComponentAdded(int networkId, Class<? extends Component> component) {
@@ -321,10 +389,13 @@ public void setComponentDirty(int netId, Class<? extends Component> componentTyp
     }
 
     public void connected(EntityManager entityManager, NetworkEntitySerializer newEntitySerializer,
-                          EventSerializer newEventSerializer, EventLibrary newEventLibrary) {
+                          EventSerializer newEventSerializer, ReplicationCache newReplicationCache,
+                          EventLibrary newEventLibrary) {
         this.entitySerializer = newEntitySerializer;
         this.eventSerializer = newEventSerializer;
+        this.replicationCache = newReplicationCache;
         this.eventLibrary = newEventLibrary;
+        this.compactEvents = new CompactEventStates(newEventLibrary, newEventSerializer);
 
         createEntity(preferredName, color, entityManager);
     }
@@ -335,17 +406,29 @@ public void send(Event event, EntityRef target) {
             BlockComponent blockComp = target.getComponent(BlockComponent.class);
             if (blockComp != null) {
                 if (relevantChunks.contains(Chunks.toChunkPos(blockComp.getPosition(), new Vector3i()))) {
-                    queuedOutgoingEvents.add(NetData.EventMessage.newBuilder()
-                        .setTargetBlockPos(NetMessageUtil.convert(blockComp.getPosition()))
-                        .setEvent(eventSerializer.serialize(event)).build());
+                    NetData.Vector3iData targetBlockPos = NetMessageUtil.convert(blockComp.getPosition());
+                    ReplicationCache cache = replicationCache;
+                    queuedOutgoingEvents.add(() -> NetData.EventMessage.newBuilder()
+                        .setTargetBlockPos(targetBlockPos)
+                        .setEvent(cache.getEvent(event, metricSource)).build());
                 }
             } else {
                 NetworkComponent networkComponent = target.getComponent(NetworkComponent.class);
                 if (networkComponent != null) {
-                    if (netRelevant.contains(networkComponent.getNetworkId()) || netInitial.contains(networkComponent.getNetworkId())) {
-                        queuedOutgoingEvents.add(NetData.EventMessage.newBuilder()
-                            .setTargetId(networkComponent.getNetworkId())
-                            .setEvent(eventSerializer.serialize(event)).build());
+                    int netId = networkComponent.getNetworkId();
+                    if (netRelevant.contains(netId) || netInitial.contains(netId)) {
+                        if (compactEvents.isCompact(event)) {
+                            // encoded right away, as compact events are encoded against the previous one
+                            NetData.EventMessage eventMessage = NetData.EventMessage.newBuilder()
+                                    .setTargetId(netId)
+                                    .setEvent(compactEvents.serialize(event, netId)).build();
+                            queuedOutgoingEvents.add(() -> eventMessage);
+                        } else {
+                            ReplicationCache cache = replicationCache;
+                            queuedOutgoingEvents.add(() -> NetData.EventMessage.newBuilder()
+                                .setTargetId(netId)
+                                .setEvent(cache.getEvent(event, metricSource)).build());
+                        }
                     }
                 }
             }
@@ -364,7 +447,18 @@ public boolean isLocal() {
         return false;
     }
 
+    /**
+     * Sends a message after the net tick in flight, if there is one.
+     */
     void send(NetData.NetMessage data) {
+        if (netTickInFlight.isDone()) {
+            write(data);
+        } else {
+            netTickInFlight = netTickInFlight.thenRun(() -> write(data));
+        }
+    }
+
+    private void write(NetData.NetMessage data) {
         logger.trace("Sending packet with size {}", data.getSerializedSize());
         sentMessages.incrementAndGet();
         sentBytes.addAndGet(data.getSerializedSize());
@@ -375,7 +469,7 @@ void send(NetData.NetMessage data) {
     public void onChunkRelevant(Vector3ic pos, Chunk chunk) {
         Vector3i result = new Vector3i(pos);
         invalidatedChunks.remove(result);
-        readyChunks.put(result, chunk);
+        readyChunks.add(result, chunk);
     }
 
     @Override
@@ -390,10 +484,24 @@ public void onChunkIrrelevant(Vector3ic pos) {
     public void onBlockChanged(Vector3ic pos, Block newBlock, Block originalBlock) {
         Vector3i chunkPos = Chunks.toChunkPos(pos, new Vector3i());
         if (relevantChunks.contains(chunkPos)) {
-            queuedOutgoingBlockChanges.add(NetData.BlockChangeMessage.newBuilder()
-                .setPos(NetMessageUtil.convert(pos))
-                .setNewBlock(newBlock.getId())
-                .build());
+            synchronized (pendingBlockChanges) {
+                pendingBlockChanges.computeIfAbsent(chunkPos, ChunkBlockChanges::new).set(pos, newBlock.getId());
+            }
+        }
+    }
+
+    @Override
+    public void onBlocksChanged(Vector3ic chunkPos, BlockEditBuffer edits, TIntList changedEdits) {
+        if (relevantChunks.contains(chunkPos)) {
+            Vector3i pos = new Vector3i();
+            synchronized (pendingBlockChanges) {
+                ChunkBlockChanges changes =
+                        pendingBlockChanges.computeIfAbsent(new Vector3i(chunkPos), ChunkBlockChanges::new);
+                for (int i = 0; i < changedEdits.size(); i++) {
+                    int edit = changedEdits.get(i);
+                    changes.set(edits.getPosition(edit, pos), edits.getBlock(edit).getId());
+                }
+            }
         }
     }
 
@@ -423,17 +531,52 @@ private void processReceivedMessages() {
         }
     }
 
-    private void sendEvents(NetData.NetMessage.Builder message) {
-        List<NetData.BlockChangeMessage> blockChanges = Lists.newArrayListWithExpectedSize(queuedOutgoingBlockChanges.size());
-        queuedOutgoingBlockChanges.drainTo(blockChanges);
-        message.addAllBlockChange(blockChanges);
+    /**
+     * Sends the block changes of this net tick coalesced per chunk, or the whole chunk again if so many of its blocks
+     * changed that sending the chunk is cheaper.
+     *
+     * @param newChunks receives the encodings of the chunks to send again
+     */
+    private void sendBlockChanges(NetData.NetMessage.Builder message, List<Supplier<EntityData.ChunkStore>> newChunks) {
+        List<ChunkBlockChanges> blockChanges;
+        synchronized (pendingBlockChanges) {
+            if (pendingBlockChanges.isEmpty()) {
+                return;
+            }
+            blockChanges = Lists.newArrayList(pendingBlockChanges.values());
+            pendingBlockChanges.clear();
+        }
+        ChunkProvider chunkProvider = CoreRegistry.get(ChunkProvider.class);
+        int resendThreshold = networkSystem.getChunkResendThreshold();
+        for (ChunkBlockChanges changes : blockChanges) {
+            Chunk chunk = changes.size() > resendThreshold ? chunkProvider.getChunk(changes.getChunkPos()) : null;
+            if (chunk != null) {
+                newChunks.add(networkSystem.getEncodedChunkCache().get(chunk));
+            } else {
+                message.addChunkBlockChanges(changes.encode());
+            }
+        }
+    }
 
+    /**
+     * @param encoders receives the encoding of the events, which is left to the net tick executor
+     */
+    private void sendEvents(NetData.NetMessage.Builder message, List<Consumer<NetData.NetMessage.Builder>> encoders) {
         List<NetData.ExtraDataChangeMessage> extraDataChanges = Lists.newArrayListWithExpectedSize(queuedOutgoingExtraDataChanges.size());
         queuedOutgoingExtraDataChanges.drainTo(extraDataChanges);
         message.addAllExtraDataChange(extraDataChanges);
 
-        message.addAllEvent(queuedOutgoingEvents);
-        queuedOutgoingEvents.clear();
+        List<Supplier<NetData.EventMessage>> events = queuedOutgoingEvents;
+        queuedOutgoingEvents = Lists.newArrayList();
+        encoders.add(eventMessages -> {
+            for (Supplier<NetData.EventMessage> event : events) {
+                try {
+                    eventMessages.addEvent(event.get());
+                } catch (SerializationException e) {
+                    logger.error("Failed to serialize event", e);
+                }
+            }
+        });
     }
 
     private void processEntityUpdates(NetData.NetMessage message) {
@@ -447,7 +590,10 @@ private void processEntityUpdates(NetData.NetMessage message) {
         }
     }
 
-    private void sendDirtyEntities(NetData.NetMessage.Builder message) {
+    /**
+     * @param encoders receives the encoding of the entity updates, which is left to the net tick executor
+     */
+    private void sendDirtyEntities(List<Consumer<NetData.NetMessage.Builder>> encoders) {
         TIntIterator dirtyIterator = netDirty.iterator();
         while (dirtyIterator.hasNext()) {
             int netId = dirtyIterator.next();
@@ -456,12 +602,16 @@ private void sendDirtyEntities(NetData.NetMessage.Builder message) {
                 logger.error("Sending non-existent entity update for netId {}", netId);
             }
             boolean isOwner = networkSystem.getOwner(entity) == this;
-            EntityData.PackedEntity entityData = entitySerializer.serialize(entity, addedComponents.get(netId),
-                    dirtyComponents.get(netId), removedComponents.get(netId),
-                    new ServerComponentFieldCheck(isOwner, false));
-            if (entityData != null) {
-                message.addUpdateEntity(NetData.UpdateEntityMessage.newBuilder().setEntity(entityData).setNetId(netId));
-            }
+            Supplier<EntityData.PackedEntity> update = replicationCache.captureEntityUpdate(entity, netId, isOwner,
+                    addedComponents.get(netId), dirtyComponents.get(netId), removedComponents.get(netId), metricSource);
+            encoders.add(message -> {
+                EntityData.PackedEntity entityData = update.get();
+                if (entityData != null) {
+                    message.addUpdateEntity(NetData.UpdateEntityMessage.newBuilder()
+                            .setEntity(entityData)
+                            .setNetId(netId));
+                }
+            });
         }
         netDirty.clear();
         addedComponents.clear();
@@ -477,7 +627,10 @@ private void sendRemovedEntities(NetData.NetMessage.Builder message) {
         netRemoved.clear();
     }
 
-    private void sendInitialEntities(NetData.NetMessage.Builder message) {
+    /**
+     * @param encoders receives the encoding of the entities, which is left to the net tick executor
+     */
+    private void sendInitialEntities(List<Consumer<NetData.NetMessage.Builder>> encoders) {
         int[] initial = netInitial.toArray();
         netInitial.clear();
         Arrays.sort(initial);
@@ -490,14 +643,14 @@ private void sendInitialEntities(NetData.NetMessage.Builder message) {
             }
             // Note: Send owner->server fields on initial create
             Client owner = networkSystem.getOwner(entity);
-            EntityData.PackedEntity entityData = entitySerializer.serialize(entity, true,
-                    new ServerComponentFieldCheck(owner == this, true)).build();
-            NetData.CreateEntityMessage.Builder createMessage = NetData.CreateEntityMessage.newBuilder().setEntity(entityData);
+            Supplier<EntityData.PackedEntity> entityData = replicationCache.captureInitialEntity(entity, netId,
+                    owner == this, metricSource);
+            NetData.CreateEntityMessage.Builder createMessage = NetData.CreateEntityMessage.newBuilder();
             BlockComponent blockComponent = entity.getComponent(BlockComponent.class);
             if (blockComponent != null) {
                 createMessage.setBlockPos(NetMessageUtil.convert(blockComponent.getPosition()));
             }
-            message.addCreateEntity(createMessage);
+            encoders.add(message -> message.addCreateEntity(createMessage.setEntity(entityData.get())));
         }
 
     }
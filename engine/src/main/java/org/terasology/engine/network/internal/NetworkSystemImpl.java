@@ -10,7 +10,10 @@
 import com.google.common.collect.Queues;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.ByteString;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TIntLongMap;
 import gnu.trove.map.hash.TIntLongHashMap;
 import io.netty.bootstrap.Bootstrap;
@@ -26,6 +29,8 @@
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.config.Config;
@@ -44,8 +49,10 @@
 import org.terasology.engine.entitySystem.metadata.ComponentMetadata;
 import org.terasology.engine.entitySystem.metadata.EventLibrary;
 import org.terasology.engine.entitySystem.metadata.EventMetadata;
+import org.terasology.engine.logic.location.LocationComponent;
 import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.engine.network.Client;
+import org.terasology.engine.network.ClientComponent;
 import org.terasology.engine.network.JoinStatus;
 import org.terasology.engine.network.NetworkComponent;
 import org.terasology.engine.network.NetworkMode;
@@ -67,6 +74,7 @@
 import org.terasology.engine.world.WorldProvider;
 import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.chunks.remoteChunkProvider.RemoteChunkProvider;
 import org.terasology.engine.world.generator.WorldGenerator;
 import org.terasology.gestalt.entitysystem.component.Component;
@@ -87,6 +95,10 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of the Network System using Netty and TCP/IP
@@ -96,6 +108,7 @@ public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem
     private static final int OWNER_DEPTH_LIMIT = 50;
     private static final int NET_TICK_RATE = 50;
     private static final int NULL_NET_ID = 0;
+    private static final int NET_TICK_SHUTDOWN_TIMEOUT_SECONDS = 5;
     private final Set<Client> clientList = Sets.newLinkedHashSet();
     private final Set<NetClient> netClientList = Sets.newLinkedHashSet();
     // Shared
@@ -108,6 +121,10 @@ public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem
     private EventLibrary eventLibrary;
     private EventSerializer eventSerializer;
     private NetworkEntitySerializer entitySerializer;
+    private ReplicationCache replicationCache;
+    private final EntityInterestManager interestManager = new EntityInterestManager();
+    private ThreadPoolExecutor netTickExecutor = createNetTickExecutor();
+    private final EncodedChunkCache encodedChunkCache = new EncodedChunkCache();
     private BlockManager blockManager;
     private OwnershipHelper ownershipHelper;
     private TIntLongMap netIdToEntityId = new TIntLongHashMap();
@@ -138,6 +155,35 @@ public NetworkSystemImpl(Time time, Context context) {
         this.hibernationSettings = Optional.ofNullable(context.get(HibernationManager.class));
     }
 
+    private static ThreadPoolExecutor createNetTickExecutor() {
+        int netTickThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(netTickThreads, netTickThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                .setNameFormat("Network-Tick-%d")
+                .setDaemon(true)
+                .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Lets the net ticks in flight finish writing to their channels, then replaces the executor, as the network
+     * system may be started again.
+     */
+    private void shutdownNetTickExecutor() {
+        netTickExecutor.shutdown();
+        try {
+            if (!netTickExecutor.awaitTermination(NET_TICK_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Net ticks did not finish in time, interrupting them");
+                netTickExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            netTickExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        netTickExecutor = createNetTickExecutor();
+    }
+
     @Override
     public void host(int port, boolean dedicatedServer) throws HostingFailedException {
         if (mode == NetworkMode.NONE) {
@@ -246,6 +292,7 @@ public JoinStatus join(String address, int port) throws InterruptedException {
 
     @Override
     public void shutdown() {
+        shutdownNetTickExecutor();
         allChannels.close().awaitUninterruptibly();
         if (serverChannelFuture != null) {
             serverChannelFuture.channel().closeFuture();
@@ -287,6 +334,9 @@ public void shutdown() {
         componentLibrary = null;
         eventSerializer = null;
         entitySerializer = null;
+        replicationCache = null;
+        interestManager.clear();
+        encodedChunkCache.clear();
         clientList.clear();
         netClientList.clear();
         blockManager = null;
@@ -317,6 +367,14 @@ public void update() {
                 if (currentTimer > nextNetworkTick) {
                     nextNetworkTick += NET_TICK_RATE;
                     netTick = true;
+                    if (replicationCache != null) {
+                        replicationCache.clear();
+                    }
+                }
+                if (netTick && mode.isServer()) {
+                    PerformanceMonitor.startActivity("Entity interest update");
+                    updateEntityInterest();
+                    PerformanceMonitor.endActivity();
                 }
                 PerformanceMonitor.startActivity("Client update");
                 for (Client client : clientList) {
@@ -330,6 +388,74 @@ public void update() {
         }
     }
 
+    /**
+     * Makes entities replicated by relevance known to the clients which got near them, and removes them from the
+     * clients which moved away.
+     */
+    private void updateEntityInterest() {
+        for (int netId : interestManager.getAttachedEntities()) {
+            updateEntityPosition(getEntity(netId), netId);
+        }
+        TIntList entered = new TIntArrayList();
+        TIntList left = new TIntArrayList();
+        Vector3i centerChunk = new Vector3i();
+        for (NetClient client : netClientList) {
+            ClientComponent clientComp = client.getEntity().getComponent(ClientComponent.class);
+            if (clientComp == null) {
+                continue;
+            }
+            LocationComponent location = clientComp.character.getComponent(LocationComponent.class);
+            if (location == null) {
+                continue;
+            }
+            Vector3f position = location.getWorldPosition(new Vector3f());
+            if (!position.isFinite()) {
+                continue;
+            }
+            interestManager.updateClient(client, Chunks.toChunkPos(position, centerChunk),
+                    client.getViewDistance().getChunkDistance(), entered, left);
+            for (int i = 0; i < left.size(); i++) {
+                client.setNetRemoved(left.get(i));
+            }
+            for (int i = 0; i < entered.size(); i++) {
+                client.setNetInitial(entered.get(i));
+            }
+            entered.clear();
+            left.clear();
+        }
+    }
+
+    /**
+     * Updates the position of an entity replicated by relevance, which decides the clients it is relevant to.
+     */
+    private void updateEntityPosition(EntityRef entity, int netId) {
+        NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
+        if (netComp == null || netComp.replicateMode != NetworkComponent.ReplicateMode.RELEVANT) {
+            return;
+        }
+        Vector3i chunkPos = null;
+        boolean attached = false;
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+        if (location != null) {
+            Vector3f position = location.getWorldPosition(new Vector3f());
+            if (position.isFinite()) {
+                chunkPos = Chunks.toChunkPos(position, new Vector3i());
+            }
+            attached = location.getParent().exists();
+        }
+        interestManager.updateEntity(netId, chunkPos, attached);
+    }
+
+    /**
+     * @return the clients which get told about changes to the given entity
+     */
+    private Iterable<NetClient> getReplicationTargets(int netId) {
+        if (interestManager.isTracked(netId)) {
+            return interestManager.getInterestedClients(netId);
+        }
+        return netClientList;
+    }
+
     private void processPendingDisconnects() {
         if (!disconnectedClients.isEmpty()) {
             List<NetClient> removedPlayers = Lists.newArrayListWithExpectedSize(disconnectedClients.size());
@@ -439,9 +565,12 @@ public void registerNetworkEntity(EntityRef entity) {
                         clientPlayer.setNetInitial(netComponent.getNetworkId());
                     }
                     break;
+                case RELEVANT:
+                    // Sent to the clients near it with the next interest update
+                    updateEntityPosition(entity, netComponent.getNetworkId());
+                    break;
                 default:
                     for (NetClient client : netClientList) {
-                        // TODO: Relevance Check
                         client.setNetInitial(netComponent.getNetworkId());
                     }
                     break;
@@ -526,8 +655,11 @@ public void unregisterNetworkEntity(EntityRef entity) {
                 logger.debug("Unregistering network entity: {} with netId {}", entity, netComponent.getNetworkId());
                 netIdToEntityId.remove(netComponent.getNetworkId());
                 if (mode.isServer()) {
-                    for (NetClient client : netClientList) {
-                        client.setNetRemoved(netComponent.getNetworkId());
+                    int netId = netComponent.getNetworkId();
+                    Iterable<NetClient> clients = interestManager.isTracked(netId)
+                            ? interestManager.removeEntity(netId) : netClientList;
+                    for (NetClient client : clients) {
+                        client.setNetRemoved(netId);
                     }
                 }
                 netComponent.setNetworkId(NULL_NET_ID);
@@ -561,6 +693,7 @@ public void connectToEntitySystem(EngineEntityManager newEntityManager, EventLib
         entitySerializer = new NetworkEntitySerializer(newEntityManager, entityManager.getComponentLibrary(),
                 typeHandlerLibrary);
         entitySerializer.setComponentSerializeCheck(new NetComponentSerializeCheck());
+        replicationCache = new ReplicationCache(entitySerializer, eventSerializer);
 
         if (mode == NetworkMode.CLIENT) {
             entityManager.setEntityRefStrategy(new NetworkClientRefStrategy(this));
@@ -568,7 +701,8 @@ public void connectToEntitySystem(EngineEntityManager newEntityManager, EventLib
         }
 
         if (server != null) {
-            server.connectToEntitySystem(newEntityManager, entitySerializer, eventSerializer, blockEntityRegistry);
+            server.connectToEntitySystem(newEntityManager, entitySerializer, eventSerializer, eventLibrary,
+                    blockEntityRegistry);
         }
     }
 
@@ -578,8 +712,12 @@ public void onEntityComponentAdded(EntityRef entity, Class<? extends Component>
         NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID) {
             if (mode.isServer()) {
+                if (component == LocationComponent.class) {
+                    updateEntityPosition(entity, netComp.getNetworkId());
+                }
                 if (metadata.isReplicated()) {
-                    for (NetClient client : netClientList) {
+                    replicationCache.invalidate(netComp.getNetworkId());
+                    for (NetClient client : getReplicationTargets(netComp.getNetworkId())) {
                         logger.debug("Component {} added to {}", component, entity);
                         client.setComponentAdded(netComp.getNetworkId(), component);
                     }
@@ -595,8 +733,12 @@ public void onEntityComponentRemoved(EntityRef entity, Class<? extends Component
         NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID) {
             if (mode.isServer()) {
+                if (component == LocationComponent.class) {
+                    updateEntityPosition(entity, netComp.getNetworkId());
+                }
                 if (metadata.isReplicated()) {
-                    for (NetClient client : netClientList) {
+                    replicationCache.invalidate(netComp.getNetworkId());
+                    for (NetClient client : getReplicationTargets(netComp.getNetworkId())) {
                         logger.debug("Component {} removed from {}", component, entity);
                         client.setComponentRemoved(netComp.getNetworkId(), component);
                     }
@@ -626,8 +768,12 @@ public void onEntityComponentChange(EntityRef entity, Class<? extends Component>
             switch (mode) {
                 case LISTEN_SERVER:
                 case DEDICATED_SERVER:
+                    if (component == LocationComponent.class) {
+                        updateEntityPosition(entity, netComp.getNetworkId());
+                    }
                     if (metadata.isReplicated()) {
-                        for (NetClient client : netClientList) {
+                        replicationCache.invalidate(netComp.getNetworkId());
+                        for (NetClient client : getReplicationTargets(netComp.getNetworkId())) {
                             client.setComponentDirty(netComp.getNetworkId(), component);
                         }
                     }
@@ -742,6 +888,66 @@ public int getOutgoingBytesDelta() {
         }
     }
 
+    /**
+     * @return The number of replicated entities and events shared between clients since last request
+     */
+    @Override
+    public int getReplicationCacheHitsDelta() {
+        int total = 0;
+        if (mode.isServer()) {
+            for (NetClient client : netClientList) {
+                total += client.getMetrics().getReplicationCacheHitsSinceLastCall();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return The number of replicated entities and events serialized since last request
+     */
+    @Override
+    public int getReplicationCacheMissesDelta() {
+        int total = 0;
+        if (mode.isServer()) {
+            for (NetClient client : netClientList) {
+                total += client.getMetrics().getReplicationCacheMissesSinceLastCall();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return The time in nanoseconds spent serializing replicated entities and events since last request
+     */
+    @Override
+    public long getSerializationNanosDelta() {
+        long total = 0;
+        if (mode.isServer()) {
+            for (NetClient client : netClientList) {
+                total += client.getMetrics().getSerializationNanosSinceLastCall();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return encodes and writes the net ticks of clients, at most one per client at a time
+     */
+    Executor getNetTickExecutor() {
+        return netTickExecutor;
+    }
+
+    EncodedChunkCache getEncodedChunkCache() {
+        return encodedChunkCache;
+    }
+
+    /**
+     * @return the number of changed blocks within a chunk during one net tick above which the chunk gets sent again
+     */
+    int getChunkResendThreshold() {
+        return config.getChunkResendThreshold();
+    }
+
     long getEntityId(int netId) {
         return netIdToEntityId.get(netId);
     }
@@ -807,6 +1013,7 @@ private void processRemovedClient(Client client) {
             }
             NetClient netClient = (NetClient) client;
             netClientList.remove(netClient);
+            interestManager.removeClient(netClient);
         }
         clientList.remove(client);
         clientPlayerLookup.remove(client.getEntity());
@@ -827,7 +1034,7 @@ private void processNewClient(NetClient client) {
             return;
         }
 
-        client.connected(entityManager, entitySerializer, eventSerializer, eventLibrary);
+        client.connected(entityManager, entitySerializer, eventSerializer, replicationCache, eventLibrary);
         client.send(NetData.NetMessage.newBuilder().setJoinComplete(
                 NetData.JoinCompleteMessage.newBuilder().setClientId(client.getEntity()
                                 .getComponent(NetworkComponent.class)
@@ -849,8 +1056,10 @@ private void processNewClient(NetClient client) {
                             client.setNetInitial(netComp.getNetworkId());
                         }
                         break;
+                    case RELEVANT:
+                        // Sent with the next interest update, once the client is near it
+                        break;
                     default:
-                        // TODO: Relevance Check
                         client.setNetInitial(netComp.getNetworkId());
                         break;
                 }
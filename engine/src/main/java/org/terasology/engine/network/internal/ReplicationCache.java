@@ -0,0 +1,249 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import org.terasology.engine.entitySystem.ComponentContainer;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.metadata.ComponentLibrary;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.network.serialization.ServerComponentFieldCheck;
+import org.terasology.engine.persistence.serializers.EventSerializer;
+import org.terasology.engine.persistence.serializers.NetworkEntitySerializer;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.Event;
+import org.terasology.persistence.typeHandling.SerializationException;
+import org.terasology.protobuf.EntityData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Caches the encoded form of replicated entities and events for the duration of a net tick, so that each variant is
+ * serialized once and the resulting messages are shared by all clients which receive it.
+ * <p>
+ * Encoding runs on the net tick executor. Entities are captured on the main thread first: the replicated components
+ * to encode are copied into a snapshot of the entity, which is shared by all clients capturing the entity in the
+ * same net tick and holds their encodings. Entity references within the components are resolved to network ids when
+ * encoding.
+ * <p>
+ * An entity encodes differently for its owner than for other clients, so the owner flag is part of every entity key.
+ * Updates are additionally keyed by the sets of added, changed and removed components. Events are keyed by identity,
+ * as the same instance is sent to every client it gets broadcast to.
+ * <p>
+ * Snapshots are only valid while the entities they were copied from do not change. The cache is
+ * {@link #clear() cleared} at the start of every net tick, and the snapshot of an entity gets
+ * {@link #invalidate(int) invalidated} when one of its replicated components changes in between, as happens when
+ * messages of one client are processed before the next client gets updated. Encodings still running keep using the
+ * snapshot they started with.
+ */
+class ReplicationCache {
+    private final NetworkEntitySerializer entitySerializer;
+    private final EventSerializer eventSerializer;
+    private final ComponentLibrary componentLibrary;
+
+    // Only used on the main thread, unlike the snapshots themselves
+    private final Map<Integer, EntitySnapshot> entities = Maps.newHashMap();
+    private final Map<Event, EntityData.Event> events = new MapMaker().weakKeys().makeMap();
+
+    ReplicationCache(NetworkEntitySerializer entitySerializer, EventSerializer eventSerializer) {
+        this.entitySerializer = entitySerializer;
+        this.eventSerializer = eventSerializer;
+        this.componentLibrary = entitySerializer.getComponentLibrary();
+    }
+
+    /**
+     * Captures the entity on the main thread, for encoding it as sent when it becomes relevant to a client.
+     *
+     * @param metrics receives whether the entity was taken from the cache, and the time spent encoding it if not
+     * @return encodes the full entity, on any thread
+     */
+    Supplier<EntityData.PackedEntity> captureInitialEntity(EntityRef entity, int netId, boolean owned,
+                                                           MetricRecordingHandler metrics) {
+        EntitySnapshot snapshot = getSnapshot(entity, netId);
+        snapshot.copyAllComponents(entity);
+        EntityKey key = new EntityKey(true, owned, ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of());
+        return () -> snapshot.encode(key, metrics, () -> entitySerializer.serialize(snapshot, snapshot.prefab, true,
+                new ServerComponentFieldCheck(owned, true)).build());
+    }
+
+    /**
+     * Captures the changed components of the entity on the main thread.
+     *
+     * @param metrics receives whether the update was taken from the cache, and the time spent encoding it if not
+     * @return encodes the changes of the entity on any thread, supplying null if there is nothing to send
+     */
+    Supplier<EntityData.PackedEntity> captureEntityUpdate(EntityRef entity, int netId, boolean owned,
+                                                          Set<Class<? extends Component>> added,
+                                                          Set<Class<? extends Component>> changed,
+                                                          Set<Class<? extends Component>> removed,
+                                                          MetricRecordingHandler metrics) {
+        EntitySnapshot snapshot = getSnapshot(entity, netId);
+        EntityKey key = new EntityKey(false, owned, ImmutableSet.copyOf(added), ImmutableSet.copyOf(changed),
+                ImmutableSet.copyOf(removed));
+        snapshot.copyComponents(entity, key.added);
+        snapshot.copyComponents(entity, key.changed);
+        return () -> snapshot.encode(key, metrics, () -> entitySerializer.serialize(snapshot, key.added,
+                key.changed, key.removed, new ServerComponentFieldCheck(owned, false)));
+    }
+
+    /**
+     * May be called on any thread.
+     *
+     * @param metrics receives whether the event was taken from the cache, and the time spent encoding it if not
+     * @return the encoded event
+     * @throws SerializationException if the event could not be serialized; failures are not cached
+     */
+    EntityData.Event getEvent(Event event, MetricRecordingHandler metrics) {
+        EntityData.Event cached = events.get(event);
+        if (cached != null) {
+            metrics.recordReplicationCacheHit();
+            return cached;
+        }
+        long start = System.nanoTime();
+        EntityData.Event eventData = eventSerializer.serialize(event);
+        metrics.recordReplicationCacheMiss(System.nanoTime() - start);
+        events.put(event, eventData);
+        return eventData;
+    }
+
+    /**
+     * Drops the snapshot of an entity, which got stale because the entity changed.
+     */
+    void invalidate(int netId) {
+        entities.remove(netId);
+    }
+
+    void clear() {
+        entities.clear();
+        events.clear();
+    }
+
+    private EntitySnapshot getSnapshot(EntityRef entity, int netId) {
+        return entities.computeIfAbsent(netId, id -> new EntitySnapshot(entity.getParentPrefab()));
+    }
+
+    /**
+     * The replicated components of an entity which were captured so far, along with their encodings. Components are
+     * added on the main thread, while encodings are read and added by the net tick executor.
+     */
+    private final class EntitySnapshot implements ComponentContainer {
+        private final Prefab prefab;
+        private final Map<Class<? extends Component>, Component> components = Maps.newConcurrentMap();
+        private final Map<EntityKey, Optional<EntityData.PackedEntity>> encodings = Maps.newConcurrentMap();
+        private boolean complete;
+
+        EntitySnapshot(Prefab prefab) {
+            this.prefab = prefab;
+        }
+
+        void copyAllComponents(EntityRef entity) {
+            if (!complete) {
+                for (Component component : entity.iterateComponents()) {
+                    copyComponent(component);
+                }
+                complete = true;
+            }
+        }
+
+        void copyComponents(EntityRef entity, Set<Class<? extends Component>> types) {
+            for (Class<? extends Component> type : types) {
+                if (!complete && !components.containsKey(type)) {
+                    Component component = entity.getComponent(type);
+                    if (component != null) {
+                        copyComponent(component);
+                    }
+                }
+            }
+        }
+
+        private void copyComponent(Component component) {
+            if (componentLibrary.getMetadata(component.getClass()).isReplicated()) {
+                components.putIfAbsent(component.getClass(), componentLibrary.copy(component));
+            }
+        }
+
+        EntityData.PackedEntity encode(EntityKey key, MetricRecordingHandler metrics,
+                                       Supplier<EntityData.PackedEntity> encoder) {
+            Optional<EntityData.PackedEntity> cached = encodings.get(key);
+            if (cached != null) {
+                metrics.recordReplicationCacheHit();
+                return cached.orElse(null);
+            }
+            long start = System.nanoTime();
+            EntityData.PackedEntity entityData = encoder.get();
+            metrics.recordReplicationCacheMiss(System.nanoTime() - start);
+            encodings.put(key, Optional.ofNullable(entityData));
+            return entityData;
+        }
+
+        @Override
+        public boolean hasComponent(Class<? extends Component> component) {
+            return components.containsKey(component);
+        }
+
+        @Override
+        public boolean hasAnyComponents(List<Class<? extends Component>> filterComponents) {
+            return filterComponents.stream().anyMatch(components::containsKey);
+        }
+
+        @Override
+        public boolean hasAllComponents(List<Class<? extends Component>> filterComponents) {
+            return components.keySet().containsAll(filterComponents);
+        }
+
+        @Override
+        public <T extends Component> T getComponent(Class<T> componentClass) {
+            return componentClass.cast(components.get(componentClass));
+        }
+
+        @Override
+        public Iterable<Component> iterateComponents() {
+            return components.values();
+        }
+    }
+
+    private static final class EntityKey {
+        private final boolean initial;
+        private final boolean owned;
+        private final Set<Class<? extends Component>> added;
+        private final Set<Class<? extends Component>> changed;
+        private final Set<Class<? extends Component>> removed;
+        private final int hash;
+
+        EntityKey(boolean initial, boolean owned, Set<Class<? extends Component>> added,
+                  Set<Class<? extends Component>> changed, Set<Class<? extends Component>> removed) {
+            this.initial = initial;
+            this.owned = owned;
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+            this.hash = Objects.hash(initial, owned, added, changed, removed);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntityKey)) {
+                return false;
+            }
+            EntityKey other = (EntityKey) o;
+            return initial == other.initial && owned == other.owned && added.equals(other.added)
+                    && changed.equals(other.changed) && removed.equals(other.removed);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -22,6 +22,7 @@
 import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.entity.internal.EngineEntityManager;
+import org.terasology.engine.entitySystem.metadata.EventLibrary;
 import org.terasology.engine.network.NetMetricSource;
 import org.terasology.engine.network.NetworkComponent;
 import org.terasology.engine.network.Server;
@@ -34,6 +35,7 @@
 import org.terasology.engine.world.WorldProvider;
 import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.block.BlockEditBuffer;
 import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.block.BlockUri;
 import org.terasology.engine.world.block.BlockUriParseException;
@@ -77,6 +79,7 @@ public class ServerImpl implements Server {
     private EngineEntityManager entityManager;
     private NetworkEntitySerializer entitySerializer;
     private EventSerializer eventSerializer;
+    private CompactEventStates compactEvents;
     private BlockManagerImpl blockManager;
     private ExtraBlockDataManager extraDataManager;
 
@@ -87,6 +90,10 @@ public class ServerImpl implements Server {
     private SetMultimap<Integer, Class<? extends Component>> changedComponents = HashMultimap.create();
     private ListMultimap<Vector3i, NetData.BlockChangeMessage> awaitingChunkReadyBlockUpdates = ArrayListMultimap.create();
     private ListMultimap<Vector3i, NetData.ExtraDataChangeMessage> awaitingChunkReadyExtraDataUpdates = ArrayListMultimap.create();
+    private ListMultimap<Vector3i, NetData.ChunkBlockChangesMessage> awaitingChunkReadyChunkBlockChanges = ArrayListMultimap.create();
+    /* The latest received version of chunks which are not ready yet, block changes sent after it wait for it */
+    private Map<Vector3i, Chunk> loadingChunks = Maps.newHashMap();
+    private BlockEditBuffer blockEdits = new BlockEditBuffer();
 
     private EngineTime time;
 
@@ -99,9 +106,11 @@ public ServerImpl(NetworkSystemImpl system, Channel channel) {
     }
 
     void connectToEntitySystem(EngineEntityManager newEntityManager, NetworkEntitySerializer newEntitySerializer,
-                               EventSerializer newEventSerializer, BlockEntityRegistry newBlockEntityRegistry) {
+                               EventSerializer newEventSerializer, EventLibrary newEventLibrary,
+                               BlockEntityRegistry newBlockEntityRegistry) {
         this.entityManager = newEntityManager;
         this.eventSerializer = newEventSerializer;
+        this.compactEvents = new CompactEventStates(newEventLibrary, newEventSerializer);
         this.entitySerializer = newEntitySerializer;
         this.blockEntityRegistry = newBlockEntityRegistry;
         blockManager = (BlockManagerImpl) CoreRegistry.get(BlockManager.class);
@@ -220,7 +229,16 @@ private boolean isOwned(EntityRef entity) {
 
     private void processEvent(NetData.EventMessage message) {
         try {
-            Event event = eventSerializer.deserialize(message.getEvent());
+            Event event;
+            if (message.getEvent().hasCompactData()) {
+                event = compactEvents.deserialize(message.getEvent(), message.getTargetId());
+                if (event == null) {
+                    logger.debug("Dropping compact event for entity {} without previous event", message.getTargetId());
+                    return;
+                }
+            } else {
+                event = eventSerializer.deserialize(message.getEvent());
+            }
             EntityRef target = EntityRef.NULL;
             if (message.hasTargetBlockPos()) {
                 target = blockEntityRegistry.getBlockEntityAt(NetMessageUtil.convert(message.getTargetBlockPos()));
@@ -254,6 +272,7 @@ private void processMessages() {
             processReceivedChunks(message);
             processInvalidatedChunks(message);
             processBlockChanges(message);
+            processChunkBlockChanges(message);
             processExtraDataChanges(message);
             processRemoveEntities(message);
             message.getCreateEntityList().forEach(this::createEntityMessage);
@@ -277,6 +296,7 @@ private void processRemoveEntities(NetData.NetMessage message) {
                 entity.destroy();
                 networkSystem.unregisterClientNetworkEntity(netId);
             }
+            compactEvents.remove(netId);
         }
     }
 
@@ -298,6 +318,26 @@ private void processBlockChanges(NetData.NetMessage message) {
         }
     }
 
+    /**
+     * Apply the per chunk block changes from the message to the local world, each chunk in one go.
+     */
+    private void processChunkBlockChanges(NetData.NetMessage message) {
+        for (NetData.ChunkBlockChangesMessage chunkBlockChanges : message.getChunkBlockChangesList()) {
+            Vector3i chunkPos = NetMessageUtil.convert(chunkBlockChanges.getChunkPos());
+            if (loadingChunks.containsKey(chunkPos) || !remoteWorldProvider.isChunkReady(chunkPos)) {
+                awaitingChunkReadyChunkBlockChanges.put(chunkPos, chunkBlockChanges);
+            } else {
+                applyChunkBlockChanges(chunkBlockChanges);
+            }
+        }
+    }
+
+    private void applyChunkBlockChanges(NetData.ChunkBlockChangesMessage chunkBlockChanges) {
+        ChunkBlockChanges.decode(chunkBlockChanges, blockManager, blockEdits);
+        CoreRegistry.get(WorldProvider.class).setBlocks(blockEdits);
+        blockEdits.clear();
+    }
+
     /**
      * Apply the extra-data changes from the message to the local world.
      */
@@ -319,12 +359,15 @@ private void processInvalidatedChunks(NetData.NetMessage message) {
             remoteWorldProvider.invalidateChunks(chunkPos);
             awaitingChunkReadyBlockUpdates.removeAll(chunkPos);
             awaitingChunkReadyExtraDataUpdates.removeAll(chunkPos);
+            awaitingChunkReadyChunkBlockChanges.removeAll(chunkPos);
+            loadingChunks.remove(chunkPos);
         }
     }
 
     private void processReceivedChunks(NetData.NetMessage message) {
         for (EntityData.ChunkStore chunkInfo : message.getChunkInfoList()) {
             Chunk chunk = ChunkSerializer.decode(chunkInfo, blockManager, extraDataManager);
+            loadingChunks.put(new Vector3i(chunk.getPosition()), chunk);
             chunkQueue.offer(chunk);
         }
     }
@@ -408,6 +451,14 @@ public void onChunkReady(Vector3ic chunkPos) {
             worldProvider.setBlock(pos, newBlock);
         }
 
+        Vector3i readyPos = new Vector3i(chunkPos);
+        Chunk loadingChunk = loadingChunks.get(readyPos);
+        // An older version may still become ready while the chunk was sent again
+        if (loadingChunk == null || loadingChunk == remoteWorldProvider.getChunk(readyPos)) {
+            loadingChunks.remove(readyPos);
+            awaitingChunkReadyChunkBlockChanges.removeAll(readyPos).forEach(this::applyChunkBlockChanges);
+        }
+
         List<NetData.ExtraDataChangeMessage> updateExtraDataMessages = awaitingChunkReadyExtraDataUpdates.removeAll(new Vector3i(chunkPos));
         for (NetData.ExtraDataChangeMessage message : updateExtraDataMessages) {
             Vector3i pos = NetMessageUtil.convert(message.getPos());
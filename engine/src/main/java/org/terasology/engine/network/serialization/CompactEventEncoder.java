@@ -0,0 +1,37 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.network.serialization;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.terasology.engine.network.CompactEncoding;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+import java.io.IOException;
+
+/**
+ * Encodes events of one type more compactly than their generic serialization, see {@link CompactEncoding}.
+ * <p>
+ * Encoders may lose precision, and may leave out everything which did not change since a previous event. Both sides
+ * use the previous event as decoded by the receiver, so the errors introduced by lost precision don't accumulate.
+ *
+ * @param <T> The type of the events
+ */
+public interface CompactEventEncoder<T extends Event> {
+
+    /**
+     * @param event The event to encode
+     * @param previous The previous event as decoded by the receiver, or null if the event has to be encoded in full
+     * @param out The stream to write to
+     * @return The event as the receiver will decode it
+     */
+    T encode(T event, T previous, CodedOutputStream out) throws IOException;
+
+    /**
+     * @param previous The previous event as decoded by the receiver, or null if the event was encoded in full
+     * @param in The stream to read from
+     * @return The decoded event
+     */
+    T decode(T previous, CodedInputStream in) throws IOException;
+}
@@ -3,10 +3,12 @@
 package org.terasology.engine.persistence;
 
 import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityStore;
 import org.terasology.engine.network.Client;
 import org.terasology.engine.world.chunks.Chunk;
 
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * The entity store manager handles the storing and retrieval of stores of entities (and other data). In particular
@@ -39,6 +41,13 @@ public interface StorageManager {
      */
     ChunkStore loadChunkStore(Vector3ic chunkPos);
 
+    /**
+     * Checks whether a chunk store exists without loading it, much cheaper than {@link #loadChunkStore}.
+     *
+     * @return true if {@link #loadChunkStore} would find a chunk store at the position
+     */
+    boolean hasChunkStore(Vector3ic chunkPos);
+
     void finishSavingAndShutdown();
 
     /**
@@ -55,6 +64,13 @@ public interface StorageManager {
      */
     void deactivateChunk(Chunk chunk);
 
+    /**
+     * Stores a chunk which was generated but never loaded, e.g. by the world pregeneration, at the next possible time.
+     * The generated entities are stored with the chunk without being activated, and are created once the chunk is
+     * loaded.
+     */
+    void storeGeneratedChunk(Chunk chunk, Collection<EntityStore> entities);
+
     boolean isSaving();
 
     void checkAndRepairSaveIfNecessary() throws IOException;
@@ -26,7 +26,6 @@
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileSystem;
@@ -35,7 +34,6 @@
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
 
 /**
  * An abstract implementation of {@link StorageManager} that is able
@@ -55,18 +53,33 @@ public abstract class AbstractStorageManager implements StorageManager {
     private final PrefabSerializer prefabSerializer;
     private final OwnershipHelper helper;
 
+    private final RegionFileCache regionFileCache;
+
     private boolean storeChunksInZips = true;
+    private boolean storeChunksInRegions;
 
     public AbstractStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                   BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips) {
+        this(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips, false);
+    }
+
+    /**
+     * @param storeChunksInRegions if true chunks are stored in region files, taking precedence over
+     *                             storeChunksInZips. See {@link RegionFile}.
+     */
+    public AbstractStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                                  BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips,
+                                  boolean storeChunksInRegions) {
         this.entityManager = entityManager;
         this.environment = environment;
         this.storeChunksInZips = storeChunksInZips;
+        this.storeChunksInRegions = storeChunksInRegions;
         this.prefabSerializer = new PrefabSerializer(entityManager.getComponentLibrary(), entityManager.getTypeSerializerLibrary());
         this.blockManager = blockManager;
         this.extraDataManager = extraDataManager;
 
         this.storagePathProvider = new StoragePathProvider(savePath);
+        this.regionFileCache = new RegionFileCache(storagePathProvider);
         this.helper = new OwnershipHelper(entityManager.getComponentLibrary());
     }
 
@@ -96,9 +109,8 @@ public ChunkStore loadChunkStore(Vector3ic chunkPos) {
         byte[] chunkData = loadCompressedChunk(chunkPos);
         ChunkStore store = null;
         if (chunkData != null) {
-            ByteArrayInputStream bais = new ByteArrayInputStream(chunkData);
-            try (GZIPInputStream gzipIn = new GZIPInputStream(bais)) {
-                EntityData.ChunkStore storeData = EntityData.ChunkStore.parseFrom(gzipIn);
+            try {
+                EntityData.ChunkStore storeData = ChunkCompression.decompress(chunkData);
                 store = new ChunkStoreInternal(storeData, entityManager, blockManager, extraDataManager);
             } catch (IOException e) {
                 logger.error("Failed to read existing saved chunk {}", chunkPos);
@@ -107,12 +119,40 @@ public ChunkStore loadChunkStore(Vector3ic chunkPos) {
         return store;
     }
 
+    @Override
+    public boolean hasChunkStore(Vector3ic chunkPos) {
+        try {
+            if (regionFileCache.contains(chunkPos)) {
+                return true;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to look up chunk {} in its region file", chunkPos, e);
+        }
+        if (isStoreChunksInZips()) {
+            return hasChunkZipEntry(chunkPos);
+        }
+        return Files.isRegularFile(storagePathProvider.getChunkPath(chunkPos));
+    }
+
+    private boolean hasChunkZipEntry(Vector3ic chunkPos) {
+        Path chunkPath = storagePathProvider.getChunkZipPath(storagePathProvider.getChunkZipPosition(chunkPos));
+        if (!Files.isRegularFile(chunkPath)) {
+            return false;
+        }
+        try (FileSystem chunkZip = FileSystems.newFileSystem(chunkPath, (ClassLoader) null)) {
+            return Files.isRegularFile(chunkZip.getPath(storagePathProvider.getChunkFilename(chunkPos)));
+        } catch (IOException e) {
+            logger.error("Failed to look up chunk {} in chunk zip {}", chunkPos, chunkPath, e);
+            return false;
+        }
+    }
+
     protected byte[] loadChunkZip(Vector3ic chunkPos) {
         byte[] chunkData = null;
         Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
         Path chunkPath = storagePathProvider.getChunkZipPath(chunkZipPos);
         if (Files.isRegularFile(chunkPath)) {
-            try (FileSystem chunkZip = FileSystems.newFileSystem(chunkPath, null)) {
+            try (FileSystem chunkZip = FileSystems.newFileSystem(chunkPath, (ClassLoader) null)) {
                 Path targetChunk = chunkZip.getPath(storagePathProvider.getChunkFilename(chunkPos));
                 if (Files.isRegularFile(targetChunk)) {
                     chunkData = Files.readAllBytes(targetChunk);
@@ -139,7 +179,66 @@ void setStoreChunksInZips(boolean storeChunksInZips) {
         this.storeChunksInZips = storeChunksInZips;
     }
 
+    public boolean isStoreChunksInRegions() {
+        return storeChunksInRegions;
+    }
+
+    /**
+     * For tests only
+     */
+    void setStoreChunksInRegions(boolean storeChunksInRegions) {
+        this.storeChunksInRegions = storeChunksInRegions;
+    }
+
+    /**
+     * @return the format newly stored chunks are compressed with. Region files use LZ4 for its faster decoding, the
+     *         other layouts stay with GZIP.
+     */
+    protected ChunkCompression getChunkCompression() {
+        return isStoreChunksInRegions() ? ChunkCompression.LZ4 : ChunkCompression.GZIP;
+    }
+
+    protected byte[] loadChunkRegion(Vector3ic chunkPos) {
+        try {
+            return regionFileCache.read(chunkPos);
+        } catch (IOException e) {
+            logger.error("Failed to load chunk {} from its region file", chunkPos, e);
+            return null;
+        }
+    }
+
+    /**
+     * Moves chunks of the zip or single file layout into region files, if this storage manager stores chunks in
+     * regions.
+     */
+    protected void migrateChunksToRegions() throws IOException {
+        if (isStoreChunksInRegions()) {
+            new ChunkRegionMigration(storagePathProvider, regionFileCache).migrate();
+        }
+    }
+
+    /**
+     * Region files are read even if this storage manager does not store chunks in regions, as the chunks of worlds
+     * that got migrated to region files exist nowhere else. Chunks saved in the old layout afterwards are newer than
+     * the ones in region files, so that layout is read first then.
+     */
     protected byte[] loadCompressedChunk(Vector3ic chunkPos) {
+        if (isStoreChunksInRegions()) {
+            byte[] chunkData = loadChunkRegion(chunkPos);
+            if (chunkData != null) {
+                return chunkData;
+            }
+            // saves which were not migrated yet, e.g. opened read only, still keep their chunks in the old layout
+            return loadLegacyChunk(chunkPos);
+        }
+        byte[] chunkData = loadLegacyChunk(chunkPos);
+        if (chunkData != null) {
+            return chunkData;
+        }
+        return loadChunkRegion(chunkPos);
+    }
+
+    private byte[] loadLegacyChunk(Vector3ic chunkPos) {
         if (isStoreChunksInZips()) {
             return loadChunkZip(chunkPos);
         } else {
@@ -210,6 +309,10 @@ protected StoragePathProvider getStoragePathProvider() {
         return storagePathProvider;
     }
 
+    protected RegionFileCache getRegionFileCache() {
+        return regionFileCache;
+    }
+
     protected ModuleEnvironment getEnvironment() {
         return environment;
     }
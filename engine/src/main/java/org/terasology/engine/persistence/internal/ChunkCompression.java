@@ -0,0 +1,104 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.terasology.protobuf.EntityData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression formats of encoded chunk stores.
+ * <p>
+ * Both formats start with a magic number, so compressed chunks can be decoded without knowing which format was used
+ * to write them.
+ */
+public enum ChunkCompression {
+    GZIP(new byte[]{(byte) 0x1f, (byte) 0x8b}) {
+        @Override
+        OutputStream compressing(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out);
+        }
+
+        @Override
+        InputStream decompressing(InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    },
+    LZ4(new byte[]{(byte) 0x04, (byte) 0x22, (byte) 0x4d, (byte) 0x18}) {
+        @Override
+        OutputStream compressing(OutputStream out) throws IOException {
+            return new LZ4FrameOutputStream(out);
+        }
+
+        @Override
+        InputStream decompressing(InputStream in) throws IOException {
+            return new LZ4FrameInputStream(in);
+        }
+    };
+
+    private final byte[] magic;
+
+    ChunkCompression(byte[] magic) {
+        this.magic = magic;
+    }
+
+    abstract OutputStream compressing(OutputStream out) throws IOException;
+
+    abstract InputStream decompressing(InputStream in) throws IOException;
+
+    public byte[] compress(EntityData.ChunkStore store) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream out = compressing(baos)) {
+            store.writeTo(out);
+        } catch (IOException e) {
+            // as no real IO is involved this should not happen
+            throw new RuntimeException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Decodes a chunk store compressed with any of the formats.
+     */
+    public static EntityData.ChunkStore decompress(byte[] data) throws IOException {
+        ChunkCompression compression = detect(data);
+        if (compression == null) {
+            throw new IOException("Unknown chunk compression format");
+        }
+        try (InputStream in = compression.decompressing(new ByteArrayInputStream(data))) {
+            return EntityData.ChunkStore.parseFrom(in);
+        }
+    }
+
+    /**
+     * @return the format the data was compressed with, or null if it is none of them
+     */
+    public static ChunkCompression detect(byte[] data) {
+        for (ChunkCompression compression : values()) {
+            if (compression.matches(data)) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(byte[] data) {
+        if (data.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (data[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
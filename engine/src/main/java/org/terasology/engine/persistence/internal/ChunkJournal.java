@@ -0,0 +1,82 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import com.google.common.collect.Lists;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Lists the chunks a save transaction wrote into free sectors of their region files, see
+ * {@link RegionFileCache#writeSectors}. The chunks replace the stored ones only when the changes of the save get
+ * merged, so the journal holds just their sector offsets instead of the chunk data.
+ */
+public final class ChunkJournal {
+    private static final int ENTRY_BYTES = 5 * Integer.BYTES;
+
+    private ChunkJournal() {
+    }
+
+    public static void save(Path path, List<Entry> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (Entry entry : entries) {
+                out.writeInt(entry.chunkPos.x());
+                out.writeInt(entry.chunkPos.y());
+                out.writeInt(entry.chunkPos.z());
+                out.writeInt(entry.offset);
+                out.writeInt(entry.length);
+            }
+        }
+    }
+
+    public static List<Entry> load(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size % ENTRY_BYTES != 0) {
+            throw new IOException("Chunk journal " + path + " is truncated");
+        }
+        List<Entry> entries = Lists.newArrayListWithCapacity((int) (size / ENTRY_BYTES));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            for (long i = 0; i < size / ENTRY_BYTES; i++) {
+                Vector3i chunkPos = new Vector3i(in.readInt(), in.readInt(), in.readInt());
+                entries.add(new Entry(chunkPos, in.readInt(), in.readInt()));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * A chunk written into the sectors of its region file.
+     */
+    public static final class Entry {
+        private final Vector3i chunkPos;
+        private final int offset;
+        private final int length;
+
+        /**
+         * @param offset the sector offset returned by {@link RegionFileCache#writeSectors}
+         * @param length the byte length of the chunk data
+         */
+        public Entry(Vector3ic chunkPos, int offset, int length) {
+            this.chunkPos = new Vector3i(chunkPos);
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public void commit(RegionFileCache regionFileCache) throws IOException {
+            regionFileCache.commit(chunkPos, offset, length);
+        }
+
+        public void discard(RegionFileCache regionFileCache) throws IOException {
+            regionFileCache.discard(chunkPos, offset, length);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import org.joml.Vector3i;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Moves chunks stored in chunk zips or single chunk files into region files.
+ * <p>
+ * Every legacy file is deleted once all of its chunks are written to their regions, so the migration can be rerun
+ * after an interruption and does nothing once the world is migrated.
+ */
+public final class ChunkRegionMigration {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkRegionMigration.class);
+    private static final String CHUNK_ZIP_SUFFIX = ".chunks.zip";
+
+    private final StoragePathProvider storagePathProvider;
+    private final RegionFileCache regionFileCache;
+
+    public ChunkRegionMigration(StoragePathProvider storagePathProvider, RegionFileCache regionFileCache) {
+        this.storagePathProvider = storagePathProvider;
+        this.regionFileCache = regionFileCache;
+    }
+
+    /**
+     * @return the number of migrated chunks
+     */
+    public int migrate() throws IOException {
+        Path worldPath = storagePathProvider.getWorldPath();
+        if (!Files.isDirectory(worldPath)) {
+            return 0;
+        }
+        int migrated = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(worldPath)) {
+            for (Path file : files) {
+                String filename = file.getFileName().toString();
+                if (filename.endsWith(CHUNK_ZIP_SUFFIX)) {
+                    migrated += migrateChunkZip(file);
+                    Files.delete(file);
+                } else {
+                    Vector3i chunkPos = storagePathProvider.parseChunkFilename(filename);
+                    if (chunkPos != null && Files.isRegularFile(file)) {
+                        regionFileCache.write(chunkPos, Files.readAllBytes(file));
+                        Files.delete(file);
+                        migrated++;
+                    }
+                }
+            }
+        }
+        if (migrated > 0) {
+            logger.info("Migrated {} chunks to region files", migrated);
+        }
+        return migrated;
+    }
+
+    private int migrateChunkZip(Path chunkZipPath) throws IOException {
+        int[] migrated = new int[1];
+        try (FileSystem chunkZip = FileSystems.newFileSystem(chunkZipPath, (ClassLoader) null)) {
+            for (Path root : chunkZip.getRootDirectories()) {
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                        Vector3i chunkPos = storagePathProvider.parseChunkFilename(file.getFileName().toString());
+                        if (chunkPos != null) {
+                            regionFileCache.write(chunkPos, Files.readAllBytes(file));
+                            migrated[0]++;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+        }
+        return migrated[0];
+    }
+}
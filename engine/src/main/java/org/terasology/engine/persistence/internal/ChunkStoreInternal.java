@@ -11,6 +11,9 @@
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.engine.world.chunks.internal.ChunkSerializer;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.Map;
 
 final class ChunkStoreInternal implements ChunkStore {
 
@@ -19,6 +22,7 @@ final class ChunkStoreInternal implements ChunkStore {
 
     private final EngineEntityManager entityManager;
     private final EntityData.EntityStore entityStore;
+    private final Map<Class<? extends Component>, Integer> componentIdMapping;
 
     ChunkStoreInternal(EntityData.ChunkStore chunkData, EngineEntityManager entityManager,
                        BlockManager blockManager, ExtraBlockDataManager extraDataManager) {
@@ -27,6 +31,7 @@ final class ChunkStoreInternal implements ChunkStore {
 
         this.chunk = ChunkSerializer.decode(chunkData, blockManager, extraDataManager);
         this.entityStore = chunkData.getStore();
+        this.componentIdMapping = new EntityRestorer(entityManager).createComponentIdMapping(entityStore);
     }
 
     @Override
@@ -42,6 +47,6 @@ public Chunk getChunk() {
 
     @Override
     public void restoreEntities() {
-        new EntityRestorer(entityManager).restore(entityStore);
+        new EntityRestorer(entityManager).restore(entityStore, componentIdMapping);
     }
 }
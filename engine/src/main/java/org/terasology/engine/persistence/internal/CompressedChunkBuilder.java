@@ -7,11 +7,8 @@
 import org.terasology.protobuf.EntityData;
 import org.terasology.engine.world.chunks.internal.ChunkImpl;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.Collection;
 import java.util.Set;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * Provides an easy to get a compressed version of a chunk. Either the chunk most have a snapshot of it's state
@@ -24,6 +21,7 @@ public class CompressedChunkBuilder {
     private boolean viaSnapshot;
     private byte[] result;
     private Set<EntityRef> storedEntities;
+    private ChunkCompression compression = ChunkCompression.GZIP;
 
     /**
      *
@@ -59,6 +57,16 @@ public CompressedChunkBuilder(EntityData.EntityStore entityStore, ChunkImpl chun
         this.viaSnapshot = viaSnapshot;
     }
 
+    /**
+     * Sets the format the chunk will be compressed with, {@link ChunkCompression#GZIP} by default.
+     *
+     * @return self for fluent api.
+     */
+    public CompressedChunkBuilder withCompression(ChunkCompression chunkCompression) {
+        this.compression = chunkCompression;
+        return this;
+    }
+
     public synchronized byte[] buildEncodedChunk() {
         if (result == null) {
 
@@ -70,22 +78,11 @@ public synchronized byte[] buildEncodedChunk() {
             }
             encoded.setStore(entityStore);
             EntityData.ChunkStore store = encoded.build();
-            result = compressChunkStore(store);
+            result = compression.compress(store);
         }
         return result;
     }
 
-    private byte[] compressChunkStore(EntityData.ChunkStore store) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
-            store.writeTo(gzipOut);
-        } catch (IOException e) {
-            // as no real IO is involved this should not happen
-            throw new RuntimeException(e);
-        }
-        return baos.toByteArray();
-    }
-
     public Set<EntityRef> getStoredEntities() {
         return storedEntities;
     }
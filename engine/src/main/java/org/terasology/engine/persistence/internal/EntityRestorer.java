@@ -22,8 +22,14 @@ final class EntityRestorer {
     }
 
     public Map<String, EntityRef> restore(EntityData.EntityStore store) {
-        EntitySerializer serializer = new EntitySerializer(entityManager);
-        serializer.setComponentSerializeCheck(new PersistenceComponentSerializeCheck());
+        return restore(store, createComponentIdMapping(store));
+    }
+
+    /**
+     * Resolves the component classes used by the store. This only reads the component library, so unlike restoring
+     * the entities it can be done ahead of time off the main thread.
+     */
+    Map<Class<? extends Component>, Integer> createComponentIdMapping(EntityData.EntityStore store) {
         Map<Class<? extends Component>, Integer> idMap = Maps.newHashMap();
         for (int i = 0; i < store.getComponentClassCount(); ++i) {
             ComponentMetadata<?> metadata = entityManager.getComponentLibrary().resolve(store.getComponentClass(i));
@@ -31,6 +37,12 @@ public Map<String, EntityRef> restore(EntityData.EntityStore store) {
                 idMap.put(metadata.getType(), i);
             }
         }
+        return idMap;
+    }
+
+    Map<String, EntityRef> restore(EntityData.EntityStore store, Map<Class<? extends Component>, Integer> idMap) {
+        EntitySerializer serializer = new EntitySerializer(entityManager);
+        serializer.setComponentSerializeCheck(new PersistenceComponentSerializeCheck());
         serializer.setComponentIdMapping(idMap);
         store.getEntityList().forEach(serializer::deserialize);
 
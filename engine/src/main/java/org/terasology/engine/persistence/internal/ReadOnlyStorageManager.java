@@ -4,6 +4,7 @@
 package org.terasology.engine.persistence.internal;
 
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.EntityStore;
 import org.terasology.engine.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.gestalt.module.ModuleEnvironment;
 import org.terasology.engine.network.Client;
@@ -28,12 +29,19 @@ public ReadOnlyStorageManager(Path savePath, ModuleEnvironment environment, Engi
 
     public ReadOnlyStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                   BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips) {
-        super(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips);
+        this(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips, false);
+    }
+
+    public ReadOnlyStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                                  BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips,
+                                  boolean storeChunksInRegions) {
+        super(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips,
+                storeChunksInRegions);
     }
 
     @Override
     public void finishSavingAndShutdown() {
-        // don't care
+        getRegionFileCache().closeAll();
     }
 
     @Override
@@ -53,6 +61,11 @@ public void deactivateChunk(Chunk chunk) {
         entitiesOfChunk.forEach(this::deactivateOrDestroyEntityRecursive);
     }
 
+    @Override
+    public void storeGeneratedChunk(Chunk chunk, Collection<EntityStore> entities) {
+        // Nothing is stored
+    }
+
     @Override
     public void update() {
     }
@@ -4,6 +4,7 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.joml.Vector3f;
 import org.joml.Vector3ic;
 import org.slf4j.Logger;
@@ -15,7 +16,9 @@
 import org.terasology.engine.core.PathManager;
 import org.terasology.engine.core.Time;
 import org.terasology.engine.core.module.ModuleManager;
+import org.terasology.engine.entitySystem.entity.EntityBuilder;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.EntityStore;
 import org.terasology.engine.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.engine.entitySystem.entity.internal.EntityChangeSubscriber;
 import org.terasology.engine.entitySystem.entity.internal.EntityDestroySubscriber;
@@ -62,6 +65,9 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -71,6 +77,11 @@ public final class ReadWriteStorageManager extends AbstractStorageManager
     private static final Logger logger = LoggerFactory.getLogger(ReadWriteStorageManager.class);
 
     private final TaskMaster<Task> saveThreadManager;
+    /**
+     * Encodes and compresses chunks for the save thread. Shut down together with the save thread.
+     */
+    private final ThreadPoolExecutor chunkEncoder;
+    private final SavedChunkStates savedChunkStates = new SavedChunkStates();
     private final SaveTransactionHelper saveTransactionHelper;
 
     /**
@@ -115,23 +126,50 @@ public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, Eng
                                    ExtraBlockDataManager extraDataManager, RecordAndReplaySerializer recordAndReplaySerializer,
                                    RecordAndReplayUtils recordAndReplayUtils, RecordAndReplayCurrentStatus recordAndReplayCurrentStatus)
             throws IOException {
+        this(savePath, environment, entityManager, blockManager, extraDataManager, recordAndReplaySerializer,
+                recordAndReplayUtils, recordAndReplayCurrentStatus, false);
+    }
+
+    public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager, BlockManager blockManager,
+                                   ExtraBlockDataManager extraDataManager, RecordAndReplaySerializer recordAndReplaySerializer,
+                                   RecordAndReplayUtils recordAndReplayUtils, RecordAndReplayCurrentStatus recordAndReplayCurrentStatus,
+                                   boolean storeChunksInRegions)
+            throws IOException {
         this(savePath, environment, entityManager, blockManager, extraDataManager,
-            true, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+            true, storeChunksInRegions, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
     }
 
     ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                    BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips,
                                    RecordAndReplaySerializer recordAndReplaySerializer, RecordAndReplayUtils recordAndReplayUtils,
                             RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) throws IOException {
-        super(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips);
+        this(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips, false,
+                recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+    }
+
+    ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                            BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips,
+                            boolean storeChunksInRegions, RecordAndReplaySerializer recordAndReplaySerializer,
+                            RecordAndReplayUtils recordAndReplayUtils,
+                            RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) throws IOException {
+        super(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips,
+                storeChunksInRegions);
 
         entityManager.subscribeForDestruction(this);
         entityManager.subscribeForChanges(this);
         // TODO Ensure that the component library and the type serializer library are thread save (e.g. immutable)
         this.privateEntityManager = createPrivateEntityManager(entityManager.getComponentLibrary());
         Files.createDirectories(getStoragePathProvider().getStoragePathDirectory());
-        this.saveTransactionHelper = new SaveTransactionHelper(getStoragePathProvider());
+        this.saveTransactionHelper = new SaveTransactionHelper(getStoragePathProvider(), getRegionFileCache());
         this.saveThreadManager = TaskMaster.createFIFOTaskMaster("Saving", 1);
+        int encoderThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.chunkEncoder = new ThreadPoolExecutor(encoderThreads, encoderThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                .setNameFormat("Saving-Encoder-%d")
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .build());
+        this.chunkEncoder.allowCoreThreadTimeOut(true);
         this.config = CoreRegistry.get(Config.class);
         this.systemConfig = CoreRegistry.get((SystemConfig.class));
         this.entityRefReplacingComponentLibrary = privateEntityManager.getComponentLibrary()
@@ -156,7 +194,9 @@ public void finishSavingAndShutdown() {
             recordAndReplayUtils.setShutdownRequested(true);
         }
         saveThreadManager.shutdown(new ShutdownTask(), true);
+        chunkEncoder.shutdown();
         checkSaveTransactionAndClearUpIfItIsDone();
+        getRegionFileCache().closeAll();
     }
 
     private void checkSaveTransactionAndClearUpIfItIsDone() {
@@ -221,12 +261,16 @@ private void addChunksToSaveTransaction(SaveTransactionBuilder saveTransactionBu
             unsavedEntryIterator.remove();
         }
 
+        List<ChunkImpl> loadedChunks = Lists.newArrayList();
         chunkProvider.getAllChunks().stream().filter(Chunk::isReady).forEach(chunk -> {
             // If there is a newer undisposed version of the chunk,we don't need to save the disposed version:
             unloadedAndSavingChunkMap.remove(chunk.getPosition());
             ChunkImpl chunkImpl = (ChunkImpl) chunk;  // this storage manager can only work with ChunkImpls
             saveTransactionBuilder.addLoadedChunk(chunk.getPosition(), chunkImpl);
+            loadedChunks.add(chunkImpl);
         });
+        // unloaded chunks will be written from their CompressedChunkBuilder and be new instances once loaded again
+        savedChunkStates.retainChunks(loadedChunks);
 
         for (Map.Entry<Vector3ic, CompressedChunkBuilder> entry : unloadedAndSavingChunkMap.entrySet()) {
             saveTransactionBuilder.addUnloadedChunk(entry.getKey(), entry.getValue());
@@ -257,7 +301,9 @@ private void waitForCompletionOfPreviousSave() {
 
     private SaveTransaction createSaveTransaction() {
         SaveTransactionBuilder saveTransactionBuilder = new SaveTransactionBuilder(privateEntityManager,
-                entitySetDeltaRecorder, isStoreChunksInZips(), getStoragePathProvider(), worldDirectoryWriteLock,
+                entitySetDeltaRecorder, isStoreChunksInZips(),
+                isStoreChunksInRegions() ? getRegionFileCache() : null, getChunkCompression(),
+                savedChunkStates, chunkEncoder, getStoragePathProvider(), worldDirectoryWriteLock,
                 recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
 
         ChunkProvider chunkProvider = CoreRegistry.get(ChunkProvider.class);
@@ -321,11 +367,43 @@ public void deactivateChunk(Chunk chunk) {
         Collection<EntityRef> entitiesOfChunk = getEntitiesOfChunk(chunk);
         ChunkImpl chunkImpl = (ChunkImpl) chunk; // storage manager only works with ChunkImpl
         unloadedAndUnsavedChunkMap.put(chunk.getPosition(), new CompressedChunkBuilder(getEntityManager(), chunkImpl,
-                entitiesOfChunk, true));
+                entitiesOfChunk, true).withCompression(getChunkCompression()));
 
         entitiesOfChunk.forEach(this::deactivateOrDestroyEntityRecursive);
     }
 
+    @Override
+    public void storeGeneratedChunk(Chunk chunk, Collection<EntityStore> entities) {
+        // The entities are created without lifecycle events, only to be encoded like the entities of an unloaded chunk
+        List<EntityRef> generatedEntities = Lists.newArrayListWithCapacity(entities.size());
+        for (EntityStore store : entities) {
+            EntityBuilder builder = store.getPrefab() != null
+                    ? getEntityManager().newBuilder(store.getPrefab())
+                    : getEntityManager().newBuilder();
+            builder.addComponents(store.iterateComponents());
+            generatedEntities.add(builder.buildWithoutLifecycleEvents());
+        }
+        ChunkImpl chunkImpl = (ChunkImpl) chunk; // storage manager only works with ChunkImpl
+        unloadedAndUnsavedChunkMap.put(chunk.getPosition(), new CompressedChunkBuilder(getEntityManager(), chunkImpl,
+                generatedEntities, true).withCompression(getChunkCompression()));
+
+        generatedEntities.forEach(getEntityManager()::deactivateForStorage);
+    }
+
+    @Override
+    public boolean hasChunkStore(Vector3ic chunkPos) {
+        if (unloadedAndUnsavedChunkMap.containsKey(chunkPos) || unloadedAndSavingChunkMap.containsKey(chunkPos)) {
+            return true;
+        }
+
+        worldDirectoryReadLock.lock();
+        try {
+            return super.hasChunkStore(chunkPos);
+        } finally {
+            worldDirectoryReadLock.unlock();
+        }
+    }
+
     @Override
     protected byte[] loadCompressedChunk(Vector3ic chunkPos) {
         CompressedChunkBuilder disposedUnsavedChunk = unloadedAndUnsavedChunkMap.get(chunkPos);
@@ -491,6 +569,7 @@ public void checkAndRepairSaveIfNecessary() throws IOException {
         if (Files.exists(getStoragePathProvider().getUnmergedChangesPath())) {
             saveTransactionHelper.mergeChanges();
         }
+        migrateChunksToRegions();
     }
 
 
@@ -501,7 +580,9 @@ public void deleteWorld() {
         unloadedAndSavingChunkMap.clear();
         unloadedAndUnsavedPlayerMap.clear();
         unloadedAndSavingPlayerMap.clear();
+        savedChunkStates.clear();
 
+        getRegionFileCache().closeAll();
         try {
             FilesUtil.recursiveDelete(getStoragePathProvider().getWorldPath());
         } catch (IOException e) {
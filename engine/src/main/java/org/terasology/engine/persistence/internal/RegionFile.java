@@ -0,0 +1,264 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * A file storing the compressed chunks of a cubic region of {@link #REGION_DIM}^3 chunks.
+ * <p>
+ * The file starts with a header of one entry per chunk, each holding the sector offset and byte length of the
+ * chunk data. Chunk data is stored in {@link #SECTOR_SIZE} byte aligned sectors after the header. Rewriting a chunk
+ * writes the new data into free sectors first and only then updates its header entry, so an interrupted write
+ * leaves the previous version of that chunk intact. Sectors of the previous version get reused by later writes.
+ * <p>
+ * The two steps can also be taken separately with {@link #writeSectors} and {@link #commit}, e.g. to update the
+ * header entries only once the rest of a save is written. Sectors written that way stay reserved until then.
+ * <p>
+ * Reads map only the sectors of the chunk being read, so no mapping outlives the read or has to follow the file size.
+ */
+public final class RegionFile implements Closeable {
+    public static final int REGION_DIM = 16;
+    public static final int ENTRIES = REGION_DIM * REGION_DIM * REGION_DIM;
+    public static final int SECTOR_SIZE = 4096;
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionFile.class);
+    private static final int ENTRY_BYTES = 2 * Integer.BYTES;
+    private static final int HEADER_SECTORS = ENTRIES * ENTRY_BYTES / SECTOR_SIZE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int[] offsets = new int[ENTRIES];
+    private final int[] lengths = new int[ENTRIES];
+    private final BitSet usedSectors = new BitSet();
+    /**
+     * Offsets of sectors written by {@link #writeSectors} which were neither committed nor discarded yet.
+     */
+    private final Set<Integer> reservedOffsets = Sets.newHashSet();
+
+    // guarded by the owning RegionFileCache
+    private int users;
+    private boolean evicted;
+
+    public RegionFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            readHeader();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the index of a chunk in its region, given the chunk position relative to the region origin
+     */
+    public static int index(int x, int y, int z) {
+        return x + REGION_DIM * (y + REGION_DIM * z);
+    }
+
+    private void readHeader() throws IOException {
+        usedSectors.set(0, HEADER_SECTORS);
+        if (channel.size() < (long) HEADER_SECTORS * SECTOR_SIZE) {
+            writeFully(ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE), 0);
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Unexpected end of region file header in " + path);
+            }
+        }
+        header.flip();
+        long fileSectors = (channel.size() + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        for (int i = 0; i < ENTRIES; i++) {
+            int offset = header.getInt();
+            int length = header.getInt();
+            if (offset == 0) {
+                continue;
+            }
+            int sectors = sectorsFor(length);
+            int overlapping = usedSectors.nextSetBit(offset);
+            if (offset < HEADER_SECTORS || length <= 0 || offset + sectors > fileSectors
+                    || overlapping >= 0 && overlapping < offset + sectors) {
+                logger.warn("Dropping corrupt entry {} of region file {}", i, path);
+                continue;
+            }
+            offsets[i] = offset;
+            lengths[i] = length;
+            usedSectors.set(offset, offset + sectors);
+        }
+    }
+
+    /**
+     * @return the stored data of the chunk at the given index, or null if there is none
+     */
+    public synchronized byte[] read(int index) throws IOException {
+        int offset = offsets[index];
+        if (offset == 0) {
+            return null;
+        }
+        byte[] data = new byte[lengths[index]];
+        MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, (long) offset * SECTOR_SIZE, data.length);
+        mapping.get(data);
+        return data;
+    }
+
+    /**
+     * Stores the data of the chunk at the given index, replacing previously stored data.
+     */
+    public synchronized void write(int index, byte[] data) throws IOException {
+        commit(index, writeSectors(data), data.length);
+    }
+
+    /**
+     * Writes chunk data into free sectors, without storing it for any chunk yet. The sectors stay reserved until the
+     * data is committed or discarded.
+     *
+     * @return the sector offset of the data
+     */
+    public synchronized int writeSectors(byte[] data) throws IOException {
+        Preconditions.checkArgument(data.length > 0, "Chunk data must not be empty");
+        int start = allocate(sectorsFor(data.length));
+        reservedOffsets.add(start);
+        writeFully(ByteBuffer.wrap(data), (long) start * SECTOR_SIZE);
+        return start;
+    }
+
+    /**
+     * Stores data written by {@link #writeSectors} as the data of the chunk at the given index, replacing previously
+     * stored data. The data may also have been written before this file was reopened, as long as no other data was
+     * written in between. Committing the data the chunk already has does nothing.
+     *
+     * @param offset the sector offset returned by {@link #writeSectors}
+     * @param length the byte length of the data
+     */
+    public synchronized void commit(int index, int offset, int length) throws IOException {
+        if (offsets[index] == offset && lengths[index] == length) {
+            return;
+        }
+        if (offset < HEADER_SECTORS || length <= 0 || (long) offset * SECTOR_SIZE + length > channel.size()) {
+            throw new IOException("Chunk data at sector " + offset + " is not part of region file " + path);
+        }
+        reservedOffsets.remove(offset);
+        usedSectors.set(offset, offset + sectorsFor(length));
+
+        int previousOffset = offsets[index];
+        int previousSectors = sectorsFor(lengths[index]);
+        offsets[index] = offset;
+        lengths[index] = length;
+        writeHeaderEntry(index);
+        if (previousOffset != 0) {
+            usedSectors.clear(previousOffset, previousOffset + previousSectors);
+        }
+    }
+
+    /**
+     * Frees the sectors of data written by {@link #writeSectors} which will not be committed.
+     */
+    public synchronized void discard(int offset, int length) {
+        if (reservedOffsets.remove(offset)) {
+            usedSectors.clear(offset, offset + sectorsFor(length));
+        }
+    }
+
+    /**
+     * Forces all data written so far to the storage device.
+     */
+    public synchronized void force() throws IOException {
+        channel.force(false);
+    }
+
+    public synchronized boolean contains(int index) {
+        return offsets[index] != 0;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private int allocate(int sectors) {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (true) {
+            int end = usedSectors.nextSetBit(start);
+            if (end < 0 || end - start >= sectors) {
+                break;
+            }
+            start = usedSectors.nextClearBit(end);
+        }
+        usedSectors.set(start, start + sectors);
+        return start;
+    }
+
+    private void writeHeaderEntry(int index) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+        entry.putInt(offsets[index]);
+        entry.putInt(lengths[index]);
+        entry.flip();
+        writeFully(entry, (long) index * ENTRY_BYTES);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static int sectorsFor(int length) {
+        return (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    }
+
+    void retain() {
+        users++;
+    }
+
+    /**
+     * @return true if the file is no longer used and was evicted, so it should be closed
+     */
+    boolean release() {
+        users--;
+        return evicted && isUnused();
+    }
+
+    /**
+     * @return true if the file is not in use, so it should be closed
+     */
+    boolean evict() {
+        evicted = true;
+        return isUnused();
+    }
+
+    /**
+     * Reserved sectors keep the file open, as reopening it would forget the reservations.
+     */
+    private synchronized boolean isUnused() {
+        return users == 0 && reservedOffsets.isEmpty();
+    }
+
+    void restore() {
+        evicted = false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+}
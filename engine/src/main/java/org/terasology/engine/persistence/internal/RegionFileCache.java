@@ -0,0 +1,209 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used {@link RegionFile}s open, so loading and saving chunks does not reopen files.
+ * <p>
+ * A region file evicted while another thread is still reading or writing it is closed once that thread is done.
+ */
+public class RegionFileCache {
+    public static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionFileCache.class);
+
+    private final StoragePathProvider storagePathProvider;
+    private final int maxOpenFiles;
+    private final Map<Vector3ic, RegionFile> openFiles = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Evicted files which are still in use. They are reused when their region is needed again before they got
+     * closed, as two open instances of one region file would overwrite each others sectors.
+     */
+    private final Map<Vector3ic, RegionFile> evictedFiles = Maps.newHashMap();
+
+    public RegionFileCache(StoragePathProvider storagePathProvider) {
+        this(storagePathProvider, DEFAULT_MAX_OPEN_FILES);
+    }
+
+    public RegionFileCache(StoragePathProvider storagePathProvider, int maxOpenFiles) {
+        this.storagePathProvider = storagePathProvider;
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * @return the compressed chunk store at the given chunk position, or null if it was never stored
+     */
+    public byte[] read(Vector3ic chunkPos) throws IOException {
+        RegionFile region = acquire(storagePathProvider.getChunkRegionPosition(chunkPos), false);
+        if (region == null) {
+            return null;
+        }
+        try {
+            return region.read(storagePathProvider.getChunkRegionIndex(chunkPos));
+        } finally {
+            release(region);
+        }
+    }
+
+    /**
+     * @return whether a chunk store is stored at the given chunk position, without reading it
+     */
+    public boolean contains(Vector3ic chunkPos) throws IOException {
+        RegionFile region = acquire(storagePathProvider.getChunkRegionPosition(chunkPos), false);
+        if (region == null) {
+            return false;
+        }
+        try {
+            return region.contains(storagePathProvider.getChunkRegionIndex(chunkPos));
+        } finally {
+            release(region);
+        }
+    }
+
+    public void write(Vector3ic chunkPos, byte[] compressedChunk) throws IOException {
+        RegionFile region = acquire(storagePathProvider.getChunkRegionPosition(chunkPos), true);
+        try {
+            region.write(storagePathProvider.getChunkRegionIndex(chunkPos), compressedChunk);
+        } finally {
+            release(region);
+        }
+    }
+
+    /**
+     * Writes a chunk into free sectors of its region file, without replacing the stored chunk yet.
+     *
+     * @return the sector offset to pass to {@link #commit} or {@link #discard}
+     * @see RegionFile#writeSectors
+     */
+    public int writeSectors(Vector3ic chunkPos, byte[] compressedChunk) throws IOException {
+        RegionFile region = acquire(storagePathProvider.getChunkRegionPosition(chunkPos), true);
+        try {
+            return region.writeSectors(compressedChunk);
+        } finally {
+            release(region);
+        }
+    }
+
+    /**
+     * Replaces the stored chunk with the one written by {@link #writeSectors}.
+     *
+     * @see RegionFile#commit
+     */
+    public void commit(Vector3ic chunkPos, int offset, int length) throws IOException {
+        RegionFile region = acquire(storagePathProvider.getChunkRegionPosition(chunkPos), true);
+        try {
+            region.commit(storagePathProvider.getChunkRegionIndex(chunkPos), offset, length);
+        } finally {
+            release(region);
+        }
+    }
+
+    /**
+     * Frees the sectors of a chunk written by {@link #writeSectors} which will not be committed.
+     */
+    public void discard(Vector3ic chunkPos, int offset, int length) throws IOException {
+        RegionFile region = acquire(storagePathProvider.getChunkRegionPosition(chunkPos), false);
+        if (region == null) {
+            return;
+        }
+        try {
+            region.discard(offset, length);
+        } finally {
+            release(region);
+        }
+    }
+
+    /**
+     * Forces the data written into the open region files to the storage device. Closed files were forced on closing.
+     */
+    public synchronized void force() throws IOException {
+        for (RegionFile region : openFiles.values()) {
+            region.force();
+        }
+        for (RegionFile region : evictedFiles.values()) {
+            region.force();
+        }
+    }
+
+    private synchronized RegionFile acquire(Vector3i regionPos, boolean create) throws IOException {
+        RegionFile region = openFiles.get(regionPos);
+        if (region == null) {
+            region = evictedFiles.remove(regionPos);
+            if (region != null) {
+                region.restore();
+                openFiles.put(regionPos, region);
+                evictEldest();
+            }
+        }
+        if (region == null) {
+            Path path = storagePathProvider.getChunkRegionPath(regionPos);
+            if (!create && !Files.isRegularFile(path)) {
+                return null;
+            }
+            Files.createDirectories(path.getParent());
+            region = new RegionFile(path);
+            openFiles.put(regionPos, region);
+            evictEldest();
+        }
+        region.retain();
+        return region;
+    }
+
+    private synchronized void release(RegionFile region) {
+        if (region.release()) {
+            evictedFiles.values().remove(region);
+            closeQuietly(region);
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<Vector3ic, RegionFile>> iterator = openFiles.entrySet().iterator();
+        while (openFiles.size() > maxOpenFiles && iterator.hasNext()) {
+            Map.Entry<Vector3ic, RegionFile> eldest = iterator.next();
+            iterator.remove();
+            evict(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void evict(Vector3ic regionPos, RegionFile region) {
+        if (region.evict()) {
+            closeQuietly(region);
+        } else {
+            evictedFiles.put(regionPos, region);
+        }
+    }
+
+    /**
+     * Closes all region files. Files which are still in use get closed once they are released.
+     */
+    public synchronized void closeAll() {
+        Map<Vector3ic, RegionFile> regions = Maps.newHashMap(openFiles);
+        openFiles.clear();
+        regions.forEach(this::evict);
+    }
+
+    public synchronized int getOpenFileCount() {
+        return openFiles.size();
+    }
+
+    private void closeQuietly(RegionFile region) {
+        try {
+            region.close();
+        } catch (IOException e) {
+            logger.error("Failed to close region file {}", region.getPath(), e);
+        }
+    }
+}
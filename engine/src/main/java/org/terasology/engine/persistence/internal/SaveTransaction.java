@@ -5,6 +5,11 @@
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 import org.slf4j.Logger;
@@ -38,13 +43,20 @@
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -54,6 +66,26 @@ public class SaveTransaction extends AbstractTask {
     private static final Logger logger = LoggerFactory.getLogger(SaveTransaction.class);
 
     private static final ImmutableMap<String, String> CREATE_ZIP_OPTIONS = ImmutableMap.of("create", "true", "encoding", "UTF-8");
+    /**
+     * Chunks which are encoded but not yet written are kept in memory, so the encoder threads may only run this far
+     * ahead of the writing thread.
+     */
+    private static final int MAX_CHUNKS_IN_FLIGHT = 64;
+
+    private static final Timer SAVE_DURATION = Timer.builder("terasology.save.duration")
+            .description("time to write a save game to disk")
+            .register(Metrics.globalRegistry);
+    private static final Counter BYTES_WRITTEN = Counter.builder("terasology.save.written")
+            .description("encoded chunks, players and global entities written by saves")
+            .baseUnit("bytes")
+            .register(Metrics.globalRegistry);
+    private static final Counter CHUNKS_WRITTEN = Counter.builder("terasology.save.chunks.written")
+            .description("chunks written by saves")
+            .register(Metrics.globalRegistry);
+    private static final Counter CHUNKS_SKIPPED = Counter.builder("terasology.save.chunks.skipped")
+            .description("loaded chunks not written by saves, as they did not change since they were last saved")
+            .register(Metrics.globalRegistry);
+
     private final GameManifest gameManifest;
     private final Lock worldDirectoryWriteLock;
     private final EngineEntityManager privateEntityManager;
@@ -71,10 +103,23 @@ public class SaveTransaction extends AbstractTask {
     private EntityData.GlobalStore globalStore;
     private Map<String, EntityData.PlayerStore> allPlayers;
     private Map<Vector3i, CompressedChunkBuilder> allChunks;
-
+    private final Map<Vector3i, SavedChunkStates.State> chunkStatesToSave = Maps.newHashMap();
+    private int skippedChunkCount;
+    private long bytesWritten;
 
     // Save parameters:
     private final boolean storeChunksInZips;
+    /**
+     * Null unless chunks are stored in region files, in which the chunk journal gets committed when merging.
+     */
+    private final RegionFileCache regionFileCache;
+    /**
+     * Chunks written into region files which have to be discarded if the save fails before it is ready to merge.
+     */
+    private final List<ChunkJournal.Entry> uncommittedChunks = new ArrayList<>();
+    private final ChunkCompression chunkCompression;
+    private final SavedChunkStates savedChunkStates;
+    private final Executor chunkEncoder;
 
     // utility classes for saving:
     private final StoragePathProvider storagePathProvider;
@@ -91,6 +136,8 @@ public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaR
                            Map<String, PlayerStoreBuilder> loadedPlayers, GlobalStoreBuilder globalStoreBuilder,
                            Map<Vector3i, CompressedChunkBuilder> unloadedChunks, Map<Vector3i, ChunkImpl> loadedChunks,
                            GameManifest gameManifest, boolean storeChunksInZips,
+                           RegionFileCache regionFileCache, ChunkCompression chunkCompression,
+                           SavedChunkStates savedChunkStates, Executor chunkEncoder,
                            StoragePathProvider storagePathProvider, Lock worldDirectoryWriteLock,
                            RecordAndReplaySerializer recordAndReplaySerializer,
                            RecordAndReplayUtils recordAndReplayUtils,
@@ -104,8 +151,12 @@ public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaR
         this.globalStoreBuilder = globalStoreBuilder;
         this.gameManifest = gameManifest;
         this.storeChunksInZips = storeChunksInZips;
+        this.regionFileCache = regionFileCache;
+        this.chunkCompression = chunkCompression;
+        this.savedChunkStates = savedChunkStates;
+        this.chunkEncoder = chunkEncoder;
         this.storagePathProvider = storagePathProvider;
-        this.saveTransactionHelper = new SaveTransactionHelper(storagePathProvider);
+        this.saveTransactionHelper = new SaveTransactionHelper(storagePathProvider, regionFileCache);
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
         this.recordAndReplaySerializer = recordAndReplaySerializer;
         this.recordAndReplayUtils = recordAndReplayUtils;
@@ -123,6 +174,7 @@ public void run() {
         if (isReplay()) {
             return;
         }
+        long startTime = System.nanoTime();
         try {
             if (Files.exists(storagePathProvider.getUnmergedChangesPath())) {
                 // should not happen, as initialization should clean it up
@@ -138,16 +190,32 @@ public void run() {
             writeChunkStores();
             saveGameManifest();
             perpareChangesForMerge();
+            // the chunk journal now belongs to the unmerged changes, which get merged on the next start at the latest
+            uncommittedChunks.clear();
             mergeChanges();
+            savedChunkStates.markSaved(chunkStatesToSave);
             result = SaveTransactionResult.createSuccessResult();
-            logger.info("Save game finished");
+            recordMetrics(System.nanoTime() - startTime);
             saveRecordingData();
         } catch (IOException | RuntimeException t) {
             logger.error("Save game creation failed", t);
+            // the changes of this save are not recorded anywhere else, so the next one has to write all chunks
+            savedChunkStates.clear();
+            discardUncommittedChunks();
             result = SaveTransactionResult.createFailureResult(t);
         }
     }
 
+    private void recordMetrics(long durationNanos) {
+        int writtenChunkCount = chunkStatesToSave.size() + unloadedChunks.size();
+        SAVE_DURATION.record(durationNanos, TimeUnit.NANOSECONDS);
+        BYTES_WRITTEN.increment(bytesWritten);
+        CHUNKS_WRITTEN.increment(writtenChunkCount);
+        CHUNKS_SKIPPED.increment(skippedChunkCount);
+        logger.info("Save game finished in {} ms: {} chunks and {} bytes written, {} unchanged chunks skipped",
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), writtenChunkCount, bytesWritten, skippedChunkCount);
+    }
+
     private void createPreviewImagesFolder() throws IOException {
         Files.createDirectories(storagePathProvider.getPreviewsPath());
     }
@@ -198,11 +266,17 @@ private void prepareChunksPlayersAndGlobalStore() {
 
 
     /**
+     * Loaded chunks which did not change since they were last saved are skipped before their entities get encoded.
+     * Their entities count as saved, as they are still stored with the chunk.
+     *
      * @param unsavedEntities currently loaded persistent entities without owner that have not been saved yet.
      *                        This method removes entities it saves.
      */
     private void prepareCompressedChunkBuilders(Set<EntityRef> unsavedEntities) {
         Map<Vector3i, Collection<EntityRef>> chunkPosToEntitiesMap = createChunkPosToUnsavedOwnerLessEntitiesMap();
+        TLongSet changedEntities = new TLongHashSet(deltaToSave.getEntityDeltas().keySet());
+        changedEntities.addAll(deltaToSave.getDestroyedEntities());
+        changedEntities.addAll(deltaToSave.getDeactivatedEntities());
 
         allChunks = Maps.newHashMap();
         allChunks.putAll(unloadedChunks);
@@ -213,10 +287,27 @@ private void prepareCompressedChunkBuilders(Set<EntityRef> unsavedEntities) {
             }
             ChunkImpl chunk = chunkEntry.getValue();
             unsavedEntities.removeAll(entitiesToStore);
-            CompressedChunkBuilder compressedChunkBuilder = new CompressedChunkBuilder(privateEntityManager, chunk,
-                    entitiesToStore, false);
-            unsavedEntities.removeAll(compressedChunkBuilder.getStoredEntities());
-            allChunks.put(chunkEntry.getKey(), compressedChunkBuilder);
+            // read before taking the snapshot, so changes made while taking it get saved next time
+            int revision = chunk.getRevision();
+            Set<EntityRef> chunkEntities = new HashSet<>(entitiesToStore);
+            SavedChunkStates.State savedState = savedChunkStates.getUnchangedState(chunkEntry.getKey(), chunk,
+                    revision, chunkEntities, changedEntities);
+            if (savedState != null) {
+                unsavedEntities.removeAll(savedState.getStoredEntities());
+                skippedChunkCount++;
+                continue;
+            }
+
+            EntityStorer storer = new EntityStorer(privateEntityManager);
+            entitiesToStore.stream().filter(EntityRef::isPersistent).forEach(storer::store);
+            unsavedEntities.removeAll(storer.getStoredEntities());
+            EntityData.EntityStore entityStore = storer.finaliseStore();
+            SavedChunkStates.State state = new SavedChunkStates.State(chunk, revision, chunkEntities,
+                    new HashSet<>(storer.getStoredEntities()));
+            chunk.createSnapshot();
+            allChunks.put(chunkEntry.getKey(),
+                    new CompressedChunkBuilder(entityStore, chunk, true).withCompression(chunkCompression));
+            chunkStatesToSave.put(chunkEntry.getKey(), state);
         }
     }
 
@@ -369,6 +460,7 @@ private void writePlayerStores() throws IOException {
             try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(playerFile))) {
                 playerStoreEntry.getValue().writeTo(out);
             }
+            bytesWritten += playerStoreEntry.getValue().getSerializedSize();
         }
     }
 
@@ -377,15 +469,19 @@ private void writeGlobalStore() throws IOException {
         try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
             globalStore.writeTo(out);
         }
+        bytesWritten += globalStore.getSerializedSize();
     }
 
     private void writeChunkStores() throws IOException {
+        if (regionFileCache != null) {
+            writeChunkRegions();
+            return;
+        }
         Path chunksPath = storagePathProvider.getWorldTempPath();
         Files.createDirectories(chunksPath);
         if (storeChunksInZips) {
             Map<Vector3i, FileSystem> newChunkZips = Maps.newHashMap();
-            for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
-                Vector3i chunkPos = entry.getKey();
+            encodeAndWriteChunks((chunkPos, compressedChunk) -> {
                 Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
                 FileSystem zip = newChunkZips.get(chunkZipPos);
                 if (zip == null) {
@@ -395,12 +491,10 @@ private void writeChunkStores() throws IOException {
                     newChunkZips.put(chunkZipPos, zip);
                 }
                 Path chunkPath = zip.getPath(storagePathProvider.getChunkFilename(chunkPos));
-                CompressedChunkBuilder compressedChunkBuilder = entry.getValue();
-                byte[] compressedChunk = compressedChunkBuilder.buildEncodedChunk();
                 try (BufferedOutputStream bos = new BufferedOutputStream(Files.newOutputStream(chunkPath))) {
                     bos.write(compressedChunk);
                 }
-            }
+            });
             // Copy existing, unmodified content into the zips and close them
             for (Map.Entry<Vector3i, FileSystem> chunkZipEntry : newChunkZips.entrySet()) {
                 Vector3i chunkZipPos = chunkZipEntry.getKey();
@@ -425,16 +519,78 @@ public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
                 zip.close();
             }
         } else {
-            for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
-                Vector3i chunkPos = entry.getKey();
-                CompressedChunkBuilder compressedChunkBuilder = entry.getValue();
-                byte[] compressedChunk = compressedChunkBuilder.buildEncodedChunk();
+            encodeAndWriteChunks((chunkPos, compressedChunk) -> {
                 Path chunkPath = storagePathProvider.getChunkTempPath(chunkPos);
                 try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(chunkPath))) {
                     out.write(compressedChunk);
                 }
+            });
+        }
+    }
+
+    /**
+     * Writes the chunks into free sectors of their region files, and lists them in the chunk journal of the save
+     * transaction. Merging the changes commits the journal, so the chunks of a save replace the stored ones together
+     * with the rest of it, even when the merge gets interrupted and is finished on the next start.
+     */
+    private void writeChunkRegions() throws IOException {
+        encodeAndWriteChunks((chunkPos, compressedChunk) -> {
+            int offset = regionFileCache.writeSectors(chunkPos, compressedChunk);
+            uncommittedChunks.add(new ChunkJournal.Entry(chunkPos, offset, compressedChunk.length));
+        });
+        // the journal must not refer to chunk data which could still be lost
+        regionFileCache.force();
+        ChunkJournal.save(storagePathProvider.getChunkJournalTempPath(), uncommittedChunks);
+    }
+
+    private void discardUncommittedChunks() {
+        for (ChunkJournal.Entry entry : uncommittedChunks) {
+            try {
+                entry.discard(regionFileCache);
+            } catch (IOException e) {
+                logger.error("Failed to discard chunk data of the failed save", e);
             }
         }
+        uncommittedChunks.clear();
+    }
+
+    /**
+     * Encodes and compresses the chunks on the encoder threads, while this thread writes them in the order they got
+     * submitted. At most {@link #MAX_CHUNKS_IN_FLIGHT} chunks are submitted but not written yet, and chunks are
+     * dropped from {@link #allChunks} once submitted, so the memory held by encoded chunks stays bounded.
+     */
+    private void encodeAndWriteChunks(ChunkWriter writer) throws IOException {
+        Deque<Map.Entry<Vector3i, CompletableFuture<byte[]>>> inFlight = new ArrayDeque<>(MAX_CHUNKS_IN_FLIGHT);
+        Iterator<Map.Entry<Vector3i, CompressedChunkBuilder>> iterator = allChunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Vector3i, CompressedChunkBuilder> entry = iterator.next();
+            iterator.remove();
+            CompressedChunkBuilder builder = entry.getValue();
+            inFlight.add(Maps.immutableEntry(entry.getKey(),
+                    CompletableFuture.supplyAsync(builder::buildEncodedChunk, chunkEncoder)));
+            if (inFlight.size() >= MAX_CHUNKS_IN_FLIGHT) {
+                writeNextChunk(inFlight, writer);
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            writeNextChunk(inFlight, writer);
+        }
+    }
+
+    private void writeNextChunk(Deque<Map.Entry<Vector3i, CompletableFuture<byte[]>>> inFlight, ChunkWriter writer)
+            throws IOException {
+        Map.Entry<Vector3i, CompletableFuture<byte[]>> next = inFlight.poll();
+        byte[] compressedChunk;
+        try {
+            compressedChunk = next.getValue().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        writer.write(next.getKey(), compressedChunk);
+        bytesWritten += compressedChunk.length;
     }
 
     /**
@@ -463,4 +619,9 @@ private void mergeChanges() throws IOException {
         }
     }
 
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(Vector3i chunkPos, byte[] compressedChunk) throws IOException;
+    }
+
 }
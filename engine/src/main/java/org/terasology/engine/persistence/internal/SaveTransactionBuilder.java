@@ -14,6 +14,7 @@
 import org.terasology.engine.world.chunks.internal.ChunkImpl;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -30,6 +31,10 @@ class SaveTransactionBuilder {
     private Map<Vector3i, ChunkImpl> loadedChunks = Maps.newHashMap();
     private GlobalStoreBuilder globalStoreBuilder;
     private final boolean storeChunksInZips;
+    private final RegionFileCache regionFileCache;
+    private final ChunkCompression chunkCompression;
+    private final SavedChunkStates savedChunkStates;
+    private final Executor chunkEncoder;
     private final StoragePathProvider storagePathProvider;
     private GameManifest gameManifest;
     private RecordAndReplaySerializer recordAndReplaySerializer;
@@ -37,13 +42,19 @@ class SaveTransactionBuilder {
     private RecordAndReplayCurrentStatus recordAndReplayCurrentStatus;
 
     SaveTransactionBuilder(EngineEntityManager privateEntityManager, EntitySetDeltaRecorder deltaToSave,
-                           boolean storeChunksInZips, StoragePathProvider storagePathProvider,
+                           boolean storeChunksInZips, RegionFileCache regionFileCache,
+                           ChunkCompression chunkCompression, SavedChunkStates savedChunkStates,
+                           Executor chunkEncoder, StoragePathProvider storagePathProvider,
                            Lock worldDirectoryWriteLock, RecordAndReplaySerializer recordAndReplaySerializer,
                            RecordAndReplayUtils recordAndReplayUtils,
                            RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) {
         this.privateEntityManager = privateEntityManager;
         this.deltaToSave = deltaToSave;
         this.storeChunksInZips = storeChunksInZips;
+        this.regionFileCache = regionFileCache;
+        this.chunkCompression = chunkCompression;
+        this.savedChunkStates = savedChunkStates;
+        this.chunkEncoder = chunkEncoder;
         this.storagePathProvider = storagePathProvider;
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
         this.recordAndReplaySerializer = recordAndReplaySerializer;
@@ -74,7 +85,8 @@ void addLoadedChunk(final Vector3ic chunkPosition, final ChunkImpl chunk) {
 
     public SaveTransaction build() {
         return new SaveTransaction(privateEntityManager, deltaToSave, unloadedPlayers, loadedPlayers, globalStoreBuilder,
-                unloadedChunks, loadedChunks, gameManifest, storeChunksInZips, storagePathProvider,
+                unloadedChunks, loadedChunks, gameManifest, storeChunksInZips, regionFileCache, chunkCompression,
+                savedChunkStates, chunkEncoder, storagePathProvider,
                 worldDirectoryWriteLock, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
 
     }
@@ -22,9 +22,19 @@
 public class SaveTransactionHelper {
     private static final Logger logger = LoggerFactory.getLogger(SaveTransactionHelper.class);
     private final StoragePathProvider storagePathProvider;
+    private final RegionFileCache regionFileCache;
 
     public SaveTransactionHelper(StoragePathProvider storagePathProvider) {
+        this(storagePathProvider, null);
+    }
+
+    /**
+     * @param regionFileCache the region files to commit the chunk journal of unmerged changes in, may be null if
+     *         chunks are not stored in region files
+     */
+    public SaveTransactionHelper(StoragePathProvider storagePathProvider, RegionFileCache regionFileCache) {
         this.storagePathProvider = storagePathProvider;
+        this.regionFileCache = regionFileCache;
     }
 
     public void cleanupSaveTransactionDirectory() throws IOException {
@@ -54,6 +64,7 @@ public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOEx
      * The write lock for the save directory should be acquired before this method gets called.
      */
     public void mergeChanges() throws IOException {
+        replayChunkJournal();
         final Path sourceDirectory = storagePathProvider.getUnmergedChangesPath();
         final Path targetDirectory = storagePathProvider.getStoragePathDirectory();
 
@@ -109,4 +120,23 @@ public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOEx
             }
         });
     }
+
+    /**
+     * Commits the chunks of the chunk journal in their region files. Committing a chunk again is harmless, so the
+     * journal is deleted only once all of them are committed and an interrupted replay is redone on the next merge.
+     */
+    private void replayChunkJournal() throws IOException {
+        Path journalPath = storagePathProvider.getChunkJournalPath();
+        if (!Files.isRegularFile(journalPath)) {
+            return;
+        }
+        if (regionFileCache == null) {
+            throw new IOException("Unmerged changes contain chunks of region files, but region files are unavailable");
+        }
+        for (ChunkJournal.Entry entry : ChunkJournal.load(journalPath)) {
+            entry.commit(regionFileCache);
+        }
+        regionFileCache.force();
+        Files.delete(journalPath);
+    }
 }
@@ -0,0 +1,94 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import gnu.trove.set.TLongSet;
+import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers the state in which loaded chunks were last written to disk, so saves can skip chunks which did not change
+ * since.
+ * <p>
+ * A chunk is unchanged if it is the same chunk instance with the same {@link ChunkImpl#getRevision() revision}, the
+ * same entities are located in it and none of the entities stored with it changed. This is decided without encoding
+ * the entities. Chunks which got loaded again after being unloaded are new instances and thus always get written once.
+ */
+class SavedChunkStates {
+    private final ConcurrentMap<Vector3ic, State> states = Maps.newConcurrentMap();
+
+    /**
+     * @param chunkEntities the entities currently located in the chunk
+     * @param changedEntities the ids of the entities which changed, got destroyed or got deactivated since the last
+     *         save
+     * @return the state the chunk was last written in, or null if it has to be written again
+     */
+    State getUnchangedState(Vector3ic chunkPos, ChunkImpl chunk, int revision, Set<EntityRef> chunkEntities,
+                            TLongSet changedEntities) {
+        State saved = states.get(chunkPos);
+        if (saved == null || saved.chunk != chunk || saved.revision != revision
+                || !saved.chunkEntities.equals(chunkEntities)) {
+            return null;
+        }
+        for (EntityRef entity : saved.storedEntities) {
+            if (changedEntities.contains(entity.getId())) {
+                return null;
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Records the states of chunks after they got written successfully.
+     */
+    void markSaved(Map<? extends Vector3ic, State> savedStates) {
+        states.putAll(savedStates);
+    }
+
+    /**
+     * Forgets the states of all chunks except the given ones, which are the currently loaded chunks.
+     */
+    void retainChunks(Collection<ChunkImpl> loadedChunks) {
+        Set<ChunkImpl> loaded = Sets.newIdentityHashSet();
+        loaded.addAll(loadedChunks);
+        states.values().removeIf(state -> !loaded.contains(state.chunk));
+    }
+
+    void clear() {
+        states.clear();
+    }
+
+    /**
+     * The state of a loaded chunk at the time it got prepared for saving.
+     */
+    static final class State {
+        private final ChunkImpl chunk;
+        private final int revision;
+        private final Set<EntityRef> chunkEntities;
+        private final Set<EntityRef> storedEntities;
+
+        /**
+         * @param revision the revision of the chunk, read before its snapshot got taken
+         * @param chunkEntities the entities located in the chunk
+         * @param storedEntities the entities stored with the chunk, which includes the ones they own
+         */
+        State(ChunkImpl chunk, int revision, Set<EntityRef> chunkEntities, Set<EntityRef> storedEntities) {
+            this.chunk = chunk;
+            this.revision = revision;
+            this.chunkEntities = chunkEntities;
+            this.storedEntities = storedEntities;
+        }
+
+        Set<EntityRef> getStoredEntities() {
+            return storedEntities;
+        }
+    }
+}
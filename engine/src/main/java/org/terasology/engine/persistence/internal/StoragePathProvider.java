@@ -8,6 +8,8 @@
 import org.terasology.engine.game.GameManifest;
 
 import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class StoragePathProvider {
     private static final String PLAYERS_PATH = "players";
@@ -17,7 +19,9 @@ public class StoragePathProvider {
     private static final String GLOBAL_ENTITY_STORE = "global.dat";
     private static final String UNFINISHED_SAVE_TRANSACTION = "unfinished-save-transaction";
     private static final String UNMERGED_CHANGED = "unmerged-changes";
+    private static final String CHUNK_JOURNAL = "chunk-journal.dat";
     private static final int CHUNK_ZIP_DIM = 32;
+    private static final Pattern CHUNK_FILENAME = Pattern.compile("(-?\\d+)\\.(-?\\d+)\\.(-?\\d+)\\.chunk");
 
     private final Path storagePathDirectory;
     private final Path playersPath;
@@ -115,6 +119,37 @@ public Vector3i getChunkZipPosition(Vector3ic chunkPos) {
         return result;
     }
 
+    /**
+     * @return the chunk position encoded in a file name created by {@link #getChunkFilename}, or null if the name
+     *         is not a chunk file name
+     */
+    public Vector3i parseChunkFilename(String filename) {
+        Matcher matcher = CHUNK_FILENAME.matcher(filename);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new Vector3i(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)));
+    }
+
+    public Vector3i getChunkRegionPosition(Vector3ic chunkPos) {
+        return new Vector3i(
+                Math.floorDiv(chunkPos.x(), RegionFile.REGION_DIM),
+                Math.floorDiv(chunkPos.y(), RegionFile.REGION_DIM),
+                Math.floorDiv(chunkPos.z(), RegionFile.REGION_DIM));
+    }
+
+    public int getChunkRegionIndex(Vector3ic chunkPos) {
+        return RegionFile.index(
+                Math.floorMod(chunkPos.x(), RegionFile.REGION_DIM),
+                Math.floorMod(chunkPos.y(), RegionFile.REGION_DIM),
+                Math.floorMod(chunkPos.z(), RegionFile.REGION_DIM));
+    }
+
+    public Path getChunkRegionPath(Vector3ic regionPos) {
+        return worldPath.resolve(String.format("%d.%d.%d.region", regionPos.x(), regionPos.y(), regionPos.z()));
+    }
+
     public Path getChunkPath(Vector3ic chunkPos) {
         return worldPath.resolve(getChunkFilename(chunkPos));
     }
@@ -124,6 +159,20 @@ public Path getChunkTempPath(Vector3ic chunkPos) {
     }
 
 
+    /**
+     * @return the {@link ChunkJournal} of a save transaction listing the chunks it wrote into region files
+     */
+    public Path getChunkJournalTempPath() {
+        return unfinishedSaveTransactionPath.resolve(CHUNK_JOURNAL);
+    }
+
+    /**
+     * @return the {@link ChunkJournal} of the unmerged changes listing the chunks to commit in region files
+     */
+    public Path getChunkJournalPath() {
+        return unmergedChangesPath.resolve(CHUNK_JOURNAL);
+    }
+
     public Path getGameManifestTempPath() {
         return unfinishedSaveTransactionPath.resolve(GameManifest.DEFAULT_FILE_NAME);
     }
@@ -133,6 +133,20 @@ public EntityData.Event serialize(Event event) {
         return eventData.build();
     }
 
+    /**
+     * Serializes an event which got encoded by the compact encoder of its type.
+     *
+     * @param event
+     * @param compactData The encoded fields of the event
+     * @return The serialized event
+     */
+    public EntityData.Event serializeCompact(Event event, ByteString compactData) {
+        EntityData.Event.Builder eventData = EntityData.Event.newBuilder();
+        serializeEventType(event, eventData);
+        eventData.setCompactData(compactData);
+        return eventData.build();
+    }
+
     private void serializeEventType(Event event, EntityData.Event.Builder eventData) {
         Integer compId = idTable.get(event.getClass());
         eventData.setType(compId);
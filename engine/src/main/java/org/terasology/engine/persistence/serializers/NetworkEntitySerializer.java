@@ -12,6 +12,7 @@
 import com.google.protobuf.ByteString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.ComponentContainer;
 import org.terasology.engine.entitySystem.MutableComponentContainer;
 import org.terasology.engine.entitySystem.entity.EntityBuilder;
 import org.terasology.engine.entitySystem.entity.EntityRef;
@@ -65,7 +66,17 @@ public void setIdMapping(Map<Class<? extends Component>, Integer> componentIdMap
     }
 
     public EntityData.PackedEntity.Builder serialize(EntityRef entity, boolean deltaAgainstPrefab, FieldSerializeCheck<Component> fieldCheck) {
-        Prefab prefab = entity.getParentPrefab();
+        return serialize(entity, entity.getParentPrefab(), deltaAgainstPrefab, fieldCheck);
+    }
+
+    /**
+     * Serializes the components of an entity which are held by another container, e.g. a copy of them.
+     *
+     * @param prefab the parent prefab of the entity, or null if it has none
+     */
+    public EntityData.PackedEntity.Builder serialize(ComponentContainer entity, Prefab prefab,
+                                                     boolean deltaAgainstPrefab,
+                                                     FieldSerializeCheck<Component> fieldCheck) {
         if (prefab != null && deltaAgainstPrefab) {
             return serializeEntityDelta(entity, prefab, fieldCheck);
         } else {
@@ -73,7 +84,7 @@ public EntityData.PackedEntity.Builder serialize(EntityRef entity, boolean delta
         }
     }
 
-    private EntityData.PackedEntity.Builder serializeEntityFull(EntityRef entityRef, FieldSerializeCheck<Component> fieldCheck) {
+    private EntityData.PackedEntity.Builder serializeEntityFull(ComponentContainer entityRef, FieldSerializeCheck<Component> fieldCheck) {
         EntityData.PackedEntity.Builder entity = EntityData.PackedEntity.newBuilder();
         ByteString.Output fieldIds = ByteString.newOutput();
         ByteString.Output componentFieldCounts = ByteString.newOutput();
@@ -90,7 +101,7 @@ private EntityData.PackedEntity.Builder serializeEntityFull(EntityRef entityRef,
         return entity;
     }
 
-    private EntityData.PackedEntity.Builder serializeEntityDelta(EntityRef entityRef, Prefab prefab, FieldSerializeCheck<Component> fieldCheck) {
+    private EntityData.PackedEntity.Builder serializeEntityDelta(ComponentContainer entityRef, Prefab prefab, FieldSerializeCheck<Component> fieldCheck) {
         EntityData.PackedEntity.Builder entity = EntityData.PackedEntity.newBuilder();
         entity.setParentPrefabUri(prefab.getName());
         Set<Class<? extends Component>> presentClasses = Sets.newHashSet();
@@ -256,7 +267,7 @@ public EntityRef deserialize(EntityData.PackedEntity entityData) {
     }
 
 
-    public EntityData.PackedEntity serialize(EntityRef entityRef, Set<Class<? extends Component>> added, Set<Class<? extends Component>> changed,
+    public EntityData.PackedEntity serialize(ComponentContainer entityRef, Set<Class<? extends Component>> added, Set<Class<? extends Component>> changed,
                                              Set<Class<? extends Component>> removed, FieldSerializeCheck<Component> fieldCheck) {
         EntityData.PackedEntity.Builder entity = EntityData.PackedEntity.newBuilder();
 
@@ -0,0 +1,58 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.physics.bullet;
+
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recycles the direct buffers passing the block ids of chunks to the voxel colliders. Allocating direct buffers is
+ * slow, and their memory is only freed once the garbage collector gets to them.
+ * <p>
+ * Buffers can be acquired and released on any thread.
+ */
+final class CollisionBufferPool {
+    /** The bytes of the block ids of a chunk */
+    static final int BUFFER_SIZE = Short.BYTES * Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z;
+
+    private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final int maxFreeBuffers;
+
+    /**
+     * @param maxFreeBuffers the number of released buffers kept for reuse, further ones are left to the garbage
+     *         collector
+     */
+    CollisionBufferPool(int maxFreeBuffers) {
+        this.maxFreeBuffers = maxFreeBuffers;
+    }
+
+    /**
+     * @return a buffer of {@link #BUFFER_SIZE} bytes in native order, with undefined content
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+        }
+        freeCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer for reuse. The colliders must not use it anymore.
+     */
+    void release(ByteBuffer buffer) {
+        if (freeCount.incrementAndGet() <= maxFreeBuffers) {
+            freeBuffers.add(buffer);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+}
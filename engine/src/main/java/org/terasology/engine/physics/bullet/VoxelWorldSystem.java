@@ -2,7 +2,10 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.engine.physics.bullet;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
@@ -16,39 +19,90 @@
 import org.terasology.engine.world.WorldComponent;
 import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkPreparer;
 import org.terasology.engine.world.chunks.ChunkProvider;
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
 import org.terasology.engine.world.chunks.event.OnChunkLoaded;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages voxel shape and updates collision state between Bullet and Terasology
+ * <p>
+ * The block ids of a chunk are copied into a collision buffer on the chunk processing threads, so loading the chunk
+ * into the colliders on the main thread only registers the blocks it contains. The chunk may still change between
+ * being prepared and being loaded, e.g. by the entities restored with it, so a buffer is only used if the
+ * {@link ChunkImpl#getRevision() revision} of the chunk is still the prepared one.
  */
 @RegisterSystem
 public class VoxelWorldSystem extends BaseComponentSystem {
+    /* Released buffers kept for chunks loading later */
+    private static final int MAX_FREE_BUFFERS = 64;
+    private static final int UNKNOWN_REVISION = -1;
+    private static final ThreadLocal<short[]> BLOCK_IDS =
+            ThreadLocal.withInitial(() -> new short[Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z]);
 
     @In
     private PhysicsEngine physics;
     @In
     private ChunkProvider chunkProvider;
+    @In
+    private BlockManager blockManager;
 
     private final List<VoxelWorld> colliders = Lists.newArrayList();
+    private final CollisionBufferPool bufferPool;
+    /* Buffers prepared on the chunk processing threads, waiting for their chunk to load */
+    private final Map<Vector3ic, CollisionBuffer> preparedBuffers = new ConcurrentHashMap<>();
+    /* Buffers in use by the colliders */
+    private final Map<Vector3ic, ByteBuffer> loadedBuffers = Maps.newHashMap();
+
+    public VoxelWorldSystem() {
+        this(new CollisionBufferPool(MAX_FREE_BUFFERS));
+    }
+
+    VoxelWorldSystem(CollisionBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
 
     @Override
     public void initialise() {
         if (physics instanceof BulletPhysics) {
-            colliders.add(new VoxelBlockWorld((BulletPhysics) physics));
-            colliders.add(new VoxelBlockFluidWorld((BulletPhysics) physics));
+            BulletPhysics bulletPhysics = (BulletPhysics) physics;
+            addColliders(new VoxelBlockWorld(bulletPhysics), new VoxelBlockFluidWorld(bulletPhysics));
         }
         super.initialise();
     }
 
+    /**
+     * Loads the chunks into the given colliders from now on, and prepares the chunks for them.
+     */
+    @VisibleForTesting
+    void addColliders(VoxelWorld... voxelWorlds) {
+        colliders.addAll(Arrays.asList(voxelWorlds));
+        chunkProvider.addChunkPreparer(new ChunkPreparer() {
+            @Override
+            public void prepare(Chunk chunk) {
+                prepareChunk(chunk);
+            }
+
+            @Override
+            public void discard(Vector3ic pos) {
+                releasePreparedBuffer(new Vector3i(pos));
+            }
+        });
+    }
+
 
     @ReceiveEvent(components = BlockComponent.class)
     public void onBlockChange(OnChangedBlock event, EntityRef entity) {
@@ -64,8 +118,13 @@ public void onBlockChange(OnChangedBlock event, EntityRef entity) {
      */
     @ReceiveEvent(components = WorldComponent.class)
     public void onChunkUnloaded(BeforeChunkUnload beforeChunkUnload, EntityRef worldEntity) {
-        Vector3ic chunkPos = beforeChunkUnload.getChunkPos();
+        Vector3i chunkPos = new Vector3i(beforeChunkUnload.getChunkPos());
         colliders.forEach(k -> k.unloadChunk(chunkPos));
+        ByteBuffer buffer = loadedBuffers.remove(chunkPos);
+        if (buffer != null) {
+            bufferPool.release(buffer);
+        }
+        releasePreparedBuffer(chunkPos);
     }
 
     /**
@@ -76,21 +135,113 @@ public void onChunkUnloaded(BeforeChunkUnload beforeChunkUnload, EntityRef world
      */
     @ReceiveEvent(components = WorldComponent.class)
     public void onNewChunk(OnChunkLoaded chunkAvailable, EntityRef worldEntity) {
-        Vector3ic chunkPos = chunkAvailable.getChunkPos();
+        if (colliders.isEmpty()) {
+            return;
+        }
+        Vector3i chunkPos = new Vector3i(chunkAvailable.getChunkPos());
         Chunk chunk = chunkProvider.getChunk(chunkPos);
-        ByteBuffer buffer =
-                ByteBuffer.allocateDirect(2 * (Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z));
-        buffer.order(ByteOrder.nativeOrder());
+        CollisionBuffer collisionBuffer = preparedBuffers.remove(chunkPos);
+        int revision = revisionOf(chunk);
+        if (collisionBuffer == null || collisionBuffer.chunk != chunk || collisionBuffer.revision != revision) {
+            // The chunk became ready without being prepared, or changed since
+            if (collisionBuffer != null) {
+                bufferPool.release(collisionBuffer.buffer);
+            }
+            collisionBuffer = createCollisionBuffer(chunk, revision);
+        }
+        for (short id : collisionBuffer.blockIds) {
+            Block block = blockManager.getBlock(id);
+            colliders.forEach(k -> k.registerBlock(block));
+        }
+        ByteBuffer buffer = collisionBuffer.buffer;
+        colliders.forEach(k -> k.loadChunk(chunk, buffer.duplicate().asShortBuffer()));
+        ByteBuffer replaced = loadedBuffers.put(chunkPos, buffer);
+        if (replaced != null) {
+            bufferPool.release(replaced);
+        }
+    }
+
+    /**
+     * Runs on the chunk processing threads for every chunk before it loads.
+     */
+    private void prepareChunk(Chunk chunk) {
+        int revision = revisionOf(chunk);
+        if (revision == UNKNOWN_REVISION) {
+            // Changes before the chunk loads could not be noticed
+            return;
+        }
+        CollisionBuffer stale = preparedBuffers.put(new Vector3i(chunk.getPosition()),
+                createCollisionBuffer(chunk, revision));
+        if (stale != null) {
+            bufferPool.release(stale.buffer);
+        }
+    }
+
+    private void releasePreparedBuffer(Vector3i chunkPos) {
+        CollisionBuffer prepared = preparedBuffers.remove(chunkPos);
+        if (prepared != null) {
+            bufferPool.release(prepared.buffer);
+        }
+    }
+
+    private static int revisionOf(Chunk chunk) {
+        return chunk instanceof ChunkImpl ? ((ChunkImpl) chunk).getRevision() : UNKNOWN_REVISION;
+    }
+
+    private CollisionBuffer createCollisionBuffer(Chunk chunk, int revision) {
+        ByteBuffer buffer = bufferPool.acquire();
+        ShortBuffer target = buffer.asShortBuffer();
+        Block uniformBlock = chunk.getUniformBlock();
+        if (uniformBlock != null) {
+            short id = uniformBlock.getId();
+            while (target.hasRemaining()) {
+                target.put(id);
+            }
+            return new CollisionBuffer(chunk, revision, buffer, new short[] {id});
+        }
+
+        short[] blockIds = BLOCK_IDS.get();
+        chunk.getBlockIds(blockIds);
+        BitSet distinctIds = new BitSet();
+        short lastId = blockIds[0];
+        distinctIds.set(lastId);
+        // The colliders expect y to vary fastest, then x, then z
         for (int z = 0; z < Chunks.SIZE_Z; z++) {
             for (int x = 0; x < Chunks.SIZE_X; x++) {
+                int column = z * Chunks.SIZE_X + x;
                 for (int y = 0; y < Chunks.SIZE_Y; y++) {
-                    Block block = chunk.getBlock(x, y, z);
-                    colliders.forEach(k -> k.registerBlock(block));
-                    buffer.putShort(block.getId());
+                    short id = blockIds[y * Chunks.SIZE_X * Chunks.SIZE_Z + column];
+                    target.put(id);
+                    if (id != lastId) {
+                        distinctIds.set(id);
+                        lastId = id;
+                    }
                 }
             }
         }
-        buffer.rewind();
-        colliders.forEach(k -> k.loadChunk(chunk, buffer.duplicate().asShortBuffer()));
+
+        short[] distinct = new short[distinctIds.cardinality()];
+        int index = 0;
+        for (int id = distinctIds.nextSetBit(0); id >= 0; id = distinctIds.nextSetBit(id + 1)) {
+            distinct[index++] = (short) id;
+        }
+        return new CollisionBuffer(chunk, revision, buffer, distinct);
+    }
+
+    /**
+     * The block ids of a revision of a chunk in the layout of the colliders, and the distinct ids among them.
+     */
+    private static final class CollisionBuffer {
+        private final Chunk chunk;
+        private final int revision;
+        private final ByteBuffer buffer;
+        private final short[] blockIds;
+
+        CollisionBuffer(Chunk chunk, int revision, ByteBuffer buffer, short[] blockIds) {
+            this.chunk = chunk;
+            this.revision = revision;
+            this.buffer = buffer;
+            this.blockIds = blockIds;
+        }
     }
 }
@@ -36,6 +36,13 @@ public String getMetrics() {
             builder.append(String.format("In Bytes: %d%n", networkSystem.getIncomingBytesDelta()));
             builder.append(String.format("Out Msg: %d%n", networkSystem.getOutgoingMessagesDelta()));
             builder.append(String.format("Out Bytes: %d%n", networkSystem.getOutgoingBytesDelta()));
+            if (networkSystem.getMode().isServer()) {
+                int hits = networkSystem.getReplicationCacheHitsDelta();
+                int misses = networkSystem.getReplicationCacheMissesDelta();
+                builder.append(String.format("Replication Cache Hits: %d/%d%n", hits, hits + misses));
+                builder.append(String.format("Serialization: %.2fms%n",
+                        networkSystem.getSerializationNanosDelta() / 1_000_000.0));
+            }
             if (lastTime != 0) {
                 // ignore the first update as it will not have useful data
                 lastMetric = builder.toString();
@@ -21,6 +21,13 @@ public String getMetrics() {
             builder.append(threads.getName());
             builder.append(" - ");
             builder.append(threads.getLastTask());
+            builder.append(String.format(" (avg %.2fms)", threads.getAverageTime(threads.getLastTask())));
+            builder.append("\n");
+        });
+        ThreadMonitor.getQueueDepths().forEach((queue, depth) -> {
+            builder.append(queue);
+            builder.append(" queue: ");
+            builder.append(depth);
             builder.append("\n");
         });
         return builder.toString();
@@ -4,6 +4,7 @@
 
 import com.google.common.base.Stopwatch;
 import org.joml.Vector3f;
+import org.terasology.engine.math.Side;
 import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.engine.world.ChunkView;
 import org.terasology.engine.world.block.Block;
@@ -35,13 +36,11 @@ public ChunkMesh generateMesh(ChunkView chunkView, float scale, int border) {
 
         // The mesh extends into the borders in the horizontal directions, but not vertically upwards, in order to cover
         // gaps between LOD chunks of different scales, but also avoid multiple overlapping ocean surfaces.
-        for (int y = 0; y < Chunks.SIZE_Y - border * 2; y++) {
-            for (int z = 0; z < Chunks.SIZE_Z; z++) {
-                for (int x = 0; x < Chunks.SIZE_X; x++) {
-                    Block block = chunkView.getBlock(x, y, z);
-                    block.getMeshGenerator().generateChunkMesh(chunkView, mesh, x, y, z);
-                }
-            }
+        int height = Chunks.SIZE_Y - border * 2;
+        Block uniformBlock = chunkView.getUniformBlock();
+        // Chunks of only air or other blocks without appearance have no mesh at all
+        if (uniformBlock == null || !isInvisible(uniformBlock)) {
+            generateBlockMeshes(chunkView, mesh, height, uniformBlock);
         }
 
         if (border != 0) {
@@ -64,6 +63,42 @@ public ChunkMesh generateMesh(ChunkView chunkView, float scale, int border) {
         return mesh;
     }
 
+    private void generateBlockMeshes(ChunkView chunkView, ChunkMeshImpl mesh, int height, Block uniformBlock) {
+        // Blocks inside a chunk of a single opaque block can't be seen, only its outer layer needs to be meshed
+        boolean skipInterior = uniformBlock != null && hidesInnerSides(uniformBlock);
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                boolean interiorRow = skipInterior && y > 0 && y < Chunks.SIZE_Y - 1 && z > 0 && z < Chunks.SIZE_Z - 1;
+                int step = interiorRow ? Chunks.SIZE_X - 1 : 1;
+                for (int x = 0; x < Chunks.SIZE_X; x += step) {
+                    Block block = chunkView.getBlock(x, y, z);
+                    block.getMeshGenerator().generateChunkMesh(chunkView, mesh, x, y, z);
+                }
+            }
+        }
+    }
+
+    private static boolean isInvisible(Block block) {
+        return block.getMeshGenerator() instanceof BlockMeshGeneratorSingleShape
+                && !block.getPrimaryAppearance().hasAppearance();
+    }
+
+    /**
+     * @return whether the block adds no faces between two blocks of its own type, so a block surrounded by blocks of
+     *         the same type generates no mesh
+     */
+    private static boolean hidesInnerSides(Block block) {
+        if (!(block.getMeshGenerator() instanceof BlockMeshGeneratorSingleShape)) {
+            return false;
+        }
+        for (Side side : Side.allSides()) {
+            if (BlockMeshGeneratorSingleShape.isSideVisibleForBlockTypes(block, block, side)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static int getVertexArrayUpdateCount() {
         return statVertexArrayUpdateCount;
     }
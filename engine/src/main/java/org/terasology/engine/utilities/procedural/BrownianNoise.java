@@ -3,6 +3,8 @@
 
 package org.terasology.engine.utilities.procedural;
 
+import java.util.Arrays;
+
 /**
  * Computes Brownian noise based on some noise generator.
  * Originally, Brown integrates white noise, but using other noises can be sometimes useful, too.
@@ -105,6 +107,66 @@ public float noise(float x, float y, float z) {
         return result * scale;
     }
 
+    /**
+     * Returns Fractional Brownian Motion at many positions at once, by computing each octave for all positions
+     * before moving on to the next one.
+     *
+     * @see #noise(float, float)
+     */
+    @Override
+    public void noise(float[] x, float[] y, float[] target) {
+        float[] workingX = Arrays.copyOf(x, target.length);
+        float[] workingY = Arrays.copyOf(y, target.length);
+        float[] octave = new float[target.length];
+        float lacunarityFactor = (float) getLacunarity();
+        Arrays.fill(target, 0.0f);
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noise(workingX, workingY, octave);
+            float weight = spectralWeights[i];
+
+            // The same random offsets as for single positions
+            float offsetX = 10 * other.noise(i + 0.5f, 0.5f);
+            float offsetY = 10 * other.noise(-i - 0.5f, -0.5f);
+            for (int j = 0; j < target.length; j++) {
+                target[j] += octave[j] * weight;
+                workingX[j] = workingX[j] * lacunarityFactor + offsetX;
+                workingY[j] = workingY[j] * lacunarityFactor + offsetY;
+            }
+        }
+        for (int j = 0; j < target.length; j++) {
+            target[j] *= scale;
+        }
+    }
+
+    /**
+     * Returns Fractional Brownian Motion at many positions at once, by computing each octave for all positions
+     * before moving on to the next one.
+     *
+     * @see #noise(float, float, float)
+     */
+    @Override
+    public void noise(float[] x, float[] y, float[] z, float[] target) {
+        float[] workingX = Arrays.copyOf(x, target.length);
+        float[] workingY = Arrays.copyOf(y, target.length);
+        float[] workingZ = Arrays.copyOf(z, target.length);
+        float[] octave = new float[target.length];
+        float lacunarityFactor = (float) getLacunarity();
+        Arrays.fill(target, 0.0f);
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noise(workingX, workingY, workingZ, octave);
+            float weight = spectralWeights[i];
+            for (int j = 0; j < target.length; j++) {
+                target[j] += octave[j] * weight;
+                workingX[j] *= lacunarityFactor;
+                workingY[j] *= lacunarityFactor;
+                workingZ[j] *= lacunarityFactor;
+            }
+        }
+        for (int j = 0; j < target.length; j++) {
+            target[j] *= scale;
+        }
+    }
+
     private static float computeScale(float[] spectralWeights) {
         float sum = 0;
         for (float weight : spectralWeights) {
@@ -3,9 +3,14 @@
 
 package org.terasology.engine.utilities.procedural;
 
+import org.terasology.engine.world.block.BlockAreac;
+import org.terasology.engine.world.block.BlockRegionc;
+
 /**
  * Provides or generates noise
- *
+ * <p>
+ * Besides single positions, noise can be computed for many positions at once, which implementations can do with a
+ * tight loop instead of one virtual call per position. The batch methods give the same values as the single ones.
  */
 public interface Noise {
 
@@ -46,4 +51,84 @@ public interface Noise {
      * @return The noise value in the range [-1..1]
      */
     float noise(float x, float y, float z);
+
+    /**
+     * Computes the noise values at many positions at once, so {@code target[i] = noise(x[i], y[i])}.
+     *
+     * @param x Positions on the x-axis, at least as many as the target has elements
+     * @param y Positions on the y-axis, at least as many as the target has elements
+     * @param target The array to fill, which must not be one of the position arrays
+     */
+    default void noise(float[] x, float[] y, float[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = noise(x[i], y[i]);
+        }
+    }
+
+    /**
+     * Computes the noise values at many positions at once, so {@code target[i] = noise(x[i], y[i], z[i])}.
+     *
+     * @param x Positions on the x-axis, at least as many as the target has elements
+     * @param y Positions on the y-axis, at least as many as the target has elements
+     * @param z Positions on the z-axis, at least as many as the target has elements
+     * @param target The array to fill, which must not be one of the position arrays
+     */
+    default void noise(float[] x, float[] y, float[] z, float[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = noise(x[i], y[i], z[i]);
+        }
+    }
+
+    /**
+     * Returns the noise values of all positions of the area, sampled at the positions multiplied by the scale.
+     *
+     * @param area The positions to sample
+     * @param scale The factor from block positions to noise positions
+     * @return The noise values, with the value of position (x, y) at {@code (x - minX) + sizeX * (y - minY)}
+     */
+    default float[] noise(BlockAreac area, float scale) {
+        int count = area.area();
+        float[] x = new float[count];
+        float[] y = new float[count];
+        int i = 0;
+        for (int posY = area.minY(); posY <= area.maxY(); posY++) {
+            for (int posX = area.minX(); posX <= area.maxX(); posX++) {
+                x[i] = posX * scale;
+                y[i] = posY * scale;
+                i++;
+            }
+        }
+        float[] result = new float[count];
+        noise(x, y, result);
+        return result;
+    }
+
+    /**
+     * Returns the noise values of all positions of the region, sampled at the positions multiplied by the scale.
+     *
+     * @param region The positions to sample
+     * @param scale The factor from block positions to noise positions
+     * @return The noise values, with the value of position (x, y, z) at
+     *         {@code (x - minX) + sizeX * ((y - minY) + sizeY * (z - minZ))}
+     */
+    default float[] noise(BlockRegionc region, float scale) {
+        int count = region.volume();
+        float[] x = new float[count];
+        float[] y = new float[count];
+        float[] z = new float[count];
+        int i = 0;
+        for (int posZ = region.minZ(); posZ <= region.maxZ(); posZ++) {
+            for (int posY = region.minY(); posY <= region.maxY(); posY++) {
+                for (int posX = region.minX(); posX <= region.maxX(); posX++) {
+                    x[i] = posX * scale;
+                    y[i] = posY * scale;
+                    z[i] = posZ * scale;
+                    i++;
+                }
+            }
+        }
+        float[] result = new float[count];
+        noise(x, y, z, result);
+        return result;
+    }
 }
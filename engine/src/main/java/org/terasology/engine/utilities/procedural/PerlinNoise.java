@@ -85,6 +85,33 @@ public PerlinNoise(long seed, int permCount) {
      */
     @Override
     public float noise(float posX, float posY, float posZ) {
+        return sample(posX, posY, posZ);
+    }
+
+    /**
+     * Returns the noise values at many positions at once, sampled in the plane of the first two axes like
+     * {@link #noise(float, float)}.
+     */
+    @Override
+    public void noise(float[] x, float[] y, float[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = sample(x[i], y[i], 0);
+        }
+    }
+
+    /**
+     * Returns the domain-rotated noise values at many positions at once.
+     *
+     * @see #noise(float, float, float)
+     */
+    @Override
+    public void noise(float[] x, float[] y, float[] z, float[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = sample(x[i], y[i], z[i]);
+        }
+    }
+
+    private float sample(float posX, float posY, float posZ) {
 
         // Domain rotation removes Perlin's characteristic square artifacts from the XZ planes, by pointing Y up the grid's main diagonal.
         // Ordinarily, X can be said to move in the unit vector direction <1, 0, 0>, Y in <0, 1, 0>, and Z in <0, 0, 1>. With this rotation,
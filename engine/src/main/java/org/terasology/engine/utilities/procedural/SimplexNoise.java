@@ -32,10 +32,10 @@ public class SimplexNoise extends AbstractNoise implements Noise2D, Noise3D {
      */
     public static final float TILEABLE1DMAGICNUMBER = 0.5773502691896258f;
 
-    private static Grad[] grad3 = {
-            new Grad(1, 1, 0), new Grad(-1, 1, 0), new Grad(1, -1, 0), new Grad(-1, -1, 0),
-            new Grad(1, 0, 1), new Grad(-1, 0, 1), new Grad(1, 0, -1), new Grad(-1, 0, -1),
-            new Grad(0, 1, 1), new Grad(0, -1, 1), new Grad(0, 1, -1), new Grad(0, -1, -1)};
+    // The gradients for 2D and 3D noise, split by component so the sampling loops only read primitive arrays
+    private static final float[] GRAD3_X = {1, -1, 1, -1, 1, -1, 1, -1, 0, 0, 0, 0};
+    private static final float[] GRAD3_Y = {1, 1, -1, -1, 0, 0, 0, 0, 1, -1, 1, -1};
+    private static final float[] GRAD3_Z = {0, 0, 0, 0, 1, 1, -1, -1, 1, 1, -1, -1};
 
     private static Grad[] grad4 = {
             new Grad(0, 1, 1, 1), new Grad(0, 1, 1, -1), new Grad(0, 1, -1, 1), new Grad(0, 1, -1, -1),
@@ -104,12 +104,12 @@ public SimplexNoise(long seed, int gridDim) {
         }
     }
 
-    private static float dot(Grad g, float x, float y) {
-        return g.x * x + g.y * y;
+    private static float dot(int gi, float x, float y) {
+        return GRAD3_X[gi] * x + GRAD3_Y[gi] * y;
     }
 
-    private static float dot(Grad g, float x, float y, float z) {
-        return g.x * x + g.y * y + g.z * z;
+    private static float dot(int gi, float x, float y, float z) {
+        return GRAD3_X[gi] * x + GRAD3_Y[gi] * y + GRAD3_Z[gi] * z;
     }
 
     private static float dot(Grad g, float x, float y, float z, float w) {
@@ -125,6 +125,20 @@ private static float dot(Grad g, float x, float y, float z, float w) {
      */
     @Override
     public float noise(float xin, float yin) {
+        return sample(xin, yin);
+    }
+
+    /**
+     * 2D simplex noise for many positions at once
+     */
+    @Override
+    public void noise(float[] x, float[] y, float[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = sample(x[i], y[i]);
+        }
+    }
+
+    private float sample(float xin, float yin) {
         float n0;
         float n1;
         float n2; // Noise contributions from the three corners
@@ -172,21 +186,21 @@ public float noise(float xin, float yin) {
             n0 = 0.0f;
         } else {
             t0 *= t0;
-            n0 = t0 * t0 * dot(grad3[gi0], x0, y0); // (x,y) of grad3 used for 2D gradient
+            n0 = t0 * t0 * dot(gi0, x0, y0); // (x,y) of grad3 used for 2D gradient
         }
         float t1 = 0.5f - x1 * x1 - y1 * y1;
         if (t1 < 0) {
             n1 = 0.0f;
         } else {
             t1 *= t1;
-            n1 = t1 * t1 * dot(grad3[gi1], x1, y1);
+            n1 = t1 * t1 * dot(gi1, x1, y1);
         }
         float t2 = 0.5f - x2 * x2 - y2 * y2;
         if (t2 < 0) {
             n2 = 0.0f;
         } else {
             t2 *= t2;
-            n2 = t2 * t2 * dot(grad3[gi2], x2, y2);
+            n2 = t2 * t2 * dot(gi2, x2, y2);
         }
 
         // Add contributions from each corner to get the final noise value.
@@ -204,6 +218,20 @@ public float noise(float xin, float yin) {
      */
     @Override
     public float noise(float xin, float yin, float zin) {
+        return sample(xin, yin, zin);
+    }
+
+    /**
+     * 3D simplex noise for many positions at once
+     */
+    @Override
+    public void noise(float[] x, float[] y, float[] z, float[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = sample(x[i], y[i], z[i]);
+        }
+    }
+
+    private float sample(float xin, float yin, float zin) {
         float n0;
         float n1;
         float n2;
@@ -308,28 +336,28 @@ public float noise(float xin, float yin, float zin) {
             n0 = 0.0f;
         } else {
             t0 *= t0;
-            n0 = t0 * t0 * dot(grad3[gi0], x0, y0, z0);
+            n0 = t0 * t0 * dot(gi0, x0, y0, z0);
         }
         float t1 = 0.6f - x1 * x1 - y1 * y1 - z1 * z1;
         if (t1 < 0) {
             n1 = 0.0f;
         } else {
             t1 *= t1;
-            n1 = t1 * t1 * dot(grad3[gi1], x1, y1, z1);
+            n1 = t1 * t1 * dot(gi1, x1, y1, z1);
         }
         float t2 = 0.6f - x2 * x2 - y2 * y2 - z2 * z2;
         if (t2 < 0) {
             n2 = 0.0f;
         } else {
             t2 *= t2;
-            n2 = t2 * t2 * dot(grad3[gi2], x2, y2, z2);
+            n2 = t2 * t2 * dot(gi2, x2, y2, z2);
         }
         float t3 = 0.6f - x3 * x3 - y3 * y3 - z3 * z3;
         if (t3 < 0) {
             n3 = 0.0f;
         } else {
             t3 *= t3;
-            n3 = t3 * t3 * dot(grad3[gi3], x3, y3, z3);
+            n3 = t3 * t3 * dot(gi3, x3, y3, z3);
         }
 
         // Add contributions from each corner to get the final noise value.
@@ -522,12 +550,6 @@ private static class Grad {
         float z;
         float w;
 
-        Grad(float x, float y, float z) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-        }
-
         Grad(float x, float y, float z, float w) {
             this.x = x;
             this.y = y;
@@ -38,6 +38,15 @@ public interface ChunkView {
      */
     Block getBlock(int x, int y, int z);
 
+    /**
+     * @return The block the chunk at the origin of the view consists of, or null if it contains different blocks or
+     * the view does not know
+     * @see org.terasology.engine.world.chunks.Chunk#getUniformBlock()
+     */
+    default Block getUniformBlock() {
+        return null;
+    }
+
     /**
      * @param x
      * @param y
@@ -3,12 +3,30 @@
 
 package org.terasology.engine.world;
 
+import gnu.trove.list.TIntList;
+import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockEditBuffer;
 
 public interface WorldChangeListener {
 
     void onBlockChanged(Vector3ic pos, Block newBlock, Block originalBlock);
 
+    /**
+     * Called once per chunk for blocks changed by a bulk edit, instead of calling
+     * {@link #onBlockChanged(Vector3ic, Block, Block)} for every block.
+     *
+     * @param chunkPos the position of the chunk containing the changed blocks
+     * @param edits the applied edits
+     * @param changedEdits the indices of the edits in the chunk which changed a block
+     */
+    default void onBlocksChanged(Vector3ic chunkPos, BlockEditBuffer edits, TIntList changedEdits) {
+        for (int i = 0; i < changedEdits.size(); i++) {
+            int edit = changedEdits.get(i);
+            onBlockChanged(edits.getPosition(edit, new Vector3i()), edits.getBlock(edit), edits.getPreviousBlock(edit));
+        }
+    }
+
     void onExtraDataChanged(int i, Vector3ic pos, int newData, int oldData);
 }
@@ -0,0 +1,145 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.block;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TShortArrayList;
+import gnu.trove.map.TObjectShortMap;
+import gnu.trove.map.hash.TObjectShortHashMap;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+
+import java.util.List;
+
+/**
+ * A reusable list of block edits, to be applied at once with
+ * {@link org.terasology.engine.world.internal.WorldProviderCore#setBlocks(BlockEditBuffer)}.
+ * <p>
+ * Positions are stored as packed coordinates and blocks as indices into a palette, so adding edits does not
+ * allocate objects per block. Applying the buffer records the block each edit replaced.
+ */
+public class BlockEditBuffer {
+    private static final short NONE = -1;
+
+    private final TIntArrayList positions = new TIntArrayList();
+    private final TShortArrayList blocks = new TShortArrayList();
+    private final TShortArrayList previousBlocks = new TShortArrayList();
+    private final List<Block> palette = Lists.newArrayList();
+    private final TObjectShortMap<Block> paletteIndices = new TObjectShortHashMap<>(16, 0.5f, NONE);
+
+    public BlockEditBuffer add(Vector3ic pos, Block block) {
+        return add(pos.x(), pos.y(), pos.z(), block);
+    }
+
+    public BlockEditBuffer add(int x, int y, int z, Block block) {
+        positions.add(x);
+        positions.add(y);
+        positions.add(z);
+        blocks.add(paletteIndex(block));
+        previousBlocks.add(NONE);
+        return this;
+    }
+
+    /**
+     * Adds an edit for every position of the region.
+     */
+    public BlockEditBuffer fill(BlockRegionc region, Block block) {
+        short index = paletteIndex(block);
+        for (int y = region.minY(); y <= region.maxY(); y++) {
+            for (int z = region.minZ(); z <= region.maxZ(); z++) {
+                for (int x = region.minX(); x <= region.maxX(); x++) {
+                    positions.add(x);
+                    positions.add(y);
+                    positions.add(z);
+                    blocks.add(index);
+                    previousBlocks.add(NONE);
+                }
+            }
+        }
+        return this;
+    }
+
+    private short paletteIndex(Block block) {
+        Preconditions.checkNotNull(block);
+        short index = paletteIndices.get(block);
+        if (index == NONE) {
+            Preconditions.checkState(palette.size() < Short.MAX_VALUE, "Too many different blocks in one edit buffer");
+            index = (short) palette.size();
+            palette.add(block);
+            paletteIndices.put(block, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return the number of edits
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    public boolean isEmpty() {
+        return blocks.isEmpty();
+    }
+
+    public int getX(int edit) {
+        return positions.get(3 * edit);
+    }
+
+    public int getY(int edit) {
+        return positions.get(3 * edit + 1);
+    }
+
+    public int getZ(int edit) {
+        return positions.get(3 * edit + 2);
+    }
+
+    public Vector3i getPosition(int edit, Vector3i dest) {
+        return dest.set(getX(edit), getY(edit), getZ(edit));
+    }
+
+    /**
+     * @return the block to place
+     */
+    public Block getBlock(int edit) {
+        return palette.get(blocks.get(edit));
+    }
+
+    /**
+     * @return the block replaced by the edit, or null if the buffer was not applied yet or the block was not loaded
+     */
+    public Block getPreviousBlock(int edit) {
+        short index = previousBlocks.get(edit);
+        return index == NONE ? null : palette.get(index);
+    }
+
+    /**
+     * @return whether applying the edit replaced a different block
+     */
+    public boolean isChanged(int edit) {
+        short previous = previousBlocks.get(edit);
+        return previous != NONE && previous != blocks.get(edit);
+    }
+
+    /**
+     * Records the block replaced by an edit. Called by world providers when applying the buffer.
+     *
+     * @param previousBlock the replaced block, or null if the block was not loaded
+     */
+    public void setPreviousBlock(int edit, Block previousBlock) {
+        previousBlocks.set(edit, previousBlock == null ? NONE : paletteIndex(previousBlock));
+    }
+
+    /**
+     * Removes all edits, keeping the allocated capacity for reuse.
+     */
+    public void clear() {
+        positions.resetQuick();
+        blocks.resetQuick();
+        previousBlocks.resetQuick();
+        palette.clear();
+        paletteIndices.clear();
+    }
+}
@@ -10,6 +10,8 @@
 import org.terasology.gestalt.module.sandbox.API;
 import org.terasology.protobuf.EntityData;
 
+import java.util.function.Supplier;
+
 /**
  * Chunks are a box-shaped logical grouping of Terasology's blocks, for performance reasons.
  *
@@ -59,6 +61,34 @@ default Block getBlock(Vector3ic pos) {
      */
     Block getBlock(int x, int y, int z);
 
+    /**
+     * Returns the block the whole chunk consists of, so chunks of only air or only stone can be processed as a whole.
+     * This is kept track of while blocks are set, so it is cheap to call.
+     *
+     * @return the block at every position of the chunk, or null if the chunk may contain different blocks or the
+     *         implementation does not keep track of it
+     */
+    default Block getUniformBlock() {
+        return null;
+    }
+
+    /**
+     * Copies the ids of all blocks of the chunk, much faster than calling {@link #getBlock} for each of them.
+     *
+     * @param dest an array of the volume of a chunk, receiving the id of the block at (x, y, z) at index
+     *         {@code (y * Chunks.SIZE_Z + z) * Chunks.SIZE_X + x}
+     */
+    default void getBlockIds(short[] dest) {
+        int index = 0;
+        for (int y = 0; y < Chunks.SIZE_Y; y++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                for (int x = 0; x < Chunks.SIZE_X; x++) {
+                    dest[index++] = getBlock(x, y, z).getId();
+                }
+            }
+        }
+    }
+
     /**
      * Sets type of block at given position relative to the chunk.
      *
@@ -383,6 +413,16 @@ default boolean setLight(Vector3ic pos, byte amount) {
     // TODO: Expose appropriate iterators, remove this method
     EntityData.ChunkStore.Builder encode();
 
+    /**
+     * Captures the data of the chunk, so it can be encoded on another thread while the chunk keeps changing.
+     *
+     * @return encodes the chunk as it was when this method got called
+     */
+    default Supplier<EntityData.ChunkStore.Builder> captureEncoding() {
+        EntityData.ChunkStore.Builder encoded = encode();
+        return () -> encoded;
+    }
+
     boolean isDirty();
 
     void setDirty(boolean dirty);
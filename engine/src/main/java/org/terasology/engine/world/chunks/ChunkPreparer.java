@@ -0,0 +1,34 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.world.chunks;
+
+import org.joml.Vector3ic;
+
+/**
+ * Work done on every chunk on the chunk processing threads, just before it becomes ready.
+ *
+ * @see ChunkProvider#addChunkPreparer(ChunkPreparer)
+ */
+@FunctionalInterface
+public interface ChunkPreparer {
+
+    /**
+     * Invoked with each chunk, on any thread.
+     *
+     * @param chunk the chunk about to become ready
+     */
+    void prepare(Chunk chunk);
+
+    /**
+     * Invoked on the main thread when the chunk processed at a position will not become ready, e.g. because it was
+     * unloaded while processing or the provider shut down. Data prepared for it has to be dropped here, as no
+     * {@link org.terasology.engine.world.chunks.event.BeforeChunkUnload} is sent for such chunks.
+     * <p>
+     * A chunk being prepared at that moment may still be prepared afterwards.
+     *
+     * @param pos the position of the chunk, in chunk coordinates
+     */
+    default void discard(Vector3ic pos) {
+    }
+}
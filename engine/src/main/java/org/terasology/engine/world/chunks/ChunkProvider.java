@@ -55,6 +55,8 @@ public interface ChunkProvider {
 
     /**
      * Returns the chunk at the given position if possible.
+     * <p>
+     * Prefer this over {@link #getChunk(Vector3ic)} for frequent lookups, as it does not need a position vector.
      *
      * @param x The chunk position on the x-axis
      * @param y The chunk position on the y-axis
@@ -87,4 +89,17 @@ public interface ChunkProvider {
      * Restarts all thread activity of the chunk provider.
      */
     void restart();
+
+    /**
+     * Adds work to do on every chunk on the chunk processing threads, just before it becomes ready. Systems use this to
+     * prepare data they need when a chunk loads, keeping that work off the main thread.
+     * <p>
+     * Chunks already being processed may become ready without it, and providers which don't process chunks on other
+     * threads ignore it, so systems must be able to do the work themselves when the chunk loads. Chunks which stop
+     * processing before they become ready are passed to {@link ChunkPreparer#discard(Vector3ic)}.
+     *
+     * @param preparer called with each chunk, on any thread
+     */
+    default void addChunkPreparer(ChunkPreparer preparer) {
+    }
 }
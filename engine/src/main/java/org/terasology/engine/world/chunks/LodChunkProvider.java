@@ -28,6 +28,7 @@
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.PriorityBlockingQueue;
 
 public class LodChunkProvider {
@@ -86,7 +87,8 @@ private void createChunks() {
                     continue;
                 }
                 Chunk chunk = new PreLodChunk(scaleDown(pos, scale), blockManager, extraDataManager);
-                generator.createChunk(chunk, (1 << scale) * (2f / (Chunks.SIZE_X - 2) + 1));
+                // The facets of a LOD chunk cover a large area, so independent ones are generated concurrently
+                generator.createChunk(chunk, (1 << scale) * (2f / (Chunks.SIZE_X - 2) + 1), ForkJoinPool.commonPool());
                 InternalLightProcessor.generateInternalLighting(chunk, 1 << scale);
                 //tintChunk(chunk);
                 ChunkView view = new ChunkViewCoreImpl(new Chunk[]{chunk},
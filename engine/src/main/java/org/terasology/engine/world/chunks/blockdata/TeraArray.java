@@ -118,6 +118,28 @@ public String toString() {
 
     public abstract boolean isSparse();
 
+    /**
+     * Whether every element of this array is known to hold the same value, which is then given by {@code get(0, 0, 0)}.
+     * Implementations answer this without scanning the array, so it may return false for uniform arrays.
+     */
+    public boolean isUniform() {
+        return false;
+    }
+
+    /**
+     * Copies all elements, truncated to 16 bits, in the order of their position: x fastest, then z, then y.
+     */
+    public void getAll(short[] dest) {
+        int index = 0;
+        for (int y = 0; y < getSizeY(); y++) {
+            for (int z = 0; z < getSizeZ(); z++) {
+                for (int x = 0; x < getSizeX(); x++) {
+                    dest[index++] = (short) get(x, y, z);
+                }
+            }
+        }
+    }
+
     public abstract TeraArray copy();
 
     public abstract TeraArray deflate(TeraVisitingDeflator deflator);
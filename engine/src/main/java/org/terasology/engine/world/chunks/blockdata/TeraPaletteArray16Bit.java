@@ -0,0 +1,580 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.world.chunks.blockdata;
+
+import com.google.common.base.Preconditions;
+import gnu.trove.map.TShortIntMap;
+import gnu.trove.map.hash.TShortIntHashMap;
+import org.terasology.engine.world.chunks.deflate.TeraVisitingDeflator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * TeraPaletteArray16Bit implements an array with elements of 16 bit size, which stores the distinct values in a palette
+ * and bit-packed palette indices per element.
+ * Its elements are in the range -32'768 through +32'767.
+ * <p>
+ * Indices take 0, 1, 2, 4 or 8 bits, widening as new values get added to the palette. Once there are more than 256
+ * distinct values, the palette is dropped and the values are stored directly with 16 bits each. Setting elements never
+ * shrinks the palette, {@link #compact()} (or deflating the array) drops values which are no longer used.
+ * <p>
+ * The number of elements per palette value is kept up to date, so whether the array holds a single value is known
+ * without scanning it, see {@link #isUniform()}.
+ * <p>
+ * Chunks usually contain only a few different blocks, so block data takes a fraction of the memory of a
+ * {@link TeraDenseArray16Bit}.
+ * <p>
+ * The palette, the data and the way entries are packed into it are replaced together through a single volatile field,
+ * so threads reading the array while the main thread changes it, like the chunk mesh workers, never combine the data
+ * of one packing with the palette or bit layout of another.
+ */
+public class TeraPaletteArray16Bit extends TeraArray {
+
+    private static final int MAX_PALETTE_SIZE = 256;
+    private static final int DIRECT_BITS = 16;
+    private static final int MIN_PALETTE_CAPACITY = 4;
+    /* Larger palettes get a hash map to look up the index of a value */
+    private static final int LINEAR_SEARCH_LIMIT = 16;
+    private static final int NO_INDEX = -1;
+
+    private volatile Packing packing;
+    /* The number of values in the palette, 0 if the values are stored directly */
+    private int paletteSize;
+    private TShortIntMap paletteIndices;
+    /* The number of elements referring to each palette index, null if the values are stored directly */
+    private int[] counts;
+
+    public TeraPaletteArray16Bit() {
+        super();
+    }
+
+    public TeraPaletteArray16Bit(int sizeX, int sizeY, int sizeZ) {
+        super(sizeX, sizeY, sizeZ, true);
+    }
+
+    /**
+     * Creates an array with every element set to the given value.
+     */
+    public TeraPaletteArray16Bit(int sizeX, int sizeY, int sizeZ, short fill) {
+        super(sizeX, sizeY, sizeZ, true);
+        packing.palette[0] = fill;
+    }
+
+    /**
+     * Creates an array containing the given values, with the smallest palette for them.
+     *
+     * @param values the elements in the order of their position, as stored by {@link TeraDenseArray16Bit}
+     */
+    public TeraPaletteArray16Bit(int sizeX, int sizeY, int sizeZ, short[] values) {
+        this(sizeX, sizeY, sizeZ, values, countDistinctValues(Preconditions.checkNotNull(values)));
+    }
+
+    /**
+     * Creates an array containing the given values, for callers which already counted them. The indices get their
+     * final width up front, instead of widening while the values are added.
+     *
+     * @param values the elements in the order of their position, as stored by {@link TeraDenseArray16Bit}
+     * @param distinctValues the number of distinct values in {@code values}
+     */
+    public TeraPaletteArray16Bit(int sizeX, int sizeY, int sizeZ, short[] values, int distinctValues) {
+        super(sizeX, sizeY, sizeZ, true);
+        Preconditions.checkNotNull(values);
+        Preconditions.checkArgument(values.length == getSizeXYZ(),
+                "The length of parameter 'values' has to be " + getSizeXYZ() + " but is " + values.length);
+        if (distinctValues > MAX_PALETTE_SIZE) {
+            storeValuesDirectly();
+        } else if (distinctValues > 1) {
+            repack(bitsForPaletteSize(distinctValues), false);
+        }
+        if (packing.palette != null) {
+            packing.palette[0] = values[0];
+        } else {
+            setValue(0, values[0]);
+        }
+        for (int i = 1; i < values.length; i++) {
+            setValue(i, values[i]);
+        }
+    }
+
+    private TeraPaletteArray16Bit(TeraPaletteArray16Bit other) {
+        super(other.getSizeX(), other.getSizeY(), other.getSizeZ(), false);
+        Packing otherPacking = other.packing;
+        packing = new Packing(otherPacking.palette == null ? null : otherPacking.palette.clone(), otherPacking.bits,
+                otherPacking.data == null ? null : otherPacking.data.clone());
+        paletteSize = other.paletteSize;
+        counts = other.counts == null ? null : other.counts.clone();
+        if (other.paletteIndices != null) {
+            indexPalette();
+        }
+    }
+
+    @Override
+    protected void initialize() {
+        packing = new Packing(new short[MIN_PALETTE_CAPACITY], 0, null);
+        paletteSize = 1;
+        paletteIndices = null;
+        counts = new int[MIN_PALETTE_CAPACITY];
+        counts[0] = getSizeXYZ();
+    }
+
+    /**
+     * @return the number of distinct values in the given array
+     */
+    public static int countDistinctValues(short[] values) {
+        long[] seen = new long[(1 << Short.SIZE) / Long.SIZE];
+        int result = 0;
+        for (short value : values) {
+            int unsigned = value & 0xFFFF;
+            long bit = 1L << unsigned;
+            if ((seen[unsigned >>> 6] & bit) == 0) {
+                seen[unsigned >>> 6] |= bit;
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the memory of an array holding the given number of distinct values, as reported by
+     * {@link #getEstimatedMemoryConsumptionInBytes()} once it is created, without creating it.
+     *
+     * @param sizeXYZ the number of elements of the array
+     */
+    public static int estimateMemoryConsumptionInBytes(int sizeXYZ, int distinctValues) {
+        int bits = distinctValues > MAX_PALETTE_SIZE ? DIRECT_BITS : bitsForPaletteSize(distinctValues);
+        // the array and its packing
+        int result = 88;
+        if (bits != DIRECT_BITS) {
+            int capacity = paletteCapacity(bits);
+            result += 16 + capacity * 2;
+            result += 16 + capacity * 4;
+            if (distinctValues > LINEAR_SEARCH_LIMIT) {
+                result += 32 + distinctValues * 14;
+            }
+        }
+        if (bits != 0) {
+            result += 16 + (sizeXYZ * bits + Long.SIZE - 1) / Long.SIZE * 8;
+        }
+        return result;
+    }
+
+    private static int bitsForPaletteSize(int size) {
+        int result = 0;
+        while (1 << result < size) {
+            result = result == 0 ? 1 : result * 2;
+        }
+        return result;
+    }
+
+    /**
+     * @return the palette length for the given bits per entry, which has room for every index they can hold
+     */
+    private static int paletteCapacity(int bits) {
+        return Math.max(MIN_PALETTE_CAPACITY, 1 << bits);
+    }
+
+    private short getValue(int pos) {
+        return packing.getValue(pos);
+    }
+
+    private void setValue(int pos, short value) {
+        Packing current = packing;
+        if (current.palette == null) {
+            current.setEntry(pos, value & 0xFFFF);
+            return;
+        }
+        int oldIndex = current.data == null ? 0 : current.getEntry(pos);
+        int index = indexOf(value);
+        if (index == NO_INDEX) {
+            index = addToPalette(value);
+            current = packing;
+            if (current.palette == null) {
+                current.setEntry(pos, value & 0xFFFF);
+                return;
+            }
+        }
+        if (current.data != null) {
+            current.setEntry(pos, index);
+        }
+        counts[oldIndex]--;
+        counts[index]++;
+    }
+
+    private int indexOf(short value) {
+        if (paletteIndices != null) {
+            return paletteIndices.get(value);
+        }
+        short[] palette = packing.palette;
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == value) {
+                return i;
+            }
+        }
+        return NO_INDEX;
+    }
+
+    /**
+     * Adds a value to the palette, widening the indices if necessary. Switches to storing values directly if the
+     * palette is full.
+     * <p>
+     * The value goes into an unused slot of the palette, so readers of the current packing are not affected until
+     * elements refer to it.
+     *
+     * @return the index of the value, undefined if the values are stored directly now
+     */
+    private int addToPalette(short value) {
+        if (paletteSize == MAX_PALETTE_SIZE) {
+            storeValuesDirectly();
+            return NO_INDEX;
+        }
+        int index = paletteSize++;
+        if (paletteSize > 1 << packing.bits) {
+            repack(bitsForPaletteSize(paletteSize), false);
+        }
+        packing.palette[index] = value;
+        if (paletteIndices != null) {
+            paletteIndices.put(value, index);
+        } else if (paletteSize > LINEAR_SEARCH_LIMIT) {
+            indexPalette();
+        }
+        return index;
+    }
+
+    private void indexPalette() {
+        short[] palette = packing.palette;
+        paletteIndices = new TShortIntHashMap(2 * LINEAR_SEARCH_LIMIT, 0.5f, (short) 0, NO_INDEX);
+        for (int i = 0; i < paletteSize; i++) {
+            paletteIndices.put(palette[i], i);
+        }
+    }
+
+    private void storeValuesDirectly() {
+        repack(DIRECT_BITS, true);
+        paletteSize = 0;
+        paletteIndices = null;
+        counts = null;
+    }
+
+    /**
+     * Recounts the elements per palette index, for arrays whose packing was replaced as a whole.
+     */
+    private void countEntries() {
+        Packing current = packing;
+        if (current.palette == null) {
+            counts = null;
+            return;
+        }
+        counts = new int[current.palette.length];
+        if (current.data == null) {
+            counts[0] = getSizeXYZ();
+            return;
+        }
+        for (int pos = 0; pos < getSizeXYZ(); pos++) {
+            counts[current.getEntry(pos)]++;
+        }
+    }
+
+    /**
+     * Copies all entries into a new packing with the given number of bits per entry, and publishes it once complete.
+     *
+     * @param resolve whether to store the palette values instead of the palette indices
+     */
+    private void repack(int newBits, boolean resolve) {
+        Packing old = packing;
+        short[] newPalette = null;
+        if (!resolve) {
+            int capacity = paletteCapacity(newBits);
+            newPalette = old.palette.length >= capacity ? old.palette : Arrays.copyOf(old.palette, capacity);
+            if (counts.length < capacity) {
+                counts = Arrays.copyOf(counts, capacity);
+            }
+        }
+        long[] newData = new long[(getSizeXYZ() * newBits + Long.SIZE - 1) / Long.SIZE];
+        Packing repacked = new Packing(newPalette, newBits, newData);
+        if (old.bits != 0 || resolve) {
+            for (int pos = 0; pos < getSizeXYZ(); pos++) {
+                int entry = old.bits == 0 ? 0 : old.getEntry(pos);
+                if (resolve) {
+                    entry = old.palette[entry] & 0xFFFF;
+                }
+                if (entry != 0) {
+                    repacked.setEntry(pos, entry);
+                }
+            }
+        }
+        packing = repacked;
+    }
+
+    /**
+     * @return the number of values in the palette, including unused ones, or 0 if the values are stored directly
+     */
+    public int getPaletteSize() {
+        return paletteSize;
+    }
+
+    /**
+     * @return the number of bits each element takes
+     */
+    public int getBitsPerElement() {
+        return packing.bits;
+    }
+
+    /**
+     * @return an array with a palette of only the values that are used, or this array if it has no unused values
+     */
+    public TeraPaletteArray16Bit compact() {
+        Packing current = packing;
+        if (current.palette != null) {
+            if (current.data == null) {
+                return this;
+            }
+            int usedCount = 0;
+            for (int i = 0; i < paletteSize; i++) {
+                if (counts[i] > 0) {
+                    usedCount++;
+                }
+            }
+            if (usedCount == paletteSize) {
+                return this;
+            }
+        }
+        short[] values = new short[getSizeXYZ()];
+        for (int pos = 0; pos < values.length; pos++) {
+            values[pos] = current.getValue(pos);
+        }
+        TeraPaletteArray16Bit compacted = new TeraPaletteArray16Bit(getSizeX(), getSizeY(), getSizeZ(), values);
+        return compacted.packing.palette == null ? this : compacted;
+    }
+
+    @Override
+    public boolean isSparse() {
+        return false;
+    }
+
+    @Override
+    public boolean isUniform() {
+        Packing current = packing;
+        if (current.palette == null) {
+            return false;
+        }
+        if (current.data == null) {
+            return true;
+        }
+        for (int i = 0; i < paletteSize; i++) {
+            if (counts[i] == getSizeXYZ()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void getAll(short[] dest) {
+        Packing current = packing;
+        short[] palette = current.palette;
+        if (current.data == null) {
+            Arrays.fill(dest, 0, getSizeXYZ(), palette[0]);
+            return;
+        }
+        // Unpacks a whole data word at a time
+        int entriesPerSlot = 1 << current.indexShift;
+        for (int pos = 0; pos < getSizeXYZ(); pos += entriesPerSlot) {
+            long slot = current.data[pos >>> current.indexShift];
+            int end = Math.min(pos + entriesPerSlot, getSizeXYZ());
+            for (int i = pos; i < end; i++) {
+                int entry = (int) slot & current.entryMask;
+                dest[i] = palette == null ? (short) entry : palette[entry];
+                slot >>>= current.bits;
+            }
+        }
+    }
+
+    @Override
+    public TeraArray copy() {
+        return new TeraPaletteArray16Bit(this);
+    }
+
+    @Override
+    public TeraArray deflate(TeraVisitingDeflator deflator) {
+        return Preconditions.checkNotNull(deflator).deflatePaletteArray16Bit(this);
+    }
+
+    @Override
+    public int getEstimatedMemoryConsumptionInBytes() {
+        Packing current = packing;
+        // the array and its packing
+        int result = 88;
+        if (current.palette != null) {
+            result += 16 + current.palette.length * 2;
+            result += 16 + counts.length * 4;
+        }
+        if (paletteIndices != null) {
+            // two slots of a short key, an int value and a state byte per entry
+            result += 32 + paletteIndices.size() * 14;
+        }
+        if (current.data != null) {
+            result += 16 + current.data.length * 8;
+        }
+        return result;
+    }
+
+    @Override
+    public int getElementSizeInBits() {
+        return 16;
+    }
+
+    @Override
+    public int get(int x, int y, int z) {
+        return getValue(pos(x, y, z));
+    }
+
+    @Override
+    public int set(int x, int y, int z, int value) {
+        int pos = pos(x, y, z);
+        short old = getValue(pos);
+        if (old != (short) value) {
+            setValue(pos, (short) value);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean set(int x, int y, int z, int value, int expected) {
+        int pos = pos(x, y, z);
+        if (getValue(pos) == expected) {
+            setValue(pos, (short) value);
+            return true;
+        }
+        return false;
+    }
+
+    public static class SerializationHandler extends TeraArray.BasicSerializationHandler<TeraPaletteArray16Bit> {
+
+        @Override
+        public boolean canHandle(Class<?> clazz) {
+            return TeraPaletteArray16Bit.class.equals(clazz);
+        }
+
+        @Override
+        protected int internalComputeMinimumBufferSize(TeraPaletteArray16Bit array) {
+            long[] data = array.packing.data;
+            int dataLength = data == null ? 0 : data.length;
+            return 12 + array.paletteSize * 2 + dataLength * 8;
+        }
+
+        @Override
+        protected void internalSerialize(TeraPaletteArray16Bit array, ByteBuffer buffer) {
+            Packing packing = array.packing;
+            buffer.putInt(packing.bits);
+            buffer.putInt(array.paletteSize);
+            for (int i = 0; i < array.paletteSize; i++) {
+                buffer.putShort(packing.palette[i]);
+            }
+            if (packing.data == null) {
+                buffer.putInt(0);
+            } else {
+                buffer.putInt(packing.data.length);
+                buffer.asLongBuffer().put(packing.data);
+                buffer.position(buffer.position() + packing.data.length * 8);
+            }
+        }
+
+        @Override
+        protected TeraPaletteArray16Bit internalDeserialize(int sizeX, int sizeY, int sizeZ, ByteBuffer buffer) {
+            TeraPaletteArray16Bit array = new TeraPaletteArray16Bit(sizeX, sizeY, sizeZ);
+            final int bits = buffer.getInt();
+            final int paletteSize = buffer.getInt();
+            short[] palette = null;
+            if (paletteSize > 0) {
+                palette = new short[Math.max(paletteCapacity(bits), paletteSize)];
+                for (int i = 0; i < paletteSize; i++) {
+                    palette[i] = buffer.getShort();
+                }
+            }
+            final int dataLength = buffer.getInt();
+            long[] data = null;
+            if (dataLength > 0) {
+                data = new long[dataLength];
+                buffer.asLongBuffer().get(data);
+                buffer.position(buffer.position() + dataLength * 8);
+            }
+            array.packing = new Packing(palette, bits, data);
+            array.paletteSize = paletteSize;
+            if (paletteSize > LINEAR_SEARCH_LIMIT) {
+                array.indexPalette();
+            }
+            array.countEntries();
+            return array;
+        }
+    }
+
+    public static class Factory implements TeraArray.Factory<TeraPaletteArray16Bit> {
+
+        @Override
+        public Class<TeraPaletteArray16Bit> getArrayClass() {
+            return TeraPaletteArray16Bit.class;
+        }
+
+        @Override
+        public SerializationHandler createSerializationHandler() {
+            return new SerializationHandler();
+        }
+
+        @Override
+        public TeraPaletteArray16Bit create() {
+            return new TeraPaletteArray16Bit();
+        }
+
+        @Override
+        public TeraPaletteArray16Bit create(int sizeX, int sizeY, int sizeZ) {
+            return new TeraPaletteArray16Bit(sizeX, sizeY, sizeZ);
+        }
+    }
+
+    /**
+     * The palette and the bit-packed entries of the elements. A packing is replaced as a whole when the bits per entry
+     * change or the values get stored directly. Until then elements are set in its data in place, and values are
+     * added to unused slots of its palette, which always has room for every index the bits can hold.
+     */
+    private static final class Packing {
+        /* Null if the values are stored directly */
+        private final short[] palette;
+        private final int bits;
+        private final int log2Bits;
+        private final int indexShift;
+        private final int indexMask;
+        private final int entryMask;
+        /* Null while there is only one value */
+        private final long[] data;
+
+        Packing(short[] palette, int bits, long[] data) {
+            this.palette = palette;
+            this.bits = bits;
+            this.log2Bits = bits == 0 ? 0 : Integer.numberOfTrailingZeros(bits);
+            this.indexShift = 6 - log2Bits;
+            this.indexMask = (1 << indexShift) - 1;
+            this.entryMask = (1 << bits) - 1;
+            this.data = data;
+        }
+
+        int getEntry(int pos) {
+            return (int) (data[pos >>> indexShift] >>> ((pos & indexMask) << log2Bits)) & entryMask;
+        }
+
+        void setEntry(int pos, int entry) {
+            int slot = pos >>> indexShift;
+            int offset = (pos & indexMask) << log2Bits;
+            data[slot] = data[slot] & ~((long) entryMask << offset) | (long) entry << offset;
+        }
+
+        short getValue(int pos) {
+            if (data == null) {
+                return palette[0];
+            }
+            int entry = getEntry(pos);
+            return palette == null ? (short) entry : palette[entry];
+        }
+    }
+}
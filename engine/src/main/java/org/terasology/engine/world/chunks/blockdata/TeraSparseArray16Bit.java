@@ -49,6 +49,11 @@ public TeraSparseArray16Bit(int sizeX, int sizeY, int sizeZ, short fill) {
     protected void initialize() {
     }
 
+    @Override
+    public boolean isUniform() {
+        return inflated == null;
+    }
+
     @Override
     public TeraArray copy() {
         if (inflated == null) {
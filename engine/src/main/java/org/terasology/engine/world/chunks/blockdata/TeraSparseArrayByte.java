@@ -49,6 +49,11 @@ protected TeraSparseArrayByte(int sizeX, int sizeY, int sizeZ, byte fill) {
     protected void initialize() {
     }
 
+    @Override
+    public boolean isUniform() {
+        return inflated == null;
+    }
+
     @Override
     public final int getEstimatedMemoryConsumptionInBytes() {
         if (inflated == null) {
@@ -4,12 +4,14 @@
 package org.terasology.engine.world.chunks.deflate;
 
 import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray4Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray8Bit;
 
 /**
  * TeraStandardDeflator implements a simple deflation algorithm for 4, 8 and 16-bit dense and sparse arrays.<br>
+ * 16-bit dense arrays with few different values become palette arrays, and palette arrays drop unused values.<br>
  * <b>NOTE:</b> Currently it is optimized for chunks of size 16x256x16 blocks.<br>
  * TODO: Implement deflation for sparse array 4bit.
  */
@@ -60,15 +62,22 @@ public TeraArray deflateDenseArray16Bit(short[] data,
                                             int sizeZ) {
         final short[][] inflated = new short[sizeY][];
         final short[] deflated = new short[sizeY];
+        // the distinct values are counted in the same pass, to tell whether a palette would take less memory
+        final long[] seen = new long[(1 << Short.SIZE) / Long.SIZE];
+        int distinct = 0;
         int packed = 0;
         for (int y = 0; y < sizeY; y++) {
             final int start = y * rowSize;
             final short first = data[start];
             boolean packable = true;
-            for (int i = 1; i < rowSize; i++) {
-                if (data[start + i] != first) {
-                    packable = false;
-                    break;
+            for (int i = 0; i < rowSize; i++) {
+                final short value = data[start + i];
+                packable &= value == first;
+                final int unsigned = value & 0xFFFF;
+                final long bit = 1L << unsigned;
+                if ((seen[unsigned >>> 6] & bit) == 0) {
+                    seen[unsigned >>> 6] |= bit;
+                    ++distinct;
                 }
             }
             if (packable) {
@@ -80,23 +89,25 @@ public TeraArray deflateDenseArray16Bit(short[] data,
                 inflated[y] = tmp;
             }
         }
-        if (packed == sizeY) {
-            final short first = deflated[0];
-            boolean packable = true;
-            for (int i = 1; i < sizeY; i++) {
-                if (deflated[i] != first) {
-                    packable = false;
-                    break;
-                }
-            }
-            if (packable) {
-                return new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, first);
-            }
+        if (distinct == 1) {
+            return new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, data[0]);
         }
+        TeraArray result = null;
         if (packed > DEFLATE_MINIMUM_16BIT) {
-            return new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, inflated, deflated);
+            result = new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, inflated, deflated);
         }
-        return null;
+        // few different values take less memory in a palette, unless most rows are uniform
+        int bestSize = result == null ? 16 + data.length * 2 : result.getEstimatedMemoryConsumptionInBytes();
+        if (TeraPaletteArray16Bit.estimateMemoryConsumptionInBytes(data.length, distinct) < bestSize) {
+            result = new TeraPaletteArray16Bit(sizeX, sizeY, sizeZ, data, distinct);
+        }
+        return result;
+    }
+
+    @Override
+    public TeraArray deflatePaletteArray16Bit(TeraPaletteArray16Bit array) {
+        TeraPaletteArray16Bit compacted = array.compact();
+        return compacted == array ? null : compacted;
     }
 
     @Override
@@ -5,6 +5,7 @@
 
 import com.google.common.base.Preconditions;
 import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray16Bit;
 
 /**
  * TeraVisitingDeflator uses the visitor pattern to gain access to the internal implementation details of specific
@@ -38,4 +39,6 @@ public final TeraArray deflate(TeraArray in) {
 
     public abstract TeraArray deflateSparseArray4Bit(byte[][] inflated, byte[] deflated, byte fill, int rowSize, int sizeX, int sizeY, int sizeZ);
 
+    public abstract TeraArray deflatePaletteArray16Bit(TeraPaletteArray16Bit array);
+
 }
@@ -18,7 +18,7 @@
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.engine.world.chunks.blockdata.TeraArray;
-import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray8Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray8Bit;
 import org.terasology.engine.world.chunks.deflate.TeraDeflator;
@@ -29,6 +29,7 @@
 
 import java.text.DecimalFormat;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Chunks are the basic components of the world. Each chunk contains a fixed amount of blocks determined by its
@@ -63,6 +64,8 @@ public class ChunkImpl implements Chunk {
     private boolean disposed;
     private boolean ready;
     private volatile boolean dirty;
+    /* Incremented on every change of the persisted block or extra data */
+    private volatile int revision;
     private boolean animated;
 
     // Rendering
@@ -74,7 +77,7 @@ public ChunkImpl(int x, int y, int z, BlockManager blockManager, ExtraBlockDataM
 
     public ChunkImpl(Vector3ic chunkPos, BlockManager blockManager, ExtraBlockDataManager extraDataManager) {
         this(chunkPos,
-            new TeraDenseArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z),
+            new TeraPaletteArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z),
             extraDataManager.makeDataArrays(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z),
             blockManager);
     }
@@ -131,6 +134,16 @@ public final Block getBlock(int x, int y, int z) {
         return blockManager.getBlock(id);
     }
 
+    @Override
+    public Block getUniformBlock() {
+        return blockData.isUniform() ? blockManager.getBlock((short) blockData.get(0, 0, 0)) : null;
+    }
+
+    @Override
+    public void getBlockIds(short[] dest) {
+        blockData.getAll(dest);
+    }
+
     // This could be made to check for and clear extraData fields as appropriate,
     // but that could take an excessive amount of time,
     // so whatever sets a block to something extraData sensitive should also initialise the extra data.
@@ -140,6 +153,9 @@ public Block setBlock(int x, int y, int z, Block block) {
             blockData = blockData.copy();
         }
         int oldValue = blockData.set(x, y, z, block.getId());
+        if (oldValue != block.getId()) {
+            revision++;
+        }
         return blockManager.getBlock((short) oldValue);
     }
 
@@ -186,7 +202,9 @@ public void setExtraData(int index, int x, int y, int z, int value) {
         if (extraDataSnapshots != null && extraData[index] == extraDataSnapshots[index]) {
             extraData[index] = extraData[index].copy();
         }
-        extraData[index].set(x, y, z, value);
+        if (extraData[index].set(x, y, z, value) != value) {
+            revision++;
+        }
     }
 
     @Override
@@ -446,6 +464,26 @@ public EntityData.ChunkStore.Builder encode() {
         return ChunkSerializer.encode(chunkPos, blockData, extraData);
     }
 
+    @Override
+    public Supplier<EntityData.ChunkStore.Builder> captureEncoding() {
+        TeraArray blocks = blockData.copy();
+        TeraArray[] extra = new TeraArray[extraData.length];
+        for (int i = 0; i < extraData.length; i++) {
+            extra[i] = extraData[i].copy();
+        }
+        return () -> ChunkSerializer.encode(chunkPos, blocks, extra);
+    }
+
+    /**
+     * The revision changes whenever the block or extra data of the chunk changes, so two equal revisions of the same
+     * chunk encode to the same data. Changes are made on a single thread, the revision can be read from any thread.
+     *
+     * @return the current revision of the data written by {@link #encode()}
+     */
+    public int getRevision() {
+        return revision;
+    }
+
     /**
      * Calling this method results in a (cheap) snapshot to be taken of the current state of the chunk. This snapshot
      * can then be obtained and rleased by calling {@link #encodeAndReleaseSnapshot()}.
@@ -0,0 +1,244 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.chunks.Chunk;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chunks by chunk position, keyed by the position packed into a long.
+ * <p>
+ * Positions are stored in an open addressing table, so looking up a chunk neither allocates nor hashes a vector.
+ * Lookups don't lock and can happen on any thread, while changes are serialized. A lookup concurrent to a change
+ * sees the index either before or after that change.
+ * <p>
+ * Only positions with coordinates in the range of {@link #isPackable} can be stored. Other positions are never
+ * contained in the index.
+ */
+public final class ChunkIndex {
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    /* Packed keys never have the sign bit set */
+    private static final long EMPTY = -1;
+    private static final int MIN_CAPACITY = 64;
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private int size;
+
+    /**
+     * @return whether every coordinate fits into 21 bits, i.e. lies within [-1048576, 1048575]
+     */
+    public static boolean isPackable(int x, int y, int z) {
+        return fitsCoordinateBits(x) && fitsCoordinateBits(y) && fitsCoordinateBits(z);
+    }
+
+    /**
+     * Packs chunk coordinates into a single long. Each coordinate keeps its lowest 21 bits, so coordinates which are
+     * not {@link #isPackable packable} share their key with other positions.
+     */
+    public static long key(int x, int y, int z) {
+        return (x & COORDINATE_MASK) << (2 * COORDINATE_BITS) | (y & COORDINATE_MASK) << COORDINATE_BITS
+                | z & COORDINATE_MASK;
+    }
+
+    public Chunk get(int x, int y, int z) {
+        if (!isPackable(x, y, z)) {
+            return null;
+        }
+        return table.get(key(x, y, z));
+    }
+
+    public Chunk get(Vector3ic chunkPos) {
+        return get(chunkPos.x(), chunkPos.y(), chunkPos.z());
+    }
+
+    public boolean containsKey(Vector3ic chunkPos) {
+        return get(chunkPos) != null;
+    }
+
+    /**
+     * @return the chunk previously stored at the position, or null if there was none
+     * @throws IllegalArgumentException if the position is not {@link #isPackable packable}
+     */
+    public synchronized Chunk put(Vector3ic chunkPos, Chunk chunk) {
+        Preconditions.checkArgument(isPackable(chunkPos.x(), chunkPos.y(), chunkPos.z()),
+                "Chunk position %s is out of the range of the index", chunkPos);
+        long key = key(chunkPos.x(), chunkPos.y(), chunkPos.z());
+        Table current = table;
+        int slot = current.find(key);
+        if (slot >= 0) {
+            Chunk previous = current.values.get(slot);
+            current.values.set(slot, chunk);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        if (current.used + 1 > current.capacity() / 2) {
+            current = rehash(size + 1);
+        }
+        current.insert(key, chunk);
+        size++;
+        return null;
+    }
+
+    /**
+     * @return the removed chunk, or null if there was none
+     */
+    public synchronized Chunk remove(Vector3ic chunkPos) {
+        if (!isPackable(chunkPos.x(), chunkPos.y(), chunkPos.z())) {
+            return null;
+        }
+        Table current = table;
+        int slot = current.find(key(chunkPos.x(), chunkPos.y(), chunkPos.z()));
+        if (slot < 0) {
+            return null;
+        }
+        // the key stays as a tombstone, so probing for keys after it still works
+        Chunk previous = current.values.getAndSet(slot, null);
+        if (previous != null) {
+            size--;
+        }
+        return previous;
+    }
+
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return a snapshot of the positions of all chunks
+     */
+    public List<Vector3ic> getPositions() {
+        Table current = table;
+        List<Vector3ic> result = Lists.newArrayListWithCapacity(current.used);
+        for (int i = 0; i < current.capacity(); i++) {
+            Chunk chunk = current.values.get(i);
+            if (chunk != null) {
+                long key = current.keys.get(i);
+                result.add(new Vector3i(unpack(key, 2 * COORDINATE_BITS), unpack(key, COORDINATE_BITS), unpack(key, 0)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a snapshot of all chunks
+     */
+    public List<Chunk> getChunks() {
+        Table current = table;
+        List<Chunk> result = Lists.newArrayListWithCapacity(current.used);
+        for (int i = 0; i < current.capacity(); i++) {
+            Chunk chunk = current.values.get(i);
+            if (chunk != null) {
+                result.add(chunk);
+            }
+        }
+        return result;
+    }
+
+    private static boolean fitsCoordinateBits(int coordinate) {
+        return coordinate << (Integer.SIZE - COORDINATE_BITS) >> (Integer.SIZE - COORDINATE_BITS) == coordinate;
+    }
+
+    private static int unpack(long key, int shift) {
+        // shift the coordinate into the highest bits and back to restore its sign
+        return (int) (key >>> shift << (Long.SIZE - COORDINATE_BITS) >> (Long.SIZE - COORDINATE_BITS));
+    }
+
+    /**
+     * Copies all chunks into a new table, dropping the keys of removed chunks.
+     */
+    private Table rehash(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        Table current = table;
+        Table rehashed = new Table(capacity);
+        for (int i = 0; i < current.capacity(); i++) {
+            Chunk chunk = current.values.get(i);
+            if (chunk != null) {
+                rehashed.insert(current.keys.get(i), chunk);
+            }
+        }
+        table = rehashed;
+        return rehashed;
+    }
+
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<Chunk> values;
+        private final int mask;
+        /* Slots with a key, including the ones of removed chunks */
+        private int used;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                keys.set(i, EMPTY);
+            }
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32);
+        }
+
+        Chunk get(long key) {
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                long slotKey = keys.get(slot);
+                if (slotKey == key) {
+                    return values.get(slot);
+                }
+                if (slotKey == EMPTY) {
+                    return null;
+                }
+            }
+        }
+
+        int find(long key) {
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                long slotKey = keys.get(slot);
+                if (slotKey == key) {
+                    return slot;
+                }
+                if (slotKey == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * Stores a key which is not in the table yet. The value is set before the key, so lookups finding the key
+         * also see the value.
+         */
+        void insert(long key, Chunk chunk) {
+            int slot = hash(key) & mask;
+            while (keys.get(slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            values.set(slot, chunk);
+            keys.set(slot, key);
+            used++;
+        }
+    }
+}
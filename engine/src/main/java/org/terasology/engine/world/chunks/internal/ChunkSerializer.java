@@ -10,7 +10,7 @@
 import org.joml.Vector3ic;
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.engine.world.chunks.blockdata.TeraArray;
-import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray8Bit;
 import org.terasology.protobuf.EntityData;
 import org.terasology.engine.world.block.BlockManager;
@@ -42,7 +42,9 @@ public static Chunk decode(EntityData.ChunkStore message, BlockManager blockMana
             throw new IllegalArgumentException("Ill-formed protobuf message. Missing block data.");
         }
 
-        final TeraArray blockData = runLengthDecode(message.getBlockData());
+        Preconditions.checkState(message.getBlockData().getValuesCount() == message.getBlockData().getRunLengthsCount(),
+                "Expected same number of values as runs");
+        final TeraArray blockData = decodeBlockData(message.getBlockData());
         final TeraArray[] extraData = extraDataManager.makeDataArrays(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z);
         for (int i = 0; i < extraData.length; i++) {
             runLengthDecode(message.getExtraData(i), extraData[i]);
@@ -53,6 +55,13 @@ public static Chunk decode(EntityData.ChunkStore message, BlockManager blockMana
     private static EntityData.RunLengthEncoding16 runLengthEncode16(TeraArray array) {
         EntityData.RunLengthEncoding16.Builder builder = EntityData.RunLengthEncoding16.newBuilder();
         short lastItem = (short) array.get(0, 0, 0);
+        if (array.isUniform()) {
+            if (lastItem != 0) {
+                builder.addRunLengths(array.getSizeXYZ());
+                builder.addValues(lastItem & 0xFFFF);
+            }
+            return builder.build();
+        }
         int counter = 0;
         for (int y = 0; y < array.getSizeY(); ++y) {
             for (int z = 0; z < array.getSizeZ(); ++z) {
@@ -104,20 +113,6 @@ private static EntityData.RunLengthEncoding8 runLengthEncode8(TeraArray array) {
         return builder.build();
     }
 
-    private static TeraArray runLengthDecode(EntityData.RunLengthEncoding16 data) {
-        Preconditions.checkState(data.getValuesCount() == data.getRunLengthsCount(), "Expected same number of values as runs");
-        short[] decodedData = new short[Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z];
-        int index = 0;
-        for (int pos = 0; pos < data.getValuesCount(); ++pos) {
-            int length = data.getRunLengths(pos);
-            short value = (short) data.getValues(pos);
-            for (int i = 0; i < length; ++i) {
-                decodedData[index++] = value;
-            }
-        }
-        return new TeraDenseArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z, decodedData);
-    }
-
     private static TeraArray runLengthDecode(EntityData.RunLengthEncoding8 data) {
         Preconditions.checkState(data.getValues().size() == data.getRunLengthsCount(), "Expected same number of values as runs");
         byte[] decodedData = new byte[Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z];
@@ -133,6 +128,21 @@ private static TeraArray runLengthDecode(EntityData.RunLengthEncoding8 data) {
         return new TeraDenseArray8Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z, decodedData);
     }
 
+    /**
+     * Decode compressed block data. Chunks of a single block are filled at once instead of block by block.
+     */
+    private static TeraArray decodeBlockData(EntityData.RunLengthEncoding16 data) {
+        if (data.getRunLengthsCount() == 0) {
+            return new TeraPaletteArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z);
+        }
+        if (data.getRunLengthsCount() == 1 && data.getRunLengths(0) >= Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z) {
+            return new TeraPaletteArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z, (short) data.getValues(0));
+        }
+        TeraArray array = new TeraPaletteArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z);
+        runLengthDecode(data, array);
+        return array;
+    }
+
     /**
      * Decode compressed data into an existing TeraArray.
      * Generic w.r.t. TeraArray subclasses, allowing the data to be used for any type of TeraArray.
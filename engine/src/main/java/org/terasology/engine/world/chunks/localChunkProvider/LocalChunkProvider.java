@@ -32,6 +32,7 @@
 import org.terasology.engine.world.block.OnAddedBlocks;
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.ChunkBlockIterator;
+import org.terasology.engine.world.chunks.ChunkPreparer;
 import org.terasology.engine.world.chunks.ChunkProvider;
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
@@ -39,6 +40,7 @@
 import org.terasology.engine.world.chunks.event.OnChunkLoaded;
 import org.terasology.engine.world.chunks.event.PurgeWorldEvent;
 import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.engine.world.chunks.internal.ChunkIndex;
 import org.terasology.engine.world.chunks.internal.ChunkRelevanceRegion;
 import org.terasology.engine.world.chunks.pipeline.ChunkProcessingPipeline;
 import org.terasology.engine.world.chunks.pipeline.stages.ChunkTaskProvider;
@@ -56,6 +58,7 @@
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 /**
@@ -86,9 +89,15 @@ public class LocalChunkProvider implements ChunkProvider {
     private final EntityManager entityManager;
     private final BlockingQueue<Chunk> readyChunks = Queues.newLinkedBlockingQueue();
     private final BlockingQueue<TShortObjectMap<TIntList>> deactivateBlocksQueue = Queues.newLinkedBlockingQueue();
-    private final Map<Vector3ic, Chunk> chunkCache;
+    private final ChunkIndex chunkCache = new ChunkIndex();
 
-    private final Map<Vector3ic, List<EntityStore>> generateQueuedEntities = new ConcurrentHashMap<>();
+    /**
+     * The entities of chunks in the pipeline, kept until they are created or restored when the chunk gets ready. Only
+     * the main thread adds and removes entries, so a generator task finishing after its chunk got dropped cannot
+     * leave its entities behind.
+     */
+    private final Map<Vector3ic, PendingChunk> pendingChunks = new ConcurrentHashMap<>();
+    private final List<ChunkPreparer> chunkPreparers = new CopyOnWriteArrayList<>();
 
     private final StorageManager storageManager;
     private final WorldGenerator generator;
@@ -102,33 +111,34 @@ public class LocalChunkProvider implements ChunkProvider {
     private RelevanceSystem relevanceSystem;
 
     public LocalChunkProvider(StorageManager storageManager, EntityManager entityManager, WorldGenerator generator,
-                              BlockManager blockManager, ExtraBlockDataManager extraDataManager,
-                              Map<Vector3ic, Chunk> chunkCache) {
+                              BlockManager blockManager, ExtraBlockDataManager extraDataManager) {
         this.storageManager = storageManager;
         this.entityManager = entityManager;
         this.generator = generator;
         this.blockManager = blockManager;
         this.extraDataManager = extraDataManager;
         this.unloadRequestTaskMaster = TaskMaster.createFIFOTaskMaster("Chunk-Unloader", 4);
-        this.chunkCache = chunkCache;
         ChunkMonitor.fireChunkProviderInitialized(this);
     }
 
 
     protected ListenableFuture<Chunk> createOrLoadChunk(Vector3ic chunkPos) {
         Vector3i pos = new Vector3i(chunkPos);
+        // a chunk already in the pipeline keeps its generator task, which fills the same entry
+        PendingChunk pendingChunk = pendingChunks.computeIfAbsent(pos, k -> new PendingChunk());
         return loadingPipeline.invokeGeneratorTask(
             pos,
             () -> {
                 ChunkStore chunkStore = storageManager.loadChunkStore(pos);
                 Chunk chunk;
-                EntityBufferImpl buffer = new EntityBufferImpl();
                 if (chunkStore == null) {
                     chunk = new ChunkImpl(pos, blockManager, extraDataManager);
+                    EntityBufferImpl buffer = new EntityBufferImpl();
                     generator.createChunk(chunk, buffer);
-                    generateQueuedEntities.put(chunk.getPosition(), buffer.getAll());
+                    pendingChunk.generatedEntities = buffer.getAll();
                 } else {
                     chunk = chunkStore.getChunk();
+                    pendingChunk.store = chunkStore;
                 }
                 return chunk;
             });
@@ -160,16 +170,19 @@ public void setWorldEntity(EntityRef worldEntity) {
     private void processReadyChunk(final Chunk chunk) {
         Vector3ic chunkPos = chunk.getPosition();
         if (chunkCache.get(chunkPos) != null) {
+            dropQueuedEntities(chunkPos);
+            discardPreparedChunk(chunkPos);
             return; // TODO move it in pipeline;
         }
-        chunkCache.put(new Vector3i(chunkPos), chunk);
+        chunkCache.put(chunkPos, chunk);
         chunk.markReady();
+        loadingPipeline.onChunkAvailable(chunkPos);
         //TODO, it is not clear if the activate/addedBlocks event logic is correct.
         //See https://github.com/MovingBlocks/Terasology/issues/3244
-        ChunkStore store = this.storageManager.loadChunkStore(chunkPos);
+        PendingChunk pendingChunk = pendingChunks.remove(chunkPos);
         TShortObjectMap<TIntList> mappings = createBatchBlockEventMappings(chunk);
-        if (store != null) {
-            store.restoreEntities();
+        if (pendingChunk.store != null) {
+            pendingChunk.store.restoreEntities();
 
             PerformanceMonitor.startActivity("Sending OnAddedBlocks");
             mappings.forEachEntry((id, positions) -> {
@@ -192,7 +205,7 @@ private void processReadyChunk(final Chunk chunk) {
             PerformanceMonitor.endActivity();
         } else {
             PerformanceMonitor.startActivity("Generating queued Entities");
-            generateQueuedEntities.remove(chunkPos).forEach(this::generateQueuedEntities);
+            pendingChunk.generatedEntities.forEach(this::generateQueuedEntities);
             PerformanceMonitor.endActivity();
 
             // send on activate
@@ -212,6 +225,10 @@ private void processReadyChunk(final Chunk chunk) {
         worldEntity.send(new OnChunkLoaded(chunkPos));
     }
 
+    private void dropQueuedEntities(Vector3ic chunkPos) {
+        pendingChunks.remove(chunkPos);
+    }
+
     private void generateQueuedEntities(EntityStore store) {
         Prefab prefab = store.getPrefab();
         EntityRef entity;
@@ -253,13 +270,13 @@ private void checkForUnload() {
         PerformanceMonitor.startActivity("Unloading irrelevant chunks");
         int unloaded = 0;
         Iterator<Vector3ic> iterator = Iterators.concat(
-            Iterators.transform(chunkCache.keySet().iterator(), v -> new Vector3i(v.x(), v.y(), v.z())),
+            chunkCache.getPositions().iterator(),
             loadingPipeline.getProcessingPosition().iterator());
         while (iterator.hasNext()) {
             Vector3ic pos = iterator.next();
             boolean keep = relevanceSystem.isChunkInRegions(pos); // TODO: move it to relevance system.
             if (!keep && unloadChunkInternal(pos)) {
-                iterator.remove();
+                chunkCache.remove(pos);
                 if (++unloaded >= UNLOAD_PER_FRAME) {
                     break;
                 }
@@ -276,6 +293,8 @@ private boolean unloadChunkInternal(Vector3ic pos) {
         if (loadingPipeline.isPositionProcessing(pos)) {
             // Chunk hasn't been finished or changed, so just drop it.
             loadingPipeline.stopProcessingAt(pos);
+            dropQueuedEntities(pos);
+            discardPreparedChunk(pos);
             return false;
         }
         Chunk chunk = chunkCache.get(pos);
@@ -323,7 +342,11 @@ private TShortObjectMap<TIntList> createBatchBlockEventMappings(Chunk chunk) {
 
     @Override
     public Chunk getChunk(int x, int y, int z) {
-        return getChunk(new Vector3i(x, y, z));
+        Chunk chunk = chunkCache.get(x, y, z);
+        if (isChunkReady(chunk)) {
+            return chunk;
+        }
+        return null;
     }
 
     @Override
@@ -337,9 +360,35 @@ public Chunk getChunk(Vector3ic pos) {
 
     @Override
     public Collection<Chunk> getAllChunks() {
-        return chunkCache.values();
+        return chunkCache.getChunks();
+    }
+
+
+    @Override
+    public void addChunkPreparer(ChunkPreparer preparer) {
+        chunkPreparers.add(preparer);
+    }
+
+    private void prepareChunk(Chunk chunk) {
+        for (ChunkPreparer preparer : chunkPreparers) {
+            preparer.prepare(chunk);
+        }
     }
 
+    private void discardPreparedChunk(Vector3ic pos) {
+        for (ChunkPreparer preparer : chunkPreparers) {
+            preparer.discard(pos);
+        }
+    }
+
+    /**
+     * Shuts the loading pipeline down, and tells the preparers about the chunks it was still processing.
+     */
+    private void shutdownLoadingPipeline() {
+        List<Vector3ic> processing = Lists.newArrayList(loadingPipeline.getProcessingPosition());
+        loadingPipeline.shutdown();
+        processing.forEach(this::discardPreparedChunk);
+    }
 
     @Override
     public void restart() {
@@ -349,7 +398,7 @@ public void restart() {
 
     @Override
     public void shutdown() {
-        loadingPipeline.shutdown();
+        shutdownLoadingPipeline();
         unloadRequestTaskMaster.shutdown(new ChunkUnloadRequest(), true);
     }
 
@@ -387,7 +436,7 @@ public boolean reloadChunk(Vector3ic coords) {
     @Override
     public void purgeWorld() {
         ChunkMonitor.fireChunkProviderDisposed(this);
-        loadingPipeline.shutdown();
+        shutdownLoadingPipeline();
         unloadRequestTaskMaster.shutdown(new ChunkUnloadRequest(), true);
         getAllChunks().stream().filter(Chunk::isReady).forEach(chunk -> {
             worldEntity.send(new BeforeChunkUnload(chunk.getPosition()));
@@ -395,6 +444,7 @@ public void purgeWorld() {
             chunk.dispose();
         });
         chunkCache.clear();
+        pendingChunks.clear();
         storageManager.deleteWorld();
         worldEntity.send(new PurgeWorldEvent());
 
@@ -409,6 +459,7 @@ public void purgeWorld() {
                     return LightMerger.merge(localChunks);
                 }, LightMerger::requiredChunks
             ))
+            .addStage(ChunkTaskProvider.create("Chunk prepare", this::prepareChunk))
             .addStage(ChunkTaskProvider.create("Chunk ready", readyChunks::add));
         unloadRequestTaskMaster = TaskMaster.createFIFOTaskMaster("Chunk-Unloader", 8);
         ChunkMonitor.fireChunkProviderInitialized(this);
@@ -444,6 +495,15 @@ public void setRelevanceSystem(RelevanceSystem relevanceSystem) {
                             return LightMerger.merge(localChunks);
                         }, LightMerger::requiredChunks
                 ))
+                .addStage(ChunkTaskProvider.create("Chunk prepare", this::prepareChunk))
                 .addStage(ChunkTaskProvider.create("Chunk ready", readyChunks::add));
     }
+
+    /**
+     * The entities of a chunk in the pipeline, set by its generator task.
+     */
+    private static final class PendingChunk {
+        private volatile ChunkStore store;
+        private volatile List<EntityStore> generatedEntities;
+    }
 }
@@ -3,6 +3,7 @@
 
 package org.terasology.engine.world.chunks.pipeline;
 
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.SettableFuture;
 import org.joml.Vector3ic;
 import org.terasology.engine.world.chunks.pipeline.stages.ChunkTask;
@@ -18,10 +19,16 @@ public final class ChunkProcessingInfo {
 
     private Chunk chunk;
     private ChunkTaskProvider chunkTaskProvider;
+    private int stageIndex = -1;
 
     private Future<Chunk> currentFuture;
     private org.terasology.engine.world.chunks.pipeline.stages.ChunkTask chunkTask;
 
+    private List<Vector3ic> requirements;
+    private Chunk[] requiredChunks;
+    private int unmetRequirements;
+    private final List<ChunkProcessingInfo> dependents = Lists.newArrayList();
+
     public ChunkProcessingInfo(Vector3ic position, SettableFuture<Chunk> externalFuture) {
         this.position = position;
         this.externalFuture = externalFuture;
@@ -51,6 +58,13 @@ public void setChunkTaskProvider(ChunkTaskProvider chunkTaskProvider) {
         this.chunkTaskProvider = chunkTaskProvider;
     }
 
+    /**
+     * @return index of the current stage in the pipeline, -1 while the chunk is generated or loaded.
+     */
+    public int getStageIndex() {
+        return stageIndex;
+    }
+
     public Future<Chunk> getCurrentFuture() {
         return currentFuture;
     }
@@ -68,19 +82,12 @@ public void setChunkTask(ChunkTask chunkTask) {
     }
 
     boolean hasNextStage(List<ChunkTaskProvider> stages) {
-        if (chunkTaskProvider == null) {
-            return true;
-        } else {
-            return stages.indexOf(chunkTaskProvider) != stages.size() - 1;
-        }
+        return stageIndex != stages.size() - 1;
     }
 
     void nextStage(List<ChunkTaskProvider> stages) {
-        int nextStageIndex =
-                chunkTaskProvider == null
-                        ? 0
-                        : stages.indexOf(chunkTaskProvider) + 1;
-        chunkTaskProvider = stages.get(nextStageIndex);
+        stageIndex++;
+        chunkTaskProvider = stages.get(stageIndex);
     }
 
     void endProcessing() {
@@ -97,5 +104,85 @@ ChunkTask makeChunkTask() {
     void resetTaskState() {
         currentFuture = null;
         chunkTask = null;
+        requirements = null;
+        requiredChunks = null;
+        unmetRequirements = 0;
+    }
+
+    /**
+     * Starts tracking the requirements of the current chunk task, all of them unmet.
+     */
+    List<Vector3ic> beginAwaitingRequirements() {
+        requirements = chunkTask.getRequirements();
+        requiredChunks = new Chunk[requirements.size()];
+        unmetRequirements = requirements.size();
+        return requirements;
+    }
+
+    /**
+     * @return whether the current chunk task still waits for the given position.
+     */
+    boolean isAwaiting(Vector3ic pos) {
+        int index = requirementIndex(pos);
+        return index >= 0 && requiredChunks[index] == null;
+    }
+
+    boolean isAwaitingRequirements() {
+        return chunkTask != null && currentFuture == null && requiredChunks != null;
+    }
+
+    /**
+     * Marks the requirement at the given position as met.
+     *
+     * @return true if this was the last unmet requirement.
+     */
+    boolean satisfyRequirement(Vector3ic pos, Chunk requiredChunk) {
+        int index = requirementIndex(pos);
+        if (index < 0 || requiredChunks[index] != null) {
+            return false;
+        }
+        requiredChunks[index] = requiredChunk;
+        return --unmetRequirements == 0;
+    }
+
+    /**
+     * Marks the requirement at the given position as unmet again, if it was met with the given chunk.
+     *
+     * @return true if the requirement was reverted.
+     */
+    boolean revokeRequirement(Vector3ic pos, Chunk requiredChunk) {
+        int index = requirementIndex(pos);
+        if (index < 0 || requiredChunks[index] != requiredChunk) {
+            return false;
+        }
+        requiredChunks[index] = null;
+        unmetRequirements++;
+        return true;
+    }
+
+    int getUnmetRequirements() {
+        return unmetRequirements;
+    }
+
+    List<Vector3ic> getRequirements() {
+        return requirements;
+    }
+
+    Chunk[] getRequiredChunks() {
+        return requiredChunks;
+    }
+
+    /**
+     * @return chunk processing infos which met one of their requirements with this chunk.
+     */
+    List<ChunkProcessingInfo> getDependents() {
+        return dependents;
+    }
+
+    private int requirementIndex(Vector3ic pos) {
+        if (requirements == null) {
+            return -1;
+        }
+        return requirements.indexOf(pos);
     }
 }
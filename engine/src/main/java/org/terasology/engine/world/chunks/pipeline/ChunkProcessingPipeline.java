@@ -13,24 +13,20 @@
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.monitoring.ThreadActivity;
 import org.terasology.engine.monitoring.ThreadMonitor;
-import org.terasology.engine.utilities.ReflectionUtil;
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.pipeline.stages.ChunkTask;
 import org.terasology.engine.world.chunks.pipeline.stages.ChunkTaskProvider;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
-import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.RunnableFuture;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.FutureTask;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -40,149 +36,222 @@
  * Manages execution of chunk processing.
  * <p>
  * {@link Chunk}s will processing on stages {@link ChunkProcessingPipeline#addStage}
+ * <p>
+ * Every chunk task counts the requirements it still waits for. A task is registered as a waiter at each missing
+ * position and is woken only when the chunk at that position reaches the task's stage, or when the chunk provider
+ * reports a chunk there through {@link #onChunkAvailable}. Finishing a stage thus costs work proportional to the
+ * chunks depending on it rather than to all chunks in flight. Tasks run on a {@link ChunkTaskExecutor} ordered by the
+ * relevance comparator.
  */
 public class ChunkProcessingPipeline {
 
     @SuppressWarnings("UnstableApiUsage")
     private static final int NUM_TASK_THREADS = constrainToRange(
             Runtime.getRuntime().availableProcessors() - 1, 1, 8);
+    private static final String QUEUE_NAME = "Chunk-Processing";
+    private static final String WAITING_QUEUE_NAME = "Chunk-Processing-Waiting";
     private static final Logger logger = LoggerFactory.getLogger(ChunkProcessingPipeline.class);
 
     private final List<ChunkTaskProvider> stages = Lists.newArrayList();
-    private final Thread reactor;
-    private final CompletionService<Chunk> chunkProcessor;
-    private final ThreadPoolExecutor executor;
+    private final ChunkTaskExecutor executor;
     private final Function<Vector3ic, Chunk> chunkProvider;
     private final Map<Vector3ic, ChunkProcessingInfo> chunkProcessingInfoMap = Maps.newConcurrentMap();
-    private int threadIndex;
+    /**
+     * Chunk tasks waiting for the chunk at a position, guarded by {@code this}.
+     */
+    private final Map<Vector3ic, List<ChunkProcessingInfo>> requirementWaiters = Maps.newHashMap();
+    private volatile int waitingTasks;
 
     /**
      * Create ChunkProcessingPipeline.
      */
     public ChunkProcessingPipeline(Function<Vector3ic, Chunk> chunkProvider, Comparator<Future<Chunk>> comparable) {
         this.chunkProvider = chunkProvider;
-
-        executor = new ThreadPoolExecutor(
-                NUM_TASK_THREADS,
-                NUM_TASK_THREADS, 0L,
-                TimeUnit.MILLISECONDS,
-                new PriorityBlockingQueue(800, unwrappingComporator(comparable)),
-                this::threadFactory,
-                this::rejectQueueHandler) {
-            @Override
-            protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
-                RunnableFuture<T> newTaskFor = super.newTaskFor(callable);
-                return new PositionFuture<>(newTaskFor, ((PositionalCallable) callable).getPosition());
-            }
-        };
+        executor = new ChunkTaskExecutor("Chunk-Processing", NUM_TASK_THREADS, comparable, this::onStageDone);
         logger.debug("allocated {} threads", NUM_TASK_THREADS);
-        chunkProcessor = new ExecutorCompletionService<>(executor,
-                new PriorityBlockingQueue<>(800, comparable));
-        reactor = new Thread(this::chunkTaskHandler);
-        reactor.setDaemon(true);
-        reactor.setName("Chunk-Processing-Reactor");
-        reactor.start();
+        ThreadMonitor.registerQueue(QUEUE_NAME, executor::getQueueSize);
+        ThreadMonitor.registerQueue(WAITING_QUEUE_NAME, () -> waitingTasks);
     }
 
     /**
-     * BlackMagic method: {@link ExecutorCompletionService} wraps task with QueueingFuture (private access)
-     * there takes wrapped task for comparing in {@link ThreadPoolExecutor}
+     * Called on the worker thread which ran the future.
      */
-    private Comparator unwrappingComporator(Comparator<Future<Chunk>> comparable) {
-        return (o1, o2) -> {
-                Object unwrapped1 = ReflectionUtil.readField(o1, "task");
-                Object unwrapped2 = ReflectionUtil.readField(o2, "task");
-                return comparable.compare((Future<Chunk>) unwrapped1, (Future<Chunk>) unwrapped2);
-        };
+    private void onStageDone(PositionFuture<Chunk> future) {
+        ChunkProcessingInfo finished = null;
+        synchronized (this) {
+            ChunkProcessingInfo chunkProcessingInfo = chunkProcessingInfoMap.get(future.getPosition());
+            if (chunkProcessingInfo == null || chunkProcessingInfo.getCurrentFuture() != future) {
+                return; // chunk processing was cancelled.
+            }
+            try {
+                Chunk chunk = future.get();
+                chunkProcessingInfo.resetTaskState();
+                chunkProcessingInfo.setChunk(chunk);
+
+                //Move by stage.
+                if (chunkProcessingInfo.hasNextStage(stages)) {
+                    chunkProcessingInfo.nextStage(stages);
+                    chunkProcessingInfo.makeChunkTask();
+                    awaitRequirements(chunkProcessingInfo);
+                    wakeWaiters(chunkProcessingInfo);
+                } else {
+                    // haven't next stage
+                    cleanup(chunkProcessingInfo);
+                    wakeWaiters(chunkProcessingInfo);
+                    finished = chunkProcessingInfo;
+                }
+            } catch (ExecutionException e) {
+                String stageName =
+                        chunkProcessingInfo.getChunkTaskProvider() == null
+                                ? "Generation or Loading"
+                                : chunkProcessingInfo.getChunkTaskProvider().getName();
+                logger.error(
+                        String.format("ChunkTask at position %s and stage [%s] catch error: ",
+                                chunkProcessingInfo.getPosition(), stageName),
+                        e);
+                chunkProcessingInfo.getExternalFuture().setException(e);
+            } catch (CancellationException ignored) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (finished != null) {
+            // completed outside the lock, listeners of the future run on this thread.
+            finished.endProcessing();
+        }
     }
 
     /**
-     * Reactor thread. Handles all ChunkTask dependency logic and running.
+     * Registers the requirements of the current chunk task, running it right away if all of them are available.
      */
-    private void chunkTaskHandler() {
-        try {
-            while (!executor.isTerminated()) {
-                PositionFuture<Chunk> future = (PositionFuture<Chunk>) chunkProcessor.take();
-                ChunkProcessingInfo chunkProcessingInfo = chunkProcessingInfoMap.get(future.getPosition());
-                if (chunkProcessingInfo == null) {
-                    continue; // chunk processing was cancelled.
+    private void awaitRequirements(ChunkProcessingInfo info) {
+        List<Vector3ic> requirements = info.beginAwaitingRequirements();
+        for (Vector3ic pos : requirements) {
+            Chunk chunk = getChunkBy(info, pos);
+            if (chunk != null) {
+                info.satisfyRequirement(pos, chunk);
+                ChunkProcessingInfo candidate = chunkProcessingInfoMap.get(pos);
+                if (candidate != null && candidate != info && candidate.getChunk() == chunk) {
+                    candidate.getDependents().add(info);
                 }
-                onStageDone(future, chunkProcessingInfo);
-            }
-        } catch (InterruptedException e) {
-            if (!executor.isTerminated()) {
-                logger.error("Reactor thread was interrupted", e);
+            } else {
+                requirementWaiters.computeIfAbsent(pos, k -> Lists.newArrayListWithCapacity(4)).add(info);
+                waitingTasks++;
             }
-            reactor.interrupt();
+        }
+        if (info.getUnmetRequirements() == 0) {
+            dispatch(info);
         }
     }
 
-    private void onStageDone(PositionFuture<Chunk> future, ChunkProcessingInfo chunkProcessingInfo) throws InterruptedException {
-        try {
-            chunkProcessingInfo.resetTaskState();
-            chunkProcessingInfo.setChunk(future.get());
-
-            //Move by stage.
-            if (chunkProcessingInfo.hasNextStage(stages)) {
-                chunkProcessingInfo.nextStage(stages);
-                chunkProcessingInfo.makeChunkTask();
-            } else {
-                // haven't next stage
-                chunkProcessingInfo.endProcessing();
-                cleanup(chunkProcessingInfo);
+    /**
+     * Meets the requirements of tasks waiting for the chunk of the given info, if it is now far enough in the
+     * pipeline.
+     */
+    private void wakeWaiters(ChunkProcessingInfo candidate) {
+        List<ChunkProcessingInfo> waiters = requirementWaiters.get(candidate.getPosition());
+        if (waiters == null) {
+            return;
+        }
+        List<ChunkProcessingInfo> ready = null;
+        Iterator<ChunkProcessingInfo> iterator = waiters.iterator();
+        while (iterator.hasNext()) {
+            ChunkProcessingInfo waiter = iterator.next();
+            if (!isActive(waiter)) {
+                iterator.remove();
+                waitingTasks--;
+            } else if (candidate.getStageIndex() >= waiter.getStageIndex()) {
+                iterator.remove();
+                waitingTasks--;
+                candidate.getDependents().add(waiter);
+                if (waiter.satisfyRequirement(candidate.getPosition(), candidate.getChunk())) {
+                    if (ready == null) {
+                        ready = Lists.newArrayList();
+                    }
+                    ready.add(waiter);
+                }
             }
-            processChunkTasks();
-
-        } catch (ExecutionException e) {
-            String stageName =
-                    chunkProcessingInfo.getChunkTaskProvider() == null
-                            ? "Generation or Loading"
-                            : chunkProcessingInfo.getChunkTaskProvider().getName();
-            logger.error(
-                    String.format("ChunkTask at position %s and stage [%s] catch error: ",
-                            chunkProcessingInfo.getPosition(), stageName),
-                    e);
-            chunkProcessingInfo.getExternalFuture().setException(e);
-        } catch (CancellationException ignored) {
+        }
+        if (waiters.isEmpty()) {
+            requirementWaiters.remove(candidate.getPosition());
+        }
+        if (ready != null) {
+            ready.forEach(this::dispatch);
         }
     }
 
-    private void processChunkTasks() {
-        for (ChunkProcessingInfo info : chunkProcessingInfoMap.values()) {
-            processChunkInfo(info);
+    /**
+     * Meets the requirements of tasks waiting for the given position, now that the chunk provider has a chunk there.
+     * Chunk providers have to call this whenever they put a chunk into their cache, as it is the only way tasks waiting
+     * for a chunk which is not processed by this pipeline, or which already left it, learn about that chunk.
+     *
+     * @param pos the position of the chunk which became available
+     */
+    public void onChunkAvailable(Vector3ic pos) {
+        synchronized (this) {
+            List<ChunkProcessingInfo> waiters = requirementWaiters.get(pos);
+            if (waiters == null) {
+                return;
+            }
+            List<ChunkProcessingInfo> ready = Lists.newArrayList();
+            satisfyWaiters(pos, waiters, ready);
+            if (waiters.isEmpty()) {
+                requirementWaiters.remove(pos);
+            }
+            ready.forEach(this::dispatch);
         }
     }
 
-    private void processChunkInfo(ChunkProcessingInfo info) {
-        if (info.getChunkTask() == null) {
-            return;
-        }
-        if (info.getCurrentFuture() != null) {
-            return;
+    /**
+     * Meets the requirement of the waiters for the position with the chunk provider's chunk there, if it has one.
+     * Drops waiters which are no longer active.
+     *
+     * @param ready receives the waiters which have no unmet requirements left
+     */
+    private void satisfyWaiters(Vector3ic pos, List<ChunkProcessingInfo> waiters, List<ChunkProcessingInfo> ready) {
+        Chunk chunk = chunkProvider.apply(pos);
+        Iterator<ChunkProcessingInfo> iterator = waiters.iterator();
+        while (iterator.hasNext()) {
+            ChunkProcessingInfo waiter = iterator.next();
+            if (!isActive(waiter)) {
+                iterator.remove();
+                waitingTasks--;
+            } else if (chunk != null) {
+                iterator.remove();
+                waitingTasks--;
+                if (waiter.satisfyRequirement(pos, chunk)) {
+                    ready.add(waiter);
+                }
+            }
         }
+    }
+
+    private boolean isActive(ChunkProcessingInfo info) {
+        return chunkProcessingInfoMap.get(info.getPosition()) == info && info.isAwaitingRequirements();
+    }
+
+    private void dispatch(ChunkProcessingInfo info) {
         ChunkTask chunkTask = info.getChunkTask();
-        List<Vector3ic> requirements = chunkTask.getRequirements();
-        List<Chunk> requiredChunks = Lists.newArrayListWithCapacity(requirements.size());
-        for (Vector3ic pos : requirements) {
-            Chunk chunk = getChunkBy(info.getChunkTaskProvider(), pos);
-            if (chunk != null) {
-                requiredChunks.add(chunk);
-            } else {
-                return;
+        List<Vector3ic> requirements = info.getRequirements();
+        Chunk[] requiredChunks = info.getRequiredChunks();
+        for (int i = 0; i < requiredChunks.length; i++) {
+            // a required chunk may have been replaced by a later stage of its own processing.
+            Chunk current = getChunkBy(info, requirements.get(i));
+            if (current != null) {
+                requiredChunks[i] = current;
             }
         }
-        info.setCurrentFuture(runTask(chunkTask, requiredChunks));
+        info.setCurrentFuture(runTask(chunkTask, Arrays.asList(requiredChunks.clone())));
     }
 
-    private Chunk getChunkBy(ChunkTaskProvider requiredStage, Vector3ic position) {
+    private Chunk getChunkBy(ChunkProcessingInfo requirer, Vector3ic position) {
         Chunk chunk = chunkProvider.apply(position);
         if (chunk == null) {
             ChunkProcessingInfo candidate = chunkProcessingInfoMap.get(position);
             if (candidate == null) {
                 return null;
             }
-            ChunkTaskProvider candidateCurrentStage = candidate.getChunkTaskProvider();
-            if (stages.indexOf(candidateCurrentStage) >= stages.indexOf(requiredStage)) {
+            if (candidate.getStageIndex() >= requirer.getStageIndex()) {
                 chunk = candidate.getChunk();
             }
         }
@@ -190,22 +259,17 @@ private Chunk getChunkBy(ChunkTaskProvider requiredStage, Vector3ic position) {
     }
 
     private Future<Chunk> runTask(ChunkTask task, List<Chunk> chunks) {
-        return chunkProcessor.submit(new PositionalCallable(() -> {
+        return submit(() -> {
             try (ThreadActivity ignored = ThreadMonitor.startThreadActivity(task.getName())) {
                 return task.apply(chunks);
             }
-        }, task.getPosition()));
-    }
-
-    private Thread threadFactory(Runnable runnable) {
-        Thread thread = new Thread(runnable);
-        thread.setDaemon(true);
-        thread.setName("Chunk-Processing-" + threadIndex++);
-        return thread;
+        }, task.getPosition());
     }
 
-    private void rejectQueueHandler(Runnable runnable, ThreadPoolExecutor threadPoolExecutor) {
-        logger.error("Cannot run {}  because queue is full", runnable);
+    private PositionFuture<Chunk> submit(Callable<Chunk> callable, Vector3ic position) {
+        PositionFuture<Chunk> future = new PositionFuture<>(new FutureTask<>(callable), position);
+        executor.execute(future);
+        return future;
     }
 
     /**
@@ -229,16 +293,17 @@ public ChunkProcessingPipeline addStage(ChunkTaskProvider stage) {
      */
     public ListenableFuture<Chunk> invokeGeneratorTask(Vector3ic position, Supplier<Chunk> generatorTask) {
         Preconditions.checkState(!stages.isEmpty(), "ChunkProcessingPipeline must to have at least one stage");
-        ChunkProcessingInfo chunkProcessingInfo = chunkProcessingInfoMap.get(position);
-        if (chunkProcessingInfo != null) {
-            return chunkProcessingInfo.getExternalFuture();
-        } else {
-            SettableFuture<Chunk> exitFuture = SettableFuture.create();
-            chunkProcessingInfo = new ChunkProcessingInfo(position, exitFuture);
-            chunkProcessingInfoMap.put(position, chunkProcessingInfo);
-            chunkProcessingInfo.setCurrentFuture(chunkProcessor.submit(new PositionalCallable(generatorTask::get,
-                    position)));
-            return exitFuture;
+        synchronized (this) {
+            ChunkProcessingInfo chunkProcessingInfo = chunkProcessingInfoMap.get(position);
+            if (chunkProcessingInfo != null) {
+                return chunkProcessingInfo.getExternalFuture();
+            } else {
+                SettableFuture<Chunk> exitFuture = SettableFuture.create();
+                chunkProcessingInfo = new ChunkProcessingInfo(position, exitFuture);
+                chunkProcessingInfoMap.put(position, chunkProcessingInfo);
+                chunkProcessingInfo.setCurrentFuture(submit(generatorTask::get, position));
+                return exitFuture;
+            }
         }
     }
 
@@ -255,15 +320,22 @@ public Future<Chunk> invokePipeline(Chunk chunk) {
     public void shutdown() {
         executor.shutdown();
         chunkProcessingInfoMap.keySet().forEach(this::stopProcessingAt);
-        chunkProcessingInfoMap.clear();
-        executor.getQueue().clear();
-        reactor.interrupt();
+        synchronized (this) {
+            chunkProcessingInfoMap.clear();
+            requirementWaiters.clear();
+            waitingTasks = 0;
+        }
+        ThreadMonitor.unregisterQueue(QUEUE_NAME);
+        ThreadMonitor.unregisterQueue(WAITING_QUEUE_NAME);
     }
 
     public void restart() {
-        chunkProcessingInfoMap.clear();
-        executor.getQueue().clear();
-        chunkProcessingInfoMap.keySet().forEach(this::stopProcessingAt);
+        synchronized (this) {
+            chunkProcessingInfoMap.clear();
+            requirementWaiters.clear();
+            waitingTasks = 0;
+        }
+        executor.clear();
     }
 
     /**
@@ -272,9 +344,14 @@ public void restart() {
      * @param pos position of chunk to stop processing.
      */
     public void stopProcessingAt(Vector3ic pos) {
-        ChunkProcessingInfo removed = chunkProcessingInfoMap.remove(pos);
-        if (removed == null) {
-            return;
+        ChunkProcessingInfo removed;
+        synchronized (this) {
+            removed = chunkProcessingInfoMap.remove(pos);
+            if (removed == null) {
+                return;
+            }
+            revokeDependents(removed);
+            removeWaiter(removed);
         }
 
         removed.getExternalFuture().cancel(true);
@@ -290,6 +367,36 @@ public void stopProcessingAt(Vector3ic pos) {
         }
     }
 
+    /**
+     * Tasks which met a requirement with the chunk of a stopped info, but did not start yet, have to wait for that
+     * position again.
+     */
+    private void revokeDependents(ChunkProcessingInfo removed) {
+        for (ChunkProcessingInfo dependent : removed.getDependents()) {
+            if (isActive(dependent) && dependent.revokeRequirement(removed.getPosition(), removed.getChunk())) {
+                requirementWaiters.computeIfAbsent(removed.getPosition(), k -> Lists.newArrayListWithCapacity(4))
+                        .add(dependent);
+                waitingTasks++;
+            }
+        }
+        removed.getDependents().clear();
+    }
+
+    private void removeWaiter(ChunkProcessingInfo removed) {
+        if (!removed.isAwaitingRequirements()) {
+            return;
+        }
+        for (Vector3ic pos : removed.getRequirements()) {
+            List<ChunkProcessingInfo> waiters = requirementWaiters.get(pos);
+            if (removed.isAwaiting(pos) && waiters != null && waiters.remove(removed)) {
+                waitingTasks--;
+                if (waiters.isEmpty()) {
+                    requirementWaiters.remove(pos);
+                }
+            }
+        }
+    }
+
     /**
      * Cleanuping Chunk processing after done.
      *
@@ -317,26 +424,4 @@ public boolean isPositionProcessing(Vector3ic pos) {
     public Iterable<Vector3ic> getProcessingPosition() {
         return chunkProcessingInfoMap.keySet();
     }
-
-    /**
-     * Dummy callable for passthru position for {@link java.util.concurrent.ThreadPoolExecutor}#newTaskFor
-     */
-    private static final class PositionalCallable implements Callable<Chunk> {
-        private final Callable<Chunk> callable;
-        private final Vector3ic position;
-
-        private PositionalCallable(Callable<Chunk> callable, Vector3ic position) {
-            this.callable = callable;
-            this.position = position;
-        }
-
-        public Vector3ic getPosition() {
-            return position;
-        }
-
-        @Override
-        public Chunk call() throws Exception {
-            return callable.call();
-        }
-    }
 }
@@ -0,0 +1,166 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.world.chunks.pipeline;
+
+import org.terasology.engine.world.chunks.Chunk;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Work-stealing executor for {@link ChunkProcessingPipeline} tasks.
+ * <p>
+ * Every worker owns a deque ordered by the relevance comparator of the pipeline. Tasks are pushed to the worker
+ * chosen by their chunk position, so consecutive stages of one chunk tend to stay on one thread. A worker whose own
+ * deque is empty steals the most relevant head from the other workers before going idle.
+ */
+final class ChunkTaskExecutor {
+
+    private final Worker[] workers;
+    private final Comparator<Future<Chunk>> comparator;
+    private final Consumer<PositionFuture<Chunk>> completionHandler;
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final Object signal = new Object();
+    private volatile boolean shutdown;
+
+    /**
+     * @param name prefix of the worker thread names
+     * @param threads number of worker threads
+     * @param comparator relevance ordering of the tasks, most relevant first
+     * @param completionHandler called on the worker thread after each task has run, also for cancelled ones
+     */
+    ChunkTaskExecutor(String name, int threads, Comparator<Future<Chunk>> comparator,
+                      Consumer<PositionFuture<Chunk>> completionHandler) {
+        this.comparator = comparator;
+        this.completionHandler = completionHandler;
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(workers[i]::run);
+            thread.setDaemon(true);
+            thread.setName(name + "-" + i);
+            thread.start();
+        }
+    }
+
+    void execute(PositionFuture<Chunk> task) {
+        if (shutdown) {
+            task.cancel(false);
+            return;
+        }
+        Worker owner = workers[Math.floorMod(task.getPosition().hashCode(), workers.length)];
+        owner.push(task);
+        synchronized (signal) {
+            queueSize.incrementAndGet();
+            signal.notify();
+        }
+    }
+
+    /**
+     * @return number of tasks waiting for a worker, including cancelled tasks which were not yet discarded
+     */
+    int getQueueSize() {
+        // a task may be polled before the submitter has counted it
+        return Math.max(0, queueSize.get());
+    }
+
+    void clear() {
+        for (Worker worker : workers) {
+            queueSize.addAndGet(-worker.clear());
+        }
+    }
+
+    void shutdown() {
+        shutdown = true;
+        clear();
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    boolean isShutdown() {
+        return shutdown;
+    }
+
+    private PositionFuture<Chunk> steal(Worker thief) {
+        Worker victim = null;
+        PositionFuture<Chunk> best = null;
+        for (int i = 1; i < workers.length; i++) {
+            Worker candidate = workers[(thief.index + i) % workers.length];
+            PositionFuture<Chunk> head = candidate.peek();
+            if (head != null && (best == null || comparator.compare(head, best) < 0)) {
+                best = head;
+                victim = candidate;
+            }
+        }
+        return victim != null ? victim.poll() : null;
+    }
+
+    private final class Worker {
+        private final int index;
+        private final PriorityQueue<PositionFuture<Chunk>> deque;
+
+        private Worker(int index) {
+            this.index = index;
+            this.deque = new PriorityQueue<>(64, comparator);
+        }
+
+        private synchronized void push(PositionFuture<Chunk> task) {
+            deque.add(task);
+        }
+
+        private synchronized PositionFuture<Chunk> peek() {
+            return deque.peek();
+        }
+
+        private synchronized PositionFuture<Chunk> poll() {
+            PositionFuture<Chunk> task = deque.poll();
+            if (task != null) {
+                queueSize.decrementAndGet();
+            }
+            return task;
+        }
+
+        private synchronized int clear() {
+            int size = deque.size();
+            deque.forEach(task -> task.cancel(false));
+            deque.clear();
+            return size;
+        }
+
+        private void run() {
+            while (!shutdown) {
+                PositionFuture<Chunk> task = poll();
+                if (task == null) {
+                    task = steal(this);
+                }
+                if (task == null) {
+                    awaitWork();
+                    continue;
+                }
+                task.run();
+                // cancel(true) on a running task interrupts this worker, the interrupt is meant for that task only
+                Thread.interrupted();
+                completionHandler.accept(task);
+            }
+        }
+
+        private void awaitWork() {
+            synchronized (signal) {
+                if (queueSize.get() == 0 && !shutdown) {
+                    try {
+                        signal.wait();
+                    } catch (InterruptedException e) {
+                        // workers are stopped through the shutdown flag
+                    }
+                }
+            }
+        }
+    }
+}
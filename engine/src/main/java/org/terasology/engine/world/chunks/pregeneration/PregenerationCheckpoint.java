@@ -0,0 +1,92 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.pregeneration;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockRegionc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The progress of a world pregeneration which is saved, so an interrupted pregeneration can resume.
+ * <p>
+ * The columns of the area are generated in a fixed order, so the progress is the number of leading columns which are
+ * completely saved.
+ */
+public class PregenerationCheckpoint {
+    private static final Logger logger = LoggerFactory.getLogger(PregenerationCheckpoint.class);
+    private static final Gson GSON = new Gson();
+
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int maxX;
+    private int maxY;
+    private int maxZ;
+    private int savedColumns;
+
+    PregenerationCheckpoint() {
+        // for Gson
+    }
+
+    public PregenerationCheckpoint(BlockRegionc chunkArea, int savedColumns) {
+        this.minX = chunkArea.minX();
+        this.minY = chunkArea.minY();
+        this.minZ = chunkArea.minZ();
+        this.maxX = chunkArea.maxX();
+        this.maxY = chunkArea.maxY();
+        this.maxZ = chunkArea.maxZ();
+        this.savedColumns = savedColumns;
+    }
+
+    /**
+     * @return the area of the pregeneration, in chunk coordinates
+     */
+    public BlockRegion getChunkArea() {
+        return new BlockRegion(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public int getSavedColumns() {
+        return savedColumns;
+    }
+
+    /**
+     * @return the number of columns of the area already saved according to the checkpoint at the path, 0 if there is
+     *         no readable checkpoint or if it belongs to another area
+     */
+    public static int loadSavedColumns(Path path, BlockRegionc chunkArea) {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            PregenerationCheckpoint checkpoint = GSON.fromJson(reader, PregenerationCheckpoint.class);
+            if (checkpoint != null && checkpoint.getChunkArea().equals(new BlockRegion(chunkArea))) {
+                return checkpoint.savedColumns;
+            }
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Failed to read the pregeneration checkpoint {}, starting from scratch", path, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file first, so an interruption never leaves a broken checkpoint.
+     */
+    public void save(Path path) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+            GSON.toJson(this, writer);
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,83 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.pregeneration;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the chunks passing each stage of the world pregeneration, and the time spent in each stage.
+ * <p>
+ * Stages may run on several threads at once, so a stage can pass more chunks per second than its threads pass on
+ * their own.
+ */
+public class PregenerationStats {
+
+    public enum Stage {
+        /** Rasterizing and deflating the chunks, on the pool */
+        GENERATE,
+        /** Handing the chunks and their entities to the storage manager, on the main thread */
+        STORE,
+        /** Waiting for the storage manager to write the chunks */
+        SAVE
+    }
+
+    private final Map<Stage, LongAdder> chunks = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> nanos = new EnumMap<>(Stage.class);
+    private final long startTime = System.nanoTime();
+
+    public PregenerationStats() {
+        for (Stage stage : Stage.values()) {
+            chunks.put(stage, new LongAdder());
+            nanos.put(stage, new LongAdder());
+        }
+    }
+
+    /**
+     * Records that chunks passed a stage.
+     *
+     * @param startTime the {@link System#nanoTime()} when the stage started working on the chunks
+     */
+    public void record(Stage stage, int chunkCount, long startTime) {
+        chunks.get(stage).add(chunkCount);
+        nanos.get(stage).add(System.nanoTime() - startTime);
+    }
+
+    public long getChunks(Stage stage) {
+        return chunks.get(stage).sum();
+    }
+
+    /**
+     * @return the chunks which passed the stage per second since the pregeneration started
+     */
+    public double getChunksPerSecond(Stage stage) {
+        return perSecond(getChunks(stage), System.nanoTime() - startTime);
+    }
+
+    /**
+     * @return the chunks which passed the stage per second the stage was busy, summed over all threads
+     */
+    public double getChunksPerBusySecond(Stage stage) {
+        return perSecond(getChunks(stage), nanos.get(stage).sum());
+    }
+
+    private static double perSecond(long count, long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            text.append(String.format("%s: %d chunks, %.1f chunks/s, %.1f chunks/s per thread%n",
+                    stage.name().toLowerCase(), getChunks(stage), getChunksPerSecond(stage),
+                    getChunksPerBusySecond(stage)));
+        }
+        return text.toString();
+    }
+}
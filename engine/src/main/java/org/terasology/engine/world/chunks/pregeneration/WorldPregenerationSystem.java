@@ -0,0 +1,111 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.pregeneration;
+
+import org.terasology.engine.core.PathManager;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.game.Game;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.persistence.StorageManager;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.engine.world.generator.WorldGenerator;
+
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Console commands to pregenerate the chunks of an area before players get there, see {@link WorldPregenerator}.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+public class WorldPregenerationSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    private static final String CHECKPOINT_FILE = "pregeneration.json";
+
+    @In
+    private WorldGenerator worldGenerator;
+    @In
+    private BlockManager blockManager;
+    @In
+    private ExtraBlockDataManager extraDataManager;
+    @In
+    private StorageManager storageManager;
+    @In
+    private ChunkProvider chunkProvider;
+    @In
+    private Game game;
+
+    private WorldPregenerator pregenerator;
+    private ForkJoinPool pool;
+
+    @Override
+    public void update(float delta) {
+        if (pregenerator == null) {
+            return;
+        }
+        pregenerator.update();
+        if (pregenerator.isDone()) {
+            pool.shutdown();
+            pregenerator = null;
+            pool = null;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Command(shortDescription = "Generates and saves the chunks of an area",
+            helpText = "Generates the chunks in the given radius around a position and saves them, using all cores. "
+                    + "Chunks which already exist are kept. A stopped or interrupted pregeneration of the same area "
+                    + "resumes where it stopped.",
+            runOnServer = true, requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String pregenerateWorld(@CommandParam("centerX") int centerX, @CommandParam("centerZ") int centerZ,
+                                   @CommandParam("radius") int radius, @CommandParam("minY") int minY,
+                                   @CommandParam("maxY") int maxY) {
+        if (pregenerator != null) {
+            return "A pregeneration is already running";
+        }
+        if (radius < 0 || minY > maxY) {
+            return "The radius must not be negative and minY must not be above maxY";
+        }
+        BlockRegion chunkArea = Chunks.toChunkRegion(new BlockRegion(centerX - radius, minY, centerZ - radius,
+                centerX + radius, maxY, centerZ + radius));
+        Path checkpointPath = PathManager.getInstance().getSavePath(game.getName()).resolve(CHECKPOINT_FILE);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        pregenerator = new WorldPregenerator(chunkArea, worldGenerator, blockManager, extraDataManager,
+                storageManager, chunkProvider, checkpointPath, pool);
+        return "Pregenerating " + pregenerator.getColumnCount() + " columns of chunks in " + chunkArea;
+    }
+
+    @Command(shortDescription = "Shows the progress of the world pregeneration",
+            runOnServer = true, requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String pregenerationStatus() {
+        if (pregenerator == null) {
+            return "No pregeneration is running";
+        }
+        return pregenerator.getStatus();
+    }
+
+    @Command(shortDescription = "Stops the world pregeneration",
+            helpText = "Stops generating further columns. The columns already being generated are still saved.",
+            runOnServer = true, requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String stopPregeneration() {
+        if (pregenerator == null) {
+            return "No pregeneration is running";
+        }
+        pregenerator.stop();
+        return "Stopping the pregeneration, it resumes when started again for the same area";
+    }
+}
@@ -0,0 +1,248 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.pregeneration;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.persistence.StorageManager;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockRegionc;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.engine.world.chunks.pregeneration.PregenerationStats.Stage;
+import org.terasology.engine.world.generation.impl.EntityBufferImpl;
+import org.terasology.engine.world.generator.WorldGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates the chunks of an area ahead of time and stores them, without loading them into the world.
+ * <p>
+ * The area is generated column by column, with every core of the pool busy generating a column. Chunks which are
+ * already stored or loaded are skipped, so changes made by players are never replaced.
+ * <p>
+ * {@link #update()} has to be called regularly on the main thread, which hands the generated chunks and their entities
+ * to the storage manager and saves them in batches. After each saved batch, a {@link PregenerationCheckpoint} records
+ * the progress, so an interrupted pregeneration of the same area resumes where it stopped.
+ * <p>
+ * The light of chunks is not stored, so pregenerated chunks are lit when they are loaded, like any stored chunk.
+ */
+public class WorldPregenerator {
+    private static final Logger logger = LoggerFactory.getLogger(WorldPregenerator.class);
+
+    /** Chunks stored between two saves, which bounds the memory used by chunks waiting to be saved */
+    private static final int CHUNKS_PER_SAVE = 1024;
+
+    private final BlockRegion chunkArea;
+    private final WorldGenerator worldGenerator;
+    private final BlockManager blockManager;
+    private final ExtraBlockDataManager extraDataManager;
+    private final StorageManager storageManager;
+    private final ChunkProvider chunkProvider;
+    private final Path checkpointPath;
+    private final ForkJoinPool pool;
+    private final int maxColumnsInFlight;
+
+    private final PregenerationStats stats = new PregenerationStats();
+    private final Queue<GeneratedColumn> generatedColumns = new ConcurrentLinkedQueue<>();
+    private final BitSet storedColumns = new BitSet();
+    private volatile Throwable failure;
+
+    private final int firstColumn;
+    private int endColumn;
+    private int nextColumn;
+    private int columnsInFlight;
+    private int chunksSinceSave;
+    private int chunksInSave;
+    private int columnsInSave;
+    private int savedColumns;
+    private boolean done;
+
+    /**
+     * @param chunkArea the area to generate, in chunk coordinates
+     * @param checkpointPath where the progress is saved, and resumed from if it belongs to the same area
+     * @param pool the pool generating the chunks
+     */
+    public WorldPregenerator(BlockRegionc chunkArea, WorldGenerator worldGenerator, BlockManager blockManager,
+                             ExtraBlockDataManager extraDataManager, StorageManager storageManager,
+                             ChunkProvider chunkProvider, Path checkpointPath, ForkJoinPool pool) {
+        this.chunkArea = new BlockRegion(chunkArea);
+        this.worldGenerator = worldGenerator;
+        this.blockManager = blockManager;
+        this.extraDataManager = extraDataManager;
+        this.storageManager = storageManager;
+        this.chunkProvider = chunkProvider;
+        this.checkpointPath = checkpointPath;
+        this.pool = pool;
+        this.maxColumnsInFlight = 2 * pool.getParallelism();
+
+        endColumn = chunkArea.getSizeX() * chunkArea.getSizeZ();
+        firstColumn = Math.min(PregenerationCheckpoint.loadSavedColumns(checkpointPath, chunkArea), endColumn);
+        if (firstColumn > 0) {
+            logger.info("Resuming world pregeneration after {} of {} columns", firstColumn, endColumn);
+        }
+        storedColumns.set(0, firstColumn);
+        nextColumn = firstColumn;
+        columnsInSave = firstColumn;
+        savedColumns = firstColumn;
+    }
+
+    /**
+     * Stores the chunks generated since the last update, saves them once enough are stored and starts generating
+     * further columns. Must be called on the main thread.
+     */
+    public void update() {
+        if (done) {
+            return;
+        }
+        if (failure != null) {
+            logger.error("World pregeneration failed, it resumes from the last saved column when started again",
+                    failure);
+            done = true;
+            return;
+        }
+
+        GeneratedColumn column;
+        while ((column = generatedColumns.poll()) != null) {
+            store(column);
+        }
+
+        boolean allStored = storedColumns.nextClearBit(0) >= endColumn;
+        if (allStored && columnsInSave >= endColumn) {
+            // The last save only started, wait for it so the checkpoint covers everything
+            save();
+            done = true;
+            logger.info("World pregeneration finished\n{}", stats);
+        } else if (allStored || chunksSinceSave >= CHUNKS_PER_SAVE) {
+            save();
+        }
+
+        while (nextColumn < endColumn && columnsInFlight < maxColumnsInFlight) {
+            int index = nextColumn++;
+            columnsInFlight++;
+            pool.execute(() -> generate(index));
+        }
+    }
+
+    private void generate(int index) {
+        try {
+            long startTime = System.nanoTime();
+            int x = chunkArea.minX() + index % chunkArea.getSizeX();
+            int z = chunkArea.minZ() + index / chunkArea.getSizeX();
+            List<Chunk> chunks = new ArrayList<>(chunkArea.getSizeY());
+            for (int y = chunkArea.minY(); y <= chunkArea.maxY(); y++) {
+                Vector3i chunkPos = new Vector3i(x, y, z);
+                if (!storageManager.hasChunkStore(chunkPos)) {
+                    chunks.add(new ChunkImpl(chunkPos, blockManager, extraDataManager));
+                }
+            }
+            Map<Chunk, EntityBufferImpl> buffers = new HashMap<>();
+            if (!chunks.isEmpty()) {
+                worldGenerator.createChunks(chunks,
+                        chunk -> buffers.computeIfAbsent(chunk, k -> new EntityBufferImpl()), pool);
+                chunks.forEach(Chunk::deflate);
+            }
+            stats.record(Stage.GENERATE, chunks.size(), startTime);
+            generatedColumns.add(new GeneratedColumn(index, chunks, buffers));
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+    }
+
+    private void store(GeneratedColumn column) {
+        long startTime = System.nanoTime();
+        int stored = 0;
+        for (Chunk chunk : column.chunks) {
+            // A chunk loaded in the meantime was generated by the game itself, and is saved when it unloads. If it
+            // also unloaded again already, it is stored by now and must not be overwritten.
+            Vector3ic chunkPos = chunk.getPosition();
+            if (chunkProvider.getChunk(chunkPos) == null && !storageManager.hasChunkStore(chunkPos)) {
+                EntityBufferImpl buffer = column.buffers.get(chunk);
+                storageManager.storeGeneratedChunk(chunk, buffer != null ? buffer.getAll() : List.of());
+                stored++;
+            }
+        }
+        stats.record(Stage.STORE, stored, startTime);
+        chunksSinceSave += stored;
+        storedColumns.set(column.index);
+        columnsInFlight--;
+    }
+
+    /**
+     * Waits for the previous save to complete, records its columns in the checkpoint, and starts saving the chunks
+     * stored since.
+     */
+    private void save() {
+        long startTime = System.nanoTime();
+        storageManager.waitForCompletionOfPreviousSaveAndStartSaving();
+        stats.record(Stage.SAVE, chunksInSave, startTime);
+        savedColumns = columnsInSave;
+        try {
+            new PregenerationCheckpoint(chunkArea, savedColumns).save(checkpointPath);
+        } catch (IOException e) {
+            logger.warn("Failed to write the pregeneration checkpoint {}", checkpointPath, e);
+        }
+        columnsInSave = storedColumns.nextClearBit(0);
+        chunksInSave = chunksSinceSave;
+        chunksSinceSave = 0;
+    }
+
+    /**
+     * Stops generating further columns. The columns already being generated are still stored and saved.
+     */
+    public void stop() {
+        endColumn = nextColumn;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public PregenerationStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the number of columns of chunks in the area
+     */
+    public int getColumnCount() {
+        return chunkArea.getSizeX() * chunkArea.getSizeZ();
+    }
+
+    /**
+     * @return a summary of the progress and the throughput of each stage
+     */
+    public String getStatus() {
+        int columnCount = getColumnCount();
+        int stored = storedColumns.cardinality();
+        return String.format("%s: %d of %d columns stored (%.1f%%), %d saved%n%s",
+                done ? "Done" : "Running", stored, columnCount, 100.0 * stored / Math.max(columnCount, 1),
+                savedColumns, stats);
+    }
+
+    private static final class GeneratedColumn {
+        private final int index;
+        private final List<Chunk> chunks;
+        private final Map<Chunk, EntityBufferImpl> buffers;
+
+        GeneratedColumn(int index, List<Chunk> chunks, Map<Chunk, EntityBufferImpl> buffers) {
+            this.index = index;
+            this.chunks = chunks;
+            this.buffers = buffers;
+        }
+    }
+}
@@ -4,7 +4,6 @@
 package org.terasology.engine.world.chunks.remoteChunkProvider;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
@@ -21,10 +20,12 @@
 import org.terasology.engine.world.propagation.light.LightMerger;
 import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkPreparer;
 import org.terasology.engine.world.chunks.ChunkProvider;
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
 import org.terasology.engine.world.chunks.event.OnChunkLoaded;
+import org.terasology.engine.world.chunks.internal.ChunkIndex;
 import org.terasology.engine.world.chunks.pipeline.ChunkProcessingPipeline;
 import org.terasology.engine.world.chunks.pipeline.PositionFuture;
 import org.terasology.engine.world.chunks.pipeline.stages.ChunkTaskProvider;
@@ -32,8 +33,8 @@
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
@@ -53,7 +54,8 @@ public class RemoteChunkProvider implements ChunkProvider {
     private static final Logger logger = LoggerFactory.getLogger(RemoteChunkProvider.class);
     private final BlockingQueue<Chunk> readyChunks = Queues.newLinkedBlockingQueue();
     private final BlockingQueue<Vector3ic> invalidateChunks = Queues.newLinkedBlockingQueue();
-    private final Map<Vector3ic, Chunk> chunkCache = Maps.newHashMap();
+    private final List<ChunkPreparer> chunkPreparers = new CopyOnWriteArrayList<>();
+    private final ChunkIndex chunkCache = new ChunkIndex();
     private final BlockManager blockManager;
     private final ChunkProcessingPipeline loadingPipeline;
     private EntityRef worldEntity = EntityRef.NULL;
@@ -74,6 +76,7 @@ public RemoteChunkProvider(BlockManager blockManager, LocalPlayer localPlayer) {
                     return LightMerger.merge(localchunks);
                 }, LightMerger::requiredChunks
             ))
+            .addStage(ChunkTaskProvider.create("Chunk prepare", this::prepareChunk))
             .addStage(ChunkTaskProvider.create("", readyChunks::add));
 
         ChunkMonitor.fireChunkProviderInitialized(this);
@@ -84,7 +87,12 @@ public void subscribe(ChunkReadyListener chunkReadyListener) {
     }
 
 
+    /**
+     * Processes a chunk received from the server. A version of the chunk received earlier which is still being
+     * processed is dropped, so the latest version always becomes ready, though the earlier one may get ready first.
+     */
     public void receiveChunk(final Chunk chunk) {
+        loadingPipeline.stopProcessingAt(chunk.getPosition());
         loadingPipeline.invokePipeline(chunk);
     }
 
@@ -104,6 +112,7 @@ public void update() {
                 oldChunk.dispose();
             }
             chunk.markReady();
+            loadingPipeline.onChunkAvailable(chunk.getPosition());
             if (listener != null) {
                 listener.onChunkReady(chunk.getPosition());
             }
@@ -125,7 +134,11 @@ private void checkForUnload() {
 
     @Override
     public Chunk getChunk(int x, int y, int z) {
-        return getChunk(new Vector3i(x, y, z));
+        Chunk chunk = chunkCache.get(x, y, z);
+        if (chunk != null && chunk.isReady()) {
+            return chunk;
+        }
+        return null;
     }
 
     @Override
@@ -147,7 +160,13 @@ public boolean isChunkReady(Vector3ic pos) {
     @Override
     public void dispose() {
         ChunkMonitor.fireChunkProviderDisposed(this);
+        List<Vector3ic> processing = Lists.newArrayList(loadingPipeline.getProcessingPosition());
         loadingPipeline.shutdown();
+        for (Vector3ic pos : processing) {
+            for (ChunkPreparer preparer : chunkPreparers) {
+                preparer.discard(pos);
+            }
+        }
     }
 
     @Override
@@ -175,6 +194,17 @@ public void restart() {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void addChunkPreparer(ChunkPreparer preparer) {
+        chunkPreparers.add(preparer);
+    }
+
+    private void prepareChunk(Chunk chunk) {
+        for (ChunkPreparer preparer : chunkPreparers) {
+            preparer.prepare(chunk);
+        }
+    }
+
     @Override
     public ChunkViewCore getSubview(BlockRegionc region, Vector3ic offset) {
         Chunk[] chunks = new Chunk[region.getSizeX() * region.getSizeY() * region.getSizeZ()];
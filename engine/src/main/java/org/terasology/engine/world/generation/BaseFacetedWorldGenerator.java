@@ -10,6 +10,8 @@
 import org.terasology.engine.world.zones.Zone;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * The most commonly used implementation of {@link WorldGenerator} based on the idea of Facets
@@ -63,11 +65,21 @@ public void createChunk(Chunk chunk, EntityBuffer buffer) {
         world.rasterizeChunk(chunk, buffer);
     }
 
+    @Override
+    public void createChunks(List<Chunk> chunks, Function<Chunk, EntityBuffer> buffers, ForkJoinPool pool) {
+        world.rasterizeChunks(chunks, buffers, pool);
+    }
+
     @Override
     public void createChunk(Chunk chunk, float scale) {
         world.rasterizeChunk(chunk, scale);
     }
 
+    @Override
+    public void createChunk(Chunk chunk, float scale, ForkJoinPool pool) {
+        world.rasterizeChunk(chunk, scale, pool);
+    }
+
     @Override
     public WorldConfigurator getConfigurator() {
         if (configurator == null) {
@@ -0,0 +1,238 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.terasology.engine.world.block.BlockRegionc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps recently generated 2D facets, so the chunks stacked in a column share them instead of running the providers
+ * again for every chunk.
+ * <p>
+ * A facet is cached if it is 2D and every provider of its chain only produces, updates and requires 2D facets and is
+ * not marked {@link Uncached}. Such a facet only depends on the horizontal area it is generated for, as the seed and
+ * the borders are the same for the whole world. Entries are keyed by facet type, area and scale, and the least
+ * recently used ones are evicted.
+ * <p>
+ * An entry holds every cached facet its chain completes, not only the requested one, so a region using it can skip
+ * the whole chain. This covers the 2D providers in the chains of 3D facets too, which {@link #getCachedFacet} maps to
+ * the entry of a facet they produce.
+ * <p>
+ * The cache is shared by the chunk generation threads. Cached facets are handed to every region of their column, so
+ * they must not be changed once their chain is processed.
+ */
+class ColumnFacetCache {
+    /* A few facet types for each of the columns around a player */
+    private static final int MAX_ENTRIES = 2048;
+
+    private static final Counter HITS = Counter.builder("terasology.worldgen.facetcache.hits")
+            .description("2D facets taken from the column cache")
+            .register(Metrics.globalRegistry);
+    private static final Counter MISSES = Counter.builder("terasology.worldgen.facetcache.misses")
+            .description("2D facets generated and added to the column cache")
+            .register(Metrics.globalRegistry);
+
+    private final Set<Class<? extends WorldFacet>> cachedFacets = new HashSet<>();
+    /* The cached facets which are complete once the chain of a cached facet is processed */
+    private final Map<Class<? extends WorldFacet>, Set<Class<? extends WorldFacet>>> chainFacets = new HashMap<>();
+    /* The providers of the chain of a cached facet which only produce and update facets of its entry */
+    private final Map<Class<? extends WorldFacet>, List<FacetProvider>> coveredProviders = new HashMap<>();
+    private final Map<FacetProvider, Class<? extends WorldFacet>> providerFacets = new HashMap<>();
+    private final Cache<Key, Map<Class<? extends WorldFacet>, WorldFacet>> facets =
+            CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+    ColumnFacetCache(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        for (Class<? extends WorldFacet> facet : facetProviderChains.keySet()) {
+            if (isColumnFacet(facet, facetProviderChains.get(facet))) {
+                cachedFacets.add(facet);
+            }
+        }
+        for (Class<? extends WorldFacet> facet : cachedFacets) {
+            List<FacetProvider> chain = facetProviderChains.get(facet);
+            Set<Class<? extends WorldFacet>> completed = new HashSet<>();
+            for (FacetProvider provider : chain) {
+                for (Class<? extends WorldFacet> output : getOutputs(provider)) {
+                    if (cachedFacets.contains(output) && chain.containsAll(facetProviderChains.get(output))) {
+                        completed.add(output);
+                    }
+                }
+            }
+            List<FacetProvider> covered = new ArrayList<>();
+            for (FacetProvider provider : chain) {
+                if (completed.containsAll(getOutputs(provider))) {
+                    covered.add(provider);
+                }
+            }
+            chainFacets.put(facet, completed);
+            coveredProviders.put(facet, covered);
+        }
+        for (Class<? extends WorldFacet> facet : cachedFacets) {
+            for (FacetProvider provider : coveredProviders.get(facet)) {
+                if (getOutputs(provider).contains(facet)) {
+                    providerFacets.putIfAbsent(provider, facet);
+                }
+            }
+        }
+    }
+
+    private static Set<Class<? extends WorldFacet>> getOutputs(FacetProvider provider) {
+        Set<Class<? extends WorldFacet>> outputs = new HashSet<>();
+        Produces produces = provider.getClass().getAnnotation(Produces.class);
+        if (produces != null) {
+            outputs.addAll(Arrays.asList(produces.value()));
+        }
+        Updates updates = provider.getClass().getAnnotation(Updates.class);
+        if (updates != null) {
+            for (Facet facet : updates.value()) {
+                outputs.add(facet.value());
+            }
+        }
+        return outputs;
+    }
+
+    private static boolean isColumnFacet(Class<? extends WorldFacet> facet, List<FacetProvider> chain) {
+        if (!WorldFacet2D.class.isAssignableFrom(facet) || chain.isEmpty()) {
+            return false;
+        }
+        for (FacetProvider provider : chain) {
+            Class<?> providerType = provider.getClass();
+            if (providerType.isAnnotationPresent(Uncached.class)) {
+                return false;
+            }
+            Produces produces = providerType.getAnnotation(Produces.class);
+            if (produces != null && !Arrays.stream(produces.value()).allMatch(WorldFacet2D.class::isAssignableFrom)) {
+                return false;
+            }
+            Updates updates = providerType.getAnnotation(Updates.class);
+            if (updates != null && !allColumnFacets(updates.value())) {
+                return false;
+            }
+            Requires requires = providerType.getAnnotation(Requires.class);
+            if (requires != null && !allColumnFacets(requires.value())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean allColumnFacets(Facet[] facets) {
+        return Arrays.stream(facets).allMatch(facet -> WorldFacet2D.class.isAssignableFrom(facet.value()));
+    }
+
+    /**
+     * @return whether facets of the type are cached
+     */
+    boolean isCached(Class<? extends WorldFacet> type) {
+        return cachedFacets.contains(type);
+    }
+
+    /**
+     * @return a cached facet whose entry makes running the provider unnecessary, or null if it has to run anyway
+     */
+    Class<? extends WorldFacet> getCachedFacet(FacetProvider provider) {
+        return providerFacets.get(provider);
+    }
+
+    /**
+     * @return the facets the entry of the cached facet holds
+     */
+    Set<Class<? extends WorldFacet>> getChainFacets(Class<? extends WorldFacet> type) {
+        return chainFacets.get(type);
+    }
+
+    /**
+     * @return the providers of the chain of the cached facet which need not run for a region using its entry
+     */
+    List<FacetProvider> getCoveredProviders(Class<? extends WorldFacet> type) {
+        return coveredProviders.get(type);
+    }
+
+    /**
+     * Looks up the entry of the facet for the horizontal area of the region, generating it if it is not cached yet.
+     * Threads asking for an entry which is being generated wait for it.
+     *
+     * @param generator processes the chain of the facet on the region and returns the {@link #getChainFacets chain
+     *         facets} it produced, if the entry is not cached
+     * @return the chain facets, by type
+     */
+    Map<Class<? extends WorldFacet>, WorldFacet> get(Class<? extends WorldFacet> type, BlockRegionc region, float scale,
+                                                     Supplier<Map<Class<? extends WorldFacet>, WorldFacet>> generator) {
+        Key key = new Key(type, region, scale);
+        boolean[] generated = new boolean[1];
+        try {
+            Map<Class<? extends WorldFacet>, WorldFacet> entry = facets.get(key, () -> {
+                generated[0] = true;
+                return generator.get();
+            });
+            (generated[0] ? MISSES : HITS).increment();
+            return entry;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Drops all cached facets, e.g. because the configuration of the providers changed.
+     */
+    void clear() {
+        facets.invalidateAll();
+    }
+
+    private static final class Key {
+        private final Class<? extends WorldFacet> type;
+        private final int minX;
+        private final int minZ;
+        private final int sizeX;
+        private final int sizeZ;
+        private final float scale;
+
+        Key(Class<? extends WorldFacet> type, BlockRegionc region, float scale) {
+            this.type = type;
+            this.minX = region.minX();
+            this.minZ = region.minZ();
+            this.sizeX = region.getSizeX();
+            this.sizeZ = region.getSizeZ();
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return type == other.type && minX == other.minX && minZ == other.minZ && sizeX == other.sizeX
+                    && sizeZ == other.sizeZ && scale == other.scale;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = type.hashCode();
+            result = 31 * result + minX;
+            result = 31 * result + minZ;
+            result = 31 * result + sizeX;
+            result = 31 * result + sizeZ;
+            return 31 * result + Float.floatToIntBits(scale);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.SetMultimap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The dependencies between the facet providers of a world, used to run independent providers concurrently.
+ * <p>
+ * The provider chains determined by the {@link WorldBuilder} are valid sequential orders. A provider only has to wait
+ * for the providers before it in a chain which write a facet it reads or writes, or which read a facet it writes.
+ * Running the providers in any order which respects these edges gives the same facets as running a chain.
+ * <p>
+ * If the chains order two providers inconsistently, the providers are run sequentially in chain order.
+ */
+final class FacetProviderGraph {
+    private static final Logger logger = LoggerFactory.getLogger(FacetProviderGraph.class);
+
+    private final ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains;
+    private final SetMultimap<FacetProvider, FacetProvider> predecessors = LinkedHashMultimap.create();
+    private final boolean acyclic;
+
+    FacetProviderGraph(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        this.facetProviderChains = facetProviderChains;
+        for (Class<? extends WorldFacet> facet : facetProviderChains.keySet()) {
+            List<FacetProvider> chain = facetProviderChains.get(facet);
+            for (int later = 1; later < chain.size(); later++) {
+                for (int earlier = 0; earlier < later; earlier++) {
+                    if (conflict(chain.get(earlier), chain.get(later))) {
+                        predecessors.put(chain.get(later), chain.get(earlier));
+                    }
+                }
+            }
+        }
+        acyclic = order(new LinkedHashSet<>(facetProviderChains.values())) != null;
+        if (!acyclic) {
+            logger.warn("Facet provider chains are ordered inconsistently, facets will be generated sequentially");
+        }
+    }
+
+    private static boolean conflict(FacetProvider earlier, FacetProvider later) {
+        Set<Class<? extends WorldFacet>> earlierWrites = writtenFacets(earlier);
+        Set<Class<? extends WorldFacet>> laterWrites = writtenFacets(later);
+        for (Class<? extends WorldFacet> facet : laterWrites) {
+            if (earlierWrites.contains(facet)) {
+                return true;
+            }
+        }
+        for (Class<? extends WorldFacet> facet : readFacets(later)) {
+            if (earlierWrites.contains(facet)) {
+                return true;
+            }
+        }
+        for (Class<? extends WorldFacet> facet : readFacets(earlier)) {
+            if (laterWrites.contains(facet)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<Class<? extends WorldFacet>> writtenFacets(FacetProvider provider) {
+        Set<Class<? extends WorldFacet>> facets = new HashSet<>();
+        Produces produces = provider.getClass().getAnnotation(Produces.class);
+        if (produces != null) {
+            facets.addAll(Arrays.asList(produces.value()));
+        }
+        Updates updates = provider.getClass().getAnnotation(Updates.class);
+        if (updates != null) {
+            for (Facet facet : updates.value()) {
+                facets.add(facet.value());
+            }
+        }
+        return facets;
+    }
+
+    private static Set<Class<? extends WorldFacet>> readFacets(FacetProvider provider) {
+        Set<Class<? extends WorldFacet>> facets = new HashSet<>();
+        Requires requires = provider.getClass().getAnnotation(Requires.class);
+        if (requires != null) {
+            for (Facet facet : requires.value()) {
+                facets.add(facet.value());
+            }
+        }
+        Updates updates = provider.getClass().getAnnotation(Updates.class);
+        if (updates != null) {
+            for (Facet facet : updates.value()) {
+                facets.add(facet.value());
+            }
+        }
+        return facets;
+    }
+
+    /**
+     * @return the providers in an order which respects the dependencies, or null if they are cyclic
+     */
+    private List<FacetProvider> order(Set<FacetProvider> providers) {
+        List<FacetProvider> ordered = new ArrayList<>(providers.size());
+        Set<FacetProvider> done = new HashSet<>();
+        Set<FacetProvider> visiting = new HashSet<>();
+        for (FacetProvider provider : providers) {
+            if (!visit(provider, providers, done, visiting, ordered)) {
+                return null;
+            }
+        }
+        return ordered;
+    }
+
+    private boolean visit(FacetProvider provider, Set<FacetProvider> providers, Set<FacetProvider> done,
+                          Set<FacetProvider> visiting, List<FacetProvider> ordered) {
+        if (done.contains(provider)) {
+            return true;
+        }
+        if (!visiting.add(provider)) {
+            return false;
+        }
+        for (FacetProvider predecessor : predecessors.get(provider)) {
+            if (providers.contains(predecessor) && !visit(predecessor, providers, done, visiting, ordered)) {
+                return false;
+            }
+        }
+        visiting.remove(provider);
+        done.add(provider);
+        ordered.add(provider);
+        return true;
+    }
+
+    /**
+     * Runs the providers of the chains of the facets on the region, each as a task of the pool which starts once the
+     * providers it depends on are done. Returns once all of them are done.
+     */
+    void process(RegionImpl region, Collection<Class<? extends WorldFacet>> facets, ForkJoinPool pool) {
+        Set<FacetProvider> providers = new LinkedHashSet<>();
+        for (Class<? extends WorldFacet> facet : facets) {
+            providers.addAll(facetProviderChains.get(facet));
+        }
+        List<FacetProvider> ordered = acyclic ? order(providers) : null;
+        if (ordered == null) {
+            providers.forEach(region::process);
+            return;
+        }
+
+        Map<FacetProvider, CompletableFuture<Void>> tasks = new HashMap<>();
+        for (FacetProvider provider : ordered) {
+            List<CompletableFuture<Void>> before = new ArrayList<>();
+            for (FacetProvider predecessor : predecessors.get(provider)) {
+                CompletableFuture<Void> task = tasks.get(predecessor);
+                if (task != null) {
+                    before.add(task);
+                }
+            }
+            tasks.put(provider, allOf(before).thenRunAsync(() -> region.process(provider), pool));
+        }
+        join(tasks.values());
+    }
+
+    private static CompletableFuture<Void> allOf(Collection<CompletableFuture<Void>> tasks) {
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Waits for all tasks, rethrowing the failure of the first failed one.
+     */
+    static void join(Collection<CompletableFuture<Void>> tasks) {
+        try {
+            allOf(tasks).join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -8,8 +8,13 @@
 import com.google.common.collect.Sets;
 import org.terasology.engine.world.block.BlockRegion;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 public class RegionImpl implements Region, GeneratingRegion {
 
@@ -17,38 +22,141 @@ public class RegionImpl implements Region, GeneratingRegion {
     private final ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
     private final float scale;
+    private final ColumnFacetCache facetCache;
 
-    private final ClassToInstanceMap<WorldFacet> generatingFacets = MutableClassToInstanceMap.create();
-    private final Set<FacetProvider> processedProviders = Sets.newHashSet();
-    private final ClassToInstanceMap<WorldFacet> generatedFacets = MutableClassToInstanceMap.create();
+    // Concurrent, as independent providers may run in parallel and several rasterizers may share the region
+    private final ClassToInstanceMap<WorldFacet> generatingFacets =
+            MutableClassToInstanceMap.create(new ConcurrentHashMap<>());
+    private final Set<FacetProvider> processedProviders = Sets.newConcurrentHashSet();
+    private final Set<Class<? extends WorldFacet>> loadingCachedFacets = new HashSet<>();
+    private final ClassToInstanceMap<WorldFacet> generatedFacets =
+            MutableClassToInstanceMap.create(new ConcurrentHashMap<>());
 
     public RegionImpl(BlockRegion region,
                       ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<?
             extends WorldFacet>, Border3D> borders, float scale) {
+        this(region, facetProviderChains, borders, scale, null);
+    }
+
+    /**
+     * @param facetCache provides the 2D facets shared with other regions of the same column, may be null
+     */
+    RegionImpl(BlockRegion region, ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains,
+               Map<Class<? extends WorldFacet>, Border3D> borders, float scale, ColumnFacetCache facetCache) {
         this.region = region;
         this.facetProviderChains = facetProviderChains;
         this.borders = borders;
         this.scale = scale;
+        this.facetCache = facetCache;
     }
 
     @Override
     public <T extends WorldFacet> T getFacet(Class<T> dataType) {
         T facet = generatedFacets.getInstance(dataType);
         if (facet == null) {
-            for (FacetProvider provider : facetProviderChains.get(dataType)) {
-                if (!processedProviders.contains(provider)) {
-                    if (scale == 1) {
-                        provider.process(this);
-                    } else {
-                        ((ScalableFacetProvider) provider).process(this, scale);
+            facet = computeFacet(dataType);
+        }
+        return facet;
+    }
+
+    private synchronized <T extends WorldFacet> T computeFacet(Class<T> dataType) {
+        T facet = generatedFacets.getInstance(dataType);
+        if (facet == null) {
+            if (facetCache != null && facetCache.isCached(dataType) && loadCachedFacets(dataType)) {
+                facet = generatingFacets.getInstance(dataType);
+            } else {
+                facet = generateFacet(dataType);
+            }
+            if (facet != null) {
+                generatedFacets.putInstance(dataType, facet);
+            }
+        }
+        return facet;
+    }
+
+    private <T extends WorldFacet> T generateFacet(Class<T> dataType) {
+        for (FacetProvider provider : facetProviderChains.get(dataType)) {
+            if (!loadCachedFacets(provider)) {
+                process(provider);
+            }
+        }
+        return generatingFacets.getInstance(dataType);
+    }
+
+    /**
+     * Takes the facets of the provider from the column cache instead of running it, if they are cached.
+     *
+     * @return whether the provider counts as processed afterwards
+     */
+    private boolean loadCachedFacets(FacetProvider provider) {
+        if (facetCache == null || processedProviders.contains(provider)) {
+            return false;
+        }
+        Class<? extends WorldFacet> cachedFacet = facetCache.getCachedFacet(provider);
+        return cachedFacet != null && loadCachedFacets(cachedFacet);
+    }
+
+    /**
+     * Seeds the region with the cache entry of the facet, generating it on a miss, and marks the providers it covers
+     * as processed.
+     *
+     * @return false if the entry is being generated by this region already, so the caller has to run the providers
+     */
+    private synchronized boolean loadCachedFacets(Class<? extends WorldFacet> cachedFacet) {
+        if (!loadingCachedFacets.add(cachedFacet)) {
+            return false;
+        }
+        try {
+            generatingFacets.putAll(facetCache.get(cachedFacet, region, scale, () -> {
+                generateFacet(cachedFacet);
+                Map<Class<? extends WorldFacet>, WorldFacet> chainFacets = new HashMap<>();
+                for (Class<? extends WorldFacet> type : facetCache.getChainFacets(cachedFacet)) {
+                    WorldFacet facet = generatingFacets.get(type);
+                    if (facet != null) {
+                        chainFacets.put(type, facet);
                     }
-                    processedProviders.add(provider);
                 }
+                return chainFacets;
+            }));
+            processedProviders.addAll(facetCache.getCoveredProviders(cachedFacet));
+            return true;
+        } finally {
+            loadingCachedFacets.remove(cachedFacet);
+        }
+    }
+
+    /**
+     * Generates the facets in advance, running independent providers concurrently on the pool. Afterwards, the
+     * facets can be read by several threads at once.
+     * <p>
+     * Cached facets are loaded first, so the providers they cover are skipped by the graph.
+     *
+     * @param graph the dependencies between the providers of the chains this region was created with
+     */
+    void generateFacets(Collection<Class<? extends WorldFacet>> facets, FacetProviderGraph graph, ForkJoinPool pool) {
+        for (Class<? extends WorldFacet> facet : facets) {
+            for (FacetProvider provider : facetProviderChains.get(facet)) {
+                loadCachedFacets(provider);
             }
-            facet = generatingFacets.getInstance(dataType);
-            generatedFacets.put(dataType, facet);
         }
-        return facet;
+        graph.process(this, facets, pool);
+        for (Class<? extends WorldFacet> facet : facets) {
+            getFacet(facet);
+        }
+    }
+
+    /**
+     * Runs the provider on this region, unless it already ran.
+     */
+    void process(FacetProvider provider) {
+        if (!processedProviders.contains(provider)) {
+            if (scale == 1) {
+                provider.process(this);
+            } else {
+                ((ScalableFacetProvider) provider).process(this, scale);
+            }
+            processedProviders.add(provider);
+        }
     }
 
     @Override
@@ -0,0 +1,21 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link WorldRasterizer} which can rasterize a chunk from a region larger than the chunk, so the chunks of a
+ * column can be rasterized concurrently from facets generated once for the whole column. See
+ * {@link World#rasterizeChunks}.
+ * <p>
+ * Such a rasterizer must only access facets through world coordinates, must declare every facet it reads with
+ * {@link Requires}, and must only change the chunk it is given.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SlabSafe {
+}
@@ -0,0 +1,20 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link FacetProvider} whose facets do not only depend on the seed and the area they cover, e.g. because
+ * they read the state of the running game. Such facets, and facets computed from them, are generated for every region
+ * instead of being shared by the chunks of a column.
+ * <p>
+ * Only 2D facets are shared that way, so this is not needed for providers which produce or require 3D facets.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Uncached {
+}
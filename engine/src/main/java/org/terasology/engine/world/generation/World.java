@@ -5,7 +5,10 @@
 import org.terasology.engine.world.block.BlockRegion;
 import org.terasology.engine.world.chunks.Chunk;
 
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 public interface World {
 
@@ -25,6 +28,30 @@ default Region getWorldData(BlockRegion region) {
 
     void rasterizeChunk(Chunk chunk, float scale);
 
+    /**
+     * Rasterizes the chunk like {@link #rasterizeChunk(Chunk, float)}, but generates the facets of independent
+     * providers concurrently on the pool.
+     */
+    default void rasterizeChunk(Chunk chunk, float scale, ForkJoinPool pool) {
+        rasterizeChunk(chunk, scale);
+    }
+
+    /**
+     * Rasterizes a group of chunks like {@link #rasterizeChunk(Chunk, EntityBuffer)}, using the pool to generate
+     * facets and to rasterize the chunks concurrently.
+     * <p>
+     * The facets read by {@link SlabSafe} rasterizers are generated once for the region covering all the chunks, so
+     * the chunks should be close to each other, e.g. the chunks of a column. The other rasterizers and the entity
+     * providers get a region for each chunk. Entities are added to the buffers from the calling thread.
+     *
+     * @param buffers the buffer for the entities of each chunk
+     */
+    default void rasterizeChunks(List<Chunk> chunks, Function<Chunk, EntityBuffer> buffers, ForkJoinPool pool) {
+        for (Chunk chunk : chunks) {
+            rasterizeChunk(chunk, buffers.apply(chunk));
+        }
+    }
+
     /**
      * @return a <b>new</b> set containing all facet classes
      */
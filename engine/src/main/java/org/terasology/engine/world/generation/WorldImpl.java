@@ -7,11 +7,15 @@
 import org.terasology.engine.world.block.BlockRegion;
 import org.terasology.engine.world.chunks.Chunk;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 public class WorldImpl implements World {
     private final ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains;
@@ -21,6 +25,12 @@ public class WorldImpl implements World {
     private final List<EntityProvider> entityProviders;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
     private final int seaLevel;
+    private final ColumnFacetCache facetCache;
+    private final ColumnFacetCache scalableFacetCache;
+    private final FacetProviderGraph providerGraph;
+    private final FacetProviderGraph scalableProviderGraph;
+    private final Set<Class<? extends WorldFacet>> slabFacets;
+    private final Set<Class<? extends WorldFacet>> scalableRasterizerFacets;
 
     public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains,
                      ListMultimap<Class<? extends WorldFacet>, FacetProvider> scalableFacetProviderChains,
@@ -36,11 +46,42 @@ public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetP
         this.entityProviders = entityProviders;
         this.borders = borders;
         this.seaLevel = seaLevel;
+        this.facetCache = new ColumnFacetCache(facetProviderChains);
+        this.scalableFacetCache = new ColumnFacetCache(scalableFacetProviderChains);
+        this.providerGraph = new FacetProviderGraph(facetProviderChains);
+        this.scalableProviderGraph = new FacetProviderGraph(scalableFacetProviderChains);
+        this.slabFacets = requiredFacets(worldRasterizers, true);
+        this.scalableRasterizerFacets = requiredFacets(scalableWorldRasterizers, false);
+    }
+
+    private static Set<Class<? extends WorldFacet>> requiredFacets(List<WorldRasterizer> rasterizers,
+                                                                   boolean slabSafeOnly) {
+        Set<Class<? extends WorldFacet>> facets = new LinkedHashSet<>();
+        for (WorldRasterizer rasterizer : rasterizers) {
+            Requires requires = rasterizer.getClass().getAnnotation(Requires.class);
+            if (requires != null && (!slabSafeOnly || isSlabSafe(rasterizer))) {
+                for (Facet facet : requires.value()) {
+                    facets.add(facet.value());
+                }
+            }
+        }
+        return facets;
+    }
+
+    private static boolean isSlabSafe(WorldRasterizer rasterizer) {
+        return rasterizer.getClass().isAnnotationPresent(SlabSafe.class);
     }
 
     @Override
     public Region getWorldData(BlockRegion region, float scale) {
-        return new RegionImpl(region, scale == 1 ? facetProviderChains : scalableFacetProviderChains, borders, scale);
+        return createRegion(region, scale);
+    }
+
+    private RegionImpl createRegion(BlockRegion region, float scale) {
+        if (scale == 1) {
+            return new RegionImpl(region, facetProviderChains, borders, scale, facetCache);
+        }
+        return new RegionImpl(region, scalableFacetProviderChains, borders, scale, scalableFacetCache);
     }
 
     @Override
@@ -67,6 +108,68 @@ public void rasterizeChunk(Chunk chunk, float scale) {
         }
     }
 
+    @Override
+    public void rasterizeChunk(Chunk chunk, float scale, ForkJoinPool pool) {
+        RegionImpl chunkRegion = createRegion(new BlockRegion(chunk.getRegion()), scale);
+        chunkRegion.generateFacets(scalableRasterizerFacets, scalableProviderGraph, pool);
+        for (WorldRasterizer rasterizer : scalableWorldRasterizers) {
+            ((ScalableWorldRasterizer) rasterizer).generateChunk(chunk, chunkRegion, scale);
+        }
+    }
+
+    @Override
+    public void rasterizeChunks(List<Chunk> chunks, Function<Chunk, EntityBuffer> buffers, ForkJoinPool pool) {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        BlockRegion area = new BlockRegion(chunks.get(0).getRegion());
+        for (Chunk chunk : chunks) {
+            area.union(chunk.getRegion());
+        }
+        RegionImpl sharedRegion = createRegion(area, 1);
+        sharedRegion.generateFacets(slabFacets, providerGraph, pool);
+
+        Region[] chunkRegions = new Region[chunks.size()];
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            int index = i;
+            tasks.add(CompletableFuture.runAsync(
+                    () -> chunkRegions[index] = rasterizeSlab(chunks.get(index), sharedRegion), pool));
+        }
+        FacetProviderGraph.join(tasks);
+
+        for (int i = 0; i < chunks.size(); i++) {
+            Region chunkRegion = chunkRegions[i];
+            if (chunkRegion == null && !entityProviders.isEmpty()) {
+                chunkRegion = getWorldData(new BlockRegion(chunks.get(i).getRegion()), 1);
+            }
+            EntityBuffer buffer = buffers.apply(chunks.get(i));
+            for (EntityProvider entityProvider : entityProviders) {
+                entityProvider.process(chunkRegion, buffer);
+            }
+        }
+    }
+
+    /**
+     * Runs the rasterizers on the chunk, the slab-safe ones with the shared region.
+     *
+     * @return the region of the chunk, if one of the rasterizers needed it
+     */
+    private Region rasterizeSlab(Chunk chunk, Region sharedRegion) {
+        Region chunkRegion = null;
+        for (WorldRasterizer rasterizer : worldRasterizers) {
+            if (isSlabSafe(rasterizer)) {
+                rasterizer.generateChunk(chunk, sharedRegion);
+            } else {
+                if (chunkRegion == null) {
+                    chunkRegion = getWorldData(new BlockRegion(chunk.getRegion()), 1);
+                }
+                rasterizer.generateChunk(chunk, chunkRegion);
+            }
+        }
+        return chunkRegion;
+    }
+
     @Override
     public Set<Class<? extends WorldFacet>> getAllFacets() {
         return Sets.newHashSet(facetProviderChains.keySet());
@@ -82,5 +185,8 @@ public void initialize() {
         worldRasterizers.forEach(WorldRasterizer::initialize);
 
         entityProviders.forEach(EntityProvider::initialize);
+
+        facetCache.clear();
+        scalableFacetCache.clear();
     }
 }
@@ -5,6 +5,8 @@
 
 import org.terasology.engine.world.chunks.Chunk;
 
+import java.util.concurrent.ForkJoinPool;
+
 public interface ScalableWorldGenerator extends WorldGenerator {
     /**
      * Generates all contents of given chunk to be used for LOD rendering
@@ -12,4 +14,15 @@ public interface ScalableWorldGenerator extends WorldGenerator {
      * @param scale The scale to generate at (larger numbers make the world's features smaller)
      */
     void createChunk(Chunk chunk, float scale);
+
+    /**
+     * Generates all contents of given chunk to be used for LOD rendering, using the pool for independent parts of the
+     * generation
+     * @param chunk Chunk to generate
+     * @param scale The scale to generate at (larger numbers make the world's features smaller)
+     * @param pool The pool to run independent parts of the generation on
+     */
+    default void createChunk(Chunk chunk, float scale, ForkJoinPool pool) {
+        createChunk(chunk, scale);
+    }
 }
@@ -14,6 +14,8 @@
 import org.terasology.engine.world.zones.Zone;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * World generator is an interface responsible for generating worlds from their seed
@@ -46,6 +48,18 @@ public interface WorldGenerator {
      */
     void createChunk(Chunk chunk, EntityBuffer buffer);
 
+    /**
+     * Generates all contents of a group of chunks which are close to each other, e.g. a column of chunks
+     * @param chunks Chunks to generate
+     * @param buffers Buffer to queue the entities of each chunk to
+     * @param pool The pool to run independent parts of the generation on
+     */
+    default void createChunks(List<Chunk> chunks, Function<Chunk, EntityBuffer> buffers, ForkJoinPool pool) {
+        for (Chunk chunk : chunks) {
+            createChunk(chunk, buffers.apply(chunk));
+        }
+    }
+
     /**
      * Performs any additional steps required for setting itself up before generating world
      */
@@ -7,6 +7,7 @@
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.world.WorldChangeListener;
 import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockEditBuffer;
 import org.terasology.engine.world.block.BlockRegionc;
 import org.terasology.engine.world.time.WorldTime;
 
@@ -91,6 +92,11 @@ public Map<Vector3ic, Block> setBlocks(Map<? extends Vector3ic, Block> blocks) {
         return base.setBlocks(blocks);
     }
 
+    @Override
+    public int setBlocks(BlockEditBuffer edits) {
+        return base.setBlocks(edits);
+    }
+
     @Override
     public Block getBlock(int x, int y, int z) {
         return base.getBlock(x, y, z);
@@ -71,6 +71,17 @@ public Block getBlock(int blockX, int blockY, int blockZ) {
         return defaultBlock;
     }
 
+    @Override
+    public Block getUniformBlock() {
+        if (blockRegion.contains(0, 0, 0)) {
+            Chunk chunk = chunks[relChunkIndex(0, 0, 0)];
+            if (chunk != null) {
+                return chunk.getUniformBlock();
+            }
+        }
+        return null;
+    }
+
     @Override
     public byte getSunlight(float x, float y, float z) {
         return getSunlight(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
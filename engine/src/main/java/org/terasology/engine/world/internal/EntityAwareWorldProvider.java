@@ -39,6 +39,7 @@
 import org.terasology.engine.world.OnChangedBlock;
 import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.block.BlockEditBuffer;
 import org.terasology.engine.world.block.BlockRegion;
 import org.terasology.engine.world.block.regions.BlockRegionComponent;
 import org.terasology.gestalt.entitysystem.component.Component;
@@ -47,6 +48,7 @@
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -106,12 +108,8 @@ public Block setBlock(Vector3ic pos, Block type) {
         if (GameThread.isCurrentThread()) {
             EntityRef blockEntity = getBlockEntityAt(pos);
             Block oldType = super.setBlock(pos, type);
-            final Set<Class<? extends Component>> retainComponents =
-                    Optional.ofNullable(blockEntity.getComponent(RetainComponentsComponent.class))
-                            .map(retainComponentsComponent -> retainComponentsComponent.components)
-                            .orElse(Collections.emptySet());
             if (oldType != null) {
-                updateBlockEntity(blockEntity, pos, oldType, type, false, retainComponents);
+                updateBlockEntity(blockEntity, pos, oldType, type, false, getRetainedComponents(blockEntity));
             }
             return oldType;
         }
@@ -126,24 +124,57 @@ public Block setBlock(Vector3ic pos, Block type) {
     @Override
     public Map<Vector3ic, Block> setBlocks(Map<? extends Vector3ic, Block> blocks) {
         if (GameThread.isCurrentThread()) {
-            Map<Vector3ic, Block> oldBlocks = super.setBlocks(blocks);
-            for (Vector3ic vec : oldBlocks.keySet()) {
-                if (oldBlocks.get(vec) != null) {
-                    EntityRef blockEntity = getBlockEntityAt(vec);
-
-                    // check for components to be retained when updating the block entity
-                    final Set<Class<? extends Component>> retainComponents =
-                            Optional.ofNullable(blockEntity.getComponent(RetainComponentsComponent.class))
-                                    .map(retainComponentsComponent -> retainComponentsComponent.components)
-                                    .orElse(Collections.emptySet());
-                    updateBlockEntity(blockEntity, vec, oldBlocks.get(vec), blocks.get(vec), false, retainComponents);
-                }
+            BlockEditBuffer edits = new BlockEditBuffer();
+            for (Map.Entry<? extends Vector3ic, Block> entry : blocks.entrySet()) {
+                edits.add(entry.getKey(), entry.getValue());
+            }
+            setBlocks(edits);
+
+            Map<Vector3ic, Block> oldBlocks = new HashMap<>(blocks.size());
+            int edit = 0;
+            for (Vector3ic vec : blocks.keySet()) {
+                oldBlocks.put(vec, edits.getPreviousBlock(edit++));
             }
             return oldBlocks;
         }
         return null;
     }
 
+    /**
+     * Updates the block entities like {@link #setBlock(Vector3ic, Block)} does, while only the chunk and world
+     * changes are applied in one batch.
+     */
+    @Override
+    public int setBlocks(BlockEditBuffer edits) {
+        if (GameThread.isCurrentThread()) {
+            Vector3i pos = new Vector3i();
+            EntityRef[] blockEntities = new EntityRef[edits.size()];
+            for (int edit = 0; edit < edits.size(); edit++) {
+                blockEntities[edit] = getBlockEntityAt(edits.getPosition(edit, pos));
+            }
+            int changed = super.setBlocks(edits);
+            for (int edit = 0; edit < edits.size(); edit++) {
+                Block oldType = edits.getPreviousBlock(edit);
+                if (oldType != null) {
+                    EntityRef blockEntity = blockEntities[edit];
+                    updateBlockEntity(blockEntity, edits.getPosition(edit, new Vector3i()), oldType,
+                            edits.getBlock(edit), false, getRetainedComponents(blockEntity));
+                }
+            }
+            return changed;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the components to be retained when updating the block entity
+     */
+    private static Set<Class<? extends Component>> getRetainedComponents(EntityRef blockEntity) {
+        return Optional.ofNullable(blockEntity.getComponent(RetainComponentsComponent.class))
+                .map(retainComponentsComponent -> retainComponentsComponent.components)
+                .orElse(Collections.emptySet());
+    }
+
     @Override
     @SafeVarargs
     public final Block setBlockRetainComponent(Vector3ic position, Block type, Class<? extends Component>... components) {
@@ -3,10 +3,12 @@
 package org.terasology.engine.world.internal;
 
 import com.google.common.collect.Maps;
+import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.world.WorldChangeListener;
 import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockEditBuffer;
 import org.terasology.engine.world.block.BlockRegionc;
 import org.terasology.engine.world.time.WorldTime;
 
@@ -113,6 +115,27 @@ default Map<Vector3ic, Block> setBlocks(Map<? extends Vector3ic, Block> blocks)
         return resultMap;
     }
 
+    /**
+     * Applies all edits of the buffer, recording the replaced blocks in it.
+     * <p>
+     * Edits to blocks which are not loaded fail, leaving their previous block null. Implementations may notify
+     * listeners once per chunk with {@link WorldChangeListener#onBlocksChanged} instead of once per block.
+     *
+     * @param edits The edits to apply
+     * @return The number of blocks which changed
+     */
+    default int setBlocks(BlockEditBuffer edits) {
+        Vector3i pos = new Vector3i();
+        int changed = 0;
+        for (int i = 0; i < edits.size(); i++) {
+            edits.setPreviousBlock(i, setBlock(edits.getPosition(i, pos), edits.getBlock(i)));
+            if (edits.isChanged(i)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
     /**
      * Returns the block at the given position.
      *
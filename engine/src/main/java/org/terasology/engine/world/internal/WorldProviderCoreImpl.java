@@ -7,6 +7,10 @@
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.context.Context;
@@ -16,11 +20,13 @@
 import org.terasology.engine.world.WorldChangeListener;
 import org.terasology.engine.world.WorldComponent;
 import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockEditBuffer;
 import org.terasology.engine.world.block.BlockRegion;
 import org.terasology.engine.world.block.BlockRegionc;
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.ChunkProvider;
 import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.internal.ChunkIndex;
 import org.terasology.engine.world.propagation.BatchPropagator;
 import org.terasology.engine.world.propagation.BlockChange;
 import org.terasology.engine.world.propagation.PropagationRules;
@@ -38,11 +44,9 @@
 
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 
 public class WorldProviderCoreImpl implements WorldProviderCore {
@@ -183,12 +187,7 @@ public Block setBlock(Vector3ic worldPos, Block type) {
             Vector3i blockPos = Chunks.toRelative(worldPos, new Vector3i());
             Block oldBlockType = chunk.setBlock(blockPos, type);
             if (oldBlockType != type) {
-                BlockChange oldChange = blockChanges.get(worldPos);
-                if (oldChange == null) {
-                    blockChanges.put(new Vector3i(worldPos), new BlockChange(worldPos, oldBlockType, type));
-                } else {
-                    oldChange.setTo(type);
-                }
+                recordBlockChange(worldPos, oldBlockType, type);
                 setDirtyChunksNear(worldPos);
                 notifyBlockChanged(worldPos, type, oldBlockType);
             }
@@ -204,49 +203,122 @@ public Map<Vector3ic, Block> setBlocks(Map<? extends Vector3ic, Block> blocks) {
          * Hint: This method has a benchmark available in the BenchmarkScreen, The screen can be opened ingame via the
          * command "showSCreen BenchmarkScreen".
          */
-        Set<BlockChange> changedBlocks = new HashSet<>();
+        BlockEditBuffer edits = new BlockEditBuffer();
+        for (Map.Entry<? extends Vector3ic, Block> entry : blocks.entrySet()) {
+            edits.add(entry.getKey(), entry.getValue());
+        }
+        setBlocks(edits);
+
         Map<Vector3ic, Block> result = new HashMap<>(blocks.size());
+        int edit = 0;
+        for (Vector3ic worldPos : blocks.keySet()) {
+            result.put(worldPos, edits.getPreviousBlock(edit++));
+        }
+        return result;
+    }
 
-        Vector3i chunkPos = new Vector3i();
-        Vector3i relativePos = new Vector3i();
-        for (Map.Entry<? extends Vector3ic, Block> entry : blocks.entrySet()) {
-            Vector3ic worldPos = entry.getKey();
-            Chunks.toChunkPos(worldPos, chunkPos);
-            Chunk chunk = chunkProvider.getChunk(chunkPos);
-
-            if (chunk != null) {
-                Block type = entry.getValue();
-               Chunks.toRelative(worldPos, relativePos);
-                Block oldBlockType = chunk.setBlock(relativePos, type);
-                if (oldBlockType != type) {
-                    BlockChange oldChange = blockChanges.get(worldPos);
-                    if (oldChange == null) {
-                        blockChanges.put(new Vector3i(worldPos), new BlockChange(worldPos, oldBlockType, type));
-                    } else {
-                        oldChange.setTo(type);
-                    }
-                    setDirtyChunksNear(worldPos);
-                    changedBlocks.add(new BlockChange(worldPos, oldBlockType, type));
-                }
-                result.put(worldPos, oldBlockType);
-            } else {
-                result.put(worldPos, null);
+    @Override
+    public int setBlocks(BlockEditBuffer edits) {
+        TLongObjectMap<TIntList> editsByChunk = new TLongObjectHashMap<>();
+        for (int edit = 0; edit < edits.size(); edit++) {
+            int chunkX = Chunks.toChunkPosX(edits.getX(edit));
+            int chunkY = Chunks.toChunkPosY(edits.getY(edit));
+            int chunkZ = Chunks.toChunkPosZ(edits.getZ(edit));
+            if (!ChunkIndex.isPackable(chunkX, chunkY, chunkZ)) {
+                // no chunk can be loaded there, and its key would group the edit with another chunk
+                edits.setPreviousBlock(edit, null);
+                continue;
+            }
+            long chunkKey = ChunkIndex.key(chunkX, chunkY, chunkZ);
+            TIntList chunkEdits = editsByChunk.get(chunkKey);
+            if (chunkEdits == null) {
+                chunkEdits = new TIntArrayList();
+                editsByChunk.put(chunkKey, chunkEdits);
             }
+            chunkEdits.add(edit);
         }
 
-        for (BlockChange change : changedBlocks) {
-            notifyBlockChanged(change.getPosition(), change.getTo(), change.getFrom());
+        int changed = 0;
+        for (TIntList chunkEdits : editsByChunk.valueCollection()) {
+            changed += setChunkBlocks(edits, chunkEdits);
         }
+        return changed;
+    }
 
-        return result;
+    /**
+     * Applies the edits of a single chunk, marking the affected chunks dirty and notifying the listeners once.
+     *
+     * @return the number of changed blocks
+     */
+    private int setChunkBlocks(BlockEditBuffer edits, TIntList chunkEdits) {
+        int first = chunkEdits.get(0);
+        Vector3i chunkPos = Chunks.toChunkPos(edits.getX(first), edits.getY(first), edits.getZ(first), new Vector3i());
+        Chunk chunk = chunkProvider.getChunk(chunkPos);
+        if (chunk == null) {
+            for (int i = 0; i < chunkEdits.size(); i++) {
+                edits.setPreviousBlock(chunkEdits.get(i), null);
+            }
+            return 0;
+        }
+
+        TIntList changedEdits = new TIntArrayList();
+        Vector3i worldPos = new Vector3i();
+        Vector3i changedMin = new Vector3i(Integer.MAX_VALUE);
+        Vector3i changedMax = new Vector3i(Integer.MIN_VALUE);
+        for (int i = 0; i < chunkEdits.size(); i++) {
+            int edit = chunkEdits.get(i);
+            edits.getPosition(edit, worldPos);
+            Block type = edits.getBlock(edit);
+            Block oldBlockType = chunk.setBlock(Chunks.toRelativeX(worldPos.x), Chunks.toRelativeY(worldPos.y),
+                    Chunks.toRelativeZ(worldPos.z), type);
+            edits.setPreviousBlock(edit, oldBlockType);
+            if (oldBlockType != type) {
+                recordBlockChange(worldPos, oldBlockType, type);
+                changedMin.min(worldPos);
+                changedMax.max(worldPos);
+                changedEdits.add(edit);
+            }
+        }
+
+        if (!changedEdits.isEmpty()) {
+            setDirtyChunksNear(changedMin, changedMax);
+            synchronized (listeners) {
+                for (WorldChangeListener listener : listeners) {
+                    listener.onBlocksChanged(chunkPos, edits, changedEdits);
+                }
+            }
+        }
+        return changedEdits.size();
+    }
+
+    private void recordBlockChange(Vector3ic worldPos, Block oldBlockType, Block type) {
+        BlockChange oldChange = blockChanges.get(worldPos);
+        if (oldChange == null) {
+            blockChanges.put(new Vector3i(worldPos), new BlockChange(worldPos, oldBlockType, type));
+        } else {
+            oldChange.setTo(type);
+        }
     }
 
     private void setDirtyChunksNear(Vector3ic worldPos) {
-        BlockRegion tmpRegion = new BlockRegion(worldPos).expand(1, 1, 1);
-        for (Vector3ic pos : Chunks.toChunkRegion(tmpRegion, tmpRegion)) {
-            Chunk dirtiedChunk = chunkProvider.getChunk(pos);
-            if (dirtiedChunk != null) {
-                dirtiedChunk.setDirty(true);
+        setDirtyChunksNear(worldPos, worldPos);
+    }
+
+    /**
+     * Marks all chunks dirty which contain a block within the given block bounds or adjacent to them.
+     */
+    private void setDirtyChunksNear(Vector3ic min, Vector3ic max) {
+        int maxX = Chunks.toChunkPosX(max.x() + 1);
+        int maxY = Chunks.toChunkPosY(max.y() + 1);
+        int maxZ = Chunks.toChunkPosZ(max.z() + 1);
+        for (int x = Chunks.toChunkPosX(min.x() - 1); x <= maxX; x++) {
+            for (int y = Chunks.toChunkPosY(min.y() - 1); y <= maxY; y++) {
+                for (int z = Chunks.toChunkPosZ(min.z() - 1); z <= maxZ; z++) {
+                    Chunk dirtiedChunk = chunkProvider.getChunk(x, y, z);
+                    if (dirtiedChunk != null) {
+                        dirtiedChunk.setDirty(true);
+                    }
+                }
             }
         }
     }
@@ -270,9 +342,16 @@ private void notifyExtraDataChanged(int index, Vector3ic pos, int newData, int o
         }
     }
 
+    /**
+     * @return the ready chunk containing the given block position, or null if there is none
+     */
+    private Chunk getChunkAt(int x, int y, int z) {
+        return chunkProvider.getChunk(Chunks.toChunkPosX(x), Chunks.toChunkPosY(y), Chunks.toChunkPosZ(z));
+    }
+
     @Override
     public Block getBlock(int x, int y, int z) {
-        Chunk chunk = chunkProvider.getChunk(Chunks.toChunkPos(x, y, z, new Vector3i()));
+        Chunk chunk = getChunkAt(x, y, z);
         if (chunk != null) {
             return chunk.getBlock(Chunks.toRelativeX(x), Chunks.toRelativeY(y), Chunks.toRelativeZ(z));
         }
@@ -281,42 +360,39 @@ public Block getBlock(int x, int y, int z) {
 
     @Override
     public byte getLight(int x, int y, int z) {
-        Vector3i chunkPos = Chunks.toChunkPos(x, y, z, new Vector3i());
-        Chunk chunk = chunkProvider.getChunk(chunkPos);
+        Chunk chunk = getChunkAt(x, y, z);
         if (chunk != null) {
-            Vector3i blockPos = Chunks.toRelative(x, y, z, new Vector3i());
-            return chunk.getLight(blockPos);
+            return chunk.getLight(Chunks.toRelativeX(x), Chunks.toRelativeY(y), Chunks.toRelativeZ(z));
         }
         return 0;
     }
 
     @Override
     public byte getSunlight(int x, int y, int z) {
-        Vector3i chunkPos = Chunks.toChunkPos(x, y, z, new Vector3i());
-        Chunk chunk = chunkProvider.getChunk(chunkPos);
+        Chunk chunk = getChunkAt(x, y, z);
         if (chunk != null) {
-            Vector3i blockPos = Chunks.toRelative(x, y, z, new Vector3i());
-            return chunk.getSunlight(blockPos);
+            return chunk.getSunlight(Chunks.toRelativeX(x), Chunks.toRelativeY(y), Chunks.toRelativeZ(z));
         }
         return 0;
     }
 
     @Override
     public byte getTotalLight(int x, int y, int z) {
-        Vector3i chunkPos = Chunks.toChunkPos(x, y, z, new Vector3i());
-        Chunk chunk = chunkProvider.getChunk(chunkPos);
+        Chunk chunk = getChunkAt(x, y, z);
         if (chunk != null) {
-            Vector3i blockPos = Chunks.toRelative(x, y, z, new Vector3i());
-            return (byte) Math.max(chunk.getSunlight(blockPos), chunk.getLight(blockPos));
+            int relX = Chunks.toRelativeX(x);
+            int relY = Chunks.toRelativeY(y);
+            int relZ = Chunks.toRelativeZ(z);
+            return (byte) Math.max(chunk.getSunlight(relX, relY, relZ), chunk.getLight(relX, relY, relZ));
         }
         return 0;
     }
 
     @Override
     public int getExtraData(int index, int x, int y, int z) {
-        Chunk chunk = chunkProvider.getChunk(Chunks.toChunkPos(x, y, z, new Vector3i()));
+        Chunk chunk = getChunkAt(x, y, z);
         if (chunk != null) {
-            return chunk.getExtraData(index, Chunks.toRelative(x, y, z, new Vector3i()));
+            return chunk.getExtraData(index, Chunks.toRelativeX(x), Chunks.toRelativeY(y), Chunks.toRelativeZ(z));
         }
         return 0;
     }
@@ -0,0 +1,167 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.propagation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sets of block positions to propagate, one per propagation level and partitioned by chunk.
+ * <p>
+ * Positions are stored as indices relative to their chunk, so queueing a position neither boxes it nor allocates a
+ * hash entry. The queues of a single chunk can be worked on by another thread, as long as no other thread accesses
+ * that chunk's queues at the same time.
+ */
+final class PositionQueues {
+    private final int levels;
+    private final Map<Vector3ic, ChunkQueues> chunks = Maps.newLinkedHashMap();
+
+    PositionQueues(int levels) {
+        this.levels = levels;
+    }
+
+    void add(int level, Vector3ic worldPos) {
+        Vector3i chunkPos = Chunks.toChunkPos(worldPos, new Vector3i());
+        ChunkQueues chunk = chunks.get(chunkPos);
+        if (chunk == null) {
+            chunk = new ChunkQueues(chunkPos, levels);
+            chunks.put(chunkPos, chunk);
+        }
+        chunk.add(level, ChunkQueues.index(worldPos));
+    }
+
+    void remove(int level, Vector3ic worldPos) {
+        ChunkQueues chunk = chunks.get(Chunks.toChunkPos(worldPos, new Vector3i()));
+        if (chunk != null) {
+            chunk.remove(level, ChunkQueues.index(worldPos));
+        }
+    }
+
+    boolean isEmpty(int level) {
+        for (ChunkQueues chunk : chunks.values()) {
+            if (!chunk.isEmpty(level)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the queues of all chunks with queued positions. The list is a copy, so positions can be queued for
+     *         new chunks while iterating it.
+     */
+    List<ChunkQueues> getNonEmptyChunks() {
+        List<ChunkQueues> result = Lists.newArrayListWithCapacity(chunks.size());
+        for (ChunkQueues chunk : chunks.values()) {
+            if (chunk.size() > 0) {
+                result.add(chunk);
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        chunks.clear();
+    }
+
+    /**
+     * The queues of all levels for the positions in one chunk.
+     */
+    static final class ChunkQueues {
+        private final Vector3ic chunkPos;
+        private final Vector3ic chunkOrigin;
+        private final TIntList[] entries;
+        /* Positions which are currently part of the queue of a level. Entries whose position got removed are skipped. */
+        private final BitSet[] queued;
+        private int size;
+
+        private ChunkQueues(Vector3ic chunkPos, int levels) {
+            this.chunkPos = chunkPos;
+            this.chunkOrigin = new Vector3i(chunkPos.x() * Chunks.SIZE_X, chunkPos.y() * Chunks.SIZE_Y,
+                    chunkPos.z() * Chunks.SIZE_Z);
+            this.entries = new TIntList[levels];
+            this.queued = new BitSet[levels];
+        }
+
+        static int index(Vector3ic worldPos) {
+            return Chunks.toRelativeX(worldPos.x())
+                    + Chunks.SIZE_X * (Chunks.toRelativeZ(worldPos.z()) + Chunks.SIZE_Z * Chunks.toRelativeY(worldPos.y()));
+        }
+
+        Vector3ic getChunkPos() {
+            return chunkPos;
+        }
+
+        boolean contains(Vector3ic worldPos) {
+            return Chunks.toChunkPosX(worldPos.x()) == chunkPos.x()
+                    && Chunks.toChunkPosY(worldPos.y()) == chunkPos.y()
+                    && Chunks.toChunkPosZ(worldPos.z()) == chunkPos.z();
+        }
+
+        Vector3i toWorldPos(int index, Vector3i dest) {
+            int x = index % Chunks.SIZE_X;
+            int z = (index / Chunks.SIZE_X) % Chunks.SIZE_Z;
+            int y = index / (Chunks.SIZE_X * Chunks.SIZE_Z);
+            return dest.set(chunkOrigin).add(x, y, z);
+        }
+
+        void add(int level, int index) {
+            if (queued[level] == null) {
+                queued[level] = new BitSet();
+                entries[level] = new TIntArrayList();
+            }
+            if (!queued[level].get(index)) {
+                queued[level].set(index);
+                entries[level].add(index);
+                size++;
+            }
+        }
+
+        void remove(int level, int index) {
+            if (queued[level] != null && queued[level].get(index)) {
+                queued[level].clear(index);
+                size--;
+            }
+        }
+
+        boolean isEmpty(int level) {
+            return queued[level] == null || queued[level].isEmpty();
+        }
+
+        /**
+         * @return the number of positions queued over all levels
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Empties the queue of a level.
+         *
+         * @return the positions which were queued, in the order they got queued
+         */
+        TIntList take(int level) {
+            TIntList taken = new TIntArrayList(entries[level].size());
+            BitSet levelQueued = queued[level];
+            entries[level].forEach(index -> {
+                if (levelQueued.get(index)) {
+                    levelQueued.clear(index);
+                    taken.add(index);
+                }
+                return true;
+            });
+            entries[level].clear();
+            size -= taken.size();
+            return taken;
+        }
+    }
+}
@@ -27,4 +27,12 @@ public interface PropagatorWorldView {
      */
     Block getBlockAt(Vector3ic pos);
 
+    /**
+     * @return whether values of different chunks can be read and written concurrently, as long as every chunk is
+     *         only accessed by a single thread at a time
+     */
+    default boolean isConcurrentPerChunk() {
+        return false;
+    }
+
 }
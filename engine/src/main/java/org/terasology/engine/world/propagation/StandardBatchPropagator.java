@@ -3,7 +3,8 @@
 package org.terasology.engine.world.propagation;
 
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.math.Side;
@@ -13,25 +14,46 @@
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.Chunks;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Function;
 
 /**
  * Batch propagator that works on a set of changed blocks Works for a single given propagation ruleset
+ * <p>
+ * If the world view supports concurrent access to different chunks, increases spanning several chunks are propagated
+ * in rounds: each chunk propagates within itself on a thread of a pool shared by all propagators, and values crossing
+ * into other chunks are applied between the rounds.
  */
 public class StandardBatchPropagator implements BatchPropagator {
 
     private static final byte NO_VALUE = 0;
+    private static final Side[] SIDES = Side.values();
+    /* Minimum number of queued positions for propagating the chunks in parallel */
+    private static final int MIN_PARALLEL_POSITIONS = 256;
+    /* Frontier records hold the position, the propagated value and the side it was propagated through */
+    private static final int FRONTIER_RECORD_SIZE = 5;
+    /* Kept apart from the common pool, so propagation neither waits for nor stalls other parallel work */
+    private static final ForkJoinPool PROPAGATION_POOL = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Light-Propagation-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
 
     private PropagationRules rules;
     private PropagatorWorldView world;
     private int scale;
 
     /* Queues are stored in reverse order. Ie, strongest light is 0. */
-    private Set<Vector3ic>[] reduceQueues;
-    private Set<Vector3ic>[] increaseQueues;
+    private PositionQueues reduceQueues;
+    private PositionQueues increaseQueues;
 
     private Map<Side, Vector3ic> chunkEdgeDeltas = Maps.newEnumMap(Side.class);
 
@@ -64,13 +86,8 @@ public StandardBatchPropagator(PropagationRules rules, PropagatorWorldView world
             chunkEdgeDeltas.put(side, delta);
         }
 
-        increaseQueues = new Set[rules.getMaxValue()];
-        reduceQueues = new Set[rules.getMaxValue()];
-        for (int i = 0; i < rules.getMaxValue(); ++i) {
-            increaseQueues[i] = Sets.newLinkedHashSet();
-            reduceQueues[i] = Sets.newLinkedHashSet();
-        }
-
+        increaseQueues = new PositionQueues(rules.getMaxValue());
+        reduceQueues = new PositionQueues(rules.getMaxValue());
     }
 
     @Override
@@ -85,7 +102,11 @@ public void process(Iterable<BlockChange> blockChanges) {
         }
 
         processReduction();
-        processIncrease();
+        if (world.isConcurrentPerChunk()) {
+            processIncreaseInParallel();
+        } else {
+            processIncrease();
+        }
         cleanUp();
     }
 
@@ -112,7 +133,7 @@ private void reviewChange(BlockChange blockChange) {
 
         /* Process propagation out to other blocks */
         Vector3i adjPos = new Vector3i();
-        for (Side side : Side.values()) {
+        for (Side side : SIDES) {
             PropagationComparison comparison = rules.comparePropagation(blockChange.getTo(), blockChange.getFrom(),
                     side);
 
@@ -148,7 +169,7 @@ private void reviewChange(BlockChange blockChange) {
      * @param oldValue The value present before reset
      */
     private void purge(Vector3ic pos, byte oldValue) {
-        increaseQueues[rules.getMaxValue() - oldValue].remove(pos);
+        increaseQueues.remove(rules.getMaxValue() - oldValue, pos);
 
         /* Clear the value and re-propagate it if it's a positive value */
         Block block = world.getBlockAt(pos);
@@ -160,7 +181,7 @@ private void purge(Vector3ic pos, byte oldValue) {
         }
 
         Vector3i adjPos = new Vector3i();
-        for (Side side : Side.values()) {
+        for (Side side : SIDES) {
             /* Handle this value being reset to the default by updating sides as needed */
             byte expectedValue = rules.propagateValue(oldValue, side, block, scale);
             if (rules.canSpreadOutOf(block, side)) {
@@ -185,13 +206,17 @@ private void processReduction() {
         for (int depth = 0; depth < rules.getMaxValue(); depth++) {
             byte oldValue = (byte) (rules.getMaxValue() - depth);
 
-            while (!reduceQueues[depth].isEmpty()) {
-                Set<Vector3ic> toProcess = reduceQueues[depth];
-                reduceQueues[depth] = Sets.newLinkedHashSetWithExpectedSize(toProcess.size());
-
+            Vector3i pos = new Vector3i();
+            while (!reduceQueues.isEmpty(depth)) {
                 /* This step will add any new reductions to to the `reduceQueues` set */
-                for (Vector3ic pos : toProcess) {
-                    purge(pos, oldValue);
+                for (PositionQueues.ChunkQueues chunk : reduceQueues.getNonEmptyChunks()) {
+                    if (chunk.isEmpty(depth)) {
+                        continue;
+                    }
+                    TIntList toProcess = chunk.take(depth);
+                    for (int i = 0; i < toProcess.size(); i++) {
+                        purge(chunk.toWorldPos(toProcess.get(i), pos), oldValue);
+                    }
                 }
             }
         }
@@ -204,17 +229,127 @@ private void processIncrease() {
         for (int depth = 0; depth < rules.getMaxValue() - 1; depth++) {
             byte value = (byte) (rules.getMaxValue() - depth);
 
-            while (!increaseQueues[depth].isEmpty()) {
-                Set<Vector3ic> toProcess = increaseQueues[depth];
-                increaseQueues[depth] = Sets.newLinkedHashSetWithExpectedSize(toProcess.size());
-
+            Vector3i pos = new Vector3i();
+            while (!increaseQueues.isEmpty(depth)) {
                 /* This step will add any new values to `increaseQueues` */
-                for (Vector3ic pos : toProcess) {
-                    push(pos, value);
+                for (PositionQueues.ChunkQueues chunk : increaseQueues.getNonEmptyChunks()) {
+                    if (chunk.isEmpty(depth)) {
+                        continue;
+                    }
+                    TIntList toProcess = chunk.take(depth);
+                    for (int i = 0; i < toProcess.size(); i++) {
+                        push(chunk.toWorldPos(toProcess.get(i), pos), value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Process all increasing propagation requests, propagating within each chunk in parallel.
+     * <p>
+     * As values only ever increase to the strongest propagated value, the result does not depend on the order in
+     * which chunks get processed.
+     */
+    private void processIncreaseInParallel() {
+        while (true) {
+            List<PositionQueues.ChunkQueues> chunks = increaseQueues.getNonEmptyChunks();
+            int queued = chunks.stream().mapToInt(PositionQueues.ChunkQueues::size).sum();
+            if (chunks.size() < 2 || queued < MIN_PARALLEL_POSITIONS) {
+                processIncrease();
+                return;
+            }
+            List<ForkJoinTask<TIntList>> tasks = new ArrayList<>(chunks.size());
+            for (PositionQueues.ChunkQueues chunk : chunks) {
+                tasks.add(PROPAGATION_POOL.submit(() -> pushWithinChunk(chunk)));
+            }
+            List<TIntList> frontiers = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<TIntList> task : tasks) {
+                frontiers.add(task.join());
+            }
+            for (TIntList frontier : frontiers) {
+                applyFrontier(frontier);
+            }
+        }
+    }
+
+    /**
+     * Processes the queued increases of a chunk until there are none left. Values propagating into other chunks are
+     * not applied, but returned.
+     *
+     * @return records of {@link #FRONTIER_RECORD_SIZE} ints for the values propagating out of the chunk
+     */
+    private TIntList pushWithinChunk(PositionQueues.ChunkQueues chunk) {
+        TIntList frontier = new TIntArrayList();
+        Vector3i pos = new Vector3i();
+        Vector3i adjPos = new Vector3i();
+        for (int depth = 0; depth < rules.getMaxValue() - 1; depth++) {
+            byte value = (byte) (rules.getMaxValue() - depth);
+            while (!chunk.isEmpty(depth)) {
+                TIntList toProcess = chunk.take(depth);
+                for (int i = 0; i < toProcess.size(); i++) {
+                    chunk.toWorldPos(toProcess.get(i), pos);
+                    pushWithinChunk(chunk, pos, value, adjPos, frontier);
+                }
+            }
+        }
+        return frontier;
+    }
+
+    /**
+     * Like {@link #push(Vector3ic, byte)}, but only touches values within the given chunk.
+     */
+    private void pushWithinChunk(PositionQueues.ChunkQueues chunk, Vector3ic pos, byte value, Vector3i adjPos,
+                                 TIntList frontier) {
+        Block block = world.getBlockAt(pos);
+        for (Side side : SIDES) {
+            byte propagatedValue = rules.propagateValue(value, side, block, scale);
+
+            if (rules.canSpreadOutOf(block, side)) {
+                side.getAdjacentPos(pos, adjPos);
+                if (!chunk.contains(adjPos)) {
+                    frontier.add(adjPos.x);
+                    frontier.add(adjPos.y);
+                    frontier.add(adjPos.z);
+                    frontier.add(propagatedValue);
+                    frontier.add(side.ordinal());
+                    continue;
+                }
+                byte adjValue = world.getValueAt(adjPos);
+
+                if (adjValue < propagatedValue && adjValue != PropagatorWorldView.UNAVAILABLE) {
+                    Block adjBlock = world.getBlockAt(adjPos);
+
+                    if (rules.canSpreadInto(adjBlock, side.reverse())) {
+                        world.setValueAt(adjPos, propagatedValue);
+                        if (propagatedValue > 1) {
+                            chunk.add(rules.getMaxValue() - propagatedValue, PositionQueues.ChunkQueues.index(adjPos));
+                        }
+                    }
                 }
             }
         }
+    }
+
+    /**
+     * Applies values which propagated across chunk borders, queueing them for propagating further.
+     */
+    private void applyFrontier(TIntList frontier) {
+        Vector3i adjPos = new Vector3i();
+        for (int i = 0; i < frontier.size(); i += FRONTIER_RECORD_SIZE) {
+            adjPos.set(frontier.get(i), frontier.get(i + 1), frontier.get(i + 2));
+            byte propagatedValue = (byte) frontier.get(i + 3);
+            Side side = SIDES[frontier.get(i + 4)];
+            byte adjValue = world.getValueAt(adjPos);
 
+            if (adjValue < propagatedValue && adjValue != PropagatorWorldView.UNAVAILABLE) {
+                Block adjBlock = world.getBlockAt(adjPos);
+
+                if (rules.canSpreadInto(adjBlock, side.reverse())) {
+                    increase(adjPos, propagatedValue);
+                }
+            }
+        }
     }
 
     /**
@@ -229,7 +364,7 @@ private void processIncrease() {
     private void push(Vector3ic pos, byte value) {
         Block block = world.getBlockAt(pos);
         Vector3i adjPos = new Vector3i();
-        for (Side side : Side.values()) {
+        for (Side side : SIDES) {
             byte propagatedValue = rules.propagateValue(value, side, block, scale);
 
             if (rules.canSpreadOutOf(block, side)) {
@@ -268,7 +403,7 @@ private void increase(Vector3ic position, byte value) {
      */
     private void reduce(Vector3ic position, byte oldValue) {
         if (oldValue > 0) {
-            reduceQueues[rules.getMaxValue() - oldValue].add(new Vector3i(position));
+            reduceQueues.add(rules.getMaxValue() - oldValue, position);
         }
     }
 
@@ -280,7 +415,7 @@ private void reduce(Vector3ic position, byte oldValue) {
      */
     private void queueSpreadValue(Vector3ic position, byte value) {
         if (value > 1) {
-            increaseQueues[rules.getMaxValue() - value].add(new Vector3i(position));
+            increaseQueues.add(rules.getMaxValue() - value, position);
         }
     }
 
@@ -288,9 +423,7 @@ private void queueSpreadValue(Vector3ic position, byte value) {
      * Clears all the queues and cleans up the object
      */
     private void cleanUp() {
-        for (Set<Vector3ic> queue : increaseQueues) {
-            queue.clear();
-        }
+        increaseQueues.clear();
     }
 
     @Override
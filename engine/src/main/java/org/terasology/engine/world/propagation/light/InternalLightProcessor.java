@@ -30,11 +30,65 @@ public static void generateInternalLighting(Chunk chunk) {
     }
 
     public static void generateInternalLighting(Chunk chunk, int scale) {
+        Block uniformBlock = chunk.getUniformBlock();
+        if (uniformBlock != null && populateUniform(chunk, uniformBlock, scale)) {
+            return;
+        }
         populateSunlightRegen(chunk, scale);
         populateSunlight(chunk, scale);
         populateLight(chunk, scale);
     }
 
+    /**
+     * Lights a chunk consisting of a single block without propagating. All positions in a layer of such a chunk end up
+     * with the same values, and propagating them would not raise any of them, so the result is the same as from the
+     * propagators.
+     *
+     * @param chunk The chunk to populate through
+     * @param block The block the chunk consists of
+     * @return false if the sunlight regeneration at the top of the chunk varies, in which case nothing was changed
+     */
+    private static boolean populateUniform(Chunk chunk, Block block, int scale) {
+        int top = Chunks.SIZE_Y - 1;
+        byte topRegen = chunk.getSunlightRegen(0, top, 0);
+        for (int x = 0; x < Chunks.SIZE_X; x++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                if (chunk.getSunlightRegen(x, top, z) != topRegen) {
+                    return false;
+                }
+            }
+        }
+        boolean regenSpreads = SUNLIGHT_REGEN_RULES.canSpreadOutOf(block, Side.BOTTOM)
+                && SUNLIGHT_REGEN_RULES.canSpreadInto(block, Side.TOP);
+        if (!regenSpreads && topRegen > Chunks.SUNLIGHT_REGEN_THRESHOLD) {
+            /* The sunlight of the top layer would still spread down into the chunk */
+            return false;
+        }
+
+        byte luminance = block.getLuminance();
+        byte regen = topRegen;
+        for (int y = top; y >= 0; y--) {
+            if (y < top) {
+                regen = regenSpreads ? SUNLIGHT_REGEN_RULES.propagateValue(regen, Side.BOTTOM, block, scale) : 0;
+            }
+            byte sunlight = (byte) Math.max(regen - Chunks.SUNLIGHT_REGEN_THRESHOLD, 0);
+            for (int x = 0; x < Chunks.SIZE_X; x++) {
+                for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                    if (y < top && regenSpreads) {
+                        chunk.setSunlightRegen(x, y, z, regen);
+                    }
+                    if (sunlight > 0) {
+                        chunk.setSunlight(x, y, z, sunlight);
+                    }
+                    if (luminance > 0) {
+                        chunk.setLight(x, y, z, luminance);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Propagate out light from the initial luminous blocks
      *
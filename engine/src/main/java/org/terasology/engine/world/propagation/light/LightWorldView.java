@@ -26,4 +26,12 @@ protected byte getValueAt(Chunk chunk, Vector3ic pos) {
     protected void setValueAt(Chunk chunk, Vector3ic pos, byte value) {
         chunk.setLight(pos, value);
     }
+
+    /**
+     * The light values are stored in the chunks, and the chunk provider can be queried concurrently.
+     */
+    @Override
+    public boolean isConcurrentPerChunk() {
+        return true;
+    }
 }
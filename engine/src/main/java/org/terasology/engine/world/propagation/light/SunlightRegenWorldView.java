@@ -27,4 +27,12 @@ protected byte getValueAt(Chunk chunk, Vector3ic pos) {
     protected void setValueAt(Chunk chunk, Vector3ic pos, byte value) {
         chunk.setSunlightRegen(pos, value);
     }
+
+    /**
+     * The sunlight regen values are stored in the chunks, and the chunk provider can be queried concurrently.
+     */
+    @Override
+    public boolean isConcurrentPerChunk() {
+        return true;
+    }
 }
@@ -28,4 +28,12 @@ protected void setValueAt(Chunk chunk, Vector3ic pos, byte value) {
         chunk.setSunlight(pos, value);
     }
 
+    /**
+     * The sunlight values are stored in the chunks, and the chunk provider can be queried concurrently.
+     */
+    @Override
+    public boolean isConcurrentPerChunk() {
+        return true;
+    }
+
 }